@@ -0,0 +1,47 @@
+#!/usr/bin/env bash
+# Benchmark de inicialização: compara o jar padrão com o jar AOT e com AOT + AppCDS.
+#
+# Mede o tempo total do processo (JVM + contexto Spring) até o fim do refresh do contexto
+# (-Dspring.context.exit=onRefresh), usando o banco H2 em memória para não depender de rede.
+#
+# Uso: ./mvnw -B package -DskipTests -Pfast-startup && scripts/startup-benchmark.sh [execuções]
+set -euo pipefail
+
+RUNS="${1:-5}"
+JAR="target/safepix-0.0.1-SNAPSHOT.jar"
+WORK="target/startup-benchmark"
+
+if [ ! -f "$JAR" ]; then
+    echo "Jar não encontrado. Rode antes: ./mvnw -B package -DskipTests -Pfast-startup" >&2
+    exit 1
+fi
+
+rm -rf "$WORK"
+java -Djarmode=tools -jar "$JAR" extract --destination "$WORK/app" --application-filename app.jar > /dev/null
+
+# Execução de treino: grava o arquivo AppCDS com as classes carregadas até o refresh do contexto
+(cd "$WORK/app" && java -XX:ArchiveClassesAtExit=app.jsa -Dspring.aot.enabled=true -Dspring.context.exit=onRefresh \
+    -jar app.jar --spring.profiles.active=h2,fast-startup > ../training.log 2>&1)
+
+measure() {
+    local label="$1"; shift
+    local times=()
+    for _ in $(seq "$RUNS"); do
+        local start end
+        start=$(date +%s%N)
+        (cd "$WORK/app" && java "$@" > /dev/null 2>&1)
+        end=$(date +%s%N)
+        times+=($(( (end - start) / 1000000 )))
+    done
+    local median
+    median=$(printf '%s\n' "${times[@]}" | sort -n | awk '{a[NR]=$1} END {print a[int((NR+1)/2)]}')
+    printf '| %-32s | %8s ms | %s |\n' "$label" "$median" "${times[*]}"
+}
+
+echo "| Modo                             | Mediana     | Execuções (ms) |"
+echo "|----------------------------------|-------------|----------------|"
+measure "Padrão (Flyway + validate)" -Dspring.context.exit=onRefresh -jar app.jar --spring.profiles.active=h2
+measure "AOT (fast-startup)" -Dspring.aot.enabled=true -Dspring.context.exit=onRefresh \
+    -jar app.jar --spring.profiles.active=h2,fast-startup
+measure "AOT + AppCDS (fast-startup)" -XX:SharedArchiveFile=app.jsa -Dspring.aot.enabled=true \
+    -Dspring.context.exit=onRefresh -jar app.jar --spring.profiles.active=h2,fast-startup
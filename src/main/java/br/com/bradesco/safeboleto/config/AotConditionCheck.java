@@ -0,0 +1,62 @@
+package br.com.bradesco.safeboleto.config;
+
+import br.com.bradesco.safeboleto.controllers.ClusterInternalController;
+import br.com.bradesco.safeboleto.controllers.WebhookStandInController;
+import br.com.bradesco.safeboleto.services.outbox.FileOutboxSink;
+import br.com.bradesco.safeboleto.services.outbox.WebhookOutboxSink;
+import org.springframework.aot.AotDetector;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Aviso para o jar AOT ({@code -Pfast-startup}): o processamento AOT avalia as condições
+ * {@code @ConditionalOnProperty} no build, com o perfil {@code fast-startup}, e o conjunto de beans fica congelado.
+ * Ligar ou desligar na subida um dos recursos abaixo não tem efeito nesse jar; para mudá-los é preciso gerar o jar
+ * de novo com a propriedade definida ({@code -Daot.jvmArguments="-Dapp.outbox.webhook.enabled=true"}).
+ *
+ * Fora do modo AOT as condições são avaliadas normalmente e esta verificação não faz nada.
+ */
+@Component
+public class AotConditionCheck {
+
+    // Propriedade -> bean registrado só quando ela é "true"
+    private static final Map<String, Class<?>> CONDITIONAL_BEANS = Map.of(
+            "app.outbox.file.enabled", FileOutboxSink.class,
+            "app.outbox.webhook.enabled", WebhookOutboxSink.class,
+            "app.outbox.webhook.stand-in.enabled", WebhookStandInController.class,
+            "app.cluster.enabled", ClusterInternalController.class
+    );
+
+    private final ApplicationContext context;
+    private final Environment environment;
+
+    public AotConditionCheck(ApplicationContext context, Environment environment) {
+        this.context = context;
+        this.environment = environment;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void check() {
+        if (!AotDetector.useGeneratedArtifacts()) return;
+
+        List<String> divergent = new ArrayList<>();
+        CONDITIONAL_BEANS.forEach((property, type) -> {
+            boolean requested = environment.getProperty(property, Boolean.class, false);
+            boolean present = context.getBeanNamesForType(type).length > 0;
+            if (requested != present) {
+                divergent.add(property + "=" + requested + " (no jar AOT: " + present + ")");
+            }
+        });
+        if (!divergent.isEmpty()) {
+            System.out.println("[INIT] ATENÇÃO: jar AOT gerado com outra configuração; ignorado na subida: "
+                    + String.join(", ", divergent) + ". Gere o jar de novo com essas propriedades.");
+        }
+    }
+}
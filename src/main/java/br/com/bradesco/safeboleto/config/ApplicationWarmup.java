@@ -0,0 +1,236 @@
+package br.com.bradesco.safeboleto.config;
+
+import br.com.bradesco.safeboleto.dto.PixValidationRequest;
+import br.com.bradesco.safeboleto.dto.PixValidationResponse;
+import br.com.bradesco.safeboleto.services.PixService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Aquecimento da aplicação antes de receber tráfego.
+ *
+ * Roda na inicialização ({@link ApplicationReadyEvent}) e, como o Spring Boot só marca a aplicação como pronta
+ * ({@link ReadinessState#ACCEPTING_TRAFFIC}) depois dos listeners desse evento, {@code /readyz},
+ * {@code /actuator/health/readiness} e {@code /} respondem 503 até o fim do aquecimento. {@code /livez} responde
+ * normalmente: a instância está viva, só não deve receber tráfego ainda.
+ *
+ * Etapas: abre e valida todas as conexões do pool Hikari; passa um corpus sintético (todos os tipos de chave,
+ * bancos conhecidos e desconhecidos, valores e nomes que disparam cada regra) pela análise completa em
+ * {@link PixService#dryRun}, sem gravar nada, e pela serialização JSON da requisição e da resposta, em rodadas,
+ * até o p99 de duas rodadas seguidas variar menos que {@code app.warmup.p99-tolerance} ou o tempo passar de
+ * {@code app.warmup.max-duration-ms}. A duração fica na métrica {@code pix.warmup.duration}.
+ */
+@Component
+public class ApplicationWarmup {
+
+    private static final String[] BANK_CODES = {"001", "033", "104", "237", "341", "260", "077", "999", "000", "60746948"};
+    private static final String[] NAMES = {"Maria Silva", "João Souza", "Empresa Teste Ltda", "Ana", "Jo", "Carlos 123456", "Conta Laranja"};
+    // Em centavos: R$ 0,50, 10,00, 150,75, 999,99, 1.500,00 e 25.000,00
+    private static final long[] AMOUNTS = {50, 1_000, 15_075, 99_999, 150_000, 2_500_000};
+
+    private final PixService pixService;
+    private final DataSource dataSource;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.warmup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.warmup.corpus-size:500}")
+    private int corpusSize;
+
+    @Value("${app.warmup.max-duration-ms:30000}")
+    private long maxDurationMs;
+
+    @Value("${app.warmup.min-rounds:3}")
+    private int minRounds;
+
+    @Value("${app.warmup.p99-tolerance:0.2}")
+    private double p99Tolerance;
+
+    private volatile long durationMs;
+    private volatile long calls;
+    private volatile double lastP99Micros;
+
+    public ApplicationWarmup(PixService pixService, DataSource dataSource, ObjectMapper objectMapper,
+                             ApplicationEventPublisher eventPublisher, MeterRegistry registry) {
+        this.pixService = pixService;
+        this.dataSource = dataSource;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+
+        TimeGauge.builder("pix.warmup.duration", this, TimeUnit.MILLISECONDS, w -> w.durationMs)
+                .description("Duração do aquecimento na inicialização").register(registry);
+        Gauge.builder("pix.warmup.calls", this, w -> w.calls)
+                .description("Análises executadas no aquecimento").register(registry);
+        Gauge.builder("pix.warmup.p99", this, w -> w.lastP99Micros).baseUnit("microseconds")
+                .description("p99 da última rodada do aquecimento").register(registry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!enabled) return;
+        AvailabilityChangeEvent.publish(eventPublisher, this, ReadinessState.REFUSING_TRAFFIC);
+        long start = System.nanoTime();
+        try {
+            int connections = openConnections();
+            List<PixValidationRequest> corpus = corpus(corpusSize);
+            long deadline = start + maxDurationMs * 1_000_000;
+
+            double previousP99 = -1;
+            int stableRounds = 0;
+            int rounds = 0;
+            while (System.nanoTime() < deadline) {
+                double p99 = round(corpus);
+                rounds++;
+                lastP99Micros = p99 / 1000.0;
+                if (previousP99 > 0 && Math.abs(p99 - previousP99) <= previousP99 * p99Tolerance) {
+                    stableRounds++;
+                } else {
+                    stableRounds = 0;
+                }
+                previousP99 = p99;
+                if (rounds >= minRounds && stableRounds >= 2) break;
+            }
+
+            durationMs = (System.nanoTime() - start) / 1_000_000;
+            System.out.println("[INIT] Aquecimento concluído em " + durationMs + " ms: " + connections + " conexões abertas, "
+                    + rounds + " rodadas (" + calls + " análises), p99 final " + Math.round(lastP99Micros) + " µs"
+                    + (stableRounds >= 2 ? "." : " (tempo máximo atingido antes de estabilizar)."));
+        } catch (RuntimeException e) {
+            // Aquecimento é otimização: uma falha não pode impedir a aplicação de receber tráfego
+            durationMs = (System.nanoTime() - start) / 1_000_000;
+            System.out.println("[INIT] Aquecimento interrompido após " + durationMs + " ms: " + e.getMessage());
+        }
+    }
+
+    // Abre todas as conexões do pool ao mesmo tempo e as valida, para que a primeira requisição não pague o handshake
+    private int openConnections() {
+        int size = dataSource instanceof HikariDataSource hikari ? hikari.getMaximumPoolSize() : 1;
+        List<Connection> connections = new ArrayList<>(size);
+        try {
+            for (int i = 0; i < size; i++) {
+                Connection connection = dataSource.getConnection();
+                connections.add(connection);
+                connection.isValid(2);
+            }
+        } catch (SQLException e) {
+            System.out.println("[INIT] Aquecimento: não foi possível abrir todas as conexões: " + e.getMessage());
+        } finally {
+            for (Connection connection : connections) {
+                try {
+                    connection.close();
+                } catch (SQLException ignored) {
+                    // Conexão devolvida ao pool; nada a fazer
+                }
+            }
+        }
+        return connections.size();
+    }
+
+    // Uma passada pelo corpus; retorna o p99 em nanossegundos
+    private double round(List<PixValidationRequest> corpus) {
+        long[] latencies = new long[corpus.size()];
+        for (int i = 0; i < corpus.size(); i++) {
+            PixValidationRequest request = corpus.get(i);
+            long begin = System.nanoTime();
+            try {
+                PixValidationRequest parsed = objectMapper.readValue(objectMapper.writeValueAsBytes(request),
+                        PixValidationRequest.class);
+                PixValidationResponse response = pixService.dryRun(parsed.getPixKey(), parsed.getRecipientName(),
+                        parsed.getRecipientDocument(), parsed.getAmount(), parsed.getBankCode());
+                objectMapper.writeValueAsBytes(response);
+            } catch (IOException e) {
+                throw new IllegalStateException("Falha na serialização do corpus de aquecimento", e);
+            }
+            latencies[i] = System.nanoTime() - begin;
+        }
+        calls += corpus.size();
+        Arrays.sort(latencies);
+        return latencies[Math.min(latencies.length - 1, (int) Math.ceil(latencies.length * 0.99) - 1)];
+    }
+
+    // Corpus determinístico cobrindo os tipos de chave e as regras de risco
+    private static List<PixValidationRequest> corpus(int size) {
+        Random random = new Random(42);
+        List<PixValidationRequest> corpus = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            String document = cpf(random);
+            String key = switch (i % 6) {
+                case 0 -> document;
+                case 1 -> {
+                    document = cnpj(random);
+                    yield document;
+                }
+                case 2 -> "cliente" + random.nextInt(100_000) + "@exemplo.com.br";
+                case 3 -> "+55119" + String.format("%08d", random.nextInt(100_000_000));
+                case 4 -> UUID.nameUUIDFromBytes(("evp" + i).getBytes()).toString();
+                default -> i % 12 == 5 ? cpf(random) : "chave-invalida-" + i;
+            };
+            PixValidationRequest request = new PixValidationRequest();
+            request.setPixKey(key);
+            request.setRecipientDocument(document);
+            request.setRecipientName(NAMES[random.nextInt(NAMES.length)]);
+            request.setAmount(AMOUNTS[random.nextInt(AMOUNTS.length)]);
+            request.setBankCode(BANK_CODES[random.nextInt(BANK_CODES.length)]);
+            corpus.add(request);
+        }
+        return corpus;
+    }
+
+    private static String cpf(Random random) {
+        int[] digits = new int[11];
+        for (int i = 0; i < 9; i++) digits[i] = random.nextInt(10);
+        digits[9] = checkDigit(digits, 9, 10);
+        digits[10] = checkDigit(digits, 10, 11);
+        return join(digits);
+    }
+
+    private static int checkDigit(int[] digits, int length, int firstWeight) {
+        int sum = 0;
+        for (int i = 0; i < length; i++) sum += digits[i] * (firstWeight - i);
+        int digit = 11 - (sum % 11);
+        return digit >= 10 ? 0 : digit;
+    }
+
+    private static String cnpj(Random random) {
+        int[] digits = new int[14];
+        for (int i = 0; i < 12; i++) digits[i] = random.nextInt(10);
+        digits[12] = cnpjDigit(digits, new int[]{5, 4, 3, 2, 9, 8, 7, 6, 5, 4, 3, 2});
+        digits[13] = cnpjDigit(digits, new int[]{6, 5, 4, 3, 2, 9, 8, 7, 6, 5, 4, 3, 2});
+        return join(digits);
+    }
+
+    private static int cnpjDigit(int[] digits, int[] weights) {
+        int sum = 0;
+        for (int i = 0; i < weights.length; i++) sum += digits[i] * weights[i];
+        return sum % 11 < 2 ? 0 : 11 - (sum % 11);
+    }
+
+    private static String join(int[] digits) {
+        StringBuilder builder = new StringBuilder(digits.length);
+        for (int digit : digits) builder.append(digit);
+        return builder.toString();
+    }
+}
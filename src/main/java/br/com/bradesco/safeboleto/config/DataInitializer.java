@@ -1,30 +1,36 @@
 package br.com.bradesco.safeboleto.config;
 
-import br.com.bradesco.safeboleto.model.TrustedBank;
 import br.com.bradesco.safeboleto.model.User;
-import br.com.bradesco.safeboleto.repositories.TrustedBankRepository;
 import br.com.bradesco.safeboleto.repositories.UserRepository;
+import br.com.bradesco.safeboleto.services.ParticipantDirectoryImporter;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.io.Resource;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 
-import java.util.List;
+import java.io.InputStream;
 
 @Component
 public class DataInitializer implements CommandLineRunner {
     
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
-    private final TrustedBankRepository trustedBankRepository;
+    private final ParticipantDirectoryImporter participantImporter;
 
     @Value("${app.admin.initial-password:}") // Pega da variável de ambiente, com um valor padrão vazio
     private String adminInitialPassword;
 
-    public DataInitializer(UserRepository userRepository, PasswordEncoder passwordEncoder, TrustedBankRepository trustedBankRepository) {
+    @Value("${app.participants.file}")
+    private Resource participantsFile;
+
+    @Value("${app.participants.import-on-startup:true}")
+    private boolean importParticipantsOnStartup;
+
+    public DataInitializer(UserRepository userRepository, PasswordEncoder passwordEncoder, ParticipantDirectoryImporter participantImporter) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
-        this.trustedBankRepository = trustedBankRepository;
+        this.participantImporter = participantImporter;
     }
 
     @Override
@@ -38,22 +44,12 @@ public class DataInitializer implements CommandLineRunner {
             userRepository.save(adminUser);
         }
         
-        // Popula a tabela de bancos confiáveis, caso esteja vazia
-        if (trustedBankRepository.count() == 0) {
-            List<TrustedBank> banks = List.of(
-                new TrustedBank("237", "Bradesco"),
-                new TrustedBank("341", "Itaú Unibanco"),
-                new TrustedBank("001", "Banco do Brasil"),
-                new TrustedBank("104", "Caixa Econômica Federal"),
-                new TrustedBank("033", "Santander"),
-                new TrustedBank("260", "Nu Pagamentos (Nubank)"),
-                new TrustedBank("077", "Banco Inter"),
-                new TrustedBank("290", "PagBank"),
-                new TrustedBank("323", "Mercado Pago"),
-                new TrustedBank("380", "PicPay")
-            );
-            trustedBankRepository.saveAll(banks);
-            System.out.println("[INIT] Bancos confiáveis carregados: " + banks.size() + " bancos.");
+        // Sincroniza o diretório de participantes PIX (bancos confiáveis) com o arquivo configurado.
+        // A importação compara com a tabela atual, então reinícios sem mudança no arquivo não gravam nada.
+        if (importParticipantsOnStartup && participantsFile.exists()) {
+            try (InputStream input = participantsFile.getInputStream()) {
+                participantImporter.importFrom(input);
+            }
         }
         
         System.out.println("[INIT] Inicialização completa. Sistema pronto para validar transações PIX!");
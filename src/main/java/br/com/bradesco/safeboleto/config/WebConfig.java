@@ -0,0 +1,32 @@
+package br.com.bradesco.safeboleto.config;
+
+import br.com.bradesco.safeboleto.resilience.AdmissionControlInterceptor;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@RequiredArgsConstructor
+public class WebConfig implements WebMvcConfigurer {
+
+    private final AdmissionControlInterceptor admissionControlInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // Controle de admissão apenas nos endpoints de validação, que dependem do banco
+        registry.addInterceptor(admissionControlInterceptor)
+                .addPathPatterns("/api/pix/valida", "/api/pix/valida/**");
+    }
+
+    // application/cbor com as mesmas configurações do Jackson (spring.jackson.*) usadas no JSON, como datas em
+    // ISO-8601; substitui o conversor CBOR padrão do Spring MVC
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+}
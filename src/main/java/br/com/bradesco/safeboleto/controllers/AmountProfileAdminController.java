@@ -0,0 +1,65 @@
+package br.com.bradesco.safeboleto.controllers;
+
+import br.com.bradesco.safeboleto.dto.AmountProfileMergeResponse;
+import br.com.bradesco.safeboleto.exception.InvalidInputException;
+import br.com.bradesco.safeboleto.services.profile.RecipientAmountProfiles;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+
+@RestController
+@RequestMapping("/api/admin/amount-profiles")
+@RequiredArgsConstructor
+@Tag(name = "Administração", description = "Perfis de valor dos beneficiários usados na regra de valor fora do padrão")
+public class AmountProfileAdminController {
+
+    private final RecipientAmountProfiles amountProfiles;
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(
+        summary = "Exportar perfis de valor",
+        description = "Todos os perfis de valor desta instância no formato binário do snapshot, para juntar em outra " +
+                     "instância com POST /api/admin/amount-profiles/merge.",
+        security = @SecurityRequirement(name = "Bearer Authentication")
+    )
+    public ResponseEntity<StreamingResponseBody> export() {
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"amount-profiles.snap\"")
+                .body(amountProfiles::export);
+    }
+
+    @PostMapping(value = "/merge", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(
+        summary = "Juntar perfis de valor de outra instância",
+        description = "Soma aos perfis em memória os de uma exportação (ou snapshot) de outra instância. As amostras " +
+                     "são somadas: a mesma exportação juntada duas vezes conta em dobro. Arquivo inválido: 400, sem " +
+                     "alterar os perfis.",
+        security = @SecurityRequirement(name = "Bearer Authentication")
+    )
+    public ResponseEntity<AmountProfileMergeResponse> merge(@RequestBody byte[] body) {
+        long start = System.nanoTime();
+        int merged;
+        try {
+            merged = amountProfiles.merge(body);
+        } catch (IOException e) {
+            throw new InvalidInputException("Exportação de perfis de valor inválida: " + e.getMessage(), e);
+        }
+        return ResponseEntity.ok(new AmountProfileMergeResponse(merged, amountProfiles.size(),
+                (System.nanoTime() - start) / 1_000_000));
+    }
+}
@@ -0,0 +1,57 @@
+package br.com.bradesco.safeboleto.controllers;
+
+import br.com.bradesco.safeboleto.exception.InvalidInputException;
+import br.com.bradesco.safeboleto.services.cluster.ClusterProtocol;
+import br.com.bradesco.safeboleto.services.cluster.KeyAffinityRouter;
+import io.swagger.v3.oas.annotations.Hidden;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Endpoint entre instâncias do modo cluster: recebe de outra instância um lote de consultas e rejeições das
+ * chaves que pertencem a esta ({@link ClusterProtocol}). Fora do JWT; exige o segredo compartilhado
+ * {@code app.cluster.secret}. Só existe com {@code app.cluster.enabled=true}.
+ */
+@Hidden
+@RestController
+@ConditionalOnProperty(name = "app.cluster.enabled", havingValue = "true")
+public class ClusterInternalController {
+
+    private final KeyAffinityRouter keyAffinity;
+    private final byte[] secret;
+
+    public ClusterInternalController(KeyAffinityRouter keyAffinity, @Value("${app.cluster.secret}") String secret) {
+        this.keyAffinity = keyAffinity;
+        this.secret = secret.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @PostMapping(value = ClusterProtocol.PATH,
+                 consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE,
+                 produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<byte[]> keys(
+            @RequestHeader(value = ClusterProtocol.SECRET_HEADER, required = false) String providedSecret,
+            @RequestBody byte[] body) {
+        // Comparação em tempo constante: o tempo de resposta não revela quantos caracteres do segredo acertaram
+        byte[] provided = providedSecret == null ? new byte[0] : providedSecret.getBytes(StandardCharsets.UTF_8);
+        if (!MessageDigest.isEqual(secret, provided)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        ClusterProtocol.Batch batch;
+        try {
+            batch = ClusterProtocol.decodeBatch(body);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidInputException(e.getMessage(), e);
+        }
+        return ResponseEntity.ok(ClusterProtocol.encodeResults(keyAffinity.handle(batch)));
+    }
+}
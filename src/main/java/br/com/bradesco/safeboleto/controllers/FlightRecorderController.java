@@ -0,0 +1,82 @@
+package br.com.bradesco.safeboleto.controllers;
+
+import br.com.bradesco.safeboleto.dto.JfrRecordingResponse;
+import br.com.bradesco.safeboleto.profiling.FlightRecorderService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.nio.file.Path;
+
+@RestController
+@RequestMapping("/api/admin/jfr")
+@RequiredArgsConstructor
+@Tag(name = "Administração", description = "Gravação JFR sob demanda para investigar latência em produção")
+public class FlightRecorderController {
+
+    private final FlightRecorderService flightRecorder;
+
+    @PostMapping("/start")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(
+        summary = "Iniciar gravação JFR",
+        description = "Inicia uma gravação do Java Flight Recorder com os eventos da JVM (settings=default ou profile) " +
+                     "e os da aplicação (validação com as etapas e a espera pelo banco, verificação do JWT, gravações). " +
+                     "Limitada em tamanho e duração (app.jfr.*); para sozinha ao fim de durationSeconds. Uma por vez: 409 " +
+                     "se já houver outra em andamento.",
+        security = @SecurityRequirement(name = "Bearer Authentication")
+    )
+    public ResponseEntity<JfrRecordingResponse> start(
+            @RequestParam(value = "settings", defaultValue = "default") String settings,
+            @RequestParam(value = "durationSeconds", required = false) Long durationSeconds) {
+        return ResponseEntity.ok(flightRecorder.start(settings, durationSeconds));
+    }
+
+    @PostMapping("/stop")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(
+        summary = "Parar gravação JFR",
+        description = "Para a gravação em andamento e grava o arquivo .jfr, disponível em GET /api/admin/jfr/download.",
+        security = @SecurityRequirement(name = "Bearer Authentication")
+    )
+    public ResponseEntity<JfrRecordingResponse> stop() {
+        return ResponseEntity.ok(flightRecorder.stop());
+    }
+
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(
+        summary = "Estado da gravação JFR",
+        security = @SecurityRequirement(name = "Bearer Authentication")
+    )
+    public ResponseEntity<JfrRecordingResponse> status() {
+        return ResponseEntity.ok(flightRecorder.status());
+    }
+
+    @GetMapping(value = "/download", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(
+        summary = "Baixar gravação JFR",
+        description = "Arquivo .jfr da última gravação (abrir no JDK Mission Control ou com 'jfr print'). Com uma " +
+                     "gravação em andamento, baixa o que já foi coletado sem pará-la.",
+        security = @SecurityRequirement(name = "Bearer Authentication")
+    )
+    public ResponseEntity<Resource> download() {
+        Path file = flightRecorder.download();
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + file.getFileName() + "\"")
+                .body(new FileSystemResource(file));
+    }
+}
@@ -1,5 +1,8 @@
 package br.com.bradesco.safeboleto.controllers;
 
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -11,8 +14,19 @@ import java.util.Map;
 @RequestMapping("/")
 public class HealthCheckController {
 
+    private final ApplicationAvailability availability;
+
+    public HealthCheckController(ApplicationAvailability availability) {
+        this.availability = availability;
+    }
+
     @GetMapping
     public ResponseEntity<Map<String, String>> healthCheck() {
+        // Segue a prontidão da aplicação: enquanto ela aquece (ApplicationWarmup), responde 503 para o
+        // balanceador não enviar tráfego. Liveness e readiness separados em /livez e /readyz.
+        if (availability.getReadinessState() != ReadinessState.ACCEPTING_TRAFFIC) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("status", "OUT_OF_SERVICE"));
+        }
         // Retorna um JSON simples com status "UP" e um código 200 OK.
         return ResponseEntity.ok(Map.of("status", "UP"));
     }
@@ -0,0 +1,63 @@
+package br.com.bradesco.safeboleto.controllers;
+
+import br.com.bradesco.safeboleto.dto.HolderImportResponse;
+import br.com.bradesco.safeboleto.services.holder.HolderRegistry;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("/api/admin/holders")
+@RequiredArgsConstructor
+@Tag(name = "Administração", description = "Cadastro de titulares de documentos usado na regra de nome divergente")
+public class HolderRegistryController {
+
+    private final HolderRegistry holders;
+
+    // Corpo lido em streaming (sem o limite de tamanho de upload multipart): serve para arquivos com dezenas de
+    // milhões de linhas
+    @PostMapping(value = "/import", consumes = {"text/csv", MediaType.TEXT_PLAIN_VALUE, MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(
+        summary = "Importar cadastro de titulares",
+        description = "Substitui o cadastro de titulares pelo enviado no corpo (uma linha 'documento;nome' por titular, " +
+                     "em UTF-8). O corpo é gravado em app.holders.file (arquivo temporário e troca atômica) " +
+                     "e o cadastro passa a ser o lido dele, valendo também após reiniciar. Linhas inválidas são " +
+                     "ignoradas até app.holders.max-invalid-lines; acima disso o cadastro e o arquivo atuais " +
+                     "continuam valendo (400).",
+        security = @SecurityRequirement(name = "Bearer Authentication")
+    )
+    public ResponseEntity<HolderImportResponse> importHolders(InputStream body) throws IOException {
+        long start = System.nanoTime();
+        holders.replaceFile(body);
+        return response(start);
+    }
+
+    @PostMapping("/reload")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(
+        summary = "Recarregar cadastro de titulares",
+        description = "Relê o arquivo configurado em app.holders.file (também relido sozinho quando muda).",
+        security = @SecurityRequirement(name = "Bearer Authentication")
+    )
+    public ResponseEntity<HolderImportResponse> reload() throws IOException {
+        long start = System.nanoTime();
+        holders.reload();
+        return response(start);
+    }
+
+    private ResponseEntity<HolderImportResponse> response(long start) {
+        return ResponseEntity.ok(new HolderImportResponse(holders.size(), holders.skippedLines(), holders.memoryBytes(),
+                (System.nanoTime() - start) / 1_000_000));
+    }
+}
@@ -0,0 +1,69 @@
+package br.com.bradesco.safeboleto.controllers;
+
+import br.com.bradesco.safeboleto.exception.InvalidInputException;
+import br.com.bradesco.safeboleto.services.outbox.OutboxMessage;
+import br.com.bradesco.safeboleto.services.outbox.OutboxPullService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+@RestController
+@RequestMapping("/api/outbox")
+@RequiredArgsConstructor
+@Tag(name = "Eventos de validação", description = "Feed de decisões de validação PIX para sistemas consumidores")
+public class OutboxController {
+
+    private static final Pattern CONSUMER_PATTERN = Pattern.compile("^[A-Za-z0-9._-]{1,64}$");
+
+    private final OutboxPullService pullService;
+
+    @GetMapping("/events")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(
+        summary = "Ler eventos (long-poll)",
+        description = "Retorna os eventos após a posição do consumidor, esperando até 'waitMs' se não houver nenhum. " +
+                     "Passe em 'after' a sequence do último evento processado para confirmá-lo; sem 'after', " +
+                     "a leitura parte da última posição confirmada. Eventos podem se repetir: deduplique por eventId.",
+        security = @SecurityRequirement(name = "Bearer Authentication")
+    )
+    public DeferredResult<List<OutboxMessage>> events(
+            @RequestParam String consumer,
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "100") int limit,
+            @RequestParam(defaultValue = "20000") long waitMs) {
+        return pullService.poll(validConsumer(consumer), after, limit, Math.max(0, Math.min(waitMs, 60_000)));
+    }
+
+    @GetMapping(value = "/events/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(
+        summary = "Stream de eventos (server-sent events)",
+        description = "Envia os eventos em ordem, com a sequence como id do evento SSE. Na reconexão, o cabeçalho " +
+                     "Last-Event-ID retoma a partir do último evento recebido.",
+        security = @SecurityRequirement(name = "Bearer Authentication")
+    )
+    public SseEmitter stream(@RequestParam String consumer,
+                             @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        return pullService.stream(validConsumer(consumer), lastEventId);
+    }
+
+    private static String validConsumer(String consumer) {
+        if (!CONSUMER_PATTERN.matcher(consumer).matches()) {
+            throw new InvalidInputException("Nome de consumidor inválido: use até 64 letras, números, '.', '_' ou '-'.");
+        }
+        return consumer;
+    }
+}
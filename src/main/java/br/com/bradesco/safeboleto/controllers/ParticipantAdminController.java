@@ -0,0 +1,48 @@
+package br.com.bradesco.safeboleto.controllers;
+
+import br.com.bradesco.safeboleto.dto.ParticipantImportResponse;
+import br.com.bradesco.safeboleto.services.ParticipantDirectoryImporter;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("/api/admin/participants")
+@RequiredArgsConstructor
+@Tag(name = "Administração", description = "Operações administrativas do diretório de participantes PIX")
+public class ParticipantAdminController {
+
+    private final ParticipantDirectoryImporter importer;
+
+    @Value("${app.participants.file}")
+    private Resource defaultParticipantsFile;
+
+    @PostMapping(value = "/import", consumes = {MediaType.MULTIPART_FORM_DATA_VALUE, MediaType.ALL_VALUE})
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(
+        summary = "Importar diretório de participantes PIX",
+        description = "Importa o CSV de participantes (ISPB, COMPE, nome, tipo e status). Sem arquivo enviado, " +
+                     "reimporta o arquivo configurado em app.participants.file. Só linhas alteradas são gravadas.",
+        security = @SecurityRequirement(name = "Bearer Authentication")
+    )
+    public ResponseEntity<ParticipantImportResponse> importParticipants(
+            @RequestParam(value = "file", required = false) MultipartFile file) throws IOException {
+        try (InputStream input = file != null ? file.getInputStream() : defaultParticipantsFile.getInputStream()) {
+            return ResponseEntity.ok(importer.importFrom(input));
+        }
+    }
+}
\ No newline at end of file
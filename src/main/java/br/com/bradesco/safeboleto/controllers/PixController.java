@@ -1,7 +1,9 @@
 package br.com.bradesco.safeboleto.controllers;
 
+import br.com.bradesco.safeboleto.dto.PixBatchValidationRequest;
 import br.com.bradesco.safeboleto.dto.PixValidationRequest;
 import br.com.bradesco.safeboleto.dto.PixValidationResponse;
+import br.com.bradesco.safeboleto.resilience.AdmissionControlInterceptor;
 import br.com.bradesco.safeboleto.services.PixService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -10,18 +12,27 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/pix")
 @RequiredArgsConstructor
 @Tag(name = "PIX", description = "Operações de validação de transações PIX e detecção de fraudes")
 public class PixController {
 
+    // "codes": a resposta traz só os códigos dos motivos (reasonCodes), sem a mensagem em português
+    public static final String RESPONSE_DETAIL_HEADER = "X-Response-Detail";
+    private static final String CODES_ONLY = "codes";
+
     private final PixService pixService;
 
     @PostMapping("/valida")
@@ -30,7 +41,9 @@ public class PixController {
         summary = "Validar transação PIX",
         description = "Valida uma transação PIX verificando múltiplos indicadores de fraude, incluindo: " +
                      "formato da chave, lista negra, compatibilidade de documentos, valores suspeitos, " +
-                     "nomes suspeitos e validação de CPF/CNPJ. Retorna um score de risco de 0-100.",
+                     "nomes suspeitos e validação de CPF/CNPJ. Retorna um score de risco de 0-100. " +
+                     "Aceita e responde JSON ou CBOR (application/cbor, pelo Content-Type e Accept); com o cabeçalho " +
+                     "X-Response-Detail: codes a mensagem é omitida e ficam só os códigos em reasonCodes.",
         security = @SecurityRequirement(name = "Bearer Authentication")
     )
     @ApiResponses(value = {
@@ -50,6 +63,7 @@ public class PixController {
                                "  \"bankCode\": \"237\",\n" +
                                "  \"bankName\": \"Bradesco\",\n" +
                                "  \"message\": \"Transação PIX válida e segura. Score de risco: 0/100\",\n" +
+                               "  \"reasonCodes\": [],\n" +
                                "  \"riskScore\": 0\n" +
                                "}"
                     ),
@@ -63,6 +77,7 @@ public class PixController {
                                "  \"bankCode\": \"237\",\n" +
                                "  \"bankName\": \"Bradesco\",\n" +
                                "  \"message\": \"⚠️ TRANSAÇÃO SUSPEITA DE FRAUDE! Motivos: Chave PIX está na lista negra. Nome contém palavra suspeita.\",\n" +
+                               "  \"reasonCodes\": [\"KEY_BLACKLISTED\", \"SUSPICIOUS_NAME\"],\n" +
                                "  \"riskScore\": 100\n" +
                                "}"
                     )
@@ -74,17 +89,53 @@ public class PixController {
         @ApiResponse(responseCode = "403", description = "Sem permissão para acessar este recurso")
     })
     public ResponseEntity<PixValidationResponse> validatePix(
-            @Valid @RequestBody PixValidationRequest request) {
+            @Valid @RequestBody PixValidationRequest request,
+            @RequestHeader(value = RESPONSE_DETAIL_HEADER, required = false) String detail,
+            Principal principal) {
         
+        return ResponseEntity.ok(validate(request, principal, CODES_ONLY.equalsIgnoreCase(detail)));
+    }
+
+    @PostMapping("/valida/lote")
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    @Operation(
+        summary = "Validar um lote de transações PIX",
+        description = "Mesma análise de /api/pix/valida para até " + PixBatchValidationRequest.MAX_TRANSACTIONS +
+                     " transações, validadas em ordem; a resposta é a lista de resultados na mesma ordem. " +
+                     "Para chamadas em volume, prefira CBOR (application/cbor) e X-Response-Detail: codes. " +
+                     "Cada transação consome uma ficha do limite por cliente (as que passam da rajada ficam como " +
+                     "dívida para as próximas requisições); o lote ocupa uma vaga do controle de admissão.",
+        security = @SecurityRequirement(name = "Bearer Authentication")
+    )
+    public ResponseEntity<List<PixValidationResponse>> validatePixBatch(
+            @Valid @RequestBody PixBatchValidationRequest batch,
+            @RequestHeader(value = RESPONSE_DETAIL_HEADER, required = false) String detail,
+            Principal principal,
+            HttpServletRequest httpRequest) {
+
+        // Custo no limite por cliente e latência por transação no controle de admissão
+        httpRequest.setAttribute(AdmissionControlInterceptor.BATCH_SIZE_ATTRIBUTE, batch.getTransactions().size());
+        boolean codesOnly = CODES_ONLY.equalsIgnoreCase(detail);
+        List<PixValidationResponse> responses = new ArrayList<>(batch.getTransactions().size());
+        for (PixValidationRequest request : batch.getTransactions()) {
+            responses.add(validate(request, principal, codesOnly));
+        }
+        return ResponseEntity.ok(responses);
+    }
+
+    // O pagador é o usuário do token (sub do JWT)
+    private PixValidationResponse validate(PixValidationRequest request, Principal principal, boolean codesOnly) {
         PixValidationResponse response = pixService.validatePix(
             request.getPixKey(),
             request.getRecipientName(),
             request.getRecipientDocument(),
             request.getAmount(),
-            request.getBankCode()
+            request.getBankCode(),
+            principal != null ? principal.getName() : null
         );
-        
-        return ResponseEntity.ok(response);
+        // A mensagem continua sendo gravada na auditoria; só não vai na resposta
+        if (codesOnly) response.setMessage(null);
+        return response;
     }
 }
 
@@ -0,0 +1,73 @@
+package br.com.bradesco.safeboleto.controllers;
+
+import br.com.bradesco.safeboleto.dto.ReputationListReloadResponse;
+import br.com.bradesco.safeboleto.services.reputation.EmailDomainReputation;
+import br.com.bradesco.safeboleto.services.reputation.PhonePrefixReputation;
+import br.com.bradesco.safeboleto.services.reputation.ReputationList;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("/api/admin/reputation")
+@RequiredArgsConstructor
+@Tag(name = "Administração", description = "Listas de reputação usadas nas regras de risco")
+public class ReputationAdminController {
+
+    private final EmailDomainReputation emailDomains;
+    private final PhonePrefixReputation phonePrefixes;
+
+    @PostMapping(value = "/email-domains/reload", consumes = {MediaType.MULTIPART_FORM_DATA_VALUE, MediaType.ALL_VALUE})
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(
+        summary = "Recarregar a lista de domínios de e-mail",
+        description = "Substitui a lista de domínios descartáveis/de alto risco (um domínio por linha, opcionalmente " +
+                     "'dominio;risco' com risco de 0 a 100). Sem arquivo enviado, relê app.email-domains.file. " +
+                     "A troca é atômica: com alguma linha inválida a lista atual continua valendo.",
+        security = @SecurityRequirement(name = "Bearer Authentication")
+    )
+    public ResponseEntity<ReputationListReloadResponse> reloadEmailDomains(
+            @RequestParam(value = "file", required = false) MultipartFile file) throws IOException {
+        return reload("email-domains", emailDomains, file);
+    }
+
+    @PostMapping(value = "/phone-prefixes/reload", consumes = {MediaType.MULTIPART_FORM_DATA_VALUE, MediaType.ALL_VALUE})
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(
+        summary = "Recarregar a lista de faixas de telefone",
+        description = "Substitui a lista de faixas de numeração de risco (uma por linha: 'prefixo;risco;descrição' ou " +
+                     "'inicio-fim;risco;descrição', em E.164). Sem arquivo enviado, relê app.phone-prefixes.file. " +
+                     "A troca é atômica: com alguma linha inválida a lista atual continua valendo.",
+        security = @SecurityRequirement(name = "Bearer Authentication")
+    )
+    public ResponseEntity<ReputationListReloadResponse> reloadPhonePrefixes(
+            @RequestParam(value = "file", required = false) MultipartFile file) throws IOException {
+        return reload("phone-prefixes", phonePrefixes, file);
+    }
+
+    private ResponseEntity<ReputationListReloadResponse> reload(String name, ReputationList<?> list,
+                                                                MultipartFile file) throws IOException {
+        long start = System.nanoTime();
+        int entries;
+        if (file == null) {
+            entries = list.reload();
+        } else {
+            try (InputStream input = file.getInputStream()) {
+                entries = list.reload(input);
+            }
+        }
+        return ResponseEntity.ok(new ReputationListReloadResponse(name, entries, (System.nanoTime() - start) / 1_000_000));
+    }
+}
@@ -0,0 +1,89 @@
+package br.com.bradesco.safeboleto.controllers;
+
+import br.com.bradesco.safeboleto.dto.RescoringRequest;
+import br.com.bradesco.safeboleto.dto.RescoringRunResponse;
+import br.com.bradesco.safeboleto.services.rescoring.RescoringService;
+import br.com.bradesco.safeboleto.services.scoring.RuleWeights;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin/rescoring")
+@RequiredArgsConstructor
+@Tag(name = "Reavaliação do Histórico", description = "Simula mudanças de pesos das regras de risco sobre validações passadas")
+public class RescoringController {
+
+    private final RescoringService rescoringService;
+
+    @GetMapping("/rules")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(
+        summary = "Pesos das regras em produção",
+        description = "Pesos e limites usados hoje na validação; os mesmos nomes são aceitos em 'rules' ao iniciar uma reavaliação.",
+        security = @SecurityRequirement(name = "Bearer Authentication")
+    )
+    public ResponseEntity<RuleWeights> liveRules() {
+        return ResponseEntity.ok(rescoringService.liveRules());
+    }
+
+    @PostMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(
+        summary = "Iniciar reavaliação do histórico",
+        description = "Reavalia em segundo plano as validações do período com os pesos em produção e com os candidatos, " +
+                     "sem alterar nem bloquear pix_validations. Acompanhe o andamento em GET /api/admin/rescoring/{id}.",
+        security = @SecurityRequirement(name = "Bearer Authentication")
+    )
+    public ResponseEntity<RescoringRunResponse> start(@RequestBody @Valid RescoringRequest request) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(rescoringService.start(request));
+    }
+
+    @GetMapping("/{id}")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(
+        summary = "Andamento e resultado da reavaliação",
+        description = "Progresso, validações por segundo e as diferenças acumuladas: decisões que mudariam e o deslocamento do score.",
+        security = @SecurityRequirement(name = "Bearer Authentication")
+    )
+    public ResponseEntity<RescoringRunResponse> status(@PathVariable long id) {
+        return ResponseEntity.of(rescoringService.status(id));
+    }
+
+    @GetMapping("/{id}/flips")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(
+        summary = "Amostra de validações com decisão alterada",
+        description = "As primeiras validações do período (até app.rescoring.sample-size) cuja decisão muda com os pesos candidatos. " +
+                     "Disponível quando a execução termina.",
+        security = @SecurityRequirement(name = "Bearer Authentication")
+    )
+    public ResponseEntity<List<RescoringRunResponse.Flip>> flips(@PathVariable long id) {
+        return ResponseEntity.ok(rescoringService.flips(id));
+    }
+
+    @DeleteMapping("/{id}")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(
+        summary = "Cancelar reavaliação em andamento",
+        description = "A execução para após a página atual e grava o resultado parcial como CANCELLED.",
+        security = @SecurityRequirement(name = "Bearer Authentication")
+    )
+    public ResponseEntity<Void> cancel(@PathVariable long id) {
+        return rescoringService.cancel(id) ? ResponseEntity.accepted().build() : ResponseEntity.notFound().build();
+    }
+}
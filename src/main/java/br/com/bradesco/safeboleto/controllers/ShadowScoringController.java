@@ -0,0 +1,34 @@
+package br.com.bradesco.safeboleto.controllers;
+
+import br.com.bradesco.safeboleto.dto.ShadowScoringResponse;
+import br.com.bradesco.safeboleto.services.shadow.ShadowScoringService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/admin/shadow")
+@RequiredArgsConstructor
+@Tag(name = "Modo Sombra", description = "Avaliação de pesos candidatos sobre o tráfego real, sem afetar as respostas")
+public class ShadowScoringController {
+
+    private final ShadowScoringService shadowScoringService;
+
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(
+        summary = "Situação do modo sombra",
+        description = "Candidatos configurados em app.shadow.candidates, validações avaliadas e divergências com a decisão " +
+                     "em produção desde o início da instância. As divergências ficam em shadow_disagreements.",
+        security = @SecurityRequirement(name = "Bearer Authentication")
+    )
+    public ResponseEntity<ShadowScoringResponse> status() {
+        return ResponseEntity.ok(shadowScoringService.snapshot());
+    }
+}
@@ -0,0 +1,59 @@
+package br.com.bradesco.safeboleto.controllers;
+
+import br.com.bradesco.safeboleto.dto.ValidationStatsResponse;
+import br.com.bradesco.safeboleto.services.stats.ClusterStatsService;
+import br.com.bradesco.safeboleto.services.stats.StatsStreamPublisher;
+import br.com.bradesco.safeboleto.services.stats.ValidationStatsRollup;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/pix/stats")
+@RequiredArgsConstructor
+@Tag(name = "Estatísticas", description = "Estatísticas de validações PIX em tempo real")
+public class StatsController {
+
+    private final ValidationStatsRollup rollup;
+    private final ClusterStatsService clusterStatsService;
+    private final StatsStreamPublisher streamPublisher;
+
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(
+        summary = "Estatísticas de validações",
+        description = "Validações por minuto, por tipo de chave, por banco e por decisão, e histograma do score de risco, " +
+                     "dos últimos 'minutes' minutos (máximo 1440). Com cluster=true soma as instâncias de app.stats.peers.",
+        security = @SecurityRequirement(name = "Bearer Authentication")
+    )
+    public ResponseEntity<ValidationStatsResponse> stats(
+            @RequestParam(defaultValue = "60") int minutes,
+            @RequestParam(defaultValue = "false") boolean cluster,
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+        return ResponseEntity.ok(cluster
+                ? clusterStatsService.clusterSnapshot(minutes, authorization)
+                : rollup.snapshot(minutes));
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(
+        summary = "Fluxo de estatísticas (server-sent events)",
+        description = "Envia o snapshot da instância a cada app.stats.stream-interval-ms, no evento 'stats'.",
+        security = @SecurityRequirement(name = "Bearer Authentication")
+    )
+    public SseEmitter stream(@RequestParam(defaultValue = "5") int minutes) {
+        return streamPublisher.subscribe(minutes);
+    }
+}
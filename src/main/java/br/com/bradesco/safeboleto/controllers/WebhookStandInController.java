@@ -0,0 +1,77 @@
+package br.com.bradesco.safeboleto.controllers;
+
+import br.com.bradesco.safeboleto.services.outbox.WebhookOutboxSink;
+import com.fasterxml.jackson.databind.JsonNode;
+import io.swagger.v3.oas.annotations.Hidden;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Receptor local de webhooks do outbox, para testes e ambientes sem o sistema consumidor real.
+ * Guarda em memória os últimos eventos recebidos (deduplicados por eventId, entre os últimos
+ * {@value #MAX_SEEN_IDS} ids; uma repetição mais antiga que isso é aceita de novo). Só existe com
+ * {@code app.outbox.webhook.stand-in.enabled=true}.
+ */
+@Hidden
+@RestController
+@RequestMapping("/stand-in/webhook")
+@ConditionalOnProperty(name = "app.outbox.webhook.stand-in.enabled", havingValue = "true")
+public class WebhookStandInController {
+
+    private static final int KEEP_LAST = 1000;
+    private static final int MAX_SEEN_IDS = 100_000;
+
+    @Value("${app.outbox.webhook.secret:}")
+    private String secret;
+
+    // Em ordem de chegada; o id mais antigo sai quando passa do limite
+    private final Set<String> seenEventIds = Collections.newSetFromMap(new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+            return size() > MAX_SEEN_IDS;
+        }
+    });
+    private final Deque<JsonNode> received = new ArrayDeque<>();
+    private long receivedCount;
+    private long duplicates;
+
+    @PostMapping
+    public synchronized ResponseEntity<Void> receive(
+            @RequestHeader(value = WebhookOutboxSink.SECRET_HEADER, required = false) String providedSecret,
+            @RequestBody List<JsonNode> events) {
+        if (!secret.equals(providedSecret)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        for (JsonNode event : events) {
+            if (!seenEventIds.add(event.path("eventId").asText())) {
+                duplicates++;
+                continue;
+            }
+            receivedCount++;
+            received.addLast(event);
+            if (received.size() > KEEP_LAST) received.removeFirst();
+        }
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping
+    public synchronized Map<String, Object> receivedEvents() {
+        return Map.of("received", receivedCount, "duplicates", duplicates, "lastEvents", List.copyOf(received));
+    }
+}
@@ -0,0 +1,11 @@
+package br.com.bradesco.safeboleto.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Resultado da junção de perfis de valor exportados por outra instância")
+public record AmountProfileMergeResponse(
+        @Schema(description = "Perfis lidos do arquivo enviado", example = "48210") int merged,
+        @Schema(description = "Perfis em memória após a junção", example = "131072") int profiles,
+        @Schema(description = "Duração da junção em milissegundos", example = "40") long elapsedMs
+) {
+}
@@ -0,0 +1,12 @@
+package br.com.bradesco.safeboleto.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Resultado da importação do cadastro de titulares de documentos")
+public record HolderImportResponse(
+        @Schema(description = "Titulares em uso após a importação (documentos distintos)", example = "25000000") int holders,
+        @Schema(description = "Linhas inválidas ignoradas na carga", example = "12") int skippedLines,
+        @Schema(description = "Memória ocupada pelo cadastro em bytes", example = "1002438656") long memoryBytes,
+        @Schema(description = "Duração da importação em milissegundos", example = "14250") long elapsedMs
+) {
+}
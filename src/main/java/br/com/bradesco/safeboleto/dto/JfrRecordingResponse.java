@@ -0,0 +1,19 @@
+package br.com.bradesco.safeboleto.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.Instant;
+
+@Schema(description = "Estado da gravação JFR sob demanda")
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record JfrRecordingResponse(
+        @Schema(description = "NONE (nenhuma gravação), RUNNING ou STOPPED (pronta para download)", example = "RUNNING") String state,
+        @Schema(description = "Configuração do JFR usada: default (~1% de overhead) ou profile (~2%)", example = "profile") String settings,
+        @Schema(description = "Início da gravação") Instant startedAt,
+        @Schema(description = "Duração máxima; a gravação para sozinha depois disso", example = "300") Long durationSeconds,
+        @Schema(description = "Tamanho máximo mantido em disco; eventos mais antigos são descartados", example = "104857600") Long maxSizeBytes,
+        @Schema(description = "Arquivo .jfr da última gravação parada", example = "safepix-20261019-101500.jfr") String file,
+        @Schema(description = "Tamanho do arquivo .jfr", example = "5242880") Long fileSizeBytes
+) {
+}
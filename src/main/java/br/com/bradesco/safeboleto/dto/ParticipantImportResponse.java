@@ -0,0 +1,14 @@
+package br.com.bradesco.safeboleto.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Resultado da importação do diretório de participantes PIX")
+public record ParticipantImportResponse(
+        @Schema(description = "Participantes novos incluídos", example = "12") int inserted,
+        @Schema(description = "Participantes com dados alterados", example = "3") int updated,
+        @Schema(description = "Participantes ausentes do arquivo, marcados como inativos", example = "1") int deactivated,
+        @Schema(description = "Participantes sem alteração", example = "840") int unchanged,
+        @Schema(description = "Linhas ignoradas por falta de ISPB ou nome", example = "0") int skipped,
+        @Schema(description = "Duração da importação em milissegundos", example = "85") long elapsedMs
+) {
+}
\ No newline at end of file
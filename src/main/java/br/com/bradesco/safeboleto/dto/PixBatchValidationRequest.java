@@ -0,0 +1,22 @@
+package br.com.bradesco.safeboleto.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Schema(description = "Lote de transações PIX para validação")
+public class PixBatchValidationRequest {
+
+    public static final int MAX_TRANSACTIONS = 1000;
+
+    @Valid
+    @NotEmpty(message = "O lote deve ter ao menos uma transação.")
+    @Size(max = MAX_TRANSACTIONS, message = "O lote aceita no máximo " + MAX_TRANSACTIONS + " transações.")
+    @Schema(description = "Transações do lote; as respostas seguem a mesma ordem")
+    private List<PixValidationRequest> transactions;
+}
@@ -1,8 +1,10 @@
 package br.com.bradesco.safeboleto.dto;
 
+import br.com.bradesco.safeboleto.util.Cents;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.NotBlank;
-import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 import lombok.Data;
 
@@ -25,11 +27,14 @@ public class PixValidationRequest {
             example = "12345678901")
     private String recipientDocument;
 
-    @NotNull(message = "O valor da transação não pode ser nulo.")
-    @Positive(message = "O valor da transação deve ser positivo.")
-    @Schema(description = "Valor da transação em reais", 
-            example = "150.00")
-    private Double amount;
+    // Em centavos; no JSON continua em reais ("amount": 150.00), convertido sem passar por double.
+    // Ausente vira 0 e é recusado por @Positive
+    @JsonDeserialize(using = Cents.Deserializer.class)
+    @JsonSerialize(using = Cents.Serializer.class)
+    @Positive(message = "O valor da transação deve ser informado e positivo.")
+    @Schema(description = "Valor da transação em reais (no máximo duas casas decimais)",
+            type = "number", example = "150.00")
+    private long amount;
 
     @NotBlank(message = "O código do banco não pode ser vazio.")
     @Schema(description = "Código do banco (3 dígitos)", 
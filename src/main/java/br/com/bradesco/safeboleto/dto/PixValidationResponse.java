@@ -1,10 +1,13 @@
 package br.com.bradesco.safeboleto.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.List;
+
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -35,12 +38,22 @@ public class PixValidationResponse {
             example = "Bradesco")
     private String bankName;
 
-    @Schema(description = "Mensagem descritiva do resultado da validação", 
+    // Omitida quando o cliente pede só os códigos (X-Response-Detail: codes)
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @Schema(description = "Mensagem descritiva do resultado da validação (ausente com X-Response-Detail: codes)",
             example = "Transação PIX válida e segura")
     private String message;
 
+    @Schema(description = "Códigos dos motivos de risco encontrados (ex: UNKNOWN_BANK, FRAUD_HISTORY)",
+            example = "[\"SUSPICIOUS_AMOUNT\"]")
+    private List<String> reasonCodes;
+
     @Schema(description = "Score de risco (0-100, onde 100 é alto risco)", 
             example = "15")
     private Integer riskScore;
+
+    @Schema(description = "Indica que o banco de dados estava indisponível e a análise usou apenas dados em memória",
+            example = "false")
+    private boolean degraded;
 }
 
@@ -0,0 +1,11 @@
+package br.com.bradesco.safeboleto.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Resultado da recarga de uma lista de reputação")
+public record ReputationListReloadResponse(
+        @Schema(description = "Lista recarregada", example = "email-domains") String list,
+        @Schema(description = "Entradas em uso após a recarga", example = "104532") int entries,
+        @Schema(description = "Duração da recarga em milissegundos", example = "95") long elapsedMs
+) {
+}
@@ -0,0 +1,18 @@
+package br.com.bradesco.safeboleto.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@Schema(description = "Reavaliação das validações de um período com pesos de regras candidatos")
+public record RescoringRequest(
+        @NotNull(message = "O início do período é obrigatório.")
+        @Schema(description = "Início do período (inclusive)", example = "2025-01-01T00:00:00") LocalDateTime from,
+        @NotNull(message = "O fim do período é obrigatório.")
+        @Schema(description = "Fim do período (exclusive)", example = "2025-02-01T00:00:00") LocalDateTime to,
+        @Schema(description = "Pesos e limites a trocar em relação aos de produção (nomes de GET /api/admin/rescoring/rules)",
+                example = "{\"unknownBank\": 25, \"approvalThreshold\": 40}") Map<String, Double> rules
+) {
+}
@@ -0,0 +1,50 @@
+package br.com.bradesco.safeboleto.dto;
+
+import br.com.bradesco.safeboleto.services.scoring.RuleWeights;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDateTime;
+
+@Schema(description = "Execução da reavaliação do histórico: andamento e diferenças entre os pesos em produção e os candidatos")
+public record RescoringRunResponse(
+        @Schema(description = "Identificador da execução") long id,
+        @Schema(description = "RUNNING, COMPLETED, CANCELLED ou FAILED") String status,
+        @Schema(description = "Início do período (inclusive)") LocalDateTime from,
+        @Schema(description = "Fim do período (exclusive)") LocalDateTime to,
+        @Schema(description = "Pesos em produção no início da execução") RuleWeights baselineRules,
+        @Schema(description = "Pesos candidatos") RuleWeights candidateRules,
+        @Schema(description = "Validações no período (estimativa feita no início)") long rowsTotal,
+        @Schema(description = "Validações já reavaliadas") long rowsScanned,
+        @Schema(description = "Percentual concluído") double progressPercent,
+        @Schema(description = "Validações reavaliadas por segundo") double rowsPerSecond,
+        @Schema(description = "Diferenças acumuladas até agora") Summary summary,
+        @Schema(description = "Erro, se a execução falhou") String error,
+        LocalDateTime startedAt,
+        LocalDateTime finishedAt
+) {
+
+    /**
+     * Comparação agregada entre as decisões com os pesos em produção (baseline) e com os candidatos.
+     *
+     * @param storedDecisionMismatch validações em que a baseline difere da decisão gravada na época (participantes,
+     *                               grafo de fraude ou pesos mudaram desde então)
+     * @param meanScoreShift         variação média do score (candidato - baseline)
+     */
+    public record Summary(
+            long scanned,
+            long baselineRejected,
+            long candidateRejected,
+            long approvedToRejected,
+            long rejectedToApproved,
+            long storedDecisionMismatch,
+            double meanScoreShift,
+            @Schema(description = "Histograma do score da baseline em faixas de 10 pontos (a última é o score 100)") long[] baselineHistogram,
+            @Schema(description = "Histograma do score candidato em faixas de 10 pontos (a última é o score 100)") long[] candidateHistogram
+    ) {
+    }
+
+    @Schema(description = "Validação cuja decisão muda com os pesos candidatos")
+    public record Flip(long validationId, String keyType, String bankCode, boolean storedValid,
+                       int baselineScore, int candidateScore, boolean candidateValid) {
+    }
+}
@@ -0,0 +1,24 @@
+package br.com.bradesco.safeboleto.dto;
+
+import br.com.bradesco.safeboleto.services.scoring.RuleWeights;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "Situação do modo sombra: fila e divergências de cada conjunto de pesos candidato desde o início da instância")
+public record ShadowScoringResponse(
+        @Schema(description = "Validações aguardando avaliação sombra") int queueSize,
+        @Schema(description = "Capacidade da fila (app.shadow.queue-capacity)") int queueCapacity,
+        @Schema(description = "Avaliações descartadas por fila cheia") long dropped,
+        List<CandidateStats> candidates
+) {
+
+    public record CandidateStats(
+            String name,
+            RuleWeights rules,
+            @Schema(description = "Validações avaliadas com os pesos candidatos") long evaluated,
+            @Schema(description = "Aprovadas em produção que o candidato rejeitaria") long approvedToRejected,
+            @Schema(description = "Rejeitadas em produção que o candidato aprovaria") long rejectedToApproved
+    ) {
+    }
+}
@@ -0,0 +1,67 @@
+package br.com.bradesco.safeboleto.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+@Schema(description = "Estatísticas de validações PIX agregadas por minuto")
+public record ValidationStatsResponse(
+        @Schema(description = "Início da janela (inclusive)") Instant from,
+        @Schema(description = "Fim da janela (exclusive)") Instant to,
+        @Schema(description = "Número de instâncias somadas", example = "1") int nodes,
+        @Schema(description = "Total de validações aprovadas e rejeitadas na janela") DecisionCounts total,
+        @Schema(description = "Totais por tipo de chave (CPF, CNPJ, EMAIL, PHONE, EVP, UNKNOWN)") Map<String, DecisionCounts> byKeyType,
+        @Schema(description = "Totais por código de banco informado") Map<String, DecisionCounts> byBank,
+        @Schema(description = "Histograma do score de risco em faixas de 10 pontos (a última é o score 100)") long[] riskScoreHistogram,
+        @Schema(description = "Série por minuto, do mais antigo ao mais recente") List<MinuteCounts> perMinute
+) {
+
+    public record DecisionCounts(long valid, long rejected) {
+
+        public DecisionCounts plus(DecisionCounts other) {
+            return new DecisionCounts(valid + other.valid, rejected + other.rejected);
+        }
+    }
+
+    public record MinuteCounts(Instant minute, long valid, long rejected) {
+    }
+
+    /**
+     * Soma dois snapshots (ex: de instâncias diferentes). Minutos e chaves são alinhados pelo valor; a janela
+     * resultante cobre as duas.
+     */
+    public ValidationStatsResponse merge(ValidationStatsResponse other) {
+        long[] histogram = riskScoreHistogram.clone();
+        for (int i = 0; i < Math.min(histogram.length, other.riskScoreHistogram.length); i++) {
+            histogram[i] += other.riskScoreHistogram[i];
+        }
+
+        Map<Instant, MinuteCounts> minutes = new TreeMap<>();
+        for (MinuteCounts m : perMinute) minutes.merge(m.minute(), m, ValidationStatsResponse::sum);
+        for (MinuteCounts m : other.perMinute) minutes.merge(m.minute(), m, ValidationStatsResponse::sum);
+
+        return new ValidationStatsResponse(
+                from.isBefore(other.from) ? from : other.from,
+                to.isAfter(other.to) ? to : other.to,
+                nodes + other.nodes,
+                total.plus(other.total),
+                sum(byKeyType, other.byKeyType),
+                sum(byBank, other.byBank),
+                histogram,
+                new ArrayList<>(minutes.values()));
+    }
+
+    private static MinuteCounts sum(MinuteCounts a, MinuteCounts b) {
+        return new MinuteCounts(a.minute(), a.valid() + b.valid(), a.rejected() + b.rejected());
+    }
+
+    private static Map<String, DecisionCounts> sum(Map<String, DecisionCounts> a, Map<String, DecisionCounts> b) {
+        Map<String, DecisionCounts> result = new TreeMap<>(a);
+        b.forEach((key, counts) -> result.merge(key, counts, DecisionCounts::plus));
+        return result;
+    }
+}
@@ -4,6 +4,7 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
@@ -76,6 +77,32 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorResponse, status);
     }
 
+    // Requisição recusada pelo controle de admissão: o cliente deve tentar novamente após Retry-After
+    @ExceptionHandler(ServiceOverloadedException.class)
+    public ResponseEntity<ErrorResponse> handleServiceOverloaded(ServiceOverloadedException ex) {
+        HttpStatus status = HttpStatus.SERVICE_UNAVAILABLE;
+        ErrorResponse errorResponse = new ErrorResponse(status.value(), "Serviço Indisponível", ex.getMessage(), Instant.now(), null);
+        return ResponseEntity.status(status)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(errorResponse);
+    }
+
+    // Operação recusada por conflitar com outra em andamento (ex: reavaliação do histórico já rodando)
+    @ExceptionHandler(OperationConflictException.class)
+    public ResponseEntity<ErrorResponse> handleOperationConflict(OperationConflictException ex) {
+        HttpStatus status = HttpStatus.CONFLICT;
+        ErrorResponse errorResponse = new ErrorResponse(status.value(), "Conflito", ex.getMessage(), Instant.now(), null);
+        return new ResponseEntity<>(errorResponse, status);
+    }
+
+    // Dados do cliente recusados pela lógica de negócio (ex: arquivo de importação mal formatado)
+    @ExceptionHandler(InvalidInputException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidInput(InvalidInputException ex) {
+        HttpStatus status = HttpStatus.BAD_REQUEST;
+        ErrorResponse errorResponse = new ErrorResponse(status.value(), "Requisição Inválida", ex.getMessage(), Instant.now(), null);
+        return new ResponseEntity<>(errorResponse, status);
+    }
+
     // Manipulador genérico para outras exceções não tratadas
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorResponse> handleGlobalException(Exception ex) {
@@ -0,0 +1,13 @@
+package br.com.bradesco.safeboleto.exception;
+
+// Lançada quando os dados enviados pelo cliente são recusados (ex: arquivo de importação mal formatado) (HTTP 400)
+public class InvalidInputException extends RuntimeException {
+
+    public InvalidInputException(String message) {
+        super(message);
+    }
+
+    public InvalidInputException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,9 @@
+package br.com.bradesco.safeboleto.exception;
+
+// Lançada quando a operação conflita com outra já em andamento (HTTP 409)
+public class OperationConflictException extends RuntimeException {
+
+    public OperationConflictException(String message) {
+        super(message);
+    }
+}
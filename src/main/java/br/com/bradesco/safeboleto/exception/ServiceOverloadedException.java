@@ -0,0 +1,14 @@
+package br.com.bradesco.safeboleto.exception;
+
+import lombok.Getter;
+
+// Lançada quando a requisição é recusada para proteger o serviço de sobrecarga (HTTP 503)
+@Getter
+public class ServiceOverloadedException extends RuntimeException {
+    private final int retryAfterSeconds;
+
+    public ServiceOverloadedException(String message, int retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
\ No newline at end of file
@@ -1,5 +1,9 @@
 package br.com.bradesco.safeboleto.model;
 
+import br.com.bradesco.safeboleto.util.Cents;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -21,14 +25,22 @@ public class PixValidation {
     @Column(nullable = false, length = 50)
     private String pixKeyType; // CPF, CNPJ, EMAIL, PHONE, EVP (aleatória)
 
+    @Column(name = "key_hash")
+    private Long keyHash; // Código canônico da chave (PixKeyCodec); nulo para chaves inválidas
+
     @Column
     private String recipientName; // Nome do beneficiário
 
     @Column
     private String recipientDocument; // CPF/CNPJ do beneficiário
 
-    @Column
-    private Double amount; // Valor da transação
+    // Valor da transação em centavos. No JSON (arquivo de contingência) fica em reais, compatível com as linhas
+    // gravadas antes da troca para centavos
+    @Column(name = "amount_cents", nullable = false)
+    @JsonProperty("amount")
+    @JsonDeserialize(using = Cents.Deserializer.class)
+    @JsonSerialize(using = Cents.Serializer.class)
+    private long amountCents;
 
     @Column(name = "is_valid", nullable = false)
     private boolean isValid;
@@ -5,31 +5,65 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
 
+import java.time.LocalDateTime;
+
+// Participante do diretório PIX, identificado pelo ISPB (nem todo participante possui código COMPE)
 @Entity
 @Table(name = "trusted_banks")
 public class TrustedBank {
 
+    public static final String STATUS_ACTIVE = "ATIVO";
+    public static final String STATUS_INACTIVE = "INATIVO";
+
     @Id
-    @Column(name = "code", nullable = false, unique = true)
-    private String code;
+    @Column(name = "ispb", nullable = false, length = 8)
+    private String ispb;
+
+    @Column(name = "compe_code", unique = true, length = 3)
+    private String compeCode;
 
     @Column(name = "name", nullable = false)
     private String name;
 
+    @Column(name = "participant_type", length = 50)
+    private String type; // Modalidade de participação (ex: DRCT = direto, IDRT = indireto)
+
+    @Column(name = "status", nullable = false, length = 20)
+    private String status;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
     public TrustedBank() {
     }
 
-    public TrustedBank(String code, String name) {
-        this.code = code;
+    public TrustedBank(String ispb, String compeCode, String name, String type, String status) {
+        this.ispb = ispb;
+        this.compeCode = compeCode;
         this.name = name;
+        this.type = type;
+        this.status = status;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    public boolean isActive() {
+        return STATUS_ACTIVE.equals(status);
+    }
+
+    public String getIspb() {
+        return ispb;
+    }
+
+    public void setIspb(String ispb) {
+        this.ispb = ispb;
     }
 
-    public String getCode() {
-        return code;
+    public String getCompeCode() {
+        return compeCode;
     }
 
-    public void setCode(String code) {
-        this.code = code;
+    public void setCompeCode(String compeCode) {
+        this.compeCode = compeCode;
     }
 
     public String getName() {
@@ -39,4 +73,28 @@ public class TrustedBank {
     public void setName(String name) {
         this.name = name;
     }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
 }
\ No newline at end of file
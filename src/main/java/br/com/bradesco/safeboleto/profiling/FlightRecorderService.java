@@ -0,0 +1,177 @@
+package br.com.bradesco.safeboleto.profiling;
+
+import br.com.bradesco.safeboleto.dto.JfrRecordingResponse;
+import br.com.bradesco.safeboleto.exception.InvalidInputException;
+import br.com.bradesco.safeboleto.exception.OperationConflictException;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Set;
+
+/**
+ * Gravação JFR sob demanda em uma instância em produção: uma por vez, limitada em tamanho
+ * ({@code app.jfr.max-size-mb}), idade dos eventos ({@code app.jfr.max-age-seconds}) e duração
+ * ({@code app.jfr.max-duration-seconds}; a gravação para sozinha). Ao parar, o arquivo vai para
+ * {@code app.jfr.directory}; só o da última gravação é mantido.
+ *
+ * Além dos eventos da JVM da configuração escolhida, grava os eventos da aplicação ({@link PixValidationEvent},
+ * {@link JwtVerificationEvent}, {@link PersistenceEvent}). Sem gravação ativa eles não custam quase nada.
+ */
+@Component
+public class FlightRecorderService {
+
+    private static final Set<String> SETTINGS = Set.of("default", "profile");
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    @Value("${app.jfr.directory:./data/jfr}")
+    private Path directory;
+
+    @Value("${app.jfr.max-size-mb:100}")
+    private long maxSizeMb;
+
+    @Value("${app.jfr.max-age-seconds:900}")
+    private long maxAgeSeconds;
+
+    @Value("${app.jfr.max-duration-seconds:900}")
+    private long maxDurationSeconds;
+
+    // Gravação atual (em andamento ou parada sozinha ao fim da duração); protegido por this
+    private Recording recording;
+    private String recordingSettings;
+    private Path lastFile;
+
+    public synchronized JfrRecordingResponse start(String settings, Long durationSeconds) {
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            throw new OperationConflictException("Já existe uma gravação JFR em andamento");
+        }
+        if (!SETTINGS.contains(settings)) {
+            throw new InvalidInputException("Configuração JFR deve ser 'default' ou 'profile'");
+        }
+        long duration = durationSeconds == null || durationSeconds <= 0
+                ? maxDurationSeconds
+                : Math.min(durationSeconds, maxDurationSeconds);
+
+        try {
+            finish();
+            if (lastFile != null) {
+                Files.deleteIfExists(lastFile);
+                Files.deleteIfExists(partialFile());
+            }
+            Files.createDirectories(directory);
+            Path file = directory.resolve("safepix-" + LocalDateTime.now().format(FILE_TIME) + ".jfr");
+
+            Recording started = new Recording(Configuration.getConfiguration(settings));
+            try {
+                started.setName("safepix-sob-demanda");
+                started.enable(PixValidationEvent.class);
+                started.enable(JwtVerificationEvent.class);
+                started.enable(PersistenceEvent.class);
+                started.setToDisk(true);
+                started.setMaxSize(maxSizeMb * 1024 * 1024);
+                started.setMaxAge(Duration.ofSeconds(maxAgeSeconds));
+                started.setDuration(Duration.ofSeconds(duration));
+                // Ao parar (pedido ou fim da duração), o JFR grava aqui
+                started.setDestination(file);
+                started.start();
+            } catch (IOException | RuntimeException e) {
+                // A gravação criada ainda guarda recursos no JFR; sem o close ela fica registrada até o fim da JVM
+                started.close();
+                throw e;
+            }
+
+            recording = started;
+            recordingSettings = settings;
+            lastFile = file;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao iniciar a gravação JFR", e);
+        } catch (ParseException e) {
+            throw new IllegalStateException("Configuração JFR '" + settings + "' inválida", e);
+        }
+        System.out.println("[DEBUG PIX] Gravação JFR iniciada (" + settings + ", até " + duration + " s) - " + lastFile);
+        return status();
+    }
+
+    public synchronized JfrRecordingResponse stop() {
+        if (recording == null || recording.getState() != RecordingState.RUNNING) {
+            throw new OperationConflictException("Nenhuma gravação JFR em andamento");
+        }
+        recording.stop();
+        System.out.println("[DEBUG PIX] Gravação JFR parada - " + lastFile);
+        return status();
+    }
+
+    public synchronized JfrRecordingResponse status() {
+        if (recording != null) {
+            RecordingState state = recording.getState();
+            boolean running = state == RecordingState.RUNNING || state == RecordingState.DELAYED;
+            return new JfrRecordingResponse(running ? "RUNNING" : "STOPPED", recordingSettings, recording.getStartTime(),
+                    recording.getDuration() == null ? null : recording.getDuration().toSeconds(),
+                    recording.getMaxSize(), running ? null : lastFile.getFileName().toString(),
+                    running ? null : fileSize());
+        }
+        if (lastFile != null && Files.exists(lastFile)) {
+            return new JfrRecordingResponse("STOPPED", recordingSettings, null, null, null,
+                    lastFile.getFileName().toString(), fileSize());
+        }
+        return new JfrRecordingResponse("NONE", null, null, null, null, null, null);
+    }
+
+    /**
+     * Arquivo .jfr da última gravação parada. Com a gravação em andamento, grava antes uma cópia do que já foi
+     * coletado (sem parar a gravação).
+     */
+    public synchronized Path download() {
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            Path partial = partialFile();
+            try {
+                recording.dump(partial);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Falha ao copiar a gravação JFR em andamento", e);
+            }
+            return partial;
+        }
+        finish();
+        if (lastFile == null || !Files.exists(lastFile)) {
+            throw new OperationConflictException("Nenhuma gravação JFR disponível");
+        }
+        return lastFile;
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        if (recording != null && recording.getState() == RecordingState.RUNNING) recording.stop();
+        finish();
+    }
+
+    // Gravação parada (por stop ou pela duração): o arquivo já está em lastFile, libera os recursos do JFR
+    private void finish() {
+        if (recording != null && recording.getState() != RecordingState.RUNNING) {
+            recording.close();
+            recording = null;
+        }
+    }
+
+    private Path partialFile() {
+        return lastFile.resolveSibling(lastFile.getFileName().toString().replace(".jfr", "-parcial.jfr"));
+    }
+
+    private Long fileSize() {
+        try {
+            return Files.exists(lastFile) ? Files.size(lastFile) : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+}
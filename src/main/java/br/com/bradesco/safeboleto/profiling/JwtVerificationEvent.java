@@ -0,0 +1,24 @@
+package br.com.bradesco.safeboleto.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento JFR da verificação do token de uma requisição ({@code JwtAuthenticationFilter}): leitura e assinatura do
+ * token, carga do usuário e validade. O usuário não é gravado.
+ */
+@Name("br.com.bradesco.safepix.JwtVerification")
+@Label("Verificação do JWT")
+@Category({"SafePix", "Segurança"})
+@Description("Verificação do token Bearer de uma requisição")
+@StackTrace(false)
+public class JwtVerificationEvent extends Event {
+
+    @Label("Resultado")
+    @Description("VALID, INVALID (token recusado), SKIPPED (requisição já autenticada) ou ERROR (exceção na leitura do token)")
+    public String outcome;
+}
@@ -0,0 +1,35 @@
+package br.com.bradesco.safeboleto.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento JFR de uma gravação: validação no banco (ou no arquivo de contingência), reenvio da contingência,
+ * diário de beneficiários conhecidos e snapshot dos perfis de valor.
+ */
+@Name("br.com.bradesco.safepix.Persistence")
+@Label("Gravação")
+@Category({"SafePix", "Persistência"})
+@Description("Gravação de validações e das estruturas em memória")
+@StackTrace(false)
+public class PersistenceEvent extends Event {
+
+    public static final String VALIDATION = "validation";
+    public static final String SPILL_REPLAY = "spill-replay";
+    public static final String BENEFICIARY_JOURNAL = "beneficiary-journal";
+    public static final String AMOUNT_PROFILES = "amount-profiles";
+
+    @Label("Operação")
+    public String operation;
+
+    @Label("Registros")
+    public int records;
+
+    @Label("Sucesso")
+    @Description("false se a gravação falhou ou, para validações, foi para o arquivo de contingência")
+    public boolean success;
+}
@@ -0,0 +1,68 @@
+package br.com.bradesco.safeboleto.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Evento JFR de uma validação PIX ({@code PixService.validatePix}), com a duração de cada etapa. A duração do
+ * evento é a validação inteira; as etapas somam aproximadamente o mesmo. Com nenhuma gravação ativa o custo é o
+ * de {@link #shouldCommit()} mais algumas leituras de {@link System#nanoTime()}.
+ */
+@Name("br.com.bradesco.safepix.PixValidation")
+@Label("Validação PIX")
+@Category({"SafePix", "Validação"})
+@Description("Uma chamada a validatePix, com as etapas e a espera pelo banco")
+@StackTrace(false)
+public class PixValidationEvent extends Event {
+
+    @Label("Tipo da chave")
+    public String keyType;
+
+    @Label("Score de risco")
+    public int riskScore;
+
+    @Label("Aprovada")
+    public boolean valid;
+
+    @Label("Modo degradado")
+    @Description("Alguma consulta foi respondida pelos dados em memória")
+    public boolean degraded;
+
+    @Label("Formato da chave")
+    @Timespan(Timespan.NANOSECONDS)
+    public long keyParsing;
+
+    @Label("Espera pelo participante")
+    @Description("Tempo bloqueado esperando a consulta do participante (banco ou coalescida)")
+    @Timespan(Timespan.NANOSECONDS)
+    public long participantWait;
+
+    @Label("Espera pelo histórico")
+    @Description("Tempo bloqueado esperando a contagem de rejeições da chave (banco, cluster ou coalescida)")
+    @Timespan(Timespan.NANOSECONDS)
+    public long historyWait;
+
+    @Label("Espera pelo banco")
+    @Description("Soma das esperas pelo participante e pelo histórico")
+    @Timespan(Timespan.NANOSECONDS)
+    public long databaseWait;
+
+    @Label("Regras")
+    @Description("Grafo de fraude, reputação, perfis em memória e pontuação")
+    @Timespan(Timespan.NANOSECONDS)
+    public long rules;
+
+    @Label("Gravação")
+    @Timespan(Timespan.NANOSECONDS)
+    public long persistence;
+
+    @Label("Pós-processamento")
+    @Description("Atualização das estruturas em memória, estatísticas e modo sombra")
+    @Timespan(Timespan.NANOSECONDS)
+    public long bookkeeping;
+}
@@ -10,6 +10,6 @@ import java.util.List;
 public interface PixValidationRepository extends JpaRepository<PixValidation, Long> {
     List<PixValidation> findByPixKey(String pixKey);
     List<PixValidation> findByRecipientDocument(String recipientDocument);
-    long countByPixKeyAndIsValidFalse(String pixKey);
+    long countByKeyHashAndIsValidFalse(long keyHash);
 }
 
@@ -7,4 +7,6 @@ import org.springframework.stereotype.Repository;
 import java.util.Optional;
 
 @Repository
-public interface TrustedBankRepository extends JpaRepository<TrustedBank, String> {}
\ No newline at end of file
+public interface TrustedBankRepository extends JpaRepository<TrustedBank, String> {
+    Optional<TrustedBank> findByCompeCode(String compeCode);
+}
\ No newline at end of file
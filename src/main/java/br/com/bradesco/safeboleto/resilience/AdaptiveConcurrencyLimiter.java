@@ -0,0 +1,110 @@
+package br.com.bradesco.safeboleto.resilience;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Limite adaptativo de requisições simultâneas para a validação PIX (algoritmo no estilo "gradient").
+ *
+ * Compara a latência recente (média móvel curta) com a latência de referência (média móvel longa):
+ * quando a recente sobe, o banco ou o pool de conexões está enfileirando e o limite diminui na mesma
+ * proporção; quando as duas se aproximam, o limite cresce aos poucos. Requisições acima do limite são
+ * recusadas na hora, em vez de esperarem o timeout do pool de conexões.
+ *
+ * Chamadas em lote só podem ocupar uma fração do limite, deixando folga para as interativas.
+ */
+@Component
+public class AdaptiveConcurrencyLimiter {
+
+    public enum Priority { INTERACTIVE, BATCH }
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final int minLimit;
+    private final int maxLimit;
+    private final double batchShare;
+    private final Counter rejectedInteractive;
+    private final Counter rejectedBatch;
+
+    // Estado do algoritmo, alterado apenas em onSample (sincronizado); o limite é lido sem lock
+    private volatile int limit;
+    private double estimatedLimit;
+    private double shortRttNanos;
+    private double longRttNanos;
+
+    public AdaptiveConcurrencyLimiter(MeterRegistry registry,
+                                      @Value("${app.admission.initial-limit:20}") int initialLimit,
+                                      @Value("${app.admission.min-limit:2}") int minLimit,
+                                      @Value("${app.admission.max-limit:200}") int maxLimit,
+                                      @Value("${app.admission.batch-share:0.7}") double batchShare) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.batchShare = batchShare;
+        this.limit = initialLimit;
+        this.estimatedLimit = initialLimit;
+
+        Gauge.builder("pix.admission.limit", () -> limit).description("Limite atual de validações simultâneas").register(registry);
+        Gauge.builder("pix.admission.inflight", inFlight, AtomicInteger::get).description("Validações em andamento").register(registry);
+        this.rejectedInteractive = Counter.builder("pix.admission.rejected").tag("priority", "interactive").register(registry);
+        this.rejectedBatch = Counter.builder("pix.admission.rejected").tag("priority", "batch").register(registry);
+    }
+
+    /**
+     * Tenta ocupar uma vaga. Retorna {@code false} (sem bloquear) se o limite da prioridade foi atingido.
+     */
+    public boolean tryAcquire(Priority priority) {
+        int allowed = priority == Priority.BATCH ? Math.max(1, (int) (limit * batchShare)) : limit;
+        while (true) {
+            int current = inFlight.get();
+            if (current >= allowed) {
+                (priority == Priority.BATCH ? rejectedBatch : rejectedInteractive).increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) return true;
+        }
+    }
+
+    /**
+     * Libera a vaga e alimenta o algoritmo com a latência observada.
+     * Falhas (ex: timeout do banco) contam como sinal de sobrecarga.
+     */
+    public void release(long latencyNanos, boolean failed) {
+        int concurrent = inFlight.getAndDecrement();
+        onSample(latencyNanos, failed, concurrent);
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private synchronized void onSample(long latencyNanos, boolean failed, int concurrent) {
+        if (shortRttNanos == 0) {
+            shortRttNanos = longRttNanos = latencyNanos;
+        }
+        shortRttNanos = shortRttNanos * 0.9 + latencyNanos * 0.1;
+        longRttNanos = longRttNanos * 0.99 + latencyNanos * 0.01;
+
+        // Se a latência recente ficou abaixo da referência, a referência é puxada para baixo mais rápido,
+        // para que um pico antigo não mantenha o limite inflado
+        if (shortRttNanos < longRttNanos) {
+            longRttNanos = longRttNanos * 0.9 + shortRttNanos * 0.1;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, longRttNanos / shortRttNanos));
+        if (failed) gradient = 0.5;
+
+        // Só cresce se o limite está sendo usado; senão as amostras não dizem nada sobre a capacidade
+        double queueAllowance = concurrent * 2 >= estimatedLimit ? Math.sqrt(estimatedLimit) : 0;
+        double newLimit = estimatedLimit * gradient + queueAllowance;
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, estimatedLimit * 0.8 + newLimit * 0.2));
+        limit = (int) estimatedLimit;
+    }
+}
@@ -0,0 +1,64 @@
+package br.com.bradesco.safeboleto.resilience;
+
+import br.com.bradesco.safeboleto.exception.ServiceOverloadedException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Controle de admissão na frente do endpoint de validação PIX: recusa com 503 e {@code Retry-After}
+ * quando o {@link AdaptiveConcurrencyLimiter} está cheio, em vez de deixar a requisição esperar por
+ * uma conexão do banco.
+ *
+ * Chamadores em lote se identificam com o cabeçalho {@code X-Request-Priority: batch}.
+ *
+ * Um lote ocupa uma vaga (as transações são validadas em ordem, uma de cada vez), mas a latência que alimenta
+ * o limite é a média por transação: a de um lote inteiro pareceria sobrecarga.
+ */
+@Component
+@RequiredArgsConstructor
+public class AdmissionControlInterceptor implements HandlerInterceptor {
+
+    public static final String PRIORITY_HEADER = "X-Request-Priority";
+    // Transações da requisição, definido pelo endpoint de lote (também usado pelo limite por cliente)
+    public static final String BATCH_SIZE_ATTRIBUTE = AdmissionControlInterceptor.class.getName() + ".batchSize";
+    private static final String START_ATTRIBUTE = AdmissionControlInterceptor.class.getName() + ".start";
+
+    private final AdaptiveConcurrencyLimiter limiter;
+
+    @Value("${app.admission.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.admission.retry-after-seconds:1}")
+    private int retryAfterSeconds;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!enabled) return true;
+
+        AdaptiveConcurrencyLimiter.Priority priority = "batch".equalsIgnoreCase(request.getHeader(PRIORITY_HEADER))
+                ? AdaptiveConcurrencyLimiter.Priority.BATCH
+                : AdaptiveConcurrencyLimiter.Priority.INTERACTIVE;
+        if (!limiter.tryAcquire(priority)) {
+            throw new ServiceOverloadedException(
+                    "Serviço sobrecarregado. Tente novamente em instantes.", retryAfterSeconds);
+        }
+        request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object start = request.getAttribute(START_ATTRIBUTE);
+        if (start == null) return; // requisição recusada ou controle desligado
+        boolean failed = ex != null || response.getStatus() >= 500;
+        long latency = System.nanoTime() - (Long) start;
+        if (request.getAttribute(BATCH_SIZE_ATTRIBUTE) instanceof Integer size && size > 1) {
+            latency /= size;
+        }
+        limiter.release(latency, failed);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,172 @@
+package br.com.bradesco.safeboleto.resilience;
+
+import br.com.bradesco.safeboleto.model.PixValidation;
+import br.com.bradesco.safeboleto.profiling.PersistenceEvent;
+import br.com.bradesco.safeboleto.services.outbox.OutboxWriter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Arquivo local de contingência para a auditoria das validações feitas em modo degradado.
+ *
+ * Cada validação é acrescentada como uma linha JSON. O {@code fsync} é feito em lote: a cada
+ * {@code app.degraded.spill-sync-batch} registros ou a cada {@code app.degraded.spill-sync-interval-ms},
+ * o que vier primeiro; a janela de perda em caso de queda da máquina é limitada a esse intervalo.
+ *
+ * Quando o banco volta, o arquivo é renomeado para {@code .replay} (novas validações seguem para um arquivo
+ * novo) e reenviado para {@code pix_validations} em uma única transação; só então é apagado. Se a
+ * aplicação cair entre o commit e a remoção, os registros podem ser reenviados uma segunda vez.
+ */
+@Component
+@RequiredArgsConstructor
+public class AuditSpillFile {
+
+    private final ObjectMapper objectMapper;
+    private final OutboxWriter outboxWriter;
+
+    @Value("${app.degraded.spill-file:./data/pix-validations.spill}")
+    private Path file;
+
+    @Value("${app.degraded.spill-sync-batch:64}")
+    private int syncBatch;
+
+    @Value("${app.degraded.spill-sync-interval-ms:200}")
+    private long syncIntervalMs;
+
+    // fsync periódico em thread própria: no agendador compartilhado, um reenvio ou uma recarga demorada o atrasaria
+    private final ScheduledExecutorService syncer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "audit-spill-sync");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private FileChannel channel;
+    private int unsynced;
+
+    public synchronized void append(PixValidation validation) {
+        try {
+            byte[] line = (objectMapper.writeValueAsString(validation) + "\n").getBytes(StandardCharsets.UTF_8);
+            ByteBuffer buffer = ByteBuffer.wrap(line);
+            FileChannel out = channel();
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+            if (++unsynced >= syncBatch) sync();
+            System.out.println("[DEBUG PIX] Banco indisponível - validação gravada no arquivo de contingência");
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao gravar auditoria no arquivo de contingência", e);
+        }
+    }
+
+    @PostConstruct
+    public void startSync() {
+        syncer.scheduleWithFixedDelay(() -> {
+            try {
+                sync();
+            } catch (IOException e) {
+                System.out.println("[DEBUG PIX] Falha no fsync do arquivo de contingência: " + e.getMessage());
+            }
+        }, syncIntervalMs, syncIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void sync() throws IOException {
+        if (channel != null && unsynced > 0) {
+            channel.force(false);
+            unsynced = 0;
+        }
+    }
+
+    /**
+     * Reenvia para o banco o que foi gravado em modo degradado. Roda periodicamente; se o banco ainda estiver
+     * fora, a transação falha e o arquivo {@code .replay} fica para a próxima rodada.
+     */
+    @Scheduled(fixedDelayString = "${app.degraded.replay-interval-ms:30000}")
+    public void replay() throws IOException {
+        Path pending = replayFile();
+        if (!Files.exists(pending) && !rotate()) return;
+
+        List<PixValidation> validations = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(pending, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                // Linha incompleta no fim do arquivo (queda durante a escrita) é descartada
+                if (line.isBlank() || !line.endsWith("}")) continue;
+                PixValidation validation = objectMapper.readValue(line, PixValidation.class);
+                validation.setId(null);
+                validations.add(validation);
+            }
+        }
+
+        PersistenceEvent event = new PersistenceEvent();
+        event.operation = PersistenceEvent.SPILL_REPLAY;
+        event.records = validations.size();
+        event.begin();
+        try {
+            outboxWriter.persistAll(validations);
+        } catch (RuntimeException e) {
+            event.commit();
+            System.out.println("[DEBUG PIX] Reenvio do arquivo de contingência adiado: " + e.getMessage());
+            return;
+        }
+        event.success = true;
+        event.commit();
+        Files.delete(pending);
+        System.out.println("[DEBUG PIX] " + validations.size() + " validações do arquivo de contingência reenviadas ao banco");
+    }
+
+    // Move o arquivo atual para .replay; retorna false se não havia nada a reenviar
+    private synchronized boolean rotate() throws IOException {
+        if (!Files.exists(file) || Files.size(file) == 0) return false;
+        close();
+        Files.move(file, replayFile(), StandardCopyOption.ATOMIC_MOVE);
+        return true;
+    }
+
+    @PreDestroy
+    public void shutdown() throws IOException {
+        syncer.shutdown();
+        close();
+    }
+
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            sync();
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private FileChannel channel() throws IOException {
+        if (channel == null) {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) Files.createDirectories(parent);
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+        return channel;
+    }
+
+    private Path replayFile() {
+        return file.resolveSibling(file.getFileName() + ".replay");
+    }
+}
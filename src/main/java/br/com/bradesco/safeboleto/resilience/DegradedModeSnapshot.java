@@ -0,0 +1,246 @@
+package br.com.bradesco.safeboleto.resilience;
+
+import br.com.bradesco.safeboleto.model.TrustedBank;
+import br.com.bradesco.safeboleto.repositories.TrustedBankRepository;
+import br.com.bradesco.safeboleto.services.scoring.RiskRules;
+import br.com.bradesco.safeboleto.util.ConcurrentLongIntMap;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cópia em memória dos dados que a validação PIX consulta no banco: diretório de participantes e
+ * quantidade de validações rejeitadas por chave. Usada pelo {@link ValidationDataGateway} quando o
+ * circuito do banco está aberto.
+ *
+ * As rejeições por chave têm uma base somente leitura, o {@link ReputationSnapshot} mapeado de
+ * {@code app.reputation.snapshot-file}, e por cima dela um mapa com as contagens das chaves alteradas
+ * depois do watermark do snapshot. Na inicialização, com um snapshot válido, só as rejeições posteriores ao
+ * watermark são lidas do banco; sem ele, as rejeições são lidas todas e o snapshot é gravado.
+ * O watermark é a posição de commit das rejeições ({@link ReputationSequencer}), não o id: uma rejeição
+ * confirmada tarde (ex: reenvio do arquivo de contingência) recebe posição acima do watermark e entra no
+ * próximo arquivo.
+ *
+ * A cada {@code app.reputation.snapshot-interval-ms} a instância que grava o arquivo soma à base apenas as
+ * rejeições novas do banco (inclusive as de outras instâncias), e as demais remapeiam o arquivo se ele avançou.
+ * Em todas, a troca da base recarrega do banco o mapa de chaves alteradas depois do novo watermark, para que
+ * contagens antigas do mapa não escondam as da base nova.
+ */
+@Component
+@RequiredArgsConstructor
+public class DegradedModeSnapshot {
+
+    private static final int MISSING = -1;
+    private static final int SEQUENCE_BATCH = 10_000;
+
+    private final TrustedBankRepository trustedBankRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ReputationSequencer sequencer;
+
+    @Value("${app.reputation.snapshot-enabled:true}")
+    private boolean snapshotEnabled;
+
+    @Value("${app.reputation.snapshot-file:data/reputation.snap}")
+    private Path snapshotFile;
+
+    // Só uma instância deve gravar o arquivo quando ele é compartilhado; as demais apenas o releem
+    @Value("${app.reputation.snapshot-writer:true}")
+    private boolean snapshotWriter;
+
+    // Participantes indexados tanto pelo ISPB quanto pelo código COMPE
+    private final Map<String, TrustedBank> participants = new ConcurrentHashMap<>();
+    private volatile Reputation reputation = new Reputation(null, new ConcurrentLongIntMap(1 << 14));
+
+    /**
+     * Base do arquivo e, por cima dela, as contagens absolutas das chaves alteradas depois do watermark;
+     * trocadas juntas.
+     */
+    private record Reputation(ReputationSnapshot base, ConcurrentLongIntMap rejectedByKey) {
+
+        int baseCount(long keyHash) {
+            return base == null ? 0 : base.rejectedCount(keyHash);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long start = System.nanoTime();
+        try {
+            trustedBankRepository.findAll().forEach(this::rememberParticipant);
+            ReputationSnapshot base = snapshotEnabled ? openSnapshot() : null;
+            if (base == null && snapshotEnabled && snapshotWriter) {
+                base = writeSnapshot(null);
+            }
+            Reputation loaded = withRecentRejections(base);
+            reputation = loaded;
+
+            System.out.println("[INIT] Snapshot para modo degradado: " + participants.size() + " códigos de participantes, "
+                    + (base == null ? 0 : base.size()) + " chaves com rejeições no arquivo (watermark "
+                    + (base == null ? 0 : base.watermark()) + ") e " + loaded.rejectedByKey().size()
+                    + " lidas do banco, em " + (System.nanoTime() - start) / 1_000_000 + " ms.");
+        } catch (RuntimeException e) {
+            // Sem banco na inicialização: o snapshot é preenchido aos poucos pelas validações
+            System.out.println("[INIT] Não foi possível carregar o snapshot para modo degradado: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Avança a base: a instância que grava regrava o arquivo (base atual mais as rejeições posteriores ao
+     * watermark); as demais remapeiam o arquivo se o watermark dele avançou. Com base nova, o mapa de chaves
+     * alteradas é recarregado do banco a partir do novo watermark.
+     */
+    @Scheduled(initialDelayString = "${app.reputation.snapshot-interval-ms:900000}",
+            fixedDelayString = "${app.reputation.snapshot-interval-ms:900000}")
+    public void refreshSnapshot() {
+        if (!snapshotEnabled) return;
+        try {
+            ReputationSnapshot current = reputation.base();
+            ReputationSnapshot updated = snapshotWriter ? writeSnapshot(current) : openSnapshot();
+            if (updated != null && (current == null || updated.watermark() > current.watermark())) {
+                reputation = withRecentRejections(updated);
+            }
+        } catch (RuntimeException e) {
+            System.out.println("[DEBUG PIX] Falha ao regravar o snapshot de reputação: " + e.getMessage());
+        }
+    }
+
+    public void rememberParticipant(TrustedBank participant) {
+        participants.put(participant.getIspb(), participant);
+        if (participant.getCompeCode() != null) {
+            participants.put(participant.getCompeCode(), participant);
+        }
+    }
+
+    public Optional<TrustedBank> findParticipant(String code) {
+        return Optional.ofNullable(participants.get(code));
+    }
+
+    // Chaves são identificadas pelo código canônico (PixKeyCodec)
+    public void rememberRejectedCount(long keyHash, long count) {
+        reputation.rejectedByKey().put(keyHash, (int) Math.min(Integer.MAX_VALUE, count));
+    }
+
+    public void recordRejected(Long keyHash) {
+        if (keyHash == null) return;
+        Reputation current = reputation;
+        current.rejectedByKey().computeIfAbsent(keyHash, current::baseCount);
+        current.rejectedByKey().addAndGet(keyHash, 1);
+    }
+
+    public long rejectedCount(long keyHash) {
+        Reputation current = reputation;
+        int count = current.rejectedByKey().get(keyHash, MISSING);
+        return count != MISSING ? count : current.baseCount(keyHash);
+    }
+
+    /**
+     * Base informada mais as rejeições do banco sem posição ou com posição acima do watermark dela. Rejeições
+     * registradas no mapa anterior durante a leitura só voltam na próxima troca (já estão no banco ou no
+     * arquivo de contingência).
+     */
+    private Reputation withRecentRejections(ReputationSnapshot base) {
+        Reputation loaded = new Reputation(base, new ConcurrentLongIntMap(1 << 14));
+        jdbcTemplate.query(
+                "SELECT key_hash, COUNT(*) FROM pix_validations WHERE is_valid = FALSE AND key_hash IS NOT NULL "
+                        + "AND (snapshot_sequence IS NULL OR snapshot_sequence > ?) GROUP BY key_hash",
+                rs -> {
+                    long keyHash = rs.getLong(1);
+                    loaded.rejectedByKey().put(keyHash, loaded.baseCount(keyHash) + rs.getInt(2));
+                },
+                base == null ? 0 : base.watermark());
+        return loaded;
+    }
+
+    private ReputationSnapshot openSnapshot() {
+        if (!Files.exists(snapshotFile)) return null;
+        try {
+            ReputationSnapshot snapshot = ReputationSnapshot.open(snapshotFile);
+            // Watermark acima da maior posição do banco: o arquivo é de outro banco (ex: base recriada)
+            if (snapshot.watermark() > sequencer.head()) {
+                System.out.println("[INIT] Snapshot de reputação ignorado (watermark " + snapshot.watermark()
+                        + " acima da maior posição do banco)");
+                return null;
+            }
+            return snapshot;
+        } catch (IOException e) {
+            // Arquivo corrompido ou de outra versão: reconstrói a partir do banco
+            System.out.println("[INIT] Snapshot de reputação ignorado (" + e.getMessage() + ")");
+            return null;
+        }
+    }
+
+    /**
+     * Grava um snapshot com a base informada (ou nenhuma) mais as rejeições do banco entre o watermark dela e o
+     * novo watermark, e o mapeia. Antes, numera as rejeições já confirmadas; o novo watermark é a última posição.
+     * Retorna {@code null} se não há rejeições novas.
+     */
+    private ReputationSnapshot writeSnapshot(ReputationSnapshot previous) {
+        long from = previous == null ? 0 : previous.watermark();
+        int assigned;
+        do {
+            assigned = sequencer.assignSequences(SEQUENCE_BATCH);
+        } while (assigned == SEQUENCE_BATCH);
+        long to = sequencer.head();
+        if (to <= from) return null;
+
+        long start = System.nanoTime();
+        ConcurrentLongIntMap delta = new ConcurrentLongIntMap(1 << 14);
+        jdbcTemplate.query(
+                "SELECT key_hash, COUNT(*) FROM pix_validations WHERE is_valid = FALSE "
+                        + "AND snapshot_sequence > ? AND snapshot_sequence <= ? AND key_hash IS NOT NULL GROUP BY key_hash",
+                rs -> {
+                    delta.put(rs.getLong(1), rs.getInt(2));
+                },
+                from, to);
+
+        long[] deltaKeys = new long[delta.size()];
+        int[] n = {0};
+        delta.forEach((key, count) -> deltaKeys[n[0]++] = key);
+        Arrays.sort(deltaKeys, 0, n[0]);
+
+        // Junção das duas listas ordenadas
+        int baseSize = previous == null ? 0 : previous.size();
+        long[] keys = new long[baseSize + n[0]];
+        int[] counts = new int[keys.length];
+        int size = 0, i = 0, j = 0;
+        while (i < baseSize || j < n[0]) {
+            long baseKey = i < baseSize ? previous.keyAt(i) : Long.MAX_VALUE;
+            long deltaKey = j < n[0] ? deltaKeys[j] : Long.MAX_VALUE;
+            if (j >= n[0] || (i < baseSize && baseKey < deltaKey)) {
+                keys[size] = baseKey;
+                counts[size++] = previous.countAt(i++);
+            } else if (i >= baseSize || deltaKey < baseKey) {
+                keys[size] = deltaKey;
+                counts[size++] = delta.get(deltaKey, 0);
+                j++;
+            } else {
+                keys[size] = baseKey;
+                counts[size++] = previous.countAt(i++) + delta.get(deltaKey, 0);
+                j++;
+            }
+        }
+
+        try {
+            ReputationSnapshot.write(snapshotFile, to, keys, counts, size,
+                    RiskRules.blacklistedKeys(), RiskRules.blacklistedDocuments());
+            ReputationSnapshot written = ReputationSnapshot.open(snapshotFile);
+            System.out.println("[DEBUG PIX] Snapshot de reputação gravado: " + size + " chaves, watermark " + to
+                    + " (" + (System.nanoTime() - start) / 1_000_000 + " ms)");
+            return written;
+        } catch (IOException e) {
+            throw new IllegalStateException("Falha ao gravar " + snapshotFile + ": " + e.getMessage(), e);
+        }
+    }
+}
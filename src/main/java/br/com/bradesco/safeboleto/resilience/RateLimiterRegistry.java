@@ -0,0 +1,98 @@
+package br.com.bradesco.safeboleto.resilience;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token buckets por cliente: usuário autenticado (limite do papel USER ou ADMIN) ou IP no login.
+ *
+ * O mapa é limitado a {@code app.rate-limit.max-clients} entradas. Buckets que voltaram a ficar cheios e
+ * parados há {@code app.rate-limit.idle-eviction-ms} são removidos periodicamente; como um balde cheio
+ * equivale a um novo, a remoção não altera nenhum limite. Com o mapa lotado, um cliente novo primeiro dispara
+ * a remoção de todos os baldes cheios naquele instante (no máximo uma varredura por segundo); só se ainda
+ * faltar espaço (ex: muitos IPs distintos no login, todos ativos) ele divide um balde comum de excedentes.
+ */
+@Component
+public class RateLimiterRegistry {
+
+    public enum Scope { USER, ADMIN, LOGIN }
+
+    private static final String OVERFLOW_KEY = "\u0000overflow";
+    private static final long FULL_SWEEP_INTERVAL_NANOS = 1_000_000_000L;
+
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final double[] rates = new double[Scope.values().length];
+    private final int[] capacities = new int[Scope.values().length];
+    private final int maxClients;
+    private final long idleEvictionMs;
+    private final AtomicLong lastFullSweep = new AtomicLong(System.nanoTime() - FULL_SWEEP_INTERVAL_NANOS);
+
+    public RateLimiterRegistry(@Value("${app.rate-limit.user.per-second:20}") double userRate,
+                               @Value("${app.rate-limit.user.burst:40}") int userBurst,
+                               @Value("${app.rate-limit.admin.per-second:100}") double adminRate,
+                               @Value("${app.rate-limit.admin.burst:200}") int adminBurst,
+                               @Value("${app.rate-limit.login.per-second:0.2}") double loginRate,
+                               @Value("${app.rate-limit.login.burst:5}") int loginBurst,
+                               @Value("${app.rate-limit.max-clients:100000}") int maxClients,
+                               @Value("${app.rate-limit.idle-eviction-ms:60000}") long idleEvictionMs) {
+        this.maxClients = maxClients;
+        this.idleEvictionMs = idleEvictionMs;
+        configure(Scope.USER, userRate, userBurst);
+        configure(Scope.ADMIN, adminRate, adminBurst);
+        configure(Scope.LOGIN, loginRate, loginBurst);
+    }
+
+    public TokenBucket.Decision tryAcquire(Scope scope, String client) {
+        long now = System.nanoTime();
+        // Escopo no início da chave: o mesmo nome em escopos diferentes tem baldes diferentes
+        String key = scope.ordinal() + client;
+        TokenBucket bucket = buckets.get(key);
+        if (bucket == null) {
+            if (buckets.size() >= maxClients) {
+                sweepFull(now);
+                if (buckets.size() >= maxClients) key = scope.ordinal() + OVERFLOW_KEY;
+            }
+            bucket = buckets.computeIfAbsent(key, k -> newBucket(scope, now));
+        }
+        return bucket.tryConsume(now);
+    }
+
+    // Fichas além da já consumida em tryAcquire; o cliente que foi para o balde de excedentes paga nele
+    public void charge(Scope scope, String client, int tokens) {
+        TokenBucket bucket = buckets.get(scope.ordinal() + client);
+        if (bucket == null) bucket = buckets.get(scope.ordinal() + OVERFLOW_KEY);
+        if (bucket != null) bucket.charge(System.nanoTime(), tokens);
+    }
+
+    @Scheduled(fixedDelayString = "${app.rate-limit.idle-eviction-ms:60000}")
+    public void evictIdle() {
+        long now = System.nanoTime();
+        long idleNanos = idleEvictionMs * 1_000_000;
+        buckets.values().removeIf(bucket -> bucket.idleSince(now, idleNanos));
+    }
+
+    // Remove os baldes cheios agora (sem exigir o tempo parado); uma thread por vez, no máximo uma vez por intervalo
+    private void sweepFull(long now) {
+        long last = lastFullSweep.get();
+        if (now - last < FULL_SWEEP_INTERVAL_NANOS || !lastFullSweep.compareAndSet(last, now)) return;
+        buckets.values().removeIf(bucket -> bucket.idleSince(now, 0));
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    private void configure(Scope scope, double rate, int burst) {
+        rates[scope.ordinal()] = rate;
+        capacities[scope.ordinal()] = burst;
+    }
+
+    private TokenBucket newBucket(Scope scope, long now) {
+        return new TokenBucket(rates[scope.ordinal()], capacities[scope.ordinal()], now);
+    }
+}
@@ -0,0 +1,52 @@
+package br.com.bradesco.safeboleto.resilience;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Posição das validações rejeitadas no snapshot de reputação ({@code snapshot_sequence}).
+ *
+ * Os ids de {@code pix_validations} vêm de uma sequence: uma transação que pegou um id menor pode confirmar
+ * depois de uma que pegou um maior. A posição é atribuída só a linhas já confirmadas, em rodadas serializadas
+ * por lock, então nenhuma rejeição aparece abaixo de um watermark já gravado no arquivo.
+ */
+@Component
+@RequiredArgsConstructor
+public class ReputationSequencer {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Numera, em ordem de id, até {@code limit} rejeições confirmadas ainda sem posição. O lock na linha de
+     * {@code reputation_sequencer} faz as instâncias numerarem uma de cada vez.
+     *
+     * @return quantas rejeições foram numeradas
+     */
+    @Transactional
+    public int assignSequences(int limit) {
+        long last = jdbcTemplate.queryForObject(
+                "SELECT last_sequence FROM reputation_sequencer WHERE id = 1 FOR UPDATE", Long.class);
+        List<Long> ids = jdbcTemplate.queryForList(
+                "SELECT id FROM pix_validations WHERE is_valid = FALSE AND snapshot_sequence IS NULL ORDER BY id LIMIT ?",
+                Long.class, limit);
+        if (ids.isEmpty()) return 0;
+
+        List<Object[]> updates = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            updates.add(new Object[]{++last, id});
+        }
+        jdbcTemplate.batchUpdate("UPDATE pix_validations SET snapshot_sequence = ? WHERE id = ?", updates);
+        jdbcTemplate.update("UPDATE reputation_sequencer SET last_sequence = ? WHERE id = 1", last);
+        return ids.size();
+    }
+
+    // Maior posição já atribuída
+    public long head() {
+        return jdbcTemplate.queryForObject("SELECT last_sequence FROM reputation_sequencer WHERE id = 1", Long.class);
+    }
+}
@@ -0,0 +1,195 @@
+package br.com.bradesco.safeboleto.resilience;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.zip.CRC32C;
+
+/**
+ * Arquivo binário com a reputação das chaves PIX, lido por {@link FileChannel#map} (fora do heap e sem
+ * desserialização: abrir o arquivo custa uma leitura sequencial para conferir o checksum).
+ *
+ * Formato (big-endian), versão 2:
+ * <pre>
+ *   0  int   magic "PIXR"
+ *   4  int   versão
+ *   8  long  watermark: maior snapshot_sequence de pix_validations incluído
+ *  16  long  criação (epoch ms)
+ *  24  int   n chaves com rejeições
+ *  28  int   n chaves na lista negra
+ *  32  int   n documentos na lista negra
+ *  36  int   CRC32C do cabeçalho (bytes 0 a 35) e do corpo (do byte 40 ao fim)
+ *  40  long[n] códigos das chaves (PixKeyCodec), ordenados
+ *      int[n]  rejeições de cada chave, alinhado a 8 bytes
+ *      long[]  lista negra de chaves, ordenada
+ *      long[]  lista negra de documentos, ordenada
+ * </pre>
+ * As buscas são binárias diretamente sobre o mapeamento. O mapeamento tem até 2 GB (~170 milhões de chaves).
+ */
+public final class ReputationSnapshot {
+
+    private static final int MAGIC = 0x50495852;
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 40;
+
+    private final long watermark;
+    private final Instant createdAt;
+    private final LongBuffer keys;
+    private final IntBuffer counts;
+    private final LongBuffer blacklistedKeys;
+    private final LongBuffer blacklistedDocuments;
+
+    private ReputationSnapshot(MappedByteBuffer buffer) throws IOException {
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Arquivo não é um snapshot de reputação");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Versão de snapshot não suportada: " + buffer.getInt(4));
+        }
+        this.watermark = buffer.getLong(8);
+        this.createdAt = Instant.ofEpochMilli(buffer.getLong(16));
+        int keyCount = buffer.getInt(24);
+        int blacklistedKeyCount = buffer.getInt(28);
+        int blacklistedDocumentCount = buffer.getInt(32);
+        if (bodySize(keyCount, blacklistedKeyCount, blacklistedDocumentCount) != buffer.capacity() - HEADER_SIZE) {
+            throw new IOException("Tamanho do snapshot não corresponde ao cabeçalho");
+        }
+
+        if (checksum(buffer, buffer.capacity() - HEADER_SIZE) != buffer.getInt(36)) {
+            throw new IOException("Checksum do snapshot inválido");
+        }
+
+        int offset = HEADER_SIZE;
+        this.keys = buffer.slice(offset, keyCount * 8).asLongBuffer();
+        offset += keyCount * 8;
+        this.counts = buffer.slice(offset, keyCount * 4).asIntBuffer();
+        offset += align8(keyCount * 4);
+        this.blacklistedKeys = buffer.slice(offset, blacklistedKeyCount * 8).asLongBuffer();
+        offset += blacklistedKeyCount * 8;
+        this.blacklistedDocuments = buffer.slice(offset, blacklistedDocumentCount * 8).asLongBuffer();
+    }
+
+    /**
+     * Mapeia e valida o arquivo (magic, versão, tamanho e checksum).
+     */
+    public static ReputationSnapshot open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new ReputationSnapshot(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Grava um snapshot. As chaves devem estar ordenadas. O arquivo é escrito ao lado do destino, sincronizado
+     * em disco e movido atomicamente: quem estiver lendo o anterior não é afetado.
+     */
+    public static void write(Path path, long watermark, long[] keys, int[] counts, int keyCount,
+                             long[] blacklistedKeys, long[] blacklistedDocuments) throws IOException {
+        long bodySize = bodySize(keyCount, blacklistedKeys.length, blacklistedDocuments.length);
+        if (HEADER_SIZE + bodySize > Integer.MAX_VALUE) {
+            throw new IOException("Snapshot de reputação excede 2 GB");
+        }
+        Path parent = path.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = Files.createTempFile(parent, path.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + bodySize);
+                int offset = HEADER_SIZE;
+                buffer.slice(offset, keyCount * 8).asLongBuffer().put(keys, 0, keyCount);
+                offset += keyCount * 8;
+                buffer.slice(offset, keyCount * 4).asIntBuffer().put(counts, 0, keyCount);
+                offset += align8(keyCount * 4);
+                buffer.slice(offset, blacklistedKeys.length * 8).asLongBuffer().put(blacklistedKeys);
+                offset += blacklistedKeys.length * 8;
+                buffer.slice(offset, blacklistedDocuments.length * 8).asLongBuffer().put(blacklistedDocuments);
+
+                buffer.putInt(0, MAGIC)
+                        .putInt(4, VERSION)
+                        .putLong(8, watermark)
+                        .putLong(16, System.currentTimeMillis())
+                        .putInt(24, keyCount)
+                        .putInt(28, blacklistedKeys.length)
+                        .putInt(32, blacklistedDocuments.length);
+                buffer.putInt(36, checksum(buffer, (int) bodySize));
+                buffer.force();
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    public long watermark() {
+        return watermark;
+    }
+
+    public Instant createdAt() {
+        return createdAt;
+    }
+
+    public int size() {
+        return keys.limit();
+    }
+
+    public long keyAt(int index) {
+        return keys.get(index);
+    }
+
+    public int countAt(int index) {
+        return counts.get(index);
+    }
+
+    public int rejectedCount(long keyHash) {
+        int index = search(keys, keyHash);
+        return index >= 0 ? counts.get(index) : 0;
+    }
+
+    public boolean isKeyBlacklisted(long keyHash) {
+        return search(blacklistedKeys, keyHash) >= 0;
+    }
+
+    public boolean isDocumentBlacklisted(long documentCode) {
+        return search(blacklistedDocuments, documentCode) >= 0;
+    }
+
+    private static int search(LongBuffer sorted, long key) {
+        int low = 0;
+        int high = sorted.limit() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long value = sorted.get(mid);
+            if (value < key) low = mid + 1;
+            else if (value > key) high = mid - 1;
+            else return mid;
+        }
+        return -1;
+    }
+
+    // Cabeçalho sem o próprio checksum, mais o corpo: um watermark corrompido também é detectado
+    private static int checksum(ByteBuffer buffer, int bodySize) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(0, 36));
+        crc.update(buffer.slice(HEADER_SIZE, bodySize));
+        return (int) crc.getValue();
+    }
+
+    private static long bodySize(long keyCount, long blacklistedKeyCount, long blacklistedDocumentCount) {
+        return keyCount * 8 + align8(keyCount * 4) + blacklistedKeyCount * 8 + blacklistedDocumentCount * 8;
+    }
+
+    private static long align8(long size) {
+        return (size + 7) & ~7L;
+    }
+
+    private static int align8(int size) {
+        return (size + 7) & ~7;
+    }
+}
@@ -0,0 +1,70 @@
+package br.com.bradesco.safeboleto.resilience;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket sem lock, com todo o estado em um único {@code long}.
+ *
+ * Em vez de guardar a quantidade de fichas e o instante da última recarga, guarda o instante teórico em
+ * que o balde estaria cheio de novo ({@code fullAt}, forma "GCRA" do token bucket): consumir uma ficha
+ * avança esse instante em um intervalo de emissão, e a requisição é aceita se ele não passar de
+ * {@code capacidade} intervalos à frente de agora. Cada tentativa é um único CAS.
+ */
+public final class TokenBucket {
+
+    private final long emissionIntervalNanos;
+    private final long capacityNanos;
+    private final int capacity;
+    private final AtomicLong fullAt;
+
+    /**
+     * @param ratePerSecond fichas repostas por segundo
+     * @param capacity      tamanho do balde (rajada máxima)
+     */
+    public TokenBucket(double ratePerSecond, int capacity, long nowNanos) {
+        this.emissionIntervalNanos = Math.max(1, (long) (1_000_000_000L / ratePerSecond));
+        this.capacity = Math.max(1, capacity);
+        this.capacityNanos = emissionIntervalNanos * this.capacity;
+        this.fullAt = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * Resultado de uma tentativa: se foi aceita, fichas restantes e tempo até o balde encher (ou, se
+     * recusada, até haver uma ficha).
+     */
+    public record Decision(boolean allowed, int limit, int remaining, long resetNanos, long retryAfterNanos) {
+    }
+
+    public Decision tryConsume(long nowNanos) {
+        while (true) {
+            long current = fullAt.get();
+            long base = Math.max(current, nowNanos);
+            long next = base + emissionIntervalNanos;
+            long ahead = next - nowNanos;
+            if (ahead > capacityNanos) {
+                long waitNanos = ahead - capacityNanos;
+                return new Decision(false, capacity, 0, base - nowNanos, waitNanos);
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                int remaining = (int) ((capacityNanos - ahead) / emissionIntervalNanos);
+                return new Decision(true, capacity, remaining, ahead, 0);
+            }
+        }
+    }
+
+    /**
+     * Cobra fichas sem recusar, para um custo só conhecido depois de aceita a requisição (ex: as demais
+     * transações de um lote). O balde pode ficar "devendo" além da capacidade; as tentativas seguintes são
+     * recusadas até a dívida ser reposta.
+     */
+    public void charge(long nowNanos, int tokens) {
+        if (tokens <= 0) return;
+        long cost = emissionIntervalNanos * tokens;
+        fullAt.getAndUpdate(current -> Math.max(current, nowNanos) + cost);
+    }
+
+    // Balde cheio desde antes de {@code nowNanos - idleNanos}: equivale a um balde novo e pode ser descartado
+    public boolean idleSince(long nowNanos, long idleNanos) {
+        return fullAt.get() <= nowNanos - idleNanos;
+    }
+}
@@ -0,0 +1,107 @@
+package br.com.bradesco.safeboleto.resilience;
+
+import br.com.bradesco.safeboleto.model.PixValidation;
+import br.com.bradesco.safeboleto.model.TrustedBank;
+import br.com.bradesco.safeboleto.repositories.PixValidationRepository;
+import br.com.bradesco.safeboleto.repositories.TrustedBankRepository;
+import br.com.bradesco.safeboleto.services.outbox.OutboxWriter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataAccessException;
+import org.springframework.retry.annotation.CircuitBreaker;
+import org.springframework.retry.annotation.Recover;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+
+import java.util.Optional;
+
+/**
+ * Acesso ao banco usado pela validação PIX, protegido por circuit breakers (spring-retry).
+ *
+ * Após {@code app.degraded.failure-threshold} falhas dentro de {@code app.degraded.open-timeout-ms} o
+ * circuito abre e, até {@code app.degraded.reset-timeout-ms} depois, as chamadas nem chegam ao banco:
+ * vão direto para os métodos {@code @Recover}, que respondem com o {@link DegradedModeSnapshot} e gravam
+ * a auditoria no {@link AuditSpillFile}. Cada resultado informa se veio do modo degradado. Cada circuito indica
+ * o seu método de recuperação pelo nome ({@code recover}), sem depender da escolha por assinatura do spring-retry.
+ */
+@Service
+@RequiredArgsConstructor
+public class ValidationDataGateway {
+
+    private final TrustedBankRepository trustedBankRepository;
+    private final PixValidationRepository repository;
+    private final OutboxWriter outboxWriter;
+    private final DegradedModeSnapshot snapshot;
+    private final AuditSpillFile spillFile;
+
+    /**
+     * Resultado de uma consulta, indicando se foi respondida a partir da memória.
+     */
+    public record Lookup<T>(T value, boolean degraded) {
+    }
+
+    // Aceita o código COMPE (3 dígitos) ou o ISPB (8 dígitos) do participante
+    @CircuitBreaker(retryFor = {DataAccessException.class, TransactionException.class},
+            maxAttemptsExpression = "${app.degraded.failure-threshold:3}",
+            openTimeoutExpression = "${app.degraded.open-timeout-ms:5000}",
+            resetTimeoutExpression = "${app.degraded.reset-timeout-ms:10000}",
+            recover = "participantFromSnapshot")
+    public Lookup<Optional<TrustedBank>> findParticipant(String code) {
+        Optional<TrustedBank> participant = code.length() == 8
+                ? trustedBankRepository.findById(code)
+                : trustedBankRepository.findByCompeCode(code);
+        participant.ifPresent(snapshot::rememberParticipant);
+        return new Lookup<>(participant, false);
+    }
+
+    @Recover
+    public Lookup<Optional<TrustedBank>> participantFromSnapshot(RuntimeException e, String code) {
+        return cachedParticipant(code);
+    }
+
+    // Participante a partir da memória, sem tocar no banco (ex: consulta que excedeu o tempo limite)
+    public Lookup<Optional<TrustedBank>> cachedParticipant(String code) {
+        return new Lookup<>(code == null ? Optional.empty() : snapshot.findParticipant(code), true);
+    }
+
+    @CircuitBreaker(retryFor = {DataAccessException.class, TransactionException.class},
+            maxAttemptsExpression = "${app.degraded.failure-threshold:3}",
+            openTimeoutExpression = "${app.degraded.open-timeout-ms:5000}",
+            resetTimeoutExpression = "${app.degraded.reset-timeout-ms:10000}",
+            recover = "rejectedCountFromSnapshot")
+    public Lookup<Long> countRejected(long keyHash) {
+        long count = repository.countByKeyHashAndIsValidFalse(keyHash);
+        snapshot.rememberRejectedCount(keyHash, count);
+        return new Lookup<>(count, false);
+    }
+
+    @Recover
+    public Lookup<Long> rejectedCountFromSnapshot(RuntimeException e, long keyHash) {
+        return cachedRejectedCount(keyHash);
+    }
+
+    public Lookup<Long> cachedRejectedCount(long keyHash) {
+        return new Lookup<>(snapshot.rejectedCount(keyHash), true);
+    }
+
+    /**
+     * Grava a validação (e o seu evento no outbox) no banco. Retorna {@code false} se ela foi para o arquivo
+     * de contingência.
+     */
+    @CircuitBreaker(retryFor = {DataAccessException.class, TransactionException.class},
+            maxAttemptsExpression = "${app.degraded.failure-threshold:3}",
+            openTimeoutExpression = "${app.degraded.open-timeout-ms:5000}",
+            resetTimeoutExpression = "${app.degraded.reset-timeout-ms:10000}",
+            recover = "spill")
+    public boolean save(PixValidation validation) {
+        outboxWriter.persist(validation);
+        if (!validation.isValid()) snapshot.recordRejected(validation.getKeyHash());
+        return true;
+    }
+
+    @Recover
+    public boolean spill(RuntimeException e, PixValidation validation) {
+        spillFile.append(validation);
+        if (!validation.isValid()) snapshot.recordRejected(validation.getKeyHash());
+        return false;
+    }
+}
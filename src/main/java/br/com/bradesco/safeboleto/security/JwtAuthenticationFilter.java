@@ -1,5 +1,6 @@
 package br.com.bradesco.safeboleto.security;
 
+import br.com.bradesco.safeboleto.profiling.JwtVerificationEvent;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -36,27 +37,40 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             return;
         }
         final String jwt = authHeader.substring(7);
-        final String username = jwtService.extractUsername(jwt);
+        // Evento JFR da verificação (leitura do token, carga do usuário e validade); ERROR se algo lançar exceção
+        JwtVerificationEvent event = new JwtVerificationEvent();
+        event.begin();
+        event.outcome = "ERROR";
+        try {
+            final String username = jwtService.extractUsername(jwt);
+            event.outcome = "INVALID";
 
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
-            if (jwtService.isTokenValid(jwt, userDetails)) {
-                // Extrai as roles diretamente do token JWT
-                List<String> roles = jwtService.extractRoles(jwt);
-                List<SimpleGrantedAuthority> authorities = roles.stream()
-                        .map(SimpleGrantedAuthority::new)
-                        .toList();
+            if (username != null && SecurityContextHolder.getContext().getAuthentication() != null) {
+                // Requisição já autenticada: o token não é verificado
+                event.outcome = "SKIPPED";
+            } else if (username != null) {
+                UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
+                if (jwtService.isTokenValid(jwt, userDetails)) {
+                    event.outcome = "VALID";
+                    // Extrai as roles diretamente do token JWT
+                    List<String> roles = jwtService.extractRoles(jwt);
+                    List<SimpleGrantedAuthority> authorities = roles.stream()
+                            .map(SimpleGrantedAuthority::new)
+                            .toList();
 
-                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                        userDetails,
-                        null,
-                        authorities // Usa as permissões extraídas do token
-                );
-                authToken.setDetails(
-                        new WebAuthenticationDetailsSource().buildDetails(request)
-                );
-                SecurityContextHolder.getContext().setAuthentication(authToken);
+                    UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                            userDetails,
+                            null,
+                            authorities // Usa as permissões extraídas do token
+                    );
+                    authToken.setDetails(
+                            new WebAuthenticationDetailsSource().buildDetails(request)
+                    );
+                    SecurityContextHolder.getContext().setAuthentication(authToken);
+                }
             }
+        } finally {
+            event.commit();
         }
         filterChain.doFilter(request, response);
     }
@@ -0,0 +1,123 @@
+package br.com.bradesco.safeboleto.security;
+
+import br.com.bradesco.safeboleto.resilience.AdmissionControlInterceptor;
+import br.com.bradesco.safeboleto.resilience.RateLimiterRegistry;
+import br.com.bradesco.safeboleto.resilience.TokenBucket;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Limite de requisições por cliente: na validação PIX, por usuário autenticado (limites do papel USER ou
+ * ADMIN); no login, por IP. Roda depois do {@link JwtAuthenticationFilter}, usando o usuário que ele já
+ * extraiu do token, e responde com os cabeçalhos {@code RateLimit-Limit}, {@code RateLimit-Remaining} e
+ * {@code RateLimit-Reset} (segundos). Acima do limite, responde 429 com {@code Retry-After}.
+ *
+ * Um lote custa uma ficha por transação. O tamanho só é conhecido depois de lido o corpo: a entrada cobra
+ * uma ficha como qualquer requisição, e as demais são cobradas ao fim como dívida no balde (as próximas
+ * requisições do cliente esperam por elas).
+ */
+@Component
+@RequiredArgsConstructor
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final String LOGIN_PATH = "/api/auth/login";
+    private static final String VALIDATION_PATH = "/api/pix/valida";
+
+    private final RateLimiterRegistry registry;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.rate-limit.enabled:true}")
+    private boolean enabled;
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        TokenBucket.Decision decision = null;
+        RateLimiterRegistry.Scope scope = null;
+        String client = null;
+
+        if (path.equals(LOGIN_PATH)) {
+            // Já é o IP do cliente: com server.forward-headers-strategy=native o Tomcat aplica o X-Forwarded-For
+            // enviado pelos proxies confiáveis (server.tomcat.remoteip.internal-proxies)
+            decision = registry.tryAcquire(RateLimiterRegistry.Scope.LOGIN, request.getRemoteAddr());
+        } else if (path.equals(VALIDATION_PATH) || path.startsWith(VALIDATION_PATH + "/")) {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            // Sem usuário autenticado a requisição será recusada pelo Spring Security de qualquer forma
+            if (authentication != null && authentication.isAuthenticated()) {
+                scope = scopeOf(authentication);
+                client = authentication.getName();
+                decision = registry.tryAcquire(scope, client);
+            }
+        }
+
+        if (decision != null) {
+            response.setHeader("RateLimit-Limit", Integer.toString(decision.limit()));
+            response.setHeader("RateLimit-Remaining", Integer.toString(decision.remaining()));
+            response.setHeader("RateLimit-Reset", Long.toString(toSeconds(decision.resetNanos())));
+            if (!decision.allowed()) {
+                reject(response, toSeconds(decision.retryAfterNanos()));
+                return;
+            }
+        }
+        filterChain.doFilter(request, response);
+
+        if (client != null && request.getAttribute(AdmissionControlInterceptor.BATCH_SIZE_ATTRIBUTE) instanceof Integer size
+                && size > 1) {
+            registry.charge(scope, client, size - 1);
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !enabled;
+    }
+
+    private static RateLimiterRegistry.Scope scopeOf(Authentication authentication) {
+        boolean admin = authentication.getAuthorities().stream()
+                .anyMatch(a -> "ROLE_ADMIN".equals(a.getAuthority()));
+        return admin ? RateLimiterRegistry.Scope.ADMIN : RateLimiterRegistry.Scope.USER;
+    }
+
+    // Arredonda para cima: "0" significaria "já pode tentar"
+    private static long toSeconds(long nanos) {
+        return (nanos + 999_999_999L) / 1_000_000_000L;
+    }
+
+    private void reject(HttpServletResponse response, long retryAfterSeconds) throws IOException {
+        HttpStatus status = HttpStatus.TOO_MANY_REQUESTS;
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(Math.max(1, retryAfterSeconds)));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        // Mesmo formato das respostas de erro do GlobalExceptionHandler
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("status", status.value());
+        body.put("error", "Muitas Requisições");
+        body.put("message", "Limite de requisições excedido. Tente novamente em " + Math.max(1, retryAfterSeconds) + " segundo(s).");
+        body.put("timestamp", Instant.now());
+        body.put("details", null);
+        objectMapper.writeValue(response.getOutputStream(), body);
+    }
+}
@@ -1,5 +1,6 @@
 package br.com.bradesco.safeboleto.security;
 
+import jakarta.servlet.DispatcherType;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -22,26 +23,38 @@ public class SecurityConfigurations {
     // URLs que serão permitidas sem autenticação
     private static final String[] AUTH_WHITELIST = {
             "/", // Permite o acesso ao Health Check na raiz
+            "/livez", "/readyz", // Probes de liveness e readiness (Actuator, na porta da aplicação)
             "/api/auth/login",
             "/swagger-ui.html",
             "/swagger-ui/**",
             "/v3/api-docs/**",
             "/swagger-resources/**",
-            "/webjars/**"
+            "/webjars/**",
+            "/stand-in/**", // Receptor local de webhooks (só existe se habilitado; valida segredo próprio)
+            "/internal/cluster/**" // Comunicação entre instâncias do modo cluster (só existe se habilitado; valida segredo próprio)
     };
 
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http, JwtAuthenticationFilter jwtAuthFilter) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, JwtAuthenticationFilter jwtAuthFilter,
+                                                   RateLimitFilter rateLimitFilter) throws Exception {
         return http
                 .csrf(AbstractHttpConfigurer::disable)
                 .sessionManagement(sm -> sm.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(req -> {
                     req.requestMatchers(AUTH_WHITELIST).permitAll();
+                    // Redespacho interno de respostas assíncronas (ex: stream de estatísticas) e de erros;
+                    // a autorização já foi feita na requisição original
+                    req.dispatcherTypeMatchers(DispatcherType.ASYNC, DispatcherType.ERROR).permitAll();
                     req.requestMatchers("/api/pix/**").authenticated();
+                    // Health check do Actuator é público; métricas e demais endpoints só para administradores
+                    req.requestMatchers("/actuator/health", "/actuator/health/**").permitAll();
+                    req.requestMatchers("/actuator/**").hasRole("ADMIN");
                     // Todas as outras requisições exigirão autenticação
                     req.anyRequest().authenticated();
                 })
                 .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
+                // Limite por cliente depois da autenticação, para usar o usuário e o papel já extraídos do token
+                .addFilterAfter(rateLimitFilter, JwtAuthenticationFilter.class)
                 .build();
     }
 
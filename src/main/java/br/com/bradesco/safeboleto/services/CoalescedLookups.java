@@ -0,0 +1,79 @@
+package br.com.bradesco.safeboleto.services;
+
+import br.com.bradesco.safeboleto.model.TrustedBank;
+import br.com.bradesco.safeboleto.resilience.ValidationDataGateway;
+import br.com.bradesco.safeboleto.resilience.ValidationDataGateway.Lookup;
+import br.com.bradesco.safeboleto.services.cluster.KeyAffinityRouter;
+import br.com.bradesco.safeboleto.util.SingleFlight;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Consultas ao banco da validação PIX, executadas em threads virtuais e coalescidas por chave: em picos
+ * (ex: milhares de clientes pagando a mesma chave de um lojista), validações simultâneas da mesma chave
+ * PIX ou do mesmo banco compartilham uma única consulta, reaproveitada por {@code app.singleflight.ttl-ms}.
+ *
+ * A contagem de rejeições pode ficar defasada por esse intervalo; o score e a gravação continuam sendo
+ * feitos por requisição. As métricas {@code pix.singleflight.calls} (tag {@code result}: executed ou shared)
+ * e {@code pix.singleflight.ratio} mostram a taxa de coalescência.
+ *
+ * No modo cluster a contagem de rejeições vem da instância dona da chave ({@link KeyAffinityRouter}).
+ */
+@Component
+public class CoalescedLookups {
+
+    private final ValidationDataGateway dataGateway;
+    private final KeyAffinityRouter keyAffinity;
+    private final SingleFlight<Long, Lookup<Long>> historyFlight;
+    private final SingleFlight<String, Lookup<Optional<TrustedBank>>> participantFlight;
+
+    public CoalescedLookups(ValidationDataGateway dataGateway, KeyAffinityRouter keyAffinity, MeterRegistry registry,
+                            @Value("${app.singleflight.enabled:true}") boolean enabled,
+                            @Value("${app.singleflight.ttl-ms:50}") long ttlMillis) {
+        this.dataGateway = dataGateway;
+        this.keyAffinity = keyAffinity;
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        long ttl = enabled ? ttlMillis : 0;
+        this.historyFlight = new SingleFlight<>(executor, ttl);
+        this.participantFlight = new SingleFlight<>(executor, ttl);
+
+        register(registry, "history", historyFlight);
+        register(registry, "participant", participantFlight);
+        Gauge.builder("pix.singleflight.ratio", this, CoalescedLookups::coalescingRatio)
+                .description("Fração das consultas respondidas por uma consulta já em andamento ou recente")
+                .register(registry);
+    }
+
+    // Rejeições anteriores da chave (pelo código canônico)
+    public CompletableFuture<Lookup<Long>> rejectedCount(long keyHash) {
+        return historyFlight.get(keyHash, () -> keyAffinity.rejectedCount(keyHash));
+    }
+
+    // Participante pelo código COMPE ou ISPB
+    public CompletableFuture<Lookup<Optional<TrustedBank>>> participant(String bankCode) {
+        if (bankCode == null) return CompletableFuture.completedFuture(new Lookup<>(Optional.empty(), false));
+        String code = bankCode.trim();
+        return participantFlight.get(code, () -> dataGateway.findParticipant(code));
+    }
+
+    private double coalescingRatio() {
+        double shared = historyFlight.sharedCalls() + participantFlight.sharedCalls();
+        double total = shared + historyFlight.executions() + participantFlight.executions();
+        return total == 0 ? 0 : shared / total;
+    }
+
+    private static void register(MeterRegistry registry, String flight, SingleFlight<?, ?> singleFlight) {
+        FunctionCounter.builder("pix.singleflight.calls", singleFlight, SingleFlight::executions)
+                .tag("flight", flight).tag("result", "executed").register(registry);
+        FunctionCounter.builder("pix.singleflight.calls", singleFlight, SingleFlight::sharedCalls)
+                .tag("flight", flight).tag("result", "shared").register(registry);
+    }
+}
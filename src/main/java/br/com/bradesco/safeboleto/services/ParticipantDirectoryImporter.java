@@ -0,0 +1,266 @@
+package br.com.bradesco.safeboleto.services;
+
+import br.com.bradesco.safeboleto.dto.ParticipantImportResponse;
+import br.com.bradesco.safeboleto.exception.InvalidInputException;
+import br.com.bradesco.safeboleto.model.TrustedBank;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.text.Normalizer;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Importa o diretório de participantes PIX a partir de um CSV (ISPB, código COMPE, nome, tipo e status).
+ *
+ * O arquivo é lido em streaming e comparado com a tabela atual: só linhas novas ou alteradas são gravadas,
+ * em lotes JDBC. Participantes que deixaram de constar no arquivo são marcados como inativos, não apagados,
+ * para que o histórico de validações continue apontando para um participante conhecido; o código COMPE deles é
+ * liberado para poder ser reutilizado por outro participante. Um arquivo que repete um ISPB, ou dá o mesmo código
+ * COMPE a dois participantes, é recusado inteiro antes de qualquer gravação.
+ */
+@Service
+@RequiredArgsConstructor
+public class ParticipantDirectoryImporter {
+
+    private static final int BATCH_SIZE = 500;
+
+    private static final String INSERT_SQL =
+            "INSERT INTO trusted_banks (ispb, compe_code, name, participant_type, status, updated_at) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE_SQL =
+            "UPDATE trusted_banks SET compe_code = ?, name = ?, participant_type = ?, status = ?, updated_at = ? WHERE ispb = ?";
+    private static final String DEACTIVATE_SQL =
+            "UPDATE trusted_banks SET status = ?, compe_code = NULL, updated_at = ? WHERE ispb = ?";
+    private static final String RELEASE_COMPE_SQL =
+            "UPDATE trusted_banks SET compe_code = NULL, updated_at = ? WHERE ispb = ?";
+
+    // Nomes de coluna aceitos, já normalizados (sem acentos, minúsculos, apenas letras e dígitos).
+    // Cobrem o formato próprio do projeto e os arquivos publicados pelo Banco Central.
+    private static final Map<String, String> COLUMN_ALIASES = Map.ofEntries(
+            Map.entry("ispb", "ispb"),
+            Map.entry("compe", "compe"),
+            Map.entry("codigo", "compe"),
+            Map.entry("codigocompe", "compe"),
+            Map.entry("numerocodigo", "compe"),
+            Map.entry("nome", "name"),
+            Map.entry("nomeextenso", "name"),
+            Map.entry("nomereduzido", "name"),
+            Map.entry("tipo", "type"),
+            Map.entry("tipodeparticipacao", "type"),
+            Map.entry("modalidadedeparticipacao", "type"),
+            Map.entry("status", "status"),
+            Map.entry("situacao", "status")
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private record Participant(String ispb, String compeCode, String name, String type, String status) {
+    }
+
+    @Transactional
+    public ParticipantImportResponse importFrom(InputStream input) throws IOException {
+        long start = System.nanoTime();
+        Map<String, Participant> current = loadCurrent();
+
+        List<Object[]> inserts = new ArrayList<>();
+        List<Object[]> updates = new ArrayList<>();
+        List<Object[]> releases = new ArrayList<>();
+        // Linha em que cada ISPB e cada código COMPE apareceu no arquivo
+        Map<String, Integer> ispbLines = new HashMap<>();
+        Map<String, Integer> compeLines = new HashMap<>();
+        int inserted = 0, updated = 0, unchanged = 0, skipped = 0;
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            String header = reader.readLine();
+            if (header == null) {
+                throw new InvalidInputException("Arquivo de participantes vazio.");
+            }
+            char delimiter = header.indexOf(';') >= 0 ? ';' : ',';
+            Map<String, Integer> columns = resolveColumns(splitLine(stripBom(header), delimiter));
+
+            String line;
+            int lineNumber = 1;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) continue;
+                Participant incoming = parse(splitLine(line, delimiter), columns);
+                if (incoming == null) {
+                    skipped++;
+                    continue;
+                }
+                checkUnique(ispbLines, incoming.ispb(), lineNumber, "o ISPB");
+                if (incoming.compeCode() != null) {
+                    checkUnique(compeLines, incoming.compeCode(), lineNumber, "o código COMPE");
+                }
+
+                Participant existing = current.remove(incoming.ispb());
+                if (existing == null) {
+                    inserts.add(new Object[]{incoming.ispb(), incoming.compeCode(), incoming.name(),
+                            incoming.type(), incoming.status(), now});
+                    inserted++;
+                } else if (!existing.equals(incoming)) {
+                    if (existing.compeCode() != null && !existing.compeCode().equals(incoming.compeCode())) {
+                        releases.add(new Object[]{now, incoming.ispb()});
+                    }
+                    updates.add(new Object[]{incoming.compeCode(), incoming.name(), incoming.type(),
+                            incoming.status(), now, incoming.ispb()});
+                    updated++;
+                } else {
+                    unchanged++;
+                }
+            }
+        }
+
+        // O que sobrou no mapa não está mais no arquivo: fica inativo e sem código COMPE
+        List<Object[]> deactivations = new ArrayList<>();
+        int deactivated = 0;
+        for (Participant missing : current.values()) {
+            boolean active = !TrustedBank.STATUS_INACTIVE.equals(missing.status());
+            if (active || missing.compeCode() != null) {
+                deactivations.add(new Object[]{TrustedBank.STATUS_INACTIVE, now, missing.ispb()});
+                if (active) deactivated++;
+            }
+        }
+
+        // compe_code é UNIQUE e a restrição é verificada a cada linha: primeiro libera os códigos de quem saiu
+        // do arquivo ou trocou de código, depois grava as alterações e por fim as inclusões. Assim um código pode
+        // passar de um participante removido para um novo, ou dois participantes podem trocar de código.
+        flush(DEACTIVATE_SQL, deactivations);
+        flush(RELEASE_COMPE_SQL, releases);
+        flush(UPDATE_SQL, updates);
+        flush(INSERT_SQL, inserts);
+
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        System.out.println("[INIT] Diretório de participantes PIX importado: " + inserted + " novos, "
+                + updated + " alterados, " + deactivated + " inativados, " + unchanged + " sem alteração, "
+                + skipped + " linhas ignoradas (" + elapsedMs + " ms).");
+        return new ParticipantImportResponse(inserted, updated, deactivated, unchanged, skipped, elapsedMs);
+    }
+
+    // O segundo ISPB viraria outro INSERT (chave primária) e o COMPE repetido violaria o UNIQUE de compe_code
+    private static void checkUnique(Map<String, Integer> seen, String value, int lineNumber, String what) {
+        Integer first = seen.putIfAbsent(value, lineNumber);
+        if (first != null) {
+            throw new InvalidInputException("Arquivo de participantes inválido: a linha " + lineNumber + " repete "
+                    + what + " " + value + " da linha " + first + ".");
+        }
+    }
+
+    private Map<String, Participant> loadCurrent() {
+        Map<String, Participant> current = new HashMap<>();
+        jdbcTemplate.query("SELECT ispb, compe_code, name, participant_type, status FROM trusted_banks", rs -> {
+            current.put(rs.getString(1), new Participant(rs.getString(1), rs.getString(2),
+                    rs.getString(3), rs.getString(4), rs.getString(5)));
+        });
+        return current;
+    }
+
+    private void flush(String sql, List<Object[]> rows) {
+        for (int from = 0; from < rows.size(); from += BATCH_SIZE) {
+            jdbcTemplate.batchUpdate(sql, rows.subList(from, Math.min(from + BATCH_SIZE, rows.size())));
+        }
+    }
+
+    private Map<String, Integer> resolveColumns(List<String> header) {
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            String field = COLUMN_ALIASES.get(normalizeHeader(header.get(i)));
+            if (field != null) columns.putIfAbsent(field, i);
+        }
+        if (!columns.containsKey("ispb") || !columns.containsKey("name")) {
+            throw new InvalidInputException("Arquivo de participantes sem as colunas obrigatórias ISPB e Nome.");
+        }
+        return columns;
+    }
+
+    private Participant parse(List<String> fields, Map<String, Integer> columns) {
+        String ispb = digits(field(fields, columns, "ispb"));
+        String name = field(fields, columns, "name");
+        if (ispb == null || ispb.length() > 8 || name == null) return null;
+
+        String compe = digits(field(fields, columns, "compe"));
+        if (compe != null && (compe.length() > 3 || compe.chars().allMatch(c -> c == '0'))) {
+            compe = null; // Arquivos do BCB usam "n/a" ou zeros para participantes sem COMPE
+        }
+        String status = field(fields, columns, "status");
+        return new Participant(
+                "0".repeat(8 - ispb.length()) + ispb,
+                compe != null ? "0".repeat(3 - compe.length()) + compe : null,
+                name,
+                field(fields, columns, "type"),
+                status != null ? normalizeStatus(status) : TrustedBank.STATUS_ACTIVE
+        );
+    }
+
+    private static String normalizeStatus(String status) {
+        String normalized = normalizeHeader(status);
+        if (normalized.startsWith("inativ") || normalized.startsWith("suspens") || normalized.startsWith("exclu")) {
+            return TrustedBank.STATUS_INACTIVE;
+        }
+        if (normalized.startsWith("ativ") || normalized.startsWith("operacional")) {
+            return TrustedBank.STATUS_ACTIVE;
+        }
+        return status.trim().toUpperCase();
+    }
+
+    private static String field(List<String> fields, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= fields.size()) return null;
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static String digits(String value) {
+        if (value == null) return null;
+        String digits = value.replaceAll("\\D", "");
+        return digits.isEmpty() ? null : digits;
+    }
+
+    private static String normalizeHeader(String value) {
+        return Normalizer.normalize(value, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .toLowerCase()
+                .replaceAll("[^a-z0-9]", "");
+    }
+
+    private static String stripBom(String line) {
+        return !line.isEmpty() && line.charAt(0) == '\uFEFF' ? line.substring(1) : line;
+    }
+
+    // Divide uma linha CSV respeitando campos entre aspas (com "" como aspas escapadas)
+    static List<String> splitLine(String line, char delimiter) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                if (quoted && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else {
+                    quoted = !quoted;
+                }
+            } else if (c == delimiter && !quoted) {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        fields.add(current.toString());
+        return fields;
+    }
+}
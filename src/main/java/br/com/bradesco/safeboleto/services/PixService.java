@@ -2,351 +2,324 @@ package br.com.bradesco.safeboleto.services;
 
 import br.com.bradesco.safeboleto.dto.PixValidationResponse;
 import br.com.bradesco.safeboleto.model.PixValidation;
-import br.com.bradesco.safeboleto.repositories.PixValidationRepository;
-import br.com.bradesco.safeboleto.repositories.TrustedBankRepository;
+import br.com.bradesco.safeboleto.model.TrustedBank;
+import br.com.bradesco.safeboleto.profiling.PersistenceEvent;
+import br.com.bradesco.safeboleto.profiling.PixValidationEvent;
+import br.com.bradesco.safeboleto.resilience.ValidationDataGateway;
+import br.com.bradesco.safeboleto.services.beneficiary.KnownBeneficiaries;
+import br.com.bradesco.safeboleto.services.cluster.KeyAffinityRouter;
+import br.com.bradesco.safeboleto.services.graph.FraudRingGraph;
+import br.com.bradesco.safeboleto.services.holder.HolderRegistry;
+import br.com.bradesco.safeboleto.services.profile.AmountProfileStore;
+import br.com.bradesco.safeboleto.services.profile.RecipientAmountProfiles;
+import br.com.bradesco.safeboleto.services.reputation.EmailDomainReputation;
+import br.com.bradesco.safeboleto.services.reputation.PhonePrefixReputation;
+import br.com.bradesco.safeboleto.services.scoring.RiskReason;
+import br.com.bradesco.safeboleto.services.scoring.RiskRules;
+import br.com.bradesco.safeboleto.services.scoring.RiskSignals;
+import br.com.bradesco.safeboleto.services.scoring.RuleWeights;
+import br.com.bradesco.safeboleto.services.shadow.ShadowScoringService;
+import br.com.bradesco.safeboleto.services.stats.ValidationStatsRollup;
+import br.com.bradesco.safeboleto.util.PixKeyCodec;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
-import java.util.HashSet;
-import java.util.Set;
-import java.util.regex.Pattern;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
 
 @Service
 @RequiredArgsConstructor
 public class PixService {
 
-    private final PixValidationRepository repository;
-    private final TrustedBankRepository trustedBankRepository;
-
-    // Padrões de validação de chaves PIX
-    private static final Pattern CPF_PATTERN = Pattern.compile("^\\d{11}$");
-    private static final Pattern CNPJ_PATTERN = Pattern.compile("^\\d{14}$");
-    private static final Pattern EMAIL_PATTERN = Pattern.compile("^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+\\.[A-Za-z]{2,}$");
-    private static final Pattern PHONE_PATTERN = Pattern.compile("^\\+?[1-9]\\d{10,14}$");
-    private static final Pattern EVP_PATTERN = Pattern.compile("^[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}$", Pattern.CASE_INSENSITIVE);
-
-    // Lista negra de chaves PIX conhecidas por fraude (em produção, usar base de dados)
-    private static final Set<String> BLACKLISTED_KEYS = new HashSet<>(Set.of(
-        "12345678900", // CPF suspeito
-        "00000000000", // CPF inválido
-        "11111111111", // CPF sequencial
-        "fraudador@email.com",
-        "golpe@teste.com",
-        "+5511900000000"
-    ));
-
-    // Documentos suspeitos
-    private static final Set<String> BLACKLISTED_DOCUMENTS = new HashSet<>(Set.of(
-        "00000000000",
-        "11111111111",
-        "22222222222",
-        "12345678900"
-    ));
-
-    // Palavras suspeitas em nomes
-    private static final Set<String> SUSPICIOUS_NAME_KEYWORDS = new HashSet<>(Set.of(
-        "teste", "test", "golpe", "fraude", "fake", "falso", "laranja"
-    ));
+    private final ValidationDataGateway dataGateway;
+    private final FraudRingGraph fraudRingGraph;
+    private final ValidationStatsRollup statsRollup;
+    private final CoalescedLookups lookups;
+    private final KeyAffinityRouter keyAffinity;
+    private final ShadowScoringService shadowScoring;
+    private final EmailDomainReputation emailDomains;
+    private final PhonePrefixReputation phonePrefixes;
+    private final KnownBeneficiaries knownBeneficiaries;
+    private final RecipientAmountProfiles amountProfiles;
+    private final HolderRegistry holders;
+    private final MeterRegistry meterRegistry;
+
+    // Pesos das regras em produção (app.rules.*)
+    private final RuleWeights ruleWeights;
+
+    @Value("${app.fraud-graph.enabled:true}")
+    private boolean fraudGraphEnabled;
+
+    // Tempo máximo de espera por cada consulta ao banco; depois disso a regra usa os dados em memória
+    @Value("${app.validation.lookup-timeout-ms:500}")
+    private long lookupTimeoutMs;
 
     private static final String UNKNOWN_BANK_NAME = "Desconhecido";
 
+    /**
+     * @param payer usuário autenticado que pede a validação (sub do JWT), dono dos beneficiários conhecidos
+     */
     public PixValidationResponse validatePix(String pixKey, String recipientName, 
-                                              String recipientDocument, Double amount, 
-                                              String bankCode) {
-        
-        System.out.println("[DEBUG PIX] Iniciando validação - pixKey: " + pixKey);
+                                              String recipientDocument, long amountCents, 
+                                              String bankCode, String payer) {
+        return validate(pixKey, recipientName, recipientDocument, amountCents, bankCode, payer, true);
+    }
+
+    /**
+     * Mesma análise de {@link #validatePix} (inclusive as consultas ao banco), sem efeitos: nada é gravado nem
+     * entra nas estatísticas, no grafo de fraude ou no modo sombra. Usado no aquecimento da aplicação.
+     */
+    public PixValidationResponse dryRun(String pixKey, String recipientName, String recipientDocument,
+                                        long amountCents, String bankCode) {
+        return validate(pixKey, recipientName, recipientDocument, amountCents, bankCode, null, false);
+    }
+
+    private PixValidationResponse validate(String pixKey, String recipientName, String recipientDocument,
+                                           long amountCents, String bankCode, String payer, boolean record) {
+        if (record) System.out.println("[DEBUG PIX] Iniciando validação - pixKey: " + pixKey);
+
+        // Evento JFR com a duração de cada etapa (só gravado com uma gravação JFR ativa)
+        PixValidationEvent event = new PixValidationEvent();
+        event.begin();
+        long mark = System.nanoTime();
         
-        int riskScore = 0;
-        StringBuilder fraudReasons = new StringBuilder();
+        // Fica true se alguma consulta ao banco foi respondida pelos dados em memória (circuito aberto)
+        boolean degraded = false;
 
         // 1. Validação de formato da chave PIX
-        String keyType = detectPixKeyType(pixKey);
+        String keyType = PixKeyCodec.detectType(pixKey);
         if (keyType == null) {
-            return createInvalidResponse(pixKey, null, recipientName, recipientDocument, 
-                                        amount, bankCode, 
+            PixValidationResponse invalid = createInvalidResponse(pixKey, null, recipientName, recipientDocument,
+                                        amountCents, bankCode, 
                                         "Formato de chave PIX inválido. Verifique o tipo da chave.", 
-                                        100);
+                                        RiskReason.INVALID_KEY_FORMAT, 100, record);
+            if (record) commit(event, invalid);
+            return invalid;
         }
 
-        System.out.println("[DEBUG PIX] Tipo de chave detectado: " + keyType);
+        if (record) System.out.println("[DEBUG PIX] Tipo de chave detectado: " + keyType);
 
-        // 2. Verificação de lista negra de chaves
-        if (BLACKLISTED_KEYS.contains(pixKey.toLowerCase())) {
-            riskScore += 100;
-            fraudReasons.append("Chave PIX está na lista negra de fraudes conhecidas. ");
+        // Telefones seguem em E.164 daqui em diante (consultas, gravação e resposta), para que a mesma linha
+        // escrita de formas diferentes tenha um único histórico
+        if (PixKeyCodec.PHONE.equals(keyType)) {
+            pixKey = PixKeyCodec.normalizePhone(pixKey);
         }
 
-        // 3. Verificação de lista negra de documentos
-        if (BLACKLISTED_DOCUMENTS.contains(recipientDocument)) {
-            riskScore += 100;
-            fraudReasons.append("Documento do beneficiário está na lista negra. ");
+        // Código canônico da chave, usado nas listas negras, no histórico e no grafo de fraude
+        long keyHash = PixKeyCodec.encode(pixKey, keyType);
+        event.keyParsing = System.nanoTime() - mark;
+
+        // Consultas ao banco (participante e histórico) disparadas em paralelo: a latência fica próxima à da
+        // consulta mais lenta, não à soma das duas.
+        // Validações simultâneas da mesma chave ou do mesmo banco compartilham a consulta (CoalescedLookups)
+        Future<ValidationDataGateway.Lookup<Optional<TrustedBank>>> bankFuture = lookups.participant(bankCode);
+
+        // Listas negras de chaves e documentos (regras em RiskRules)
+        boolean keyBlacklisted = RiskRules.isKeyBlacklisted(keyHash);
+        boolean documentBlacklisted = RiskRules.isDocumentBlacklisted(recipientDocument);
+        int blacklistScore = Math.min(ruleWeights.blacklistScore(keyBlacklisted, documentBlacklisted),
+                shadowScoring.minBlacklistScore(keyBlacklisted, documentBlacklisted));
+
+        // Lista negra já leva o score ao máximo, em produção e em todos os candidatos do modo sombra (que recebem
+        // os mesmos fatos): o histórico não muda nenhuma decisão e nem é consultado
+        Future<ValidationDataGateway.Lookup<Long>> historyFuture = blacklistScore >= 100
+                ? null
+                : lookups.rejectedCount(keyHash);
+
+        // Banco confiável (participante do diretório PIX, por código COMPE ou ISPB)
+        mark = System.nanoTime();
+        ValidationDataGateway.Lookup<Optional<TrustedBank>> bankLookup =
+                await("participant", bankFuture, () -> dataGateway.cachedParticipant(bankCode == null ? null : bankCode.trim()));
+        event.participantWait = System.nanoTime() - mark;
+        degraded |= bankLookup.degraded();
+        Optional<TrustedBank> bank = bankLookup.value();
+        String bankName = bank.map(TrustedBank::getName).orElse(UNKNOWN_BANK_NAME);
+
+        // Histórico de fraudes (chaves com múltiplas tentativas inválidas)
+        mark = System.nanoTime();
+        long previousFrauds = 0;
+        if (historyFuture != null) {
+            ValidationDataGateway.Lookup<Long> history = await("history", historyFuture, () -> dataGateway.cachedRejectedCount(keyHash));
+            degraded |= history.degraded();
+            previousFrauds = history.value();
         }
-
-        // 4. Validação de banco confiável
-        String bankName = getBankNameFromCode(bankCode);
-        if (UNKNOWN_BANK_NAME.equals(bankName)) {
-            riskScore += 40;
-            fraudReasons.append("Banco não reconhecido ou não confiável. ");
-        }
-
-        // 5. Validação de compatibilidade chave-documento
-        if (!validateKeyDocumentMatch(pixKey, keyType, recipientDocument)) {
-            riskScore += 60;
-            fraudReasons.append("Chave PIX não corresponde ao documento informado. ");
-        }
-
-        // 6. Detecção de valor suspeito
-        String amountIssue = checkSuspiciousAmount(amount);
-        if (amountIssue != null) {
-            riskScore += 30;
-            fraudReasons.append(amountIssue).append(" ");
+        event.historyWait = System.nanoTime() - mark;
+        mark = System.nanoTime();
+
+        // Anel de fraude da chave ou do documento
+        FraudRingGraph.ComponentStats ring = fraudGraphEnabled ? fraudRingGraph.lookup(keyHash, recipientDocument) : null;
+
+        // Reputação do domínio das chaves de e-mail (lista de domínios descartáveis/de alto risco)
+        EmailDomainReputation.Match emailDomain = PixKeyCodec.EMAIL.equals(keyType) ? emailDomains.match(pixKey.trim()) : null;
+        // Faixa de numeração das chaves de telefone
+        PhonePrefixReputation.Match phoneRange = PixKeyCodec.PHONE.equals(keyType) ? phonePrefixes.match(pixKey) : null;
+        // Chave que o pagador nunca pagou (só para pagadores com histórico)
+        boolean newBeneficiary = knownBeneficiaries.isNew(payer, keyHash);
+        // Valores já aprovados para o beneficiário (antes de contar esta validação)
+        AmountProfileStore.Profile amountProfile = amountProfiles.lookup(keyHash, recipientDocument);
+        // Nome informado contra o do titular do documento no cadastro (NaN se o documento não está nele)
+        double holderNameSimilarity = holders.similarity(recipientDocument, recipientName);
+
+        // Demais verificações (chave-documento, valor, nome, dígitos verificadores) e pontuação
+        RiskSignals signals = RiskRules.signals(pixKey, keyType, keyHash, recipientName, recipientDocument,
+                amountCents, bank, previousFrauds, ring, emailDomain, phoneRange, newBeneficiary,
+                amountProfile, holderNameSimilarity);
+        RiskRules.Assessment assessment = RiskRules.assess(signals, ruleWeights);
+        int riskScore = assessment.riskScore();
+        event.rules = System.nanoTime() - mark;
+
+        if (record) {
+            System.out.println("[DEBUG PIX] Risk Score calculado: " + riskScore);
+            System.out.println("[DEBUG PIX] Motivos de fraude: " + assessment.reasons());
         }
 
-        // 7. Verificação de nomes suspeitos
-        String nameIssue = checkSuspiciousName(recipientName);
-        if (nameIssue != null) {
-            riskScore += 50;
-            fraudReasons.append(nameIssue).append(" ");
-        }
-
-        // 8. Verificação de histórico de fraudes (chaves com múltiplas tentativas inválidas)
-        long previousFrauds = repository.countByPixKeyAndIsValidFalse(pixKey);
-        if (previousFrauds > 2) {
-            riskScore += 40;
-            fraudReasons.append("Chave PIX tem histórico de tentativas fraudulentas (")
-                       .append(previousFrauds).append(" tentativas). ");
-        }
-
-        // 9. Validação específica de CPF (algoritmo básico)
-        if ("CPF".equals(keyType) && !isValidCPF(pixKey)) {
-            riskScore += 70;
-            fraudReasons.append("CPF com dígitos verificadores inválidos. ");
-        }
-
-        // 10. Validação específica de CNPJ (algoritmo básico)
-        if ("CNPJ".equals(keyType) && !isValidCNPJ(pixKey)) {
-            riskScore += 70;
-            fraudReasons.append("CNPJ com dígitos verificadores inválidos. ");
-        }
-
-        // Limita o score em 100
-        riskScore = Math.min(riskScore, 100);
-
-        System.out.println("[DEBUG PIX] Risk Score calculado: " + riskScore);
-        System.out.println("[DEBUG PIX] Motivos de fraude: " + fraudReasons);
-
-        // Decisão final: se riskScore >= 50, considerar fraudulento
-        boolean isValid = riskScore < 35;
+        // Decisão final: aprovada abaixo de app.rules.approval-threshold (padrão 35)
+        boolean isValid = assessment.valid();
+        List<String> reasonCodes = RiskReason.codes(assessment.reasonCodes());
         String message;
         
         if (isValid) {
             message = "Transação PIX válida e segura. Score de risco: " + riskScore + "/100";
             if (riskScore > 0) {
-                message += " (Baixo risco detectado: " + fraudReasons.toString().trim() + ")";
+                message += " (Baixo risco detectado: " + assessment.reasons() + ")";
             }
         } else {
-            message = "⚠️ TRANSAÇÃO SUSPEITA DE FRAUDE! Motivos: " + fraudReasons.toString().trim();
+            message = "⚠️ TRANSAÇÃO SUSPEITA DE FRAUDE! Motivos: " + assessment.reasons();
         }
 
-        PixValidationResponse response = new PixValidationResponse(
-            isValid, pixKey, keyType, recipientName, bankCode, bankName, message, riskScore
-        );
-
-        saveValidation(pixKey, keyType, recipientName, recipientDocument, 
-                      amount, bankCode, bankName, isValid, message);
-
-        return response;
-    }
+        if (!record) {
+            return new PixValidationResponse(
+                isValid, pixKey, keyType, recipientName, bankCode, bankName, message, reasonCodes, riskScore, degraded
+            );
+        }
 
-    private String detectPixKeyType(String key) {
-        if (key == null || key.isBlank()) return null;
-        
-        String cleanKey = key.trim();
-        
-        if (CPF_PATTERN.matcher(cleanKey).matches()) return "CPF";
-        if (CNPJ_PATTERN.matcher(cleanKey).matches()) return "CNPJ";
-        if (EMAIL_PATTERN.matcher(cleanKey).matches()) return "EMAIL";
-        if (PHONE_PATTERN.matcher(cleanKey).matches()) return "PHONE";
-        if (EVP_PATTERN.matcher(cleanKey).matches()) return "EVP";
-        
-        return null;
-    }
+        mark = System.nanoTime();
+        Long validationId = saveValidation(pixKey, keyType, keyHash, recipientName, recipientDocument,
+                      amountCents, bankCode, bankName, isValid, message);
+        event.persistence = System.nanoTime() - mark;
+        mark = System.nanoTime();
 
-    private boolean validateKeyDocumentMatch(String key, String keyType, String document) {
-        if (keyType == null || document == null) return false;
-        
-        // Se a chave é CPF ou CNPJ, deve corresponder exatamente ao documento
-        if ("CPF".equals(keyType) || "CNPJ".equals(keyType)) {
-            return key.equals(document);
-        }
-        
-        // Para email, telefone e EVP, não há validação direta com o documento
-        return true;
-    }
+        PixValidationResponse response = new PixValidationResponse(
+            isValid, pixKey, keyType, recipientName, bankCode, bankName, message, reasonCodes, riskScore,
+            degraded || validationId == null
+        );
 
-    private String checkSuspiciousAmount(Double amount) {
-        if (amount == null) return "Valor da transação não informado.";
-        
-        // Valores muito altos (acima do limite PIX noturno de R$ 1.000,00)
-        if (amount > 1000.0) {
-            return "Valor acima do limite PIX noturno (R$ 1.000,00).";
-        }
-        
-        // Valores extremamente altos
-        if (amount > 10000.0) {
-            return "Valor extremamente alto para transação PIX (R$ " + amount + ").";
+        if (fraudGraphEnabled) {
+            fraudRingGraph.record(validationId, keyHash, recipientDocument, bankCode, !isValid);
         }
-        
-        // Valores fracionados suspeitos (testes de fraude)
-        if (amount < 1.0) {
-            return "Valor muito baixo, típico de teste de fraude (R$ " + amount + ").";
-        }
-        
-        // Valores "quebrados" suspeitos (ex: R$ 999,99)
-        if (amount > 900 && amount < 1000 && amount % 1 == 0.99) {
-            return "Valor suspeito próximo ao limite.";
+        // No modo cluster a instância dona da chave atualiza a contagem de rejeições em memória
+        if (!isValid) keyAffinity.recordRejected(keyHash);
+        if (isValid) {
+            knownBeneficiaries.recordAccepted(payer, keyHash);
+            amountProfiles.recordAccepted(keyHash, recipientDocument, amountCents);
         }
-        
-        return null;
-    }
+        statsRollup.record(keyType, bankCode, isValid, riskScore);
+        // Pesos candidatos avaliados fora da requisição, sobre os mesmos fatos (descartado se a fila estiver cheia)
+        shadowScoring.submit(validationId, keyType, bankCode, signals, assessment);
+        event.bookkeeping = System.nanoTime() - mark;
 
-    private String checkSuspiciousName(String name) {
-        if (name == null || name.isBlank()) {
-            return "Nome do beneficiário não informado.";
-        }
-        
-        String nameLower = name.toLowerCase().trim();
-        
-        // Nomes muito curtos
-        if (nameLower.length() < 3) {
-            return "Nome do beneficiário muito curto.";
-        }
-        
-        // Verifica palavras suspeitas
-        for (String keyword : SUSPICIOUS_NAME_KEYWORDS) {
-            if (nameLower.contains(keyword)) {
-                return "Nome contém palavra suspeita: '" + keyword + "'.";
-            }
-        }
-        
-        // Muitos números no nome (ex: "João123456")
-        long digitCount = nameLower.chars().filter(Character::isDigit).count();
-        if (digitCount > 3) {
-            return "Nome contém muitos números (" + digitCount + " dígitos).";
-        }
-        
-        // Nome com apenas números
-        if (nameLower.matches("^[0-9]+$")) {
-            return "Nome contém apenas números.";
-        }
-        
-        return null;
+        commit(event, response);
+        return response;
     }
 
-    private boolean isValidCPF(String cpf) {
-        if (cpf == null || !cpf.matches("\\d{11}")) return false;
-        
-        // CPFs com todos os dígitos iguais são inválidos
-        if (cpf.matches("(\\d)\\1{10}")) return false;
-        
-        try {
-            // Calcula o primeiro dígito verificador
-            int sum = 0;
-            for (int i = 0; i < 9; i++) {
-                sum += Character.getNumericValue(cpf.charAt(i)) * (10 - i);
-            }
-            int firstDigit = 11 - (sum % 11);
-            if (firstDigit >= 10) firstDigit = 0;
-            
-            // Calcula o segundo dígito verificador
-            sum = 0;
-            for (int i = 0; i < 10; i++) {
-                sum += Character.getNumericValue(cpf.charAt(i)) * (11 - i);
-            }
-            int secondDigit = 11 - (sum % 11);
-            if (secondDigit >= 10) secondDigit = 0;
-            
-            // Verifica se os dígitos calculados correspondem aos informados
-            return firstDigit == Character.getNumericValue(cpf.charAt(9)) &&
-                   secondDigit == Character.getNumericValue(cpf.charAt(10));
-        } catch (Exception e) {
-            return false;
-        }
+    private static void commit(PixValidationEvent event, PixValidationResponse response) {
+        if (!event.shouldCommit()) return;
+        event.keyType = response.getKeyType();
+        event.riskScore = response.getRiskScore();
+        event.valid = response.isValid();
+        event.degraded = response.isDegraded();
+        event.databaseWait = event.participantWait + event.historyWait;
+        event.commit();
     }
 
-    private boolean isValidCNPJ(String cnpj) {
-        if (cnpj == null || !cnpj.matches("\\d{14}")) return false;
-        
-        // CNPJs com todos os dígitos iguais são inválidos
-        if (cnpj.matches("(\\d)\\1{13}")) return false;
-        
+    // Resultado de uma consulta paralela; se ela passar do tempo limite, é abandonada e vale o dado em memória.
+    // A consulta não é cancelada: ela pode estar sendo compartilhada com outras validações, e interromper uma
+    // thread virtual bloqueada no socket fecharia a conexão JDBC (contando como falha no circuit breaker).
+    // Cada abandono conta em pix.validation.lookup-timeouts, por consulta (participant ou history)
+    private <T> ValidationDataGateway.Lookup<T> await(String lookup, Future<ValidationDataGateway.Lookup<T>> future,
+                                                     Supplier<ValidationDataGateway.Lookup<T>> fallback) {
         try {
-            // Calcula o primeiro dígito verificador
-            int[] weight1 = {5, 4, 3, 2, 9, 8, 7, 6, 5, 4, 3, 2};
-            int sum = 0;
-            for (int i = 0; i < 12; i++) {
-                sum += Character.getNumericValue(cnpj.charAt(i)) * weight1[i];
-            }
-            int firstDigit = sum % 11 < 2 ? 0 : 11 - (sum % 11);
-            
-            // Calcula o segundo dígito verificador
-            int[] weight2 = {6, 5, 4, 3, 2, 9, 8, 7, 6, 5, 4, 3, 2};
-            sum = 0;
-            for (int i = 0; i < 13; i++) {
-                sum += Character.getNumericValue(cnpj.charAt(i)) * weight2[i];
-            }
-            int secondDigit = sum % 11 < 2 ? 0 : 11 - (sum % 11);
-            
-            // Verifica se os dígitos calculados correspondem aos informados
-            return firstDigit == Character.getNumericValue(cnpj.charAt(12)) &&
-                   secondDigit == Character.getNumericValue(cnpj.charAt(13));
-        } catch (Exception e) {
-            return false;
+            return future.get(lookupTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            meterRegistry.counter("pix.validation.lookup-timeouts", "lookup", lookup).increment();
+            return fallback.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return fallback.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw new IllegalStateException(e.getCause());
         }
     }
 
-    private String getBankNameFromCode(String bankCode) {
-        if (bankCode == null) return UNKNOWN_BANK_NAME;
-        return trustedBankRepository.findById(bankCode)
-                .map(bank -> bank.getName())
-                .orElse(UNKNOWN_BANK_NAME);
+    // Aceita o código COMPE (3 dígitos) ou o ISPB (8 dígitos) do participante
+    private ValidationDataGateway.Lookup<Optional<TrustedBank>> findParticipant(String bankCode) {
+        if (bankCode == null) return new ValidationDataGateway.Lookup<>(Optional.empty(), false);
+        return dataGateway.findParticipant(bankCode.trim());
     }
 
     private PixValidationResponse createInvalidResponse(String pixKey, String keyType, 
                                                         String recipientName, String recipientDocument, 
-                                                        Double amount, String bankCode, 
-                                                        String fraudReason, int riskScore) {
-        String bankName = getBankNameFromCode(bankCode);
-        
-        PixValidationResponse response = new PixValidationResponse(
-            false, pixKey, keyType, recipientName, bankCode, bankName, fraudReason, riskScore
+                                                        long amountCents, String bankCode, 
+                                                        String fraudReason, RiskReason reason, int riskScore,
+                                                        boolean record) {
+        ValidationDataGateway.Lookup<Optional<TrustedBank>> bank = findParticipant(bankCode);
+        List<String> reasonCodes = List.of(reason.name());
+        String bankName = bank.value().map(TrustedBank::getName).orElse(UNKNOWN_BANK_NAME);
+        if (!record) {
+            return new PixValidationResponse(
+                false, pixKey, keyType, recipientName, bankCode, bankName, fraudReason, reasonCodes, riskScore, bank.degraded()
+            );
+        }
+
+        Long validationId = saveValidation(pixKey, keyType, 0, recipientName, recipientDocument,
+                      amountCents, bankCode, bankName, false, fraudReason);
+        statsRollup.record(keyType, bankCode, false, riskScore);
+
+        return new PixValidationResponse(
+            false, pixKey, keyType, recipientName, bankCode, bankName, fraudReason, reasonCodes, riskScore,
+            bank.degraded() || validationId == null
         );
-        
-        saveValidation(pixKey, keyType, recipientName, recipientDocument, 
-                      amount, bankCode, bankName, false, fraudReason);
-        
-        return response;
     }
 
-    private void saveValidation(String pixKey, String keyType, String recipientName, 
-                               String recipientDocument, Double amount, String bankCode, 
+    // Retorna o id gravado, ou null se o banco estava indisponível e a validação foi para o arquivo de contingência
+    private Long saveValidation(String pixKey, String keyType, long keyHash, String recipientName, 
+                               String recipientDocument, long amountCents, String bankCode, 
                                String bankName, boolean isValid, String message) {
         PixValidation validation = new PixValidation();
         validation.setPixKey(pixKey != null ? pixKey : "N/A");
         validation.setPixKeyType(keyType != null ? keyType : "UNKNOWN");
+        validation.setKeyHash(keyHash != 0 ? keyHash : null);
         validation.setRecipientName(recipientName);
         validation.setRecipientDocument(recipientDocument);
-        validation.setAmount(amount);
+        validation.setAmountCents(amountCents);
         validation.setValid(isValid);
         validation.setFraudReason(message);
         validation.setBankCode(bankCode);
         validation.setBankName(bankName);
         validation.setValidationTimestamp(LocalDateTime.now());
         
-        repository.save(validation);
-        
+        PersistenceEvent event = new PersistenceEvent();
+        event.begin();
+        boolean saved = dataGateway.save(validation);
+        if (event.shouldCommit()) {
+            event.operation = PersistenceEvent.VALIDATION;
+            event.records = 1;
+            event.success = saved;
+            event.commit();
+        }
+        if (!saved) return null;
+
         System.out.println("[DEBUG PIX] Validação salva no banco de dados - ID: " + validation.getId());
+        return validation.getId();
     }
 }
 
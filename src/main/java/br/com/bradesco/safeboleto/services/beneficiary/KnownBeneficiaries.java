@@ -0,0 +1,231 @@
+package br.com.bradesco.safeboleto.services.beneficiary;
+
+import br.com.bradesco.safeboleto.profiling.PersistenceEvent;
+import br.com.bradesco.safeboleto.util.ConcurrentLongSetMap;
+import br.com.bradesco.safeboleto.util.Hashing;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Beneficiários já pagos por cada pagador (usuário autenticado, o {@code sub} do JWT), para a regra de
+ * beneficiário novo. Guarda o código canônico das chaves (PixKeyCodec) de cada validação aprovada em um conjunto
+ * ordenado por pagador ({@link ConcurrentLongSetMap}): ~40 bytes por pagador mais 8 por beneficiário, então
+ * milhões de pagadores cabem em algumas centenas de MB. Os códigos são exatos para CPF, CNPJ e telefone e hashes
+ * de 60 bits para e-mail e EVP, sem falsos positivos na prática. O conjunto de cada pagador guarda no máximo
+ * {@code app.beneficiaries.max-per-payer} chaves; acima disso as chaves aprovadas não entram e a regra deixa de
+ * valer para o pagador, já que não dá mais para distinguir beneficiário novo de um que ficou de fora.
+ *
+ * Persistência incremental: cada par novo (pagador, beneficiário) é acrescentado a um diário binário, gravado em
+ * disco a cada {@code app.beneficiaries.sync-interval-ms} (a janela de perda em caso de queda), e o diário inteiro
+ * é relido na subida. Como o conjunto só cresce e cada par entra uma vez, o diário não precisa de compactação.
+ *
+ * Formato (big-endian): int magic "PIXK", int versão, seguidos de registros {@code long pagador, long chave};
+ * o pagador é {@code Hashing.hash64('P', sub)}. Um registro incompleto no fim (queda ou falha durante a
+ * escrita) é cortado na leitura e na reabertura do arquivo.
+ */
+@Component
+public class KnownBeneficiaries {
+
+    private static final int MAGIC = 0x5049584B;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+    private static final int RECORD_SIZE = 16;
+    private static final char PAYER = 'P';
+
+    private final ConcurrentLongSetMap beneficiaries = new ConcurrentLongSetMap(1 << 16);
+    private final LongAdder firstSeen = new LongAdder();
+
+    private final boolean enabled;
+    private final Path file;
+    private final int maxPerPayer;
+    private final int minHistory;
+
+    // Registros ainda não gravados; protegido por this
+    private final ByteBuffer pending = ByteBuffer.allocate(RECORD_SIZE * 4096);
+    private FileChannel channel;
+
+    public KnownBeneficiaries(MeterRegistry registry,
+                              @Value("${app.beneficiaries.enabled:true}") boolean enabled,
+                              @Value("${app.beneficiaries.file:./data/known-beneficiaries.journal}") Path file,
+                              @Value("${app.beneficiaries.max-per-payer:1000}") int maxPerPayer,
+                              @Value("${app.beneficiaries.min-history:1}") int minHistory) {
+        this.enabled = enabled;
+        this.file = file;
+        this.maxPerPayer = maxPerPayer;
+        this.minHistory = minHistory;
+
+        Gauge.builder("pix.beneficiaries.payers", beneficiaries, ConcurrentLongSetMap::owners)
+                .description("Pagadores com beneficiários conhecidos em memória").register(registry);
+        Gauge.builder("pix.beneficiaries.entries", beneficiaries, ConcurrentLongSetMap::values)
+                .description("Pares pagador-beneficiário conhecidos em memória").register(registry);
+        FunctionCounter.builder("pix.beneficiaries.first-seen", firstSeen, LongAdder::sum)
+                .description("Validações para um beneficiário que o pagador nunca pagou").register(registry);
+    }
+
+    @PostConstruct
+    public void restore() throws IOException {
+        if (!enabled || !Files.exists(file)) return;
+        long start = System.currentTimeMillis();
+        long restored = 0;
+        long validSize;
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            in.read(header);
+            header.flip();
+            if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC || header.getInt() != VERSION) {
+                // Não apaga: o arquivo é movido de lado e um diário novo começa vazio
+                Path aside = file.resolveSibling(file.getFileName() + ".invalid");
+                System.out.println("[INIT] Diário de beneficiários conhecidos inválido - movido para " + aside);
+                Files.move(file, aside, StandardCopyOption.REPLACE_EXISTING);
+                return;
+            }
+
+            ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE * 65536);
+            while (in.read(buffer) >= 0) {
+                buffer.flip();
+                while (buffer.remaining() >= RECORD_SIZE) {
+                    beneficiaries.add(buffer.getLong(), buffer.getLong(), maxPerPayer);
+                    restored++;
+                }
+                buffer.compact();
+            }
+            validSize = HEADER_SIZE + restored * RECORD_SIZE;
+        }
+        // Registro incompleto no fim: cortado para que os próximos fiquem alinhados
+        if (Files.size(file) != validSize) {
+            try (FileChannel out = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                out.truncate(validSize);
+            }
+        }
+        System.out.println("[INIT] Beneficiários conhecidos restaurados: " + beneficiaries.values() + " pares de "
+                + beneficiaries.owners() + " pagadores em " + (System.currentTimeMillis() - start) + " ms");
+    }
+
+    /**
+     * true se o pagador já tem histórico (pelo menos {@code app.beneficiaries.min-history} beneficiários) e nunca
+     * teve uma validação aprovada para esta chave. Sem histórico não há como distinguir beneficiário novo de
+     * pagador novo (ou do início do uso da regra), então a chave não conta como nova. Pagador com o conjunto cheio
+     * também não: as chaves aprovadas depois disso não foram guardadas e pareceriam novas para sempre.
+     */
+    public boolean isNew(String payer, long keyHash) {
+        if (!enabled || payer == null || keyHash == 0) return false;
+        long payerHash = Hashing.hash64(PAYER, payer);
+        int known = beneficiaries.size(payerHash);
+        if (known < Math.max(1, minHistory) || known >= maxPerPayer) return false;
+        if (beneficiaries.contains(payerHash, keyHash)) return false;
+        firstSeen.increment();
+        return true;
+    }
+
+    // Validação aprovada: a chave passa a ser um beneficiário conhecido do pagador
+    public void recordAccepted(String payer, long keyHash) {
+        if (!enabled || payer == null || keyHash == 0) return;
+        long payerHash = Hashing.hash64(PAYER, payer);
+        if (beneficiaries.add(payerHash, keyHash, maxPerPayer)) {
+            append(payerHash, keyHash);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.beneficiaries.sync-interval-ms:1000}")
+    public synchronized void sync() throws IOException {
+        if (pending.position() == 0) return;
+        PersistenceEvent event = new PersistenceEvent();
+        event.operation = PersistenceEvent.BENEFICIARY_JOURNAL;
+        event.records = pending.position() / RECORD_SIZE;
+        event.begin();
+        flush();
+        channel.force(false);
+        event.success = true;
+        event.commit();
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        sync();
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    // Falha de disco não derruba a validação: com o buffer cheio os registros pendentes se perdem e voltam a ser
+    // novos após reiniciar; senão a próxima sincronização tenta de novo
+    private synchronized void append(long payerHash, long keyHash) {
+        try {
+            if (pending.remaining() < RECORD_SIZE) flush();
+        } catch (IOException e) {
+            System.out.println("[DEBUG PIX] Falha ao gravar o diário de beneficiários conhecidos: " + e.getMessage());
+            pending.clear();
+        }
+        pending.putLong(payerHash).putLong(keyHash);
+    }
+
+    private void flush() throws IOException {
+        FileChannel out = channel();
+        long size = out.size();
+        pending.flip();
+        try {
+            while (pending.hasRemaining()) {
+                out.write(pending);
+            }
+        } catch (IOException e) {
+            // Devolve todos os registros ao buffer e corta o que foi gravado pela metade
+            int written = pending.limit();
+            pending.clear().position(written);
+            discardChannel(size);
+            throw e;
+        }
+        pending.clear();
+    }
+
+    // Fecha o arquivo depois de uma falha; se não der para cortar agora, channel() alinha ao reabrir
+    private void discardChannel(long size) {
+        try {
+            channel.truncate(size);
+        } catch (IOException e) {
+            System.out.println("[DEBUG PIX] Falha ao cortar o diário de beneficiários conhecidos: " + e.getMessage());
+        }
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // o canal já está inutilizável
+        }
+        channel = null;
+    }
+
+    private FileChannel channel() throws IOException {
+        if (channel == null) {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) Files.createDirectories(parent);
+            boolean created = !Files.exists(file) || Files.size(file) == 0;
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            long partial = created ? 0 : (channel.size() - HEADER_SIZE) % RECORD_SIZE;
+            if (partial > 0) {
+                // Registro gravado pela metade em uma falha anterior
+                channel.truncate(channel.size() - partial);
+            }
+            if (created) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION).flip();
+                while (header.hasRemaining()) {
+                    channel.write(header);
+                }
+            }
+        }
+        return channel;
+    }
+}
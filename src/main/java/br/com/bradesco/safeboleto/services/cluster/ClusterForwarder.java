@@ -0,0 +1,198 @@
+package br.com.bradesco.safeboleto.services.cluster;
+
+import br.com.bradesco.safeboleto.resilience.ValidationDataGateway.Lookup;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Envio das consultas e atualizações de chaves para a instância dona, em lotes: cada membro tem uma fila e
+ * {@code app.cluster.senders-per-peer} threads virtuais que, a cada envio, levam tudo o que acumulou na fila
+ * (até {@code app.cluster.batch-size}) em um único {@code POST} binário ({@link ClusterProtocol}). Não há espera
+ * para formar o lote: com pouco tráfego cada requisição vai sozinha, em picos os lotes crescem.
+ *
+ * Falha ou timeout ({@code app.cluster.timeout-ms}) marca o membro como indisponível por
+ * {@code app.cluster.retry-after-ms}: as consultas pendentes falham (quem chamou cai para o banco) e as
+ * atualizações são descartadas, sem reenvio, para não serem contadas duas vezes se o dono já as leu do banco.
+ */
+@Component
+public class ClusterForwarder {
+
+    // Operação na fila: consulta (com o futuro da resposta) ou atualização (result == null)
+    private record Operation(long keyHash, CompletableFuture<Lookup<Long>> result) {
+    }
+
+    private final RestClient restClient;
+    private final String secret;
+    private final int sendersPerPeer;
+    private final int batchSize;
+    private final int maxPending;
+    private final long retryAfterMs;
+
+    private final Map<String, Peer> peers = new ConcurrentHashMap<>();
+    private final LongAdder forwardedLookups = new LongAdder();
+    private final LongAdder forwardedUpdates = new LongAdder();
+    private final LongAdder failedLookups = new LongAdder();
+    private final LongAdder droppedUpdates = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+
+    public ClusterForwarder(RestClient.Builder restClientBuilder, MeterRegistry registry,
+                            @Value("${app.cluster.secret:}") String secret,
+                            @Value("${app.cluster.timeout-ms:200}") int timeoutMs,
+                            @Value("${app.cluster.senders-per-peer:2}") int sendersPerPeer,
+                            @Value("${app.cluster.batch-size:256}") int batchSize,
+                            @Value("${app.cluster.max-pending:10000}") int maxPending,
+                            @Value("${app.cluster.retry-after-ms:1000}") long retryAfterMs) {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(timeoutMs);
+        requestFactory.setReadTimeout(timeoutMs);
+        this.restClient = restClientBuilder.requestFactory(requestFactory).build();
+        this.secret = secret;
+        this.sendersPerPeer = Math.max(1, sendersPerPeer);
+        this.batchSize = Math.max(1, Math.min(batchSize, ClusterProtocol.MAX_KEYS));
+        this.maxPending = Math.max(1, maxPending);
+        this.retryAfterMs = retryAfterMs;
+
+        register(registry, "lookup", "forwarded", forwardedLookups);
+        register(registry, "lookup", "failed", failedLookups);
+        register(registry, "update", "forwarded", forwardedUpdates);
+        register(registry, "update", "dropped", droppedUpdates);
+        FunctionCounter.builder("pix.cluster.batches", batches, LongAdder::sum)
+                .description("Lotes enviados às instâncias donas das chaves").register(registry);
+    }
+
+    /**
+     * Rejeições da chave segundo o dono. Falha logo se o membro está marcado como indisponível ou a fila está cheia.
+     */
+    public CompletableFuture<Lookup<Long>> lookup(String member, long keyHash) {
+        Peer peer = peer(member);
+        CompletableFuture<Lookup<Long>> result = new CompletableFuture<>();
+        if (peer.unavailable() || !peer.queue.offer(new Operation(keyHash, result))) {
+            failedLookups.increment();
+            result.completeExceptionally(new IllegalStateException("Instância " + member + " indisponível"));
+        }
+        return result;
+    }
+
+    // Nova rejeição da chave, entregue ao dono no próximo lote (ou descartada se ele estiver indisponível)
+    public void update(String member, long keyHash) {
+        Peer peer = peer(member);
+        if (peer.unavailable() || !peer.queue.offer(new Operation(keyHash, null))) {
+            droppedUpdates.increment();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        peers.values().forEach(peer -> peer.senders.forEach(Thread::interrupt));
+    }
+
+    private Peer peer(String member) {
+        return peers.computeIfAbsent(member, Peer::new);
+    }
+
+    private void send(Peer peer, List<Operation> batch) {
+        long[] lookups = new long[batch.size()];
+        long[] updates = new long[batch.size()];
+        int lookupCount = 0, updateCount = 0;
+        for (Operation operation : batch) {
+            if (operation.result() != null) {
+                lookups[lookupCount++] = operation.keyHash();
+            } else {
+                updates[updateCount++] = operation.keyHash();
+            }
+        }
+
+        try {
+            byte[] response = restClient.post()
+                    .uri(peer.url + ClusterProtocol.PATH)
+                    .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                    .header(ClusterProtocol.SECRET_HEADER, secret)
+                    .body(ClusterProtocol.encodeBatch(lookups, lookupCount, updates, updateCount))
+                    .retrieve()
+                    .body(byte[].class);
+            Lookup<Long>[] results = ClusterProtocol.decodeResults(response == null ? new byte[0] : response, lookupCount);
+            batches.increment();
+            forwardedLookups.add(lookupCount);
+            forwardedUpdates.add(updateCount);
+            int r = 0;
+            for (Operation operation : batch) {
+                if (operation.result() != null) operation.result().complete(results[r++]);
+            }
+        } catch (RuntimeException e) {
+            peer.unavailableUntil = System.currentTimeMillis() + retryAfterMs;
+            System.out.println("[DEBUG PIX] Instância " + peer.url + " do cluster não respondeu (" + e.getMessage()
+                    + ") - consultas vão ao banco por " + retryAfterMs + " ms");
+            fail(batch, e);
+        }
+    }
+
+    private void fail(List<Operation> batch, RuntimeException error) {
+        for (Operation operation : batch) {
+            if (operation.result() != null) {
+                failedLookups.increment();
+                operation.result().completeExceptionally(error);
+            } else {
+                droppedUpdates.increment();
+            }
+        }
+    }
+
+    private static void register(MeterRegistry registry, String operation, String result, LongAdder counter) {
+        FunctionCounter.builder("pix.cluster.operations", counter, LongAdder::sum)
+                .description("Consultas e atualizações de chaves encaminhadas à instância dona")
+                .tag("operation", operation).tag("result", result).register(registry);
+    }
+
+    private final class Peer {
+
+        final String url;
+        final BlockingQueue<Operation> queue = new ArrayBlockingQueue<>(maxPending);
+        final List<Thread> senders = new ArrayList<>();
+        volatile long unavailableUntil;
+
+        Peer(String url) {
+            this.url = url;
+            for (int i = 0; i < sendersPerPeer; i++) {
+                senders.add(Thread.ofVirtual().name("cluster-sender-" + url + "-" + i).start(this::run));
+            }
+        }
+
+        boolean unavailable() {
+            return System.currentTimeMillis() < unavailableUntil;
+        }
+
+        private void run() {
+            List<Operation> batch = new ArrayList<>(batchSize);
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    batch.add(queue.take());
+                    queue.drainTo(batch, batchSize - 1);
+                    if (unavailable()) {
+                        // Enfileiradas antes da falha: não esperam outro timeout
+                        fail(batch, new IllegalStateException("Instância " + url + " indisponível"));
+                    } else {
+                        send(this, batch);
+                    }
+                    batch.clear();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package br.com.bradesco.safeboleto.services.cluster;
+
+import br.com.bradesco.safeboleto.util.ConsistentHashRing;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Membros do modo cluster ({@code app.cluster.enabled}) e o anel de hash consistente que define a instância
+ * dona de cada chave PIX (pelo código canônico, {@code PixKeyCodec}).
+ *
+ * Cada membro é identificado pela URL base ({@code http://host:porta}); {@code app.cluster.self} é a desta
+ * instância e precisa estar na lista. A lista vem de {@code app.cluster.members} (separada por vírgulas) ou,
+ * se configurado, do arquivo {@code app.cluster.members-file} (uma URL por linha, {@code #} para comentários),
+ * relido quando muda. Cada troca de anel incrementa {@link #generation()}.
+ */
+@Component
+public class ClusterMembership {
+
+    private final boolean enabled;
+    private final String self;
+    private final List<String> configuredMembers;
+    private final Path membersFile;
+    private final int virtualNodes;
+
+    private volatile ConsistentHashRing ring = ConsistentHashRing.of(List.of(), 1);
+    private volatile int generation;
+    private volatile long membersFileLastModified;
+
+    public ClusterMembership(@Value("${app.cluster.enabled:false}") boolean enabled,
+                             @Value("${app.cluster.self:}") String self,
+                             @Value("${app.cluster.members:}") List<String> members,
+                             @Value("${app.cluster.members-file:}") String membersFile,
+                             @Value("${app.cluster.secret:}") String secret,
+                             @Value("${app.cluster.virtual-nodes:128}") int virtualNodes) {
+        this.enabled = enabled;
+        this.self = normalize(self);
+        this.configuredMembers = members.stream().map(ClusterMembership::normalize).filter(m -> !m.isEmpty()).toList();
+        this.membersFile = membersFile.isBlank() ? null : Path.of(membersFile.strip());
+        this.virtualNodes = virtualNodes;
+        if (enabled && (this.self.isEmpty() || secret.isBlank())) {
+            throw new IllegalStateException("Modo cluster exige app.cluster.self e app.cluster.secret");
+        }
+    }
+
+    @PostConstruct
+    public void load() {
+        if (!enabled) return;
+        if (membersFile == null) {
+            apply(configuredMembers);
+        } else {
+            reloadIfChanged();
+        }
+    }
+
+    @Scheduled(initialDelayString = "${app.cluster.members-reload-interval-ms:10000}",
+               fixedDelayString = "${app.cluster.members-reload-interval-ms:10000}")
+    public void reloadIfChanged() {
+        if (!enabled || membersFile == null) return;
+        try {
+            long lastModified = Files.getLastModifiedTime(membersFile).toMillis();
+            if (lastModified == membersFileLastModified) return;
+            List<String> members = Files.readAllLines(membersFile, StandardCharsets.UTF_8).stream()
+                    .map(String::strip)
+                    .filter(line -> !line.isEmpty() && !line.startsWith("#"))
+                    .map(ClusterMembership::normalize)
+                    .toList();
+            apply(members);
+            membersFileLastModified = lastModified;
+        } catch (IOException e) {
+            // Sem o arquivo a lista atual continua valendo
+            System.out.println("[DEBUG PIX] Falha ao ler os membros do cluster em " + membersFile + ": " + e.getMessage());
+        }
+    }
+
+    public boolean enabled() {
+        return enabled;
+    }
+
+    public String self() {
+        return self;
+    }
+
+    /**
+     * URL da instância dona da chave, ou {@code null} fora do modo cluster.
+     */
+    public String owner(long keyHash) {
+        return enabled ? ring.owner(keyHash) : null;
+    }
+
+    public boolean isSelf(String member) {
+        return self.equals(member);
+    }
+
+    public List<String> members() {
+        return ring.members();
+    }
+
+    // Incrementada a cada troca de anel: estado guardado pelo dono anterior deixa de valer
+    public int generation() {
+        return generation;
+    }
+
+    private synchronized void apply(List<String> members) {
+        if (!members.contains(self)) {
+            // Sem esta instância no anel ela nunca seria dona de nada e nem receberia as atualizações
+            System.out.println("[INIT] Lista de membros do cluster ignorada: " + self + " não está em " + members);
+            return;
+        }
+        ConsistentHashRing updated = ConsistentHashRing.of(members, virtualNodes);
+        if (updated.members().equals(ring.members())) return;
+        ring = updated;
+        generation++;
+        System.out.println("[INIT] Modo cluster: esta instância é " + self + ", membros " + updated.members());
+    }
+
+    // URL sem espaços e sem a barra final, para comparar membros
+    private static String normalize(String member) {
+        String clean = member.strip();
+        return clean.endsWith("/") ? clean.substring(0, clean.length() - 1) : clean;
+    }
+}
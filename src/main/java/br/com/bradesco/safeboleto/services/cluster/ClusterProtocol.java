@@ -0,0 +1,105 @@
+package br.com.bradesco.safeboleto.services.cluster;
+
+import br.com.bradesco.safeboleto.resilience.ValidationDataGateway.Lookup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Formato binário de {@code POST /internal/cluster/keys} (big-endian, {@code application/octet-stream}):
+ *
+ * <pre>
+ * requisição: int n, n x long (chaves a consultar), int m, m x long (chaves com nova rejeição)
+ * resposta:   int n, n x (long rejeições, byte 1 se veio do modo degradado)
+ * </pre>
+ *
+ * As chaves são os códigos canônicos ({@code PixKeyCodec}); as respostas seguem a ordem das consultas.
+ */
+public final class ClusterProtocol {
+
+    public static final String PATH = "/internal/cluster/keys";
+    public static final String SECRET_HEADER = "X-Cluster-Secret";
+
+    // Limite por lote recebido, para que um corpo malformado não aloque arrays enormes
+    static final int MAX_KEYS = 1 << 16;
+
+    private ClusterProtocol() {
+    }
+
+    /**
+     * Consultas e atualizações de um lote.
+     */
+    public record Batch(long[] lookups, long[] updates) {
+    }
+
+    public static byte[] encodeBatch(long[] lookups, int lookupCount, long[] updates, int updateCount) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(8 + 8 * (lookupCount + updateCount));
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            writeKeys(out, lookups, lookupCount);
+            writeKeys(out, updates, updateCount);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static Batch decodeBatch(byte[] body) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(body))) {
+            return new Batch(readKeys(in), readKeys(in));
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Lote do cluster malformado: " + e.getMessage(), e);
+        }
+    }
+
+    public static byte[] encodeResults(Lookup<Long>[] results) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(4 + 9 * results.length);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(results.length);
+            for (Lookup<Long> result : results) {
+                out.writeLong(result.value());
+                out.writeBoolean(result.degraded());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    @SuppressWarnings("unchecked")
+    public static Lookup<Long>[] decodeResults(byte[] body, int expected) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(body))) {
+            int n = in.readInt();
+            if (n != expected) {
+                throw new IllegalStateException("Resposta do cluster com " + n + " resultados, esperados " + expected);
+            }
+            Lookup<Long>[] results = new Lookup[n];
+            for (int i = 0; i < n; i++) {
+                results[i] = new Lookup<>(in.readLong(), in.readBoolean());
+            }
+            return results;
+        } catch (IOException e) {
+            throw new IllegalStateException("Resposta do cluster malformada: " + e.getMessage(), e);
+        }
+    }
+
+    private static void writeKeys(DataOutputStream out, long[] keys, int count) throws IOException {
+        out.writeInt(count);
+        for (int i = 0; i < count; i++) {
+            out.writeLong(keys[i]);
+        }
+    }
+
+    private static long[] readKeys(DataInputStream in) throws IOException {
+        int n = in.readInt();
+        if (n < 0 || n > MAX_KEYS) throw new IOException("quantidade de chaves inválida: " + n);
+        long[] keys = new long[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = in.readLong();
+        }
+        return keys;
+    }
+}
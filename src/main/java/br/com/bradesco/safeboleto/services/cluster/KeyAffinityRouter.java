@@ -0,0 +1,171 @@
+package br.com.bradesco.safeboleto.services.cluster;
+
+import br.com.bradesco.safeboleto.resilience.ValidationDataGateway;
+import br.com.bradesco.safeboleto.resilience.ValidationDataGateway.Lookup;
+import br.com.bradesco.safeboleto.util.ConcurrentLongIntMap;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histórico de rejeições por chave PIX no modo cluster. Cada chave tem uma instância dona
+ * ({@link ClusterMembership}), que guarda em memória a contagem das chaves que já consultou: lida do banco na
+ * primeira consulta e incrementada a cada rejeição, seja validada por ela ou avisada pelas outras instâncias
+ * ({@link ClusterForwarder}). Assim as consultas seguintes da chave, vindas de qualquer instância, não vão ao banco.
+ *
+ * Se o dono não responde a tempo, a consulta vai ao banco como fora do modo cluster. Rejeições perdidas nesse
+ * intervalo (ou concorrentes com a primeira leitura) deixam a contagem do dono defasada; por isso o mapa é
+ * descartado a cada {@code app.cluster.resync-interval-ms} e a cada troca de membros, sendo relido do banco aos
+ * poucos. Fora do modo cluster todas as consultas vão ao banco.
+ */
+@Component
+public class KeyAffinityRouter {
+
+    private static final int MISSING = -1;
+
+    private final ClusterMembership membership;
+    private final ClusterForwarder forwarder;
+    private final ValidationDataGateway dataGateway;
+    private final long timeoutMs;
+
+    private final ConcurrentLongIntMap ownedCounts = new ConcurrentLongIntMap(1 << 14);
+    private final ExecutorService loaders = Executors.newVirtualThreadPerTaskExecutor();
+    private final LongAdder ownerHits = new LongAdder();
+    private final LongAdder databaseFallbacks = new LongAdder();
+    private volatile int generation;
+
+    public KeyAffinityRouter(ClusterMembership membership, ClusterForwarder forwarder,
+                             ValidationDataGateway dataGateway, MeterRegistry registry,
+                             @Value("${app.cluster.timeout-ms:200}") long timeoutMs) {
+        this.membership = membership;
+        this.forwarder = forwarder;
+        this.dataGateway = dataGateway;
+        this.timeoutMs = timeoutMs;
+
+        Gauge.builder("pix.cluster.owned-keys", ownedCounts, ConcurrentLongIntMap::size)
+                .description("Chaves desta instância com contagem de rejeições em memória").register(registry);
+        FunctionCounter.builder("pix.cluster.owner-hits", ownerHits, LongAdder::sum)
+                .description("Consultas de chaves próprias respondidas da memória").register(registry);
+        FunctionCounter.builder("pix.cluster.database-fallbacks", databaseFallbacks, LongAdder::sum)
+                .description("Consultas encaminhadas que foram ao banco porque o dono não respondeu").register(registry);
+    }
+
+    /**
+     * Rejeições anteriores da chave: da memória se esta instância é a dona, do dono se é outra instância (ou do
+     * banco, se ele falhar) e do banco fora do modo cluster. Bloqueia; chamado em thread virtual.
+     */
+    public Lookup<Long> rejectedCount(long keyHash) {
+        String owner = membership.owner(keyHash);
+        if (owner == null) return dataGateway.countRejected(keyHash);
+        if (membership.isSelf(owner)) return ownedCount(keyHash);
+        try {
+            return forwarder.lookup(owner, keyHash).get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | ExecutionException e) {
+            databaseFallbacks.increment();
+            return dataGateway.countRejected(keyHash);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return dataGateway.cachedRejectedCount(keyHash);
+        }
+    }
+
+    // Validação rejeitada já gravada: avisa o dono da chave
+    public void recordRejected(long keyHash) {
+        String owner = membership.owner(keyHash);
+        if (owner == null || keyHash == 0) return;
+        if (membership.isSelf(owner)) {
+            incrementOwned(keyHash);
+        } else {
+            forwarder.update(owner, keyHash);
+        }
+    }
+
+    /**
+     * Lote recebido de outra instância: aplica as rejeições das chaves próprias e responde as consultas. Chaves de
+     * outro dono (membros configurados de forma diferente entre as instâncias) são respondidas pelo banco e suas
+     * rejeições ignoradas, já que estão no banco.
+     */
+    @SuppressWarnings("unchecked")
+    public Lookup<Long>[] handle(ClusterProtocol.Batch batch) {
+        for (long keyHash : batch.updates()) {
+            if (membership.isSelf(membership.owner(keyHash))) incrementOwned(keyHash);
+        }
+
+        long[] lookups = batch.lookups();
+        Lookup<Long>[] results = new Lookup[lookups.length];
+        CompletableFuture<Lookup<Long>>[] pending = new CompletableFuture[lookups.length];
+        for (int i = 0; i < lookups.length; i++) {
+            long keyHash = lookups[i];
+            boolean own = membership.isSelf(membership.owner(keyHash));
+            int cached = own ? cachedOwned(keyHash) : MISSING;
+            if (cached != MISSING) {
+                ownerHits.increment();
+                results[i] = new Lookup<>((long) cached, false);
+            } else {
+                // Leituras do banco do lote em paralelo (limitadas pelo pool de conexões)
+                pending[i] = CompletableFuture.supplyAsync(
+                        () -> own ? ownedCount(keyHash) : dataGateway.countRejected(keyHash), loaders);
+            }
+        }
+        for (int i = 0; i < lookups.length; i++) {
+            if (pending[i] != null) results[i] = pending[i].join();
+        }
+        return results;
+    }
+
+    @Scheduled(initialDelayString = "${app.cluster.resync-interval-ms:300000}",
+               fixedDelayString = "${app.cluster.resync-interval-ms:300000}")
+    public void resync() {
+        if (membership.enabled()) ownedCounts.clear();
+    }
+
+    private Lookup<Long> ownedCount(long keyHash) {
+        int cached = cachedOwned(keyHash);
+        if (cached != MISSING) {
+            ownerHits.increment();
+            return new Lookup<>((long) cached, false);
+        }
+        Lookup<Long> loaded = dataGateway.countRejected(keyHash);
+        // Contagem do modo degradado não é guardada: pode estar incompleta
+        if (loaded.degraded()) return loaded;
+        int count = (int) Math.min(Integer.MAX_VALUE, loaded.value());
+        return new Lookup<>((long) ownedCounts.computeIfAbsent(keyHash, key -> count), false);
+    }
+
+    private int cachedOwned(long keyHash) {
+        checkGeneration();
+        return ownedCounts.get(keyHash, MISSING);
+    }
+
+    // Só chaves já carregadas: as demais serão lidas do banco, que já tem esta rejeição
+    private void incrementOwned(long keyHash) {
+        checkGeneration();
+        if (ownedCounts.get(keyHash, MISSING) != MISSING) {
+            ownedCounts.addAndGet(keyHash, 1);
+        }
+    }
+
+    // Com outro anel, chaves guardadas podem ter recebido rejeições enquanto eram de outro dono
+    private void checkGeneration() {
+        int current = membership.generation();
+        if (current != generation) {
+            synchronized (this) {
+                if (current != generation) {
+                    ownedCounts.clear();
+                    generation = current;
+                }
+            }
+        }
+    }
+}
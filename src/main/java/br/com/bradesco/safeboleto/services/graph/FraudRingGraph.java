@@ -0,0 +1,388 @@
+package br.com.bradesco.safeboleto.services.graph;
+
+import br.com.bradesco.safeboleto.util.ConcurrentLongIntMap;
+import br.com.bradesco.safeboleto.util.Hashing;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Grafo de anéis de fraude: liga chaves PIX, documentos de beneficiários e contas (documento + banco)
+ * que aparecem juntos em validações, mantendo as componentes conexas com um union-find concorrente.
+ *
+ * Os nós são identificados por códigos de 64 bits (o código canônico da chave, de {@code PixKeyCodec}, e hashes
+ * de documento e conta) internados em ids inteiros sequenciais; pais e
+ * estatísticas ficam em arrays primitivos divididos em blocos, alocados sob demanda.
+ * A busca da raiz usa compressão por "path halving" com CAS e a união liga raízes por prioridade
+ * pseudoaleatória, o que mantém as árvores rasas (custo amortizado próximo de O(α(n))) sem locks.
+ *
+ * O código do banco sozinho não vira nó: ligar por ele juntaria todos os clientes de um mesmo banco
+ * em uma única componente. O banco entra como conta do beneficiário naquele banco (documento + banco).
+ *
+ * O número de nós é limitado por {@code app.fraud-graph.max-nodes}: union-find não permite remover nós, então
+ * um grafo cheio deixa de ganhar nós novos (as validações continuam contando nas componentes já conhecidas) e o
+ * {@link FraudRingGraphLoader} monta outro a partir das validações mais recentes, trocado de uma vez
+ * ({@link #beginRebuild}/{@link #finishRebuild}).
+ */
+@Component
+public class FraudRingGraph {
+
+    private static final char DOCUMENT = 'D';
+    private static final char ACCOUNT = 'A';
+
+    private static final int CHUNK_BITS = 16;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    // Estatísticas por componente, válidas apenas na raiz
+    private static final int VALIDATIONS = 0;
+    private static final int REJECTED = 1;
+    private static final int KEYS = 2;
+    private static final int DOCUMENTS = 3;
+    private static final int ACCOUNTS = 4;
+    private static final int STAT_FIELDS = 5;
+
+    // Validações recebidas durante uma reconstrução, aplicadas no grafo novo ao final
+    private static final int MAX_DEFERRED = 100_000;
+
+    private final int maxNodes;
+    private final LongAdder droppedNodes = new LongAdder();
+    private final LongAdder droppedRecords = new LongAdder();
+
+    private volatile Generation current;
+    private volatile Rebuild rebuild;
+
+    /**
+     * Estatísticas da componente conexa de um nó.
+     */
+    public record ComponentStats(int validations, int rejected, int distinctKeys, int distinctDocuments,
+                                 int distinctAccounts) {
+
+        public double rejectedRatio() {
+            return validations == 0 ? 0 : rejected / (double) validations;
+        }
+    }
+
+    public FraudRingGraph(MeterRegistry registry,
+                          @Value("${app.fraud-graph.max-nodes:10000000}") int maxNodes) {
+        this.maxNodes = Math.max(CHUNK_SIZE, maxNodes);
+        this.current = new Generation(this.maxNodes);
+        Gauge.builder("pix.fraud-graph.nodes", this, FraudRingGraph::nodeCount)
+                .description("Nós no grafo de anéis de fraude").register(registry);
+        FunctionCounter.builder("pix.fraud-graph.dropped-nodes", droppedNodes, LongAdder::sum)
+                .description("Nós não incluídos por falta de capacidade no grafo de anéis de fraude").register(registry);
+        FunctionCounter.builder("pix.fraud-graph.dropped-records", droppedRecords, LongAdder::sum)
+                .description("Validações descartadas por excesso durante a reconstrução do grafo").register(registry);
+    }
+
+    /**
+     * Registra uma validação, ligando chave, documento e conta na mesma componente.
+     *
+     * @param validationId id em {@code pix_validations}, ou {@code null} se a validação não foi gravada; durante
+     *                     uma reconstrução é o que evita contar duas vezes a linha que a carga também leu
+     */
+    public void record(Long validationId, long keyHash, String document, String bankCode, boolean rejected) {
+        if (keyHash == 0) return;
+        Rebuild pending = rebuild;
+        if (pending != null && pending.defer(new Deferred(validationId, keyHash, document, bankCode, rejected))) {
+            return;
+        }
+        current.record(keyHash, document, bankCode, rejected);
+    }
+
+    /**
+     * Estatísticas da componente da chave ou do documento (a de maior número de validações, caso ainda
+     * estejam em componentes diferentes). Retorna {@code null} se nenhum dos dois é conhecido.
+     */
+    public ComponentStats lookup(long keyHash, String document) {
+        return current.lookup(keyHash, document);
+    }
+
+    public int nodeCount() {
+        return current.nodeCount();
+    }
+
+    public int maxNodes() {
+        return maxNodes;
+    }
+
+    // Cheio ao passar de 90% da capacidade: a partir daí nós novos podem ser recusados
+    public boolean isNearlyFull() {
+        return current.nodeCount() >= maxNodes - maxNodes / 10;
+    }
+
+    public long droppedNodes() {
+        return droppedNodes.sum();
+    }
+
+    /**
+     * Inicia a montagem de um grafo novo. Até {@link #finishRebuild} as validações registradas são guardadas e
+     * as consultas continuam no grafo atual. Deve ser chamado antes de ler o maior id da tabela, para que toda
+     * validação gravada depois dessa leitura seja guardada, e não perdida.
+     */
+    public synchronized Rebuild beginRebuild() {
+        if (rebuild != null) throw new IllegalStateException("Reconstrução do grafo de fraude já em andamento.");
+        rebuild = new Rebuild(new Generation(maxNodes));
+        return rebuild;
+    }
+
+    /**
+     * Troca o grafo atual pelo montado e aplica nele as validações guardadas durante a reconstrução, menos as
+     * que a carga já leu da tabela.
+     *
+     * @return número de validações guardadas aplicadas
+     */
+    public synchronized int finishRebuild(Rebuild finished) {
+        current = finished.generation;
+        rebuild = null;
+        finished.closed = true;
+        int applied = 0;
+        Deferred d;
+        while ((d = finished.deferred.poll()) != null) {
+            if (finished.apply(d)) applied++;
+        }
+        return applied;
+    }
+
+    // Descarta uma reconstrução que falhou; as validações guardadas vão para o grafo atual
+    public synchronized void abortRebuild(Rebuild failed) {
+        rebuild = null;
+        failed.aborted = true;
+        failed.closed = true;
+        Deferred d;
+        while ((d = failed.deferred.poll()) != null) {
+            current.record(d.keyHash, d.document, d.bankCode, d.rejected);
+        }
+    }
+
+    private record Deferred(Long validationId, long keyHash, String document, String bankCode, boolean rejected) {
+    }
+
+    /**
+     * Grafo em montagem. A carga marca os ids lidos ({@link #load}); uma validação guardada cujo id já foi lido
+     * não é aplicada de novo ao final. Os ids ficam em bitmaps por faixa, liberados com a reconstrução.
+     */
+    public final class Rebuild {
+
+        private static final int RANGE_BITS = 16;
+
+        private final Generation generation;
+        private final Map<Long, long[]> seen = new ConcurrentHashMap<>();
+        private final Queue<Deferred> deferred = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger deferredCount = new AtomicInteger();
+        private volatile boolean closed;
+        private volatile boolean aborted;
+
+        private Rebuild(Generation generation) {
+            this.generation = generation;
+        }
+
+        // Registra uma linha lida da tabela no grafo novo
+        public void load(long validationId, long keyHash, String document, String bankCode, boolean rejected) {
+            long[] bits = seen.computeIfAbsent(validationId >>> RANGE_BITS, k -> new long[1 << (RANGE_BITS - 6)]);
+            int bit = (int) (validationId & ((1 << RANGE_BITS) - 1));
+            synchronized (bits) {
+                bits[bit >>> 6] |= 1L << bit;
+            }
+            generation.record(keyHash, document, bankCode, rejected);
+        }
+
+        public int nodeCount() {
+            return generation.nodeCount();
+        }
+
+        private boolean defer(Deferred d) {
+            if (closed) return false;
+            if (deferredCount.incrementAndGet() > MAX_DEFERRED) {
+                droppedRecords.increment();
+                return true;
+            }
+            deferred.offer(d);
+            // Corrida com o fim da reconstrução: se a fila já foi esvaziada, quem guardou aplica
+            if (closed && deferred.remove(d)) {
+                if (aborted) return false; // o chamador grava no grafo atual
+                apply(d);
+            }
+            return true;
+        }
+
+        private boolean apply(Deferred d) {
+            if (d.validationId != null && wasLoaded(d.validationId)) return false;
+            generation.record(d.keyHash, d.document, d.bankCode, d.rejected);
+            return true;
+        }
+
+        private boolean wasLoaded(long validationId) {
+            long[] bits = seen.get(validationId >>> RANGE_BITS);
+            if (bits == null) return false;
+            int bit = (int) (validationId & ((1 << RANGE_BITS) - 1));
+            synchronized (bits) {
+                return (bits[bit >>> 6] & (1L << bit)) != 0;
+            }
+        }
+    }
+
+    /**
+     * Um grafo completo: ids internados e blocos de pais e estatísticas, com capacidade fixa.
+     */
+    private final class Generation {
+
+        private final int capacity;
+        private final ConcurrentLongIntMap ids = new ConcurrentLongIntMap(1 << 16);
+        private final AtomicInteger nextId = new AtomicInteger();
+        private final AtomicReferenceArray<Chunk> chunks;
+
+        Generation(int capacity) {
+            this.capacity = capacity;
+            // Folga de um bloco: várias threads podem passar juntas da verificação de capacidade
+            this.chunks = new AtomicReferenceArray<>((capacity >>> CHUNK_BITS) + 2);
+        }
+
+        void record(long keyHash, String document, String bankCode, boolean rejected) {
+            int key = intern(keyHash, KEYS);
+            if (key < 0) {
+                droppedNodes.increment();
+                return;
+            }
+            if (document != null && !document.isBlank()) {
+                int doc = intern(Hashing.hash64(DOCUMENT, document), DOCUMENTS);
+                if (doc >= 0) {
+                    union(key, doc);
+                    if (bankCode != null && !bankCode.isBlank()) {
+                        int account = intern(Hashing.hash64(ACCOUNT, bankCode + ':' + document), ACCOUNTS);
+                        if (account >= 0) union(doc, account);
+                        else droppedNodes.increment();
+                    }
+                } else {
+                    droppedNodes.increment();
+                }
+            }
+            add(key, VALIDATIONS, 1);
+            if (rejected) add(key, REJECTED, 1);
+        }
+
+        ComponentStats lookup(long keyHash, String document) {
+            int key = keyHash != 0 ? ids.get(keyHash, -1) : -1;
+            int doc = document != null ? ids.get(Hashing.hash64(DOCUMENT, document), -1) : -1;
+            if (key < 0 && doc < 0) return null;
+
+            int root = key >= 0 ? find(key) : find(doc);
+            if (key >= 0 && doc >= 0) {
+                int other = find(doc);
+                if (other != root && stat(other, VALIDATIONS) > stat(root, VALIDATIONS)) root = other;
+            }
+            return new ComponentStats(stat(root, VALIDATIONS), stat(root, REJECTED), stat(root, KEYS),
+                    stat(root, DOCUMENTS), stat(root, ACCOUNTS));
+        }
+
+        int nodeCount() {
+            return Math.min(nextId.get(), capacity);
+        }
+
+        // Id do nó, criado se preciso; -1 se o grafo está cheio e o nó ainda não existe
+        private int intern(long hash, int typeField) {
+            if (nextId.get() >= capacity) return ids.get(hash, -1);
+            return ids.computeIfAbsent(hash, h -> {
+                int id = nextId.getAndIncrement();
+                Chunk chunk = chunk(id);
+                chunk.parent.set(id & CHUNK_MASK, id);
+                chunk.stats.set((id & CHUNK_MASK) * STAT_FIELDS + typeField, 1);
+                return id;
+            });
+        }
+
+        private Chunk chunk(int id) {
+            int index = id >>> CHUNK_BITS;
+            Chunk chunk = chunks.get(index);
+            if (chunk == null) {
+                Chunk created = new Chunk();
+                chunk = chunks.compareAndSet(index, null, created) ? created : chunks.get(index);
+            }
+            return chunk;
+        }
+
+        private int parent(int id) {
+            return chunks.get(id >>> CHUNK_BITS).parent.get(id & CHUNK_MASK);
+        }
+
+        private boolean casParent(int id, int expected, int updated) {
+            return chunks.get(id >>> CHUNK_BITS).parent.compareAndSet(id & CHUNK_MASK, expected, updated);
+        }
+
+        private int stat(int id, int field) {
+            return chunks.get(id >>> CHUNK_BITS).stats.get((id & CHUNK_MASK) * STAT_FIELDS + field);
+        }
+
+        private int find(int x) {
+            while (true) {
+                int p = parent(x);
+                if (p == x) return x;
+                int grandParent = parent(p);
+                if (grandParent != p) casParent(x, p, grandParent);
+                x = grandParent;
+            }
+        }
+
+        private void union(int a, int b) {
+            while (true) {
+                int ra = find(a);
+                int rb = find(b);
+                if (ra == rb) return;
+                // A raiz de menor prioridade é ligada sob a de maior
+                int pa = Hashing.mix32(ra), pb = Hashing.mix32(rb);
+                if (pa > pb || (pa == pb && ra > rb)) {
+                    int tmp = ra;
+                    ra = rb;
+                    rb = tmp;
+                }
+                if (casParent(ra, ra, rb)) {
+                    sweep(ra);
+                    return;
+                }
+            }
+        }
+
+        private void add(int node, int field, int delta) {
+            int root = find(node);
+            Chunk chunk = chunks.get(root >>> CHUNK_BITS);
+            chunk.stats.addAndGet((root & CHUNK_MASK) * STAT_FIELDS + field, delta);
+            sweep(root);
+        }
+
+        /**
+         * Move as estatísticas de um nó que deixou de ser raiz para a raiz atual. Cobre tanto a união quanto
+         * incrementos feitos em uma raiz no instante em que ela era ligada a outra: como cada valor é retirado
+         * com getAndSet, nenhuma contagem é perdida nem duplicada.
+         */
+        private void sweep(int node) {
+            while (parent(node) != node) {
+                Chunk from = chunks.get(node >>> CHUNK_BITS);
+                int base = (node & CHUNK_MASK) * STAT_FIELDS;
+                int target = find(node);
+                Chunk to = chunks.get(target >>> CHUNK_BITS);
+                int targetBase = (target & CHUNK_MASK) * STAT_FIELDS;
+                for (int f = 0; f < STAT_FIELDS; f++) {
+                    int moved = from.stats.getAndSet(base + f, 0);
+                    if (moved != 0) to.stats.addAndGet(targetBase + f, moved);
+                }
+                node = target;
+            }
+        }
+    }
+
+    private static final class Chunk {
+        final AtomicIntegerArray parent = new AtomicIntegerArray(CHUNK_SIZE);
+        final AtomicIntegerArray stats = new AtomicIntegerArray(CHUNK_SIZE * STAT_FIELDS);
+    }
+}
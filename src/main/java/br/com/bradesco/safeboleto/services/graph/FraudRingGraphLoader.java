@@ -0,0 +1,146 @@
+package br.com.bradesco.safeboleto.services.graph;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reconstrói o {@link FraudRingGraph} a partir de {@code pix_validations}: na inicialização e quando o grafo
+ * chega perto da capacidade ({@code app.fraud-graph.max-nodes}).
+ *
+ * A tabela é dividida em faixas de id lidas em paralelo, das mais recentes para as mais antigas, até o grafo novo
+ * ocupar 3/4 da capacidade; validações mais antigas ficam de fora. Como o union-find aceita uniões concorrentes,
+ * cada faixa alimenta o grafo diretamente, sem etapa de junção. Validações registradas pelo {@code PixService}
+ * durante a reconstrução são guardadas e aplicadas no fim, exceto as que a carga já leu da tabela.
+ */
+@Component
+@RequiredArgsConstructor
+public class FraudRingGraphLoader {
+
+    private static final long RANGE_SIZE = 50_000;
+
+    private final FraudRingGraph graph;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${app.fraud-graph.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.fraud-graph.rebuild-threads:4}")
+    private int rebuildThreads;
+
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private final ExecutorService runner = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "fraud-graph-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() throws Exception {
+        if (!enabled || !rebuilding.compareAndSet(false, true)) return;
+        try {
+            rebuild("inicialização");
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    // Fora da thread do agendador: a reconstrução pode levar minutos
+    @Scheduled(initialDelayString = "${app.fraud-graph.capacity-check-interval-ms:60000}",
+               fixedDelayString = "${app.fraud-graph.capacity-check-interval-ms:60000}")
+    public void rebuildIfNearlyFull() {
+        if (!enabled || !graph.isNearlyFull() || !rebuilding.compareAndSet(false, true)) return;
+        runner.execute(() -> {
+            try {
+                rebuild("capacidade");
+            } catch (Exception e) {
+                System.out.println("[DEBUG PIX] Falha ao reconstruir o grafo de fraude: " + e.getMessage());
+            } finally {
+                rebuilding.set(false);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        runner.shutdownNow();
+    }
+
+    private void rebuild(String reason) throws Exception {
+        long start = System.nanoTime();
+        // Antes de ler o maior id: o que for gravado depois fica guardado para o fim da reconstrução
+        FraudRingGraph.Rebuild rebuild = graph.beginRebuild();
+        AtomicLong rows = new AtomicLong();
+        long fillTarget = graph.maxNodes() * 3L / 4;
+        AtomicBoolean truncated = new AtomicBoolean();
+        int deferred;
+        try {
+            Long minId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM pix_validations", Long.class);
+            Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM pix_validations", Long.class);
+            if (minId != null && maxId != null) {
+                AtomicLong cursor = new AtomicLong(maxId);
+                ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, rebuildThreads));
+                try {
+                    List<Future<?>> tasks = new ArrayList<>();
+                    for (int i = 0; i < Math.max(1, rebuildThreads); i++) {
+                        tasks.add(executor.submit(() -> {
+                            long to;
+                            while ((to = cursor.getAndAdd(-RANGE_SIZE)) >= minId && !truncated.get()) {
+                                loadRange(rebuild, Math.max(minId, to - RANGE_SIZE + 1), to, fillTarget,
+                                        rows, truncated);
+                            }
+                        }));
+                    }
+                    for (Future<?> task : tasks) {
+                        task.get();
+                    }
+                } finally {
+                    executor.shutdown();
+                }
+            }
+            deferred = graph.finishRebuild(rebuild);
+        } catch (Exception e) {
+            graph.abortRebuild(rebuild);
+            throw e;
+        }
+
+        System.out.println("[INIT] Grafo de fraude reconstruído (" + reason + "): " + rows.get() + " validações"
+                + (truncated.get() ? " mais recentes" : "") + " + " + deferred + " recebidas durante a carga, "
+                + graph.nodeCount() + " nós (" + (System.nanoTime() - start) / 1_000_000 + " ms).");
+    }
+
+    // Da mais recente para a mais antiga; para ao atingir a ocupação alvo do grafo novo
+    private void loadRange(FraudRingGraph.Rebuild rebuild, long from, long to, long fillTarget, AtomicLong rows,
+                           AtomicBoolean truncated) {
+        jdbcTemplate.query(
+                "SELECT id, key_hash, recipient_document, bank_code, is_valid FROM pix_validations "
+                        + "WHERE id BETWEEN ? AND ? AND key_hash IS NOT NULL ORDER BY id DESC",
+                (ResultSetExtractor<Void>) rs -> {
+                    while (rs.next()) {
+                        if (rebuild.nodeCount() >= fillTarget) {
+                            truncated.set(true);
+                            break;
+                        }
+                        rebuild.load(rs.getLong(1), rs.getLong(2), rs.getString(3), rs.getString(4),
+                                !rs.getBoolean(5));
+                        rows.incrementAndGet();
+                    }
+                    return null;
+                },
+                from, to);
+    }
+}
@@ -0,0 +1,349 @@
+package br.com.bradesco.safeboleto.services.holder;
+
+import br.com.bradesco.safeboleto.util.Hashing;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+
+/**
+ * Cadastro de titulares (documento -> nome registrado) em memória, para comparar o nome informado numa validação
+ * com o do titular do documento ({@link #similarity}).
+ *
+ * Os nomes ficam normalizados ({@link #normalize}: sem acentos, minúsculos, só letras e dígitos, um espaço entre
+ * palavras, sem partículas como "da"/"dos", sufixos de razão social como "ltda" e iniciais soltas), com 1 byte por
+ * caractere, em páginas de 1 MB. A similaridade é o coeficiente de Dice entre os conjuntos de trigramas dos dois
+ * nomes (cada palavra com dois espaços antes e um depois, como no pg_trgm): tolera erros de digitação, acentos,
+ * ordem das palavras e nomes do meio omitidos, e cai para perto de 0 com um nome de outra pessoa.
+ *
+ * Layout: hashes dos documentos ordenados num {@code long[]}, um diretório pelos bits altos do hash (4 a 8
+ * documentos por faixa, vizinhos na mesma linha de cache) e a posição do nome num {@code int[]}. Cerca de 13 bytes
+ * por titular além do nome (~40 bytes no total para um nome típico). A tabela é imutável; {@link Builder} monta uma
+ * nova em tempo linear (ordenação por contagem nas faixas do diretório), para importar dezenas de milhões de
+ * titulares sem estruturas por objeto.
+ */
+public final class HolderNameIndex {
+
+    public static final HolderNameIndex EMPTY = new Builder().build();
+
+    // Tamanho máximo do nome normalizado; palavras além dele são descartadas
+    public static final int MAX_NAME = 120;
+
+    private static final int PAGE_BITS = 20;
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+    // A posição do nome é um int: até 2048 páginas (2 GB de nomes, ~80 milhões de titulares)
+    private static final int MAX_PAGES = 1 << (31 - PAGE_BITS);
+
+    // Espaço, letras e dígitos: 37 símbolos, então um trigrama cabe em 16 bits
+    private static final int SYMBOLS = 37;
+    // Caractere já sem acento e minúsculo; ' ' separa palavras e 0 é ignorado (apóstrofo: "D'Ávila" -> "davila")
+    private static final char[] FOLD = foldTable();
+    // Palavras que não identificam o titular, empacotadas em long (1 byte por letra) para busca binária
+    private static final long[] STOPWORDS = packedSorted("da", "das", "de", "del", "di", "do", "dos", "du",
+            "cia", "eireli", "epp", "ltda", "me", "sa");
+
+    private final int shift;
+    private final int[] directory;
+    private final long[] keys;
+    private final int[] names;
+    private final byte[][] pages;
+
+    private HolderNameIndex(int shift, int[] directory, long[] keys, int[] names, byte[][] pages) {
+        this.shift = shift;
+        this.directory = directory;
+        this.keys = keys;
+        this.names = names;
+        this.pages = pages;
+    }
+
+    public int size() {
+        return keys.length;
+    }
+
+    // Memória ocupada pelos arrays (páginas de nomes inteiras, inclusive a parte livre da última)
+    public long memoryBytes() {
+        return keys.length * 8L + names.length * 4L + directory.length * 4L + (long) pages.length * PAGE_SIZE;
+    }
+
+    public boolean contains(long documentCode) {
+        return find(documentCode) >= 0;
+    }
+
+    /**
+     * Similaridade de 0 a 1 entre {@code name} e o nome registrado para o documento ({@code PixKeyCodec.encodeDocument}),
+     * ou {@link Double#NaN} se o documento não está no cadastro. Um nome vazio depois de normalizado vale 0.
+     */
+    public double similarity(long documentCode, CharSequence name) {
+        int index = find(documentCode);
+        if (index < 0) return Double.NaN;
+        if (name == null) return 0;
+
+        byte[] submitted = new byte[Math.min(name.length(), MAX_NAME)];
+        int submittedLength = normalize(name, 0, name.length(), submitted, 0);
+        if (submittedLength == 0) return 0;
+
+        int position = names[index];
+        byte[] page = pages[position >>> PAGE_BITS];
+        int offset = position & PAGE_MASK;
+        int registeredLength = page[offset] & 0xFF;
+
+        // Um nome de n caracteres tem no máximo n + 1 trigramas: os do cadastro no início, os informados depois
+        int[] trigrams = new int[registeredLength + submittedLength + 2];
+        int split = registeredLength + 1;
+        int registered = trigrams(page, offset + 1, registeredLength, trigrams, 0);
+        int informed = trigrams(submitted, 0, submittedLength, trigrams, split);
+
+        int common = 0;
+        int i = 0, j = split;
+        while (i < registered && j < split + informed) {
+            if (trigrams[i] < trigrams[j]) {
+                i++;
+            } else if (trigrams[i] > trigrams[j]) {
+                j++;
+            } else {
+                common++;
+                i++;
+                j++;
+            }
+        }
+        return 2.0 * common / (registered + informed);
+    }
+
+    /**
+     * Normaliza {@code text[from, to)} em {@code out} a partir de {@code outFrom}, no máximo {@value #MAX_NAME}
+     * bytes ASCII (letras minúsculas, dígitos e um espaço entre palavras). Retorna o tamanho escrito.
+     */
+    public static int normalize(CharSequence text, int from, int to, byte[] out, int outFrom) {
+        int length = 0;
+        int wordStart = -1;
+        for (int i = from; i <= to; i++) {
+            char c = i < to ? text.charAt(i) : ' ';
+            char folded = c < FOLD.length ? FOLD[c] : c == '’' ? 0 : ' ';
+            if (folded == 0) continue;
+            if (folded != ' ') {
+                if (wordStart < 0) {
+                    if (length > 0) {
+                        if (length + 1 >= MAX_NAME) return length;
+                        out[outFrom + length++] = ' ';
+                    }
+                    wordStart = length;
+                }
+                if (length == MAX_NAME) {
+                    // Palavra cortada no limite: sai inteira
+                    return wordStart > 0 ? wordStart - 1 : 0;
+                }
+                out[outFrom + length++] = (byte) folded;
+            } else if (wordStart >= 0) {
+                if (!keep(out, outFrom + wordStart, length - wordStart)) {
+                    length = wordStart > 0 ? wordStart - 1 : 0;
+                }
+                wordStart = -1;
+            }
+        }
+        return length;
+    }
+
+    // Trigramas distintos e ordenados de um nome normalizado, escritos em out a partir de outFrom; retorna quantos
+    static int trigrams(byte[] text, int from, int length, int[] out, int outFrom) {
+        int n = outFrom;
+        int a = 0, b = 0;
+        for (int i = from; i <= from + length; i++) {
+            int c = i < from + length ? symbol(text[i]) : 0;
+            out[n++] = (a * SYMBOLS + b) * SYMBOLS + c;
+            if (c == 0) {
+                a = 0;
+                b = 0;
+            } else {
+                a = b;
+                b = c;
+            }
+        }
+        Arrays.sort(out, outFrom, n);
+        int distinct = outFrom;
+        for (int i = outFrom; i < n; i++) {
+            if (i == outFrom || out[i] != out[distinct - 1]) out[distinct++] = out[i];
+        }
+        return distinct - outFrom;
+    }
+
+    private static int symbol(byte c) {
+        if (c == ' ') return 0;
+        return c >= 'a' ? c - 'a' + 1 : c - '0' + 27;
+    }
+
+    private int find(long documentCode) {
+        if (documentCode == 0) return -1;
+        long key = Hashing.mix64(documentCode);
+        int bucket = (int) (key >>> shift);
+        int low = directory[bucket];
+        int high = directory[bucket + 1] - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long current = keys[mid];
+            if (current < key) {
+                low = mid + 1;
+            } else if (current > key) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    // Palavras de uma letra (iniciais) e as de STOPWORDS não entram no nome normalizado
+    private static boolean keep(byte[] word, int from, int length) {
+        if (length < 2) return false;
+        if (length > 7) return true;
+        long packed = 0;
+        for (int i = from; i < from + length; i++) {
+            packed = packed << 8 | word[i];
+        }
+        return Arrays.binarySearch(STOPWORDS, packed) < 0;
+    }
+
+    private static long[] packedSorted(String... words) {
+        long[] packed = new long[words.length];
+        for (int w = 0; w < words.length; w++) {
+            for (int i = 0; i < words[w].length(); i++) {
+                packed[w] = packed[w] << 8 | words[w].charAt(i);
+            }
+        }
+        Arrays.sort(packed);
+        return packed;
+    }
+
+    // Latin-1 e Latin Extended-A/B: letras acentuadas viram a letra base (via NFD); o resto separa palavras
+    private static char[] foldTable() {
+        char[] table = new char[0x250];
+        for (char c = 0; c < table.length; c++) {
+            char base = c < 0x80 ? c : Normalizer.normalize(String.valueOf(c), Normalizer.Form.NFD).charAt(0);
+            if (base >= 'A' && base <= 'Z') base = (char) (base + ('a' - 'A'));
+            table[c] = (base >= 'a' && base <= 'z') || (base >= '0' && base <= '9') ? base : ' ';
+        }
+        table['\''] = 0;
+        table['`'] = 0;
+        table['´'] = 0;
+        return table;
+    }
+
+    /**
+     * Monta um {@link HolderNameIndex}. Os nomes são normalizados direto nas páginas da tabela final e os documentos
+     * acumulados em arrays primitivos; {@link #build} ordena por contagem. Uso único: depois de {@link #build} o
+     * builder não deve receber mais titulares.
+     */
+    public static final class Builder {
+
+        private long[] keys = new long[1024];
+        private int[] names = new int[1024];
+        private int size;
+        private byte[][] pages = new byte[16][];
+        private int pageCount;
+        // Começa "cheia" para que o primeiro titular aloque a primeira página
+        private int position = PAGE_SIZE;
+
+        public boolean add(long documentCode, CharSequence name) {
+            return add(documentCode, name, 0, name.length());
+        }
+
+        /**
+         * Acrescenta o titular de {@code documentCode} com o nome em {@code name[from, to)}. Um documento repetido
+         * fica com o último nome. Retorna false (e nada é acrescentado) se o código é 0 ou o nome fica vazio
+         * depois de normalizado.
+         */
+        public boolean add(long documentCode, CharSequence name, int from, int to) {
+            if (documentCode == 0) return false;
+            if (position + MAX_NAME + 1 > PAGE_SIZE) newPage();
+            byte[] page = pages[pageCount - 1];
+            int length = normalize(name, from, to, page, position + 1);
+            if (length == 0) return false;
+            page[position] = (byte) length;
+
+            if (size == keys.length) {
+                int capacity = size + (size >> 1);
+                keys = Arrays.copyOf(keys, capacity);
+                names = Arrays.copyOf(names, capacity);
+            }
+            keys[size] = Hashing.mix64(documentCode);
+            names[size] = (pageCount - 1) << PAGE_BITS | position;
+            size++;
+            position += length + 1;
+            return true;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public HolderNameIndex build() {
+            int n = size;
+            // 2^bits faixas entre n/8 e n/4: de 4 a 8 documentos por faixa em média
+            int bits = Math.max(1, 32 - Integer.numberOfLeadingZeros(n >>> 3));
+            int buckets = 1 << bits;
+            int shift = 64 - bits;
+
+            int[] directory = new int[buckets + 1];
+            for (int i = 0; i < n; i++) {
+                directory[(int) (keys[i] >>> shift) + 1]++;
+            }
+            for (int b = 0; b < buckets; b++) {
+                directory[b + 1] += directory[b];
+            }
+            int[] cursor = Arrays.copyOf(directory, buckets);
+            long[] sortedKeys = new long[n];
+            int[] sortedNames = new int[n];
+            for (int i = 0; i < n; i++) {
+                int at = cursor[(int) (keys[i] >>> shift)]++;
+                sortedKeys[at] = keys[i];
+                sortedNames[at] = names[i];
+            }
+            // Os arrays na ordem de importação não são mais necessários
+            keys = null;
+            names = null;
+
+            // Cada faixa é ordenada por inserção (poucos elementos, estável: entre repetidos o último importado
+            // fica por último) e compactada sem os repetidos
+            int written = 0;
+            int start = 0;
+            for (int b = 0; b < buckets; b++) {
+                int end = directory[b + 1];
+                for (int i = start + 1; i < end; i++) {
+                    long key = sortedKeys[i];
+                    int name = sortedNames[i];
+                    int j = i - 1;
+                    while (j >= start && sortedKeys[j] > key) {
+                        sortedKeys[j + 1] = sortedKeys[j];
+                        sortedNames[j + 1] = sortedNames[j];
+                        j--;
+                    }
+                    sortedKeys[j + 1] = key;
+                    sortedNames[j + 1] = name;
+                }
+                directory[b] = written;
+                for (int i = start; i < end; i++) {
+                    if (i + 1 < end && sortedKeys[i + 1] == sortedKeys[i]) continue;
+                    sortedKeys[written] = sortedKeys[i];
+                    sortedNames[written] = sortedNames[i];
+                    written++;
+                }
+                start = end;
+            }
+            directory[buckets] = written;
+            if (written < n) {
+                sortedKeys = Arrays.copyOf(sortedKeys, written);
+                sortedNames = Arrays.copyOf(sortedNames, written);
+            }
+            return new HolderNameIndex(shift, directory, sortedKeys, sortedNames, Arrays.copyOf(pages, pageCount));
+        }
+
+        private void newPage() {
+            if (pageCount == MAX_PAGES) {
+                throw new IllegalArgumentException("Cadastro de titulares acima do limite de "
+                        + ((long) MAX_PAGES << PAGE_BITS >> 30) + " GB de nomes.");
+            }
+            if (pageCount == pages.length) pages = Arrays.copyOf(pages, pageCount * 2);
+            pages[pageCount++] = new byte[PAGE_SIZE];
+            position = 0;
+        }
+    }
+}
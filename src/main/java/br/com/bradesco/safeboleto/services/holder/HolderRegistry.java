@@ -0,0 +1,116 @@
+package br.com.bradesco.safeboleto.services.holder;
+
+import br.com.bradesco.safeboleto.services.reputation.ReputationList;
+import br.com.bradesco.safeboleto.util.PixKeyCodec;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Cadastro local de titulares de documentos (CPF/CNPJ -> nome registrado), no lugar de uma consulta a um cadastro
+ * externo: a regra de nome divergente compara o nome do beneficiário informado na validação com o do titular do
+ * documento ({@link #similarity}). Documentos fora do cadastro não pontuam.
+ *
+ * O arquivo ({@code app.holders.file}) tem um titular por linha, {@code documento;nome} (também aceita vírgula ou
+ * tab; colunas seguintes são ignoradas e uma primeira linha sem dígitos no documento é tratada como cabeçalho).
+ * O documento pode vir formatado ({@code 123.456.789-09}). Um documento repetido fica com o último nome. Linhas sem
+ * documento ou nome válidos são ignoradas, até {@code app.holders.max-invalid-lines} por carga. A tabela
+ * ({@link HolderNameIndex}) é montada direto das linhas, sem objetos por titular; recarga e troca atômica em
+ * {@link ReputationList}.
+ */
+@Component
+public class HolderRegistry extends ReputationList<HolderNameIndex> {
+
+    public HolderRegistry(MeterRegistry registry,
+                          @Value("${app.holders.file:file:./data/titulares.csv}") Resource file,
+                          @Value("${app.holders.enabled:true}") boolean enabled,
+                          @Value("${app.holders.max-invalid-lines:1000}") int maxInvalidLines) {
+        super("titulares de documentos", file, enabled, HolderNameIndex.EMPTY, maxInvalidLines);
+        Gauge.builder("pix.holders.entries", () -> table().size())
+                .description("Titulares no cadastro de documentos").register(registry);
+        Gauge.builder("pix.holders.memory", () -> table().memoryBytes())
+                .description("Memória ocupada pelo cadastro de titulares").baseUnit("bytes").register(registry);
+    }
+
+    @Scheduled(initialDelayString = "${app.holders.reload-interval-ms:300000}",
+               fixedDelayString = "${app.holders.reload-interval-ms:300000}")
+    @Override
+    public void reloadIfChanged() {
+        super.reloadIfChanged();
+    }
+
+    /**
+     * Similaridade de 0 a 1 entre o nome informado e o do titular do documento, ou {@link Double#NaN} se o
+     * documento não está no cadastro (ou o cadastro está desligado).
+     */
+    public double similarity(String document, String name) {
+        if (!enabled()) return Double.NaN;
+        return table().similarity(PixKeyCodec.encodeDocument(document), name);
+    }
+
+    public int size() {
+        return table().size();
+    }
+
+    public long memoryBytes() {
+        return table().memoryBytes();
+    }
+
+    @Override
+    protected Parser<HolderNameIndex> parser() {
+        HolderNameIndex.Builder builder = new HolderNameIndex.Builder();
+        return new Parser<>() {
+            private boolean first = true;
+
+            @Override
+            public void line(String line, int lineNumber) {
+                int separator = separator(line);
+                int end = separator < 0 ? -1 : line.indexOf(line.charAt(separator), separator + 1);
+
+                // Dígitos do documento lidos direto da linha; pontuação de documento formatado é ignorada
+                long digits = 0;
+                int count = 0;
+                boolean invalid = separator <= 0;
+                for (int i = 0; i < separator; i++) {
+                    char c = line.charAt(i);
+                    if (c >= '0' && c <= '9') {
+                        if (++count <= 14) digits = digits * 10 + (c - '0');
+                    } else if (c != '.' && c != '-' && c != '/' && c != ' ' && c != '"') {
+                        invalid = true;
+                    }
+                }
+                if (first) {
+                    first = false;
+                    if (count == 0) return;
+                }
+
+                long code = invalid ? 0 : PixKeyCodec.encodeDocument(digits, count);
+                // O nome não entra na mensagem: o cadastro tem dados pessoais
+                if (code == 0 || !builder.add(code, line, separator + 1, end < 0 ? line.length() : end)) {
+                    throw new IllegalArgumentException("Linha " + lineNumber
+                            + " inválida no cadastro de titulares (documento ou nome ausente).");
+                }
+            }
+
+            @Override
+            public HolderNameIndex build() {
+                return builder.build();
+            }
+        };
+    }
+
+    @Override
+    protected int size(HolderNameIndex table) {
+        return table.size();
+    }
+
+    private static int separator(String line) {
+        int separator = line.indexOf(';');
+        if (separator < 0) separator = line.indexOf('\t');
+        if (separator < 0) separator = line.indexOf(',');
+        return separator;
+    }
+}
@@ -0,0 +1,10 @@
+package br.com.bradesco.safeboleto.services.outbox;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+
+/**
+ * Evento do outbox como entregue aos consumidores. {@code sequence} é a posição no outbox (crescente) e
+ * {@code eventId} o identificador para deduplicação: a entrega é "pelo menos uma vez".
+ */
+public record OutboxMessage(long sequence, String eventId, String type, @JsonRawValue String data) {
+}
@@ -0,0 +1,158 @@
+package br.com.bradesco.safeboleto.services.outbox;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Consumidores que leem o outbox pela API, por long-poll ou server-sent events.
+ *
+ * No long-poll o cliente confirma o que já processou passando {@code after} na próxima leitura; sem
+ * {@code after}, recebe a partir da última posição confirmada. No stream, a posição avança a cada evento
+ * enviado e a reconexão pode retomar pelo cabeçalho {@code Last-Event-ID}. Os cursores ficam em
+ * {@code outbox_cursors} com o prefixo {@code pull:}.
+ *
+ * A cada rodada do relay os consumidores em espera são atendidos com uma única leitura a partir do mais
+ * atrasado; quem já está na última posição publicada nem entra nela.
+ */
+@Component
+@RequiredArgsConstructor
+public class OutboxPullService {
+
+    static final String CURSOR_PREFIX = "pull:";
+
+    private final OutboxStore store;
+    private final Queue<Waiter> waiters = new ConcurrentLinkedQueue<>();
+    private final List<StreamSubscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    @Value("${app.outbox.batch-size:100}")
+    private int batchSize;
+
+    private record Waiter(long after, int limit, DeferredResult<List<OutboxMessage>> result) {
+    }
+
+    private static final class StreamSubscriber {
+        final String consumer;
+        final SseEmitter emitter;
+        long cursor;
+
+        StreamSubscriber(String consumer, SseEmitter emitter, long cursor) {
+            this.consumer = consumer;
+            this.emitter = emitter;
+            this.cursor = cursor;
+        }
+    }
+
+    /**
+     * Eventos após a posição do consumidor. Se não houver nenhum, a resposta fica pendente até chegar um
+     * evento ou passar {@code waitMs} (então responde com lista vazia).
+     */
+    public DeferredResult<List<OutboxMessage>> poll(String consumer, Long after, int limit, long waitMs) {
+        long cursor = position(consumer, after);
+        int size = Math.max(1, Math.min(limit, batchSize * 10));
+        DeferredResult<List<OutboxMessage>> result = new DeferredResult<>(waitMs, List.of());
+
+        List<OutboxMessage> ready = store.fetch(cursor, size);
+        if (!ready.isEmpty()) {
+            result.setResult(ready);
+            return result;
+        }
+        Waiter waiter = new Waiter(cursor, size, result);
+        waiters.add(waiter);
+        result.onCompletion(() -> waiters.remove(waiter));
+        return result;
+    }
+
+    public SseEmitter stream(String consumer, Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(0L);
+        StreamSubscriber subscriber = new StreamSubscriber(consumer, emitter, position(consumer, lastEventId));
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        return emitter;
+    }
+
+    // Chamado pelo OutboxRelay a cada rodada
+    void dispatch() {
+        long head = store.head();
+        long from = Long.MAX_VALUE;
+        int limit = 0;
+        for (Waiter waiter : waiters) {
+            if (waiter.result().isSetOrExpired()) {
+                waiters.remove(waiter);
+            } else if (waiter.after() < head) {
+                from = Math.min(from, waiter.after());
+                limit = Math.max(limit, waiter.limit());
+            }
+        }
+        for (StreamSubscriber subscriber : subscribers) {
+            if (subscriber.cursor < head) {
+                from = Math.min(from, subscriber.cursor);
+                limit = Math.max(limit, batchSize);
+            }
+        }
+        if (limit == 0) return;
+
+        List<OutboxMessage> shared = store.fetch(from, limit);
+        for (Waiter waiter : waiters) {
+            if (waiter.after() >= head || waiter.result().isSetOrExpired()) continue;
+            List<OutboxMessage> ready = after(shared, waiter.after(), waiter.limit());
+            if (!ready.isEmpty()) waiter.result().setResult(ready);
+        }
+        for (StreamSubscriber subscriber : subscribers) {
+            if (subscriber.cursor < head) send(subscriber, after(shared, subscriber.cursor, batchSize));
+        }
+    }
+
+    /**
+     * Eventos da leitura compartilhada depois de {@code after}. Se ela terminou antes dessa posição (consumidor
+     * muito à frente do mais atrasado), lê só para ele.
+     */
+    private List<OutboxMessage> after(List<OutboxMessage> shared, long after, int limit) {
+        if (shared.isEmpty() || shared.get(shared.size() - 1).sequence() <= after) {
+            return store.fetch(after, limit);
+        }
+        int start = 0;
+        while (shared.get(start).sequence() <= after) start++;
+        return shared.subList(start, Math.min(shared.size(), start + limit));
+    }
+
+    private void send(StreamSubscriber subscriber, List<OutboxMessage> batch) {
+        if (batch.isEmpty()) return;
+        try {
+            for (OutboxMessage message : batch) {
+                subscriber.emitter.send(SseEmitter.event()
+                        .id(Long.toString(message.sequence()))
+                        .name(message.type())
+                        .data(message));
+                subscriber.cursor = message.sequence();
+            }
+        } catch (IOException | IllegalStateException e) {
+            // Cliente desconectado: a posição salva é a do último evento enviado
+            subscribers.remove(subscriber);
+            subscriber.emitter.completeWithError(e);
+        }
+        store.saveCursor(CURSOR_PREFIX + subscriber.consumer, subscriber.cursor);
+    }
+
+    // Toda leitura marca o consumidor como ativo, mesmo sem confirmar nada (ver OutboxStore#cleanup)
+    private long position(String consumer, Long after) {
+        String cursorName = CURSOR_PREFIX + consumer;
+        if (after == null) {
+            long cursor = store.cursor(cursorName);
+            store.touchCursor(cursorName);
+            return cursor;
+        }
+        store.saveCursor(cursorName, after);
+        return after;
+    }
+}
@@ -0,0 +1,75 @@
+package br.com.bradesco.safeboleto.services.outbox;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Publica os eventos do outbox, em ordem, para cada {@link OutboxSink} habilitado e para os consumidores
+ * que leem pela API ({@link OutboxPullService}). A cada rodada numera primeiro os eventos confirmados desde a
+ * anterior ({@link OutboxStore#assignSequences}); a ordem de publicação é a desses números.
+ *
+ * Cada sink avança o próprio cursor só depois de uma entrega bem-sucedida, em lotes de
+ * {@code app.outbox.batch-size}. Com várias instâncias rodando o relay, um evento pode ser entregue mais de
+ * uma vez; os consumidores deduplicam pelo {@code eventId}.
+ */
+@Component
+@RequiredArgsConstructor
+public class OutboxRelay {
+
+    private final ObjectProvider<OutboxSink> sinks;
+    private final OutboxStore store;
+    private final OutboxPullService pullService;
+
+    @Value("${app.outbox.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.outbox.batch-size:100}")
+    private int batchSize;
+
+    // Limita o trabalho de uma rodada, para um sink atrasado não monopolizar o agendador
+    @Value("${app.outbox.max-batches-per-run:20}")
+    private int maxBatchesPerRun;
+
+    @Value("${app.outbox.retention-hours:72}")
+    private long retentionHours;
+
+    @Scheduled(fixedDelayString = "${app.outbox.poll-interval-ms:500}")
+    public void relay() {
+        if (!enabled) return;
+        // Eventos confirmados desde a última rodada ganham posição antes de qualquer leitura
+        store.assignSequences(batchSize * maxBatchesPerRun);
+        sinks.orderedStream().forEach(this::drain);
+        pullService.dispatch();
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.cleanup-interval-ms:60000}")
+    public void cleanup() {
+        if (!enabled) return;
+        int removed = store.cleanup(retentionHours);
+        if (removed > 0) {
+            System.out.println("[DEBUG PIX] Outbox: " + removed + " eventos entregues removidos");
+        }
+    }
+
+    private void drain(OutboxSink sink) {
+        long cursor = store.cursor(sink.name());
+        for (int i = 0; i < maxBatchesPerRun; i++) {
+            List<OutboxMessage> batch = store.fetch(cursor, batchSize);
+            if (batch.isEmpty()) return;
+            try {
+                sink.deliver(batch);
+            } catch (Exception e) {
+                System.out.println("[DEBUG PIX] Outbox: falha ao entregar para '" + sink.name() + "', nova tentativa na próxima rodada: " + e.getMessage());
+                return;
+            }
+            cursor = batch.get(batch.size() - 1).sequence();
+            store.saveCursor(sink.name(), cursor);
+            if (batch.size() < batchSize) return;
+        }
+    }
+}
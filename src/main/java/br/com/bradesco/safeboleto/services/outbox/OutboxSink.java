@@ -0,0 +1,16 @@
+package br.com.bradesco.safeboleto.services.outbox;
+
+import java.util.List;
+
+/**
+ * Destino dos eventos do outbox alimentado pelo {@link OutboxRelay}. Cada sink tem seu próprio cursor
+ * (pelo {@link #name()}); se {@link #deliver} lança exceção, o mesmo lote é reenviado na próxima rodada.
+ * Como a confirmação do cursor pode falhar depois de uma entrega bem-sucedida, o destino deve ignorar
+ * eventos repetidos pelo {@code eventId}.
+ */
+public interface OutboxSink {
+
+    String name();
+
+    void deliver(List<OutboxMessage> batch) throws Exception;
+}
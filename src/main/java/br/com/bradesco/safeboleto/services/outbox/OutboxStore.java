@@ -0,0 +1,131 @@
+package br.com.bradesco.safeboleto.services.outbox;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Leitura do outbox e dos cursores dos consumidores.
+ *
+ * Os ids do outbox vêm de uma sequence: uma transação que pegou um id menor pode confirmar depois de
+ * uma que pegou um maior (ex: o reenvio do arquivo de contingência, em uma transação só). Por isso os
+ * consumidores não leem pelo id, e sim pela posição de publicação ({@code publish_sequence}), atribuída por
+ * {@link #assignSequences} só a linhas já confirmadas, em rodadas serializadas por lock: uma posição nunca
+ * fica visível depois de outra maior.
+ */
+@Component
+@RequiredArgsConstructor
+public class OutboxStore {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Consumidor pela API parado há mais que isso não segura a limpeza dos eventos já entregues aos demais
+    @Value("${app.outbox.pull-consumer-idle-hours:24}")
+    private long pullConsumerIdleHours;
+
+    /**
+     * Numera, em ordem de id, até {@code limit} eventos confirmados ainda sem posição. O lock na linha de
+     * {@code outbox_sequencer} faz as instâncias numerarem uma de cada vez.
+     *
+     * @return quantos eventos foram numerados
+     */
+    @Transactional
+    public int assignSequences(int limit) {
+        long last = jdbcTemplate.queryForObject(
+                "SELECT last_sequence FROM outbox_sequencer WHERE id = 1 FOR UPDATE", Long.class);
+        List<Long> ids = jdbcTemplate.queryForList(
+                "SELECT id FROM validation_outbox WHERE publish_sequence IS NULL ORDER BY id LIMIT ?", Long.class, limit);
+        if (ids.isEmpty()) return 0;
+
+        List<Object[]> updates = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            updates.add(new Object[]{++last, id});
+        }
+        jdbcTemplate.batchUpdate("UPDATE validation_outbox SET publish_sequence = ? WHERE id = ?", updates);
+        jdbcTemplate.update("UPDATE outbox_sequencer SET last_sequence = ? WHERE id = 1", last);
+        return ids.size();
+    }
+
+    // Maior posição já atribuída
+    public long head() {
+        return jdbcTemplate.queryForObject("SELECT last_sequence FROM outbox_sequencer WHERE id = 1", Long.class);
+    }
+
+    public List<OutboxMessage> fetch(long afterSequence, int limit) {
+        return jdbcTemplate.query(
+                "SELECT publish_sequence, event_id, event_type, payload FROM validation_outbox "
+                        + "WHERE publish_sequence > ? ORDER BY publish_sequence LIMIT ?",
+                (rs, i) -> new OutboxMessage(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4)),
+                afterSequence, limit);
+    }
+
+    /**
+     * Posição já entregue ao consumidor. Consumidor novo é registrado logo antes do evento mais antigo ainda
+     * guardado (recebe tudo o que não foi removido), e não na posição 0.
+     */
+    public long cursor(String consumer) {
+        List<Long> cursor = jdbcTemplate.queryForList(
+                "SELECT last_sequence FROM outbox_cursors WHERE consumer = ?", Long.class, consumer);
+        if (!cursor.isEmpty()) return cursor.get(0);
+        long start = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(MIN(publish_sequence) - 1, (SELECT last_sequence FROM outbox_sequencer WHERE id = 1)) "
+                        + "FROM validation_outbox", Long.class);
+        try {
+            jdbcTemplate.update("INSERT INTO outbox_cursors (consumer, last_sequence, updated_at) VALUES (?, ?, ?)",
+                    consumer, start, Timestamp.valueOf(LocalDateTime.now()));
+        } catch (DuplicateKeyException e) {
+            // Registrado ao mesmo tempo por outra thread
+            return cursor(consumer);
+        }
+        return start;
+    }
+
+    public void saveCursor(String consumer, long sequence) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int updated = jdbcTemplate.update(
+                "UPDATE outbox_cursors SET last_sequence = ?, updated_at = ? WHERE consumer = ?", sequence, now, consumer);
+        if (updated == 0) {
+            jdbcTemplate.update(
+                    "INSERT INTO outbox_cursors (consumer, last_sequence, updated_at) VALUES (?, ?, ?)", consumer, sequence, now);
+        }
+    }
+
+    // Marca o consumidor como ativo sem mudar a posição (leitura sem confirmação)
+    public void touchCursor(String consumer) {
+        jdbcTemplate.update("UPDATE outbox_cursors SET updated_at = ? WHERE consumer = ?",
+                Timestamp.valueOf(LocalDateTime.now()), consumer);
+    }
+
+    /**
+     * Remove os eventos já entregues a todos os consumidores e os mais antigos que {@code retentionHours}
+     * (consumidor parado não segura o outbox para sempre). Consumidores pela API sem leitura há mais de
+     * {@code app.outbox.pull-consumer-idle-hours} não contam para "entregue a todos". As duas remoções usam só
+     * a posição e o {@code created_at} em faixa, sem varrer a tabela.
+     */
+    public int cleanup(long retentionHours) {
+        LocalDateTime now = LocalDateTime.now();
+        Long delivered = jdbcTemplate.queryForObject(
+                "SELECT MIN(last_sequence) FROM outbox_cursors WHERE consumer NOT LIKE ? OR updated_at >= ?",
+                Long.class, OutboxPullService.CURSOR_PREFIX + "%",
+                Timestamp.valueOf(now.minusHours(pullConsumerIdleHours)));
+        int removed = 0;
+        if (delivered != null && delivered > 0) {
+            removed += jdbcTemplate.update("DELETE FROM validation_outbox WHERE publish_sequence <= ?", delivered);
+        }
+        Long expired = jdbcTemplate.queryForObject(
+                "SELECT MAX(publish_sequence) FROM validation_outbox WHERE created_at < ?", Long.class,
+                Timestamp.valueOf(now.minusHours(retentionHours)));
+        if (expired != null) {
+            removed += jdbcTemplate.update("DELETE FROM validation_outbox WHERE publish_sequence <= ?", expired);
+        }
+        return removed;
+    }
+}
@@ -0,0 +1,64 @@
+package br.com.bradesco.safeboleto.services.outbox;
+
+import br.com.bradesco.safeboleto.model.PixValidation;
+import br.com.bradesco.safeboleto.repositories.PixValidationRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Grava a validação e o seu evento no outbox na mesma transação: ou os dois existem, ou nenhum.
+ *
+ * Por padrão só rejeições geram evento ({@code app.outbox.events=REJECTED}); com {@code ALL}, aprovações
+ * também.
+ */
+@Service
+@RequiredArgsConstructor
+public class OutboxWriter {
+
+    private final PixValidationRepository repository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.outbox.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.outbox.events:REJECTED}")
+    private String events;
+
+    @Transactional
+    public PixValidation persist(PixValidation validation) {
+        PixValidation saved = repository.save(validation);
+        enqueue(saved);
+        return saved;
+    }
+
+    @Transactional
+    public void persistAll(List<PixValidation> validations) {
+        repository.saveAll(validations).forEach(this::enqueue);
+    }
+
+    private void enqueue(PixValidation validation) {
+        if (!enabled || (validation.isValid() && !"ALL".equalsIgnoreCase(events))) return;
+        try {
+            jdbcTemplate.update(
+                    "INSERT INTO validation_outbox (event_id, event_type, validation_id, payload, created_at) VALUES (?, ?, ?, ?, ?)",
+                    UUID.randomUUID().toString(),
+                    validation.isValid() ? ValidationEvent.APPROVED : ValidationEvent.REJECTED,
+                    validation.getId(),
+                    objectMapper.writeValueAsString(ValidationEvent.of(validation)),
+                    Timestamp.valueOf(LocalDateTime.now()));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Falha ao serializar evento de validação", e);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package br.com.bradesco.safeboleto.services.outbox;
+
+import br.com.bradesco.safeboleto.model.PixValidation;
+import br.com.bradesco.safeboleto.util.Cents;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.time.LocalDateTime;
+
+/**
+ * Conteúdo ({@code data}) de um evento de decisão de validação. O valor sai em reais ({@code amount}).
+ */
+public record ValidationEvent(long validationId, String pixKey, String keyType, String recipientName,
+                              String recipientDocument,
+                              @JsonProperty("amount") @JsonSerialize(using = Cents.Serializer.class) long amountCents,
+                              String bankCode, String bankName,
+                              boolean valid, String reason, LocalDateTime validatedAt) {
+
+    public static final String APPROVED = "VALIDATION_APPROVED";
+    public static final String REJECTED = "VALIDATION_REJECTED";
+
+    public static ValidationEvent of(PixValidation validation) {
+        return new ValidationEvent(validation.getId(), validation.getPixKey(), validation.getPixKeyType(),
+                validation.getRecipientName(), validation.getRecipientDocument(), validation.getAmountCents(),
+                validation.getBankCode(), validation.getBankName(), validation.isValid(),
+                validation.getFraudReason(), validation.getValidationTimestamp());
+    }
+}
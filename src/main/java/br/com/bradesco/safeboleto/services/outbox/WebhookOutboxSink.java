@@ -0,0 +1,54 @@
+package br.com.bradesco.safeboleto.services.outbox;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.util.List;
+
+/**
+ * Envia cada lote como um array JSON em um POST para {@code app.outbox.webhook.url}, com o segredo
+ * compartilhado no cabeçalho {@code X-Webhook-Secret}. Resposta diferente de 2xx ou timeout faz o lote
+ * ser reenviado na próxima rodada.
+ */
+@Component
+@ConditionalOnProperty(name = "app.outbox.webhook.enabled", havingValue = "true")
+public class WebhookOutboxSink implements OutboxSink {
+
+    public static final String SECRET_HEADER = "X-Webhook-Secret";
+
+    private final RestClient restClient;
+    private final String url;
+    private final String secret;
+
+    public WebhookOutboxSink(RestClient.Builder restClientBuilder,
+                             @Value("${app.outbox.webhook.url}") String url,
+                             @Value("${app.outbox.webhook.secret:}") String secret,
+                             @Value("${app.outbox.webhook.timeout-ms:5000}") int timeoutMs) {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(timeoutMs);
+        requestFactory.setReadTimeout(timeoutMs);
+        this.restClient = restClientBuilder.requestFactory(requestFactory).build();
+        this.url = url;
+        this.secret = secret;
+    }
+
+    @Override
+    public String name() {
+        return "webhook";
+    }
+
+    @Override
+    public void deliver(List<OutboxMessage> batch) {
+        restClient.post()
+                .uri(url)
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(SECRET_HEADER, secret)
+                .body(batch)
+                .retrieve()
+                .toBodilessEntity();
+    }
+}
@@ -0,0 +1,291 @@
+package br.com.bradesco.safeboleto.services.profile;
+
+import br.com.bradesco.safeboleto.util.Hashing;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Perfis de valor por beneficiário em uma tabela de tamanho fixo, em arrays primitivos.
+ *
+ * Cada perfil tem média e variância do logaritmo do valor (Welford) e um histograma logarítmico de
+ * {@value #BUCKETS} faixas (duas por potência de 2 de centavos, de R$ 0,01 a ~R$ 42 milhões) com contadores de
+ * 16 bits, ~160 bytes por perfil. Quando uma faixa satura, todas são divididas por 2, e a partir de
+ * {@value #MAX_SAMPLES} amostras a média passa a esquecer as antigas aos poucos: o perfil acompanha mudanças de
+ * padrão do beneficiário. Perfis são combináveis ({@link #merge}), o que serve para restaurar um snapshot e para
+ * juntar perfis de outras instâncias.
+ *
+ * A tabela é associativa por conjuntos de {@value #WAYS} posições: um perfil novo num conjunto cheio substitui o
+ * de uso mais antigo daquele conjunto, então a memória fica limitada à capacidade configurada sem fila LRU global.
+ * Escritas bloqueiam uma faixa de conjuntos ({@link StampedLock}); leituras são otimistas.
+ */
+public final class AmountProfileStore {
+
+    public static final int BUCKETS = 64;
+    public static final int MAX_SAMPLES = 0xFFFF;
+
+    private static final int WAYS = 8;
+    private static final int MAX_LOCKS = 1 << 10;
+    private static final long EMPTY = 0L;
+    // A chave 0 marca posição vazia; é trocada por esta constante (colisão desprezível para hashes de 64 bits)
+    private static final long ZERO_KEY = 0x9E3779B97F4A7C15L;
+    private static final double LN2 = Math.log(2);
+
+    /**
+     * Resumo de um perfil para as regras.
+     *
+     * @param logMean   média do logaritmo natural do valor em centavos
+     * @param logStdDev desvio padrão do logaritmo natural do valor
+     * @param lowCents  limite inferior da faixa do percentil 1
+     * @param highCents limite superior da faixa do percentil 99
+     */
+    public record Profile(int samples, double logMean, double logStdDev, long lowCents, long highCents) {
+    }
+
+    @FunctionalInterface
+    public interface EntryConsumer {
+        // histogram é reaproveitado entre chamadas
+        void accept(long key, int lastSeen, int samples, double logMean, double logM2, char[] histogram);
+    }
+
+    private final int setMask;
+    private final int lockMask;
+    private final StampedLock[] locks;
+    private final long[] keys;
+    private final int[] lastSeen;
+    private final int[] samples;
+    private final double[] means;
+    private final double[] m2s;
+    private final char[] histograms;
+    private final AtomicInteger size = new AtomicInteger();
+    private final LongAdder evictions = new LongAdder();
+
+    public AmountProfileStore(int capacity) {
+        int sets = Integer.highestOneBit(Math.max(1, capacity / WAYS));
+        int slots = sets * WAYS;
+        this.setMask = sets - 1;
+        this.locks = new StampedLock[Math.min(sets, MAX_LOCKS)];
+        this.lockMask = locks.length - 1;
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new StampedLock();
+        }
+        this.keys = new long[slots];
+        this.lastSeen = new int[slots];
+        this.samples = new int[slots];
+        this.means = new double[slots];
+        this.m2s = new double[slots];
+        this.histograms = new char[slots * BUCKETS];
+    }
+
+    public int capacity() {
+        return keys.length;
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * Acrescenta um valor ao perfil da chave, criando-o se preciso. {@code now} é um relógio crescente qualquer
+     * (ex: minutos), usado só para escolher quem sai quando o conjunto está cheio.
+     */
+    public void add(long key, long amountCents, int now) {
+        if (amountCents <= 0) return;
+        key = key == EMPTY ? ZERO_KEY : key;
+        double x = Math.log(amountCents);
+        int bucket = bucket(amountCents);
+        int set = set(key);
+        StampedLock lock = locks[set & lockMask];
+        long stamp = lock.writeLock();
+        try {
+            int slot = claim(key, set);
+            lastSeen[slot] = now;
+            int n = samples[slot];
+            if (n < MAX_SAMPLES) {
+                samples[slot] = ++n;
+            } else {
+                // Janela de ~MAX_SAMPLES amostras: a soma dos quadrados encolhe na mesma proporção do peso antigo
+                m2s[slot] *= (n - 1) / (double) n;
+            }
+            double delta = x - means[slot];
+            means[slot] += delta / n;
+            m2s[slot] += delta * (x - means[slot]);
+
+            int base = slot * BUCKETS;
+            if (histograms[base + bucket] == MAX_SAMPLES) halve(base);
+            histograms[base + bucket]++;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Junta ao perfil da chave as amostras de outro perfil do mesmo beneficiário (fórmula de Chan para média e
+     * variância, soma dos histogramas). Juntar o mesmo perfil duas vezes conta as amostras duas vezes.
+     */
+    public void merge(long key, int seen, int otherSamples, double otherMean, double otherM2, char[] otherHistogram) {
+        if (otherSamples <= 0) return;
+        key = key == EMPTY ? ZERO_KEY : key;
+        int set = set(key);
+        StampedLock lock = locks[set & lockMask];
+        long stamp = lock.writeLock();
+        try {
+            int slot = claim(key, set);
+            lastSeen[slot] = Math.max(lastSeen[slot], seen);
+            long na = samples[slot];
+            long n = na + otherSamples;
+            double delta = otherMean - means[slot];
+            double m2 = m2s[slot] + otherM2 + delta * delta * na * otherSamples / n;
+            means[slot] += delta * otherSamples / n;
+            if (n > MAX_SAMPLES) {
+                m2 *= MAX_SAMPLES / (double) n;
+                n = MAX_SAMPLES;
+            }
+            samples[slot] = (int) n;
+            m2s[slot] = m2;
+
+            // Somas que passam de 16 bits dividem todas as faixas pela mesma potência de 2
+            int base = slot * BUCKETS;
+            int max = 0;
+            for (int b = 0; b < BUCKETS; b++) {
+                max = Math.max(max, histograms[base + b] + otherHistogram[b]);
+            }
+            int shift = 0;
+            while ((max >>> shift) > MAX_SAMPLES) shift++;
+            for (int b = 0; b < BUCKETS; b++) {
+                histograms[base + b] = (char) ((histograms[base + b] + otherHistogram[b]) >>> shift);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // Perfil da chave, ou null se ela não tem perfil
+    public Profile profile(long key) {
+        key = key == EMPTY ? ZERO_KEY : key;
+        int set = set(key);
+        StampedLock lock = locks[set & lockMask];
+        long stamp = lock.tryOptimisticRead();
+        Profile result = read(key, set);
+        if (lock.validate(stamp)) return result;
+        stamp = lock.readLock();
+        try {
+            return read(key, set);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Percorre os perfis. Cada faixa de conjuntos é lida sob lock de leitura: a visão é consistente por faixa,
+     * mas não entre faixas.
+     */
+    public void forEach(EntryConsumer consumer) {
+        char[] histogram = new char[BUCKETS];
+        for (int l = 0; l < locks.length; l++) {
+            long stamp = locks[l].readLock();
+            try {
+                for (int set = l; set <= setMask; set += locks.length) {
+                    for (int slot = set * WAYS; slot < (set + 1) * WAYS; slot++) {
+                        if (keys[slot] == EMPTY) continue;
+                        System.arraycopy(histograms, slot * BUCKETS, histogram, 0, BUCKETS);
+                        consumer.accept(keys[slot] == ZERO_KEY ? 0L : keys[slot], lastSeen[slot], samples[slot],
+                                means[slot], m2s[slot], histogram);
+                    }
+                }
+            } finally {
+                locks[l].unlockRead(stamp);
+            }
+        }
+    }
+
+    // Faixa do histograma: duas por potência de 2 (a segunda começa em 2^k * raiz de 2)
+    static int bucket(long amountCents) {
+        return Math.min(BUCKETS - 1, (int) (2 * Math.log(amountCents) / LN2));
+    }
+
+    static long lowerBound(int bucket) {
+        return (long) Math.ceil(Math.pow(2, bucket / 2.0));
+    }
+
+    static long upperBound(int bucket) {
+        return (long) Math.floor(Math.pow(2, (bucket + 1) / 2.0));
+    }
+
+    private int set(long key) {
+        return (int) Hashing.mix64(key) & setMask;
+    }
+
+    // Posição da chave no conjunto; se ausente, ocupa uma vazia ou substitui a de uso mais antigo
+    private int claim(long key, int set) {
+        int first = set * WAYS;
+        int free = -1;
+        int victim = first;
+        for (int slot = first; slot < first + WAYS; slot++) {
+            long current = keys[slot];
+            if (current == key) return slot;
+            if (current == EMPTY) {
+                if (free < 0) free = slot;
+            } else if (lastSeen[slot] < lastSeen[victim]
+                    || (lastSeen[slot] == lastSeen[victim] && samples[slot] < samples[victim])) {
+                victim = slot;
+            }
+        }
+        int slot;
+        if (free >= 0) {
+            slot = free;
+            size.incrementAndGet();
+        } else {
+            slot = victim;
+            evictions.increment();
+        }
+        keys[slot] = key;
+        lastSeen[slot] = 0;
+        samples[slot] = 0;
+        means[slot] = 0;
+        m2s[slot] = 0;
+        Arrays.fill(histograms, slot * BUCKETS, (slot + 1) * BUCKETS, (char) 0);
+        return slot;
+    }
+
+    private void halve(int base) {
+        for (int b = base; b < base + BUCKETS; b++) {
+            histograms[b] >>>= 1;
+        }
+    }
+
+    // Na leitura otimista os valores podem estar inconsistentes; quem chama descarta se validate falhar
+    private Profile read(long key, int set) {
+        for (int slot = set * WAYS; slot < (set + 1) * WAYS; slot++) {
+            if (keys[slot] != key) continue;
+            int n = samples[slot];
+            if (n == 0) return null;
+            double stdDev = n > 1 ? Math.sqrt(Math.max(0, m2s[slot]) / (n - 1)) : 0;
+
+            int base = slot * BUCKETS;
+            long total = 0;
+            for (int b = 0; b < BUCKETS; b++) {
+                total += histograms[base + b];
+            }
+            if (total == 0) return null;
+            long lowRank = Math.max(1, (long) Math.ceil(total * 0.01));
+            long highRank = Math.max(1, (long) Math.ceil(total * 0.99));
+            int low = -1, high = -1;
+            long cumulative = 0;
+            for (int b = 0; b < BUCKETS && high < 0; b++) {
+                cumulative += histograms[base + b];
+                if (low < 0 && cumulative >= lowRank) low = b;
+                if (cumulative >= highRank) high = b;
+            }
+            if (low < 0 || high < 0) return null;
+            return new Profile(n, means[slot], stdDev, lowerBound(low), upperBound(high));
+        }
+        return null;
+    }
+}
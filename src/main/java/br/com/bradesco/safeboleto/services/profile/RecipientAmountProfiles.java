@@ -0,0 +1,219 @@
+package br.com.bradesco.safeboleto.services.profile;
+
+import br.com.bradesco.safeboleto.profiling.PersistenceEvent;
+import br.com.bradesco.safeboleto.util.Hashing;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Perfil de valores de cada beneficiário (por chave PIX e por documento), para a regra de valor fora do padrão.
+ * Cada validação aprovada acrescenta o valor aos perfis da chave e do documento ({@link AmountProfileStore},
+ * limitada a {@code app.amount-profiles.capacity} perfis); as rejeitadas não entram, para que o perfil não aprenda
+ * o padrão de uma fraude.
+ *
+ * Os perfis são gravados em {@code app.amount-profiles.file} a cada {@code app.amount-profiles.snapshot-interval-ms}
+ * e no desligamento, e relidos na subida. O mesmo formato serve para levar perfis entre instâncias
+ * ({@link #export} / {@link #merge}); como o merge soma amostras, cada exportação deve ser juntada uma única vez.
+ *
+ * Formato (big-endian): int magic "PIXA", int versão e, por perfil, byte 1, long chave, int último uso (minuto),
+ * int amostras, double média e double M2 (do logaritmo do valor), byte n de faixas não vazias e n pares
+ * (byte faixa, char contagem); no fim, byte 0 e o CRC32C de tudo o que veio antes.
+ */
+@Component
+public class RecipientAmountProfiles {
+
+    private static final int MAGIC = 0x50495841;
+    private static final int VERSION = 1;
+    private static final char DOCUMENT = 'D';
+
+    private final boolean enabled;
+    private final Path file;
+    private final AmountProfileStore store;
+
+    public RecipientAmountProfiles(MeterRegistry registry,
+                                   @Value("${app.amount-profiles.enabled:true}") boolean enabled,
+                                   @Value("${app.amount-profiles.capacity:262144}") int capacity,
+                                   @Value("${app.amount-profiles.file:./data/amount-profiles.snap}") Path file) {
+        this.enabled = enabled;
+        this.file = file;
+        this.store = new AmountProfileStore(enabled ? capacity : 8);
+
+        Gauge.builder("pix.amount-profiles.entries", store, AmountProfileStore::size)
+                .description("Perfis de valor de beneficiários em memória").register(registry);
+        FunctionCounter.builder("pix.amount-profiles.evictions", store, AmountProfileStore::evictions)
+                .description("Perfis descartados para dar lugar a beneficiários novos").register(registry);
+    }
+
+    @PostConstruct
+    public void restore() {
+        if (!enabled || !Files.exists(file)) return;
+        long start = System.currentTimeMillis();
+        try {
+            int profiles = merge(Files.readAllBytes(file));
+            System.out.println("[INIT] Perfis de valor restaurados: " + profiles + " em "
+                    + (System.currentTimeMillis() - start) + " ms");
+        } catch (IOException e) {
+            // Sem o snapshot os perfis recomeçam vazios e a regra só volta a pontuar com amostras suficientes
+            System.out.println("[INIT] Snapshot de perfis de valor ignorado: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Perfil do beneficiário: o da chave ou o do documento, o que tiver mais amostras (uma chave nova de um
+     * documento conhecido usa o histórico do documento). null se nenhum dos dois existe.
+     */
+    public AmountProfileStore.Profile lookup(long keyHash, String document) {
+        if (!enabled) return null;
+        AmountProfileStore.Profile byKey = keyHash != 0 ? store.profile(keyHash) : null;
+        AmountProfileStore.Profile byDocument = document != null && !document.isBlank()
+                ? store.profile(Hashing.hash64(DOCUMENT, document))
+                : null;
+        if (byKey == null) return byDocument;
+        if (byDocument == null) return byKey;
+        return byDocument.samples() > byKey.samples() ? byDocument : byKey;
+    }
+
+    public void recordAccepted(long keyHash, String document, long amountCents) {
+        if (!enabled || amountCents <= 0) return;
+        int minute = (int) (System.currentTimeMillis() / 60_000);
+        if (keyHash != 0) store.add(keyHash, amountCents, minute);
+        if (document != null && !document.isBlank()) {
+            store.add(Hashing.hash64(DOCUMENT, document), amountCents, minute);
+        }
+    }
+
+    // Perfis em memória (chaves e documentos)
+    public int size() {
+        return store.size();
+    }
+
+    @PreDestroy
+    public void close() {
+        snapshot();
+    }
+
+    @Scheduled(initialDelayString = "${app.amount-profiles.snapshot-interval-ms:300000}",
+               fixedDelayString = "${app.amount-profiles.snapshot-interval-ms:300000}")
+    public synchronized void snapshot() {
+        if (!enabled || store.size() == 0) return;
+        PersistenceEvent event = new PersistenceEvent();
+        event.operation = PersistenceEvent.AMOUNT_PROFILES;
+        event.records = store.size();
+        event.begin();
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path temp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+            try {
+                try (OutputStream output = Files.newOutputStream(temp)) {
+                    export(output);
+                }
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                event.success = true;
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            System.out.println("[DEBUG PIX] Falha ao gravar o snapshot de perfis de valor: " + e.getMessage());
+        }
+        event.commit();
+    }
+
+    // Grava todos os perfis no formato do snapshot
+    public void export(OutputStream output) throws IOException {
+        CRC32C crc = new CRC32C();
+        DataOutputStream out = new DataOutputStream(new CheckedOutputStream(new BufferedOutputStream(output, 1 << 16), crc));
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        IOException[] failure = new IOException[1];
+        store.forEach((key, lastSeen, samples, mean, m2, histogram) -> {
+            if (failure[0] != null) return;
+            try {
+                out.writeByte(1);
+                out.writeLong(key);
+                out.writeInt(lastSeen);
+                out.writeInt(samples);
+                out.writeDouble(mean);
+                out.writeDouble(m2);
+                int used = 0;
+                for (char count : histogram) {
+                    if (count != 0) used++;
+                }
+                out.writeByte(used);
+                for (int b = 0; b < histogram.length; b++) {
+                    if (histogram[b] == 0) continue;
+                    out.writeByte(b);
+                    out.writeChar(histogram[b]);
+                }
+            } catch (IOException e) {
+                failure[0] = e;
+            }
+        });
+        if (failure[0] != null) throw failure[0];
+        out.writeByte(0);
+        out.flush();
+        // O CRC não entra na própria conta: escrito direto no stream de baixo
+        DataOutputStream trailer = new DataOutputStream(output);
+        trailer.writeInt((int) crc.getValue());
+        trailer.flush();
+    }
+
+    /**
+     * Junta aos perfis em memória os de um snapshot ou exportação. Retorna o número de perfis lidos. O checksum é
+     * conferido antes: um arquivo truncado ou corrompido gera {@link IOException} sem alterar nada.
+     */
+    public int merge(byte[] data) throws IOException {
+        if (data.length < 13) throw new IOException("Snapshot de perfis de valor truncado");
+        CRC32C crc = new CRC32C();
+        crc.update(data, 0, data.length - 4);
+        if ((int) crc.getValue() != ByteBuffer.wrap(data, data.length - 4, 4).getInt()) {
+            throw new IOException("Checksum do snapshot de perfis de valor inválido");
+        }
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data, 0, data.length - 4));
+        if (in.readInt() != MAGIC) throw new IOException("Arquivo não é um snapshot de perfis de valor");
+        int version = in.readInt();
+        if (version != VERSION) throw new IOException("Versão de snapshot não suportada: " + version);
+
+        char[] histogram = new char[AmountProfileStore.BUCKETS];
+        int profiles = 0;
+        while (in.readByte() != 0) {
+            long key = in.readLong();
+            int lastSeen = in.readInt();
+            int samples = in.readInt();
+            double mean = in.readDouble();
+            double m2 = in.readDouble();
+            Arrays.fill(histogram, (char) 0);
+            int used = in.readUnsignedByte();
+            for (int i = 0; i < used; i++) {
+                int bucket = in.readUnsignedByte();
+                char count = in.readChar();
+                if (bucket >= AmountProfileStore.BUCKETS) throw new IOException("Faixa inválida: " + bucket);
+                histogram[bucket] = count;
+            }
+            if (enabled) store.merge(key, lastSeen, samples, mean, m2, histogram);
+            profiles++;
+        }
+        return profiles;
+    }
+}
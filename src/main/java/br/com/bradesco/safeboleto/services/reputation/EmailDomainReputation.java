@@ -0,0 +1,89 @@
+package br.com.bradesco.safeboleto.services.reputation;
+
+import br.com.bradesco.safeboleto.util.DomainSuffixTable;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Reputação dos domínios de chaves PIX do tipo e-mail: lista de domínios descartáveis ou de alto risco, cada um
+ * com um nível de risco de 0 a 100, consultada por sufixo ({@link DomainSuffixTable}).
+ *
+ * O arquivo ({@code app.email-domains.file}) tem um domínio por linha, opcionalmente seguido de {@code ;risco}
+ * (padrão {@code app.email-domains.default-risk}). Um subdomínio listado com risco 0 abre exceção para ele dentro
+ * de um domínio pai listado. Recarga e troca atômica em {@link ReputationList}.
+ */
+@Component
+public class EmailDomainReputation extends ReputationList<DomainSuffixTable> {
+
+    /**
+     * Domínio listado que casou com o e-mail (o próprio domínio do e-mail ou um domínio pai) e seu risco.
+     */
+    public record Match(String domain, int risk) {
+    }
+
+    private final int defaultRisk;
+
+    public EmailDomainReputation(MeterRegistry registry,
+                                 @Value("${app.email-domains.file:classpath:reputacao/dominios-email.txt}") Resource file,
+                                 @Value("${app.email-domains.enabled:true}") boolean enabled,
+                                 @Value("${app.email-domains.default-risk:100}") int defaultRisk) {
+        super("domínios de e-mail", file, enabled, DomainSuffixTable.EMPTY);
+        this.defaultRisk = defaultRisk;
+        Gauge.builder("pix.email-domains.entries", () -> table().size())
+                .description("Domínios na lista de reputação de e-mail").register(registry);
+    }
+
+    @Scheduled(initialDelayString = "${app.email-domains.reload-interval-ms:60000}",
+               fixedDelayString = "${app.email-domains.reload-interval-ms:60000}")
+    @Override
+    public void reloadIfChanged() {
+        super.reloadIfChanged();
+    }
+
+    /**
+     * Domínio listado mais específico que cobre o domínio do e-mail, ou {@code null}. Só aloca quando há match.
+     */
+    public Match match(String email) {
+        if (email == null || !enabled()) return null;
+        int at = email.lastIndexOf('@');
+        if (at < 0) return null;
+        long found = table().find(email, at + 1, email.length());
+        if (found < 0) return null;
+        return new Match(email.substring((int) (found >>> 32)).toLowerCase(Locale.ROOT), (int) found);
+    }
+
+    @Override
+    protected Parser<DomainSuffixTable> parser() {
+        Map<String, Integer> domains = new HashMap<>();
+        return new Parser<>() {
+            @Override
+            public void line(String line, int lineNumber) {
+                int separator = line.indexOf(';');
+                String domain = DomainSuffixTable.normalize(separator < 0 ? line : line.substring(0, separator));
+                int risk = separator < 0 ? defaultRisk : parseRisk(line.substring(separator + 1));
+                if (domain.isEmpty() || domain.indexOf('@') >= 0 || risk < 0 || risk > 100) {
+                    throw new IllegalArgumentException("Linha " + lineNumber + " inválida na lista de domínios: " + line);
+                }
+                domains.merge(domain, risk, Math::max);
+            }
+
+            @Override
+            public DomainSuffixTable build() {
+                return DomainSuffixTable.of(domains);
+            }
+        };
+    }
+
+    @Override
+    protected int size(DomainSuffixTable table) {
+        return table.size();
+    }
+}
@@ -0,0 +1,101 @@
+package br.com.bradesco.safeboleto.services.reputation;
+
+import br.com.bradesco.safeboleto.util.PhonePrefixTable;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reputação de faixas de numeração das chaves PIX do tipo telefone (código do país, DDD ou faixas de números,
+ * ex: faixas ligadas a fraudes recentes de troca de chip), consultada com o número já em E.164
+ * ({@link PhonePrefixTable}).
+ *
+ * O arquivo ({@code app.phone-prefixes.file}) tem uma faixa por linha: {@code prefixo} ou {@code inicio-fim}
+ * (dígitos, com "+" e espaços opcionais), seguido de {@code ;risco} (padrão {@code app.phone-prefixes.default-risk})
+ * e opcionalmente {@code ;descrição}, usada no motivo da rejeição. A faixa mais específica vale: risco 0 em uma
+ * faixa abre exceção dentro de uma faixa maior listada. Recarga e troca atômica em {@link ReputationList}.
+ */
+@Component
+public class PhonePrefixReputation extends ReputationList<PhonePrefixTable> {
+
+    /**
+     * Faixa mais específica que contém o número e seu risco.
+     */
+    public record Match(String range, int risk) {
+    }
+
+    private final int defaultRisk;
+
+    public PhonePrefixReputation(MeterRegistry registry,
+                                 @Value("${app.phone-prefixes.file:classpath:reputacao/faixas-telefone.txt}") Resource file,
+                                 @Value("${app.phone-prefixes.enabled:true}") boolean enabled,
+                                 @Value("${app.phone-prefixes.default-risk:100}") int defaultRisk) {
+        super("faixas de telefone", file, enabled, PhonePrefixTable.EMPTY);
+        this.defaultRisk = defaultRisk;
+        Gauge.builder("pix.phone-prefixes.entries", () -> table().size())
+                .description("Faixas na lista de reputação de telefones").register(registry);
+    }
+
+    @Scheduled(initialDelayString = "${app.phone-prefixes.reload-interval-ms:60000}",
+               fixedDelayString = "${app.phone-prefixes.reload-interval-ms:60000}")
+    @Override
+    public void reloadIfChanged() {
+        super.reloadIfChanged();
+    }
+
+    /**
+     * Faixa listada mais específica que contém o telefone (E.164, de {@code PixKeyCodec.normalizePhone}), ou
+     * {@code null}. Só aloca quando há match.
+     */
+    public Match match(String e164) {
+        if (e164 == null || e164.length() < 2 || e164.charAt(0) != '+' || !enabled()) return null;
+        PhonePrefixTable current = table();
+        int index = current.find(Long.parseLong(e164, 1, e164.length(), 10));
+        return index < 0 ? null : new Match(current.label(index), current.risk(index));
+    }
+
+    @Override
+    protected Parser<PhonePrefixTable> parser() {
+        List<PhonePrefixTable.Range> ranges = new ArrayList<>();
+        return new Parser<>() {
+            @Override
+            public void line(String line, int lineNumber) {
+                String[] fields = line.split(";", 3);
+                String[] bounds = fields[0].split("-", -1);
+                String from = digits(bounds[0]);
+                String to = bounds.length == 2 ? digits(bounds[1]) : from;
+                int risk = fields.length > 1 ? parseRisk(fields[1]) : defaultRisk;
+                if (bounds.length > 2 || from.isEmpty() || to.isEmpty() || from.length() > 15 || to.length() > 15
+                        || risk < 0 || risk > 100) {
+                    throw new IllegalArgumentException("Linha " + lineNumber + " inválida na lista de faixas de telefone: " + line);
+                }
+                String label = fields.length > 2 && !fields[2].isBlank() ? fields[2].strip() : fields[0].strip();
+                ranges.add(new PhonePrefixTable.Range(from, to, risk, label));
+            }
+
+            @Override
+            public PhonePrefixTable build() {
+                return PhonePrefixTable.of(ranges);
+            }
+        };
+    }
+
+    @Override
+    protected int size(PhonePrefixTable table) {
+        return table.size();
+    }
+
+    // Só os dígitos, aceitando "+" inicial e espaços; vazio se houver outro caractere
+    private static String digits(String value) {
+        String clean = value.strip();
+        if (clean.startsWith("+")) clean = clean.substring(1);
+        clean = clean.replace(" ", "");
+        return clean.chars().allMatch(Character::isDigit) ? clean : "";
+    }
+}
@@ -0,0 +1,221 @@
+package br.com.bradesco.safeboleto.services.reputation;
+
+import br.com.bradesco.safeboleto.exception.InvalidInputException;
+import jakarta.annotation.PostConstruct;
+import org.springframework.core.io.Resource;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Base das listas de reputação carregadas de arquivo: a tabela em uso é imutável e trocada de uma vez
+ * (referência volátil), então validações em andamento terminam com a lista antiga e as seguintes já usam a nova.
+ *
+ * O arquivo tem uma entrada por linha; linhas vazias e iniciadas por {@code #} são ignoradas. Ele é relido
+ * quando sua data de modificação muda ({@link #reloadIfChanged}, agendado pela subclasse) ou sob demanda
+ * ({@link #reload()}, {@link #reload(InputStream)}, {@link #replaceFile(InputStream)}). Linhas inválidas são
+ * ignoradas até o limite da subclasse (por padrão nenhuma); acima dele a lista é recusada com
+ * {@link InvalidInputException} e a atual continua valendo.
+ *
+ * @param <T> tabela montada a partir do arquivo
+ */
+public abstract class ReputationList<T> {
+
+    private final String description;
+    private final Resource file;
+    private final boolean enabled;
+    private final int maxInvalidLines;
+
+    private volatile T table;
+    private volatile long fileLastModified;
+    private volatile int skippedLines;
+
+    protected ReputationList(String description, Resource file, boolean enabled, T empty) {
+        this(description, file, enabled, empty, 0);
+    }
+
+    /**
+     * @param maxInvalidLines linhas inválidas ignoradas por carga antes de recusar a lista
+     */
+    protected ReputationList(String description, Resource file, boolean enabled, T empty, int maxInvalidLines) {
+        this.description = description;
+        this.file = file;
+        this.enabled = enabled;
+        this.table = empty;
+        this.maxInvalidLines = Math.max(0, maxInvalidLines);
+    }
+
+    /**
+     * Montagem de uma tabela, linha a linha. Um parser novo é criado a cada carga.
+     */
+    protected interface Parser<T> {
+
+        /**
+         * Lança {@link IllegalArgumentException} se a linha é inválida.
+         *
+         * @param line       linha útil, já aparada (vazias e comentários não chegam aqui)
+         * @param lineNumber número da linha no arquivo, para mensagens de erro
+         */
+        void line(String line, int lineNumber);
+
+        // Lança IllegalArgumentException se a lista inteira é recusada
+        T build();
+    }
+
+    protected abstract Parser<T> parser();
+
+    protected abstract int size(T table);
+
+    @PostConstruct
+    public void load() {
+        if (!enabled || !file.exists()) return;
+        try {
+            reload();
+        } catch (IOException | InvalidInputException e) {
+            System.out.println("[INIT] Falha ao carregar a lista de " + description + " (" + e.getMessage() + ")");
+        }
+    }
+
+    /**
+     * Relê o arquivo configurado.
+     *
+     * @return entradas carregadas
+     */
+    public int reload() throws IOException {
+        long lastModified = lastModified();
+        try (InputStream input = file.getInputStream()) {
+            int size = reload(input);
+            fileLastModified = lastModified;
+            return size;
+        }
+    }
+
+    /**
+     * Substitui a lista pela lida de {@code input}.
+     *
+     * @return entradas carregadas
+     */
+    public synchronized int reload(InputStream input) throws IOException {
+        long start = System.nanoTime();
+        return install(parse(input), start);
+    }
+
+    /**
+     * Grava {@code input} no arquivo configurado e passa a usar a lista lida dele: o conteúdo vai para um arquivo
+     * temporário no mesmo diretório, que só substitui o configurado (troca atômica) se a lista for aceita. Assim
+     * a lista importada continua valendo depois de reiniciar, e uma lista recusada não altera o arquivo.
+     *
+     * @return entradas carregadas
+     */
+    public synchronized int replaceFile(InputStream input) throws IOException {
+        if (!file.isFile()) {
+            throw new IllegalStateException(
+                    "A lista de " + description + " não está em um arquivo local: " + file);
+        }
+        long start = System.nanoTime();
+        Path target = file.getFile().toPath().toAbsolutePath();
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), target.getFileName() + ".", ".tmp");
+        try {
+            Files.copy(input, temp, StandardCopyOption.REPLACE_EXISTING);
+            Loaded<T> loaded;
+            try (InputStream stored = Files.newInputStream(temp)) {
+                loaded = parse(stored);
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            int size = install(loaded, start);
+            fileLastModified = lastModified();
+            return size;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    // Linhas inválidas ignoradas na última carga aceita
+    public int skippedLines() {
+        return skippedLines;
+    }
+
+    private record Loaded<T>(T table, int skippedLines) {
+    }
+
+    private Loaded<T> parse(InputStream input) throws IOException {
+        Parser<T> parser = parser();
+        int skipped = 0;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.strip();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                try {
+                    parser.line(line, lineNumber);
+                } catch (IllegalArgumentException e) {
+                    if (maxInvalidLines == 0) throw new InvalidInputException(e.getMessage(), e);
+                    if (++skipped > maxInvalidLines) {
+                        throw new InvalidInputException("Mais de " + maxInvalidLines
+                                + " linhas inválidas na lista de " + description + "; a última: " + e.getMessage(), e);
+                    }
+                }
+            }
+        }
+        try {
+            return new Loaded<>(parser.build(), skipped);
+        } catch (IllegalArgumentException e) {
+            // Tabela recusada como um todo (ex: risco fora de 0-100, acima da capacidade)
+            throw new InvalidInputException(e.getMessage(), e);
+        }
+    }
+
+    private int install(Loaded<T> loaded, long start) {
+        table = loaded.table();
+        skippedLines = loaded.skippedLines();
+        int size = size(loaded.table());
+        System.out.println("[INIT] Lista de " + description + " carregada: " + size + " entradas"
+                + (loaded.skippedLines() > 0 ? ", " + loaded.skippedLines() + " linhas inválidas ignoradas" : "")
+                + " (" + (System.nanoTime() - start) / 1_000_000 + " ms).");
+        return size;
+    }
+
+    // Relê o arquivo configurado se ele mudou desde a última carga
+    protected void reloadIfChanged() {
+        if (!enabled || !file.exists()) return;
+        long lastModified = lastModified();
+        if (lastModified != 0 && lastModified != fileLastModified) {
+            load();
+        }
+    }
+
+    // Risco de 0 a 100; -1 se não é um número
+    protected static int parseRisk(String value) {
+        try {
+            return Integer.parseInt(value.strip());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    protected boolean enabled() {
+        return enabled;
+    }
+
+    protected T table() {
+        return table;
+    }
+
+    private long lastModified() {
+        try {
+            return file.lastModified();
+        } catch (IOException e) {
+            // Recursos dentro do jar não têm data de modificação: carregados só na inicialização ou manualmente
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package br.com.bradesco.safeboleto.services.rescoring;
+
+/**
+ * Validação gravada, com o número de rejeições anteriores da mesma chave calculado na leitura.
+ *
+ * @param inRange false para linhas lidas apenas para manter o histórico (id na faixa, horário fora do período)
+ */
+record RescoringRow(long id, String pixKey, String keyType, long keyHash, String recipientName,
+                    String recipientDocument, long amountCents, String bankCode, boolean storedValid,
+                    boolean inRange, long previousFrauds) {
+}
@@ -0,0 +1,276 @@
+package br.com.bradesco.safeboleto.services.rescoring;
+
+import br.com.bradesco.safeboleto.dto.RescoringRequest;
+import br.com.bradesco.safeboleto.dto.RescoringRunResponse;
+import br.com.bradesco.safeboleto.exception.InvalidInputException;
+import br.com.bradesco.safeboleto.exception.OperationConflictException;
+import br.com.bradesco.safeboleto.model.TrustedBank;
+import br.com.bradesco.safeboleto.resilience.ValidationDataGateway;
+import br.com.bradesco.safeboleto.services.graph.FraudRingGraph;
+import br.com.bradesco.safeboleto.services.holder.HolderRegistry;
+import br.com.bradesco.safeboleto.services.reputation.EmailDomainReputation;
+import br.com.bradesco.safeboleto.services.reputation.PhonePrefixReputation;
+import br.com.bradesco.safeboleto.services.scoring.RiskRules;
+import br.com.bradesco.safeboleto.services.scoring.RiskSignals;
+import br.com.bradesco.safeboleto.services.scoring.RuleWeights;
+import br.com.bradesco.safeboleto.util.ConcurrentLongIntMap;
+import br.com.bradesco.safeboleto.util.PixKeyCodec;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Reavaliação do histórico: aplica a um período de {@code pix_validations} os pesos em produção e um conjunto
+ * candidato, e compara as decisões.
+ *
+ * A leitura anda pela chave primária em páginas ({@link RescoringStore}); enquanto uma página é pontuada em um
+ * {@link ForkJoinPool} próprio, a seguinte já está sendo lida. Os fatos de cada validação são levantados uma vez
+ * e pontuados com os dois pesos, então a diferença reflete só a mudança de regra. Participantes e grafo de fraude
+ * são os de hoje, não os da época; o histórico de rejeições da chave é reconstruído a partir das decisões gravadas.
+ *
+ * Só o resumo e uma amostra das validações cuja decisão muda são gravados. Uma execução por vez.
+ */
+@Service
+@RequiredArgsConstructor
+public class RescoringService {
+
+    private final RescoringStore store;
+    private final ValidationDataGateway dataGateway;
+    private final FraudRingGraph fraudRingGraph;
+    private final EmailDomainReputation emailDomains;
+    private final PhonePrefixReputation phonePrefixes;
+    private final HolderRegistry holders;
+    private final RuleWeights ruleWeights;
+
+    @Value("${app.fraud-graph.enabled:true}")
+    private boolean fraudGraphEnabled;
+
+    @Value("${app.rescoring.page-size:5000}")
+    private int pageSize;
+
+    // 0 usa o número de processadores
+    @Value("${app.rescoring.parallelism:0}")
+    private int parallelism;
+
+    @Value("${app.rescoring.sample-size:200}")
+    private int sampleSize;
+
+    private final AtomicReference<Run> current = new AtomicReference<>();
+    private final ExecutorService runner = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "rescoring");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Estado em memória da execução corrente; o banco recebe o mesmo resumo a cada página
+    private static final class Run {
+        final long id;
+        final LocalDateTime from;
+        final LocalDateTime to;
+        final RuleWeights candidate;
+        final long rowsTotal;
+        final LocalDateTime startedAt = LocalDateTime.now();
+        final long startedNanos = System.nanoTime();
+        volatile boolean cancelled;
+        volatile RescoringRunResponse.Summary summary;
+
+        Run(long id, LocalDateTime from, LocalDateTime to, RuleWeights candidate, long rowsTotal, int sampleSize) {
+            this.id = id;
+            this.from = from;
+            this.to = to;
+            this.candidate = candidate;
+            this.rowsTotal = rowsTotal;
+            this.summary = new RescoringTally(sampleSize).summary();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void failInterruptedRuns() {
+        int interrupted = store.failInterrupted();
+        if (interrupted > 0) {
+            System.out.println("[INIT] " + interrupted + " reavaliação(ões) do histórico interrompida(s) marcada(s) como FAILED.");
+        }
+    }
+
+    public RuleWeights liveRules() {
+        return ruleWeights;
+    }
+
+    public RescoringRunResponse start(RescoringRequest request) {
+        if (!request.from().isBefore(request.to())) {
+            throw new InvalidInputException("O início do período deve ser anterior ao fim.");
+        }
+        RuleWeights candidate;
+        try {
+            candidate = ruleWeights.with(request.rules());
+        } catch (IllegalArgumentException e) {
+            throw new InvalidInputException(e.getMessage(), e);
+        }
+        if (current.get() != null) {
+            throw new OperationConflictException("Já existe uma reavaliação do histórico em andamento (id " + current.get().id + ").");
+        }
+
+        long[] range = store.idRange(request.from(), request.to());
+        long rowsTotal = range == null ? 0 : range[2];
+        long runId = store.create(request.from(), request.to(), ruleWeights, candidate, rowsTotal);
+        Run run = new Run(runId, request.from(), request.to(), candidate, rowsTotal, sampleSize);
+        if (!current.compareAndSet(null, run)) {
+            store.finish(runId, "CANCELLED", run.summary, "Outra reavaliação foi iniciada ao mesmo tempo", List.of());
+            throw new OperationConflictException("Já existe uma reavaliação do histórico em andamento.");
+        }
+
+        System.out.println("[DEBUG PIX] Reavaliação " + runId + " iniciada: " + rowsTotal + " validações entre "
+                + request.from() + " e " + request.to());
+        runner.execute(() -> execute(run, range));
+        return toResponse(run, "RUNNING", null);
+    }
+
+    public Optional<RescoringRunResponse> status(long runId) {
+        Run run = current.get();
+        if (run != null && run.id == runId) return Optional.of(toResponse(run, "RUNNING", null));
+        return store.find(runId);
+    }
+
+    public List<RescoringRunResponse.Flip> flips(long runId) {
+        return store.flips(runId);
+    }
+
+    public boolean cancel(long runId) {
+        Run run = current.get();
+        if (run == null || run.id != runId) return false;
+        run.cancelled = true;
+        return true;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        Run run = current.get();
+        if (run != null) run.cancelled = true;
+        runner.shutdown();
+    }
+
+    private void execute(Run run, long[] range) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        RescoringTally total = new RescoringTally(sampleSize);
+        try {
+            if (range != null) {
+                ConcurrentLongIntMap rejectedCounts = store.rejectedBefore(range[0]);
+                long cursor = range[0] - 1;
+                ForkJoinTask<RescoringTally> pending = null;
+
+                while (!run.cancelled) {
+                    List<RescoringRow> page = store.page(cursor, range[1], pageSize, run.from, run.to, rejectedCounts);
+                    if (page.isEmpty()) break;
+                    cursor = page.get(page.size() - 1).id();
+
+                    // Pontua esta página enquanto a próxima é lida
+                    ForkJoinTask<RescoringTally> next = pool.submit(new ScoreTask(run.candidate, page, 0, page.size()));
+                    if (pending != null) publish(run, total.merge(pending.join()));
+                    pending = next;
+                }
+                if (pending != null) publish(run, total.merge(pending.join()));
+            }
+
+            String status = run.cancelled ? "CANCELLED" : "COMPLETED";
+            store.finish(run.id, status, total.summary(), null, total.flips());
+            System.out.println("[DEBUG PIX] Reavaliação " + run.id + " " + status + ": " + total.scanned()
+                    + " validações, " + Math.round(rowsPerSecond(run, total.scanned())) + " validações/s");
+        } catch (RuntimeException e) {
+            System.out.println("[DEBUG PIX] Reavaliação " + run.id + " falhou: " + e.getMessage());
+            store.finish(run.id, "FAILED", total.summary(), String.valueOf(e.getMessage()), total.flips());
+        } finally {
+            pool.shutdown();
+            current.set(null);
+        }
+    }
+
+    private void publish(Run run, RescoringTally total) {
+        run.summary = total.summary();
+        store.progress(run.id, run.summary);
+    }
+
+    private RescoringRunResponse toResponse(Run run, String status, String error) {
+        RescoringRunResponse.Summary summary = run.summary;
+        long scanned = summary.scanned();
+        return new RescoringRunResponse(run.id, status, run.from, run.to, ruleWeights, run.candidate,
+                run.rowsTotal, scanned,
+                run.rowsTotal == 0 ? 100 : Math.min(100, scanned * 100.0 / run.rowsTotal),
+                rowsPerSecond(run, scanned), summary, error, run.startedAt, null);
+    }
+
+    private static double rowsPerSecond(Run run, long scanned) {
+        double seconds = (System.nanoTime() - run.startedNanos) / 1e9;
+        return seconds > 0 ? scanned / seconds : 0;
+    }
+
+    // Divide a página ao meio até blocos pequenos; cada bloco acumula seu próprio RescoringTally
+    private final class ScoreTask extends RecursiveTask<RescoringTally> {
+
+        private static final int THRESHOLD = 256;
+
+        private final RuleWeights candidate;
+        private final List<RescoringRow> rows;
+        private final int from;
+        private final int to;
+
+        ScoreTask(RuleWeights candidate, List<RescoringRow> rows, int from, int to) {
+            this.candidate = candidate;
+            this.rows = rows;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected RescoringTally compute() {
+            if (to - from > THRESHOLD) {
+                int middle = (from + to) >>> 1;
+                ScoreTask left = new ScoreTask(candidate, rows, from, middle);
+                left.fork();
+                RescoringTally right = new ScoreTask(candidate, rows, middle, to).compute();
+                return left.join().merge(right);
+            }
+
+            RescoringTally tally = new RescoringTally(sampleSize);
+            for (int i = from; i < to; i++) {
+                RescoringRow row = rows.get(i);
+                if (!row.inRange()) continue;
+                RiskSignals signals = signals(row);
+                tally.add(row, RiskRules.assess(signals, ruleWeights), RiskRules.assess(signals, candidate));
+            }
+            return tally;
+        }
+    }
+
+    private RiskSignals signals(RescoringRow row) {
+        String bankCode = row.bankCode() == null ? null : row.bankCode().trim();
+        Optional<TrustedBank> bank = dataGateway.cachedParticipant(bankCode).value();
+        FraudRingGraph.ComponentStats ring = fraudGraphEnabled
+                ? fraudRingGraph.lookup(row.keyHash(), row.recipientDocument())
+                : null;
+        // As listas de reputação e o cadastro de titulares usados são os atuais, não os vigentes na data da validação
+        EmailDomainReputation.Match emailDomain = PixKeyCodec.EMAIL.equals(row.keyType()) && row.pixKey() != null
+                ? emailDomains.match(row.pixKey().trim())
+                : null;
+        PhonePrefixReputation.Match phoneRange = PixKeyCodec.PHONE.equals(row.keyType())
+                ? phonePrefixes.match(PixKeyCodec.normalizePhone(row.pixKey()))
+                : null;
+        // O pagador não é gravado no histórico e os perfis de valor atuais já incluem a própria validação:
+        // as regras de beneficiário novo e de valor fora do padrão não são reavaliadas
+        return RiskRules.signals(row.pixKey(), row.keyType(), row.keyHash(), row.recipientName(),
+                row.recipientDocument(), row.amountCents(), bank, row.previousFrauds(), ring, emailDomain, phoneRange,
+                false, null, holders.similarity(row.recipientDocument(), row.recipientName()));
+    }
+}
@@ -0,0 +1,198 @@
+package br.com.bradesco.safeboleto.services.rescoring;
+
+import br.com.bradesco.safeboleto.dto.RescoringRunResponse;
+import br.com.bradesco.safeboleto.services.scoring.RuleWeights;
+import br.com.bradesco.safeboleto.util.ConcurrentLongIntMap;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Acesso a dados da reavaliação do histórico.
+ *
+ * {@code pix_validations} é lida em páginas pela chave primária ({@code id > ?}), cada página em uma consulta
+ * curta fora de transação: nenhuma linha é bloqueada e nenhuma transação longa segura o vacuum do PostgreSQL.
+ */
+@Component
+@RequiredArgsConstructor
+public class RescoringStore {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    private record Rules(RuleWeights baseline, RuleWeights candidate) {
+    }
+
+    // Faixa de ids do período e quantidade de validações, {menor, maior, quantidade}, ou null se não há nenhuma
+    long[] idRange(LocalDateTime from, LocalDateTime to) {
+        return jdbcTemplate.query(
+                "SELECT MIN(id), MAX(id), COUNT(*) FROM pix_validations "
+                        + "WHERE validation_timestamp >= ? AND validation_timestamp < ? AND key_hash IS NOT NULL",
+                rs -> {
+                    rs.next();
+                    long min = rs.getLong(1);
+                    return rs.wasNull() ? null : new long[]{min, rs.getLong(2), rs.getLong(3)};
+                },
+                Timestamp.valueOf(from), Timestamp.valueOf(to));
+    }
+
+    // Rejeições por chave gravadas antes do id informado (o histórico que a validação em tempo real enxergava)
+    ConcurrentLongIntMap rejectedBefore(long id) {
+        ConcurrentLongIntMap counts = new ConcurrentLongIntMap(1 << 14);
+        jdbcTemplate.query(
+                "SELECT key_hash, COUNT(*) FROM pix_validations "
+                        + "WHERE id < ? AND is_valid = FALSE AND key_hash IS NOT NULL GROUP BY key_hash",
+                rs -> {
+                    counts.put(rs.getLong(1), rs.getInt(2));
+                },
+                id);
+        return counts;
+    }
+
+    /**
+     * Próxima página de validações depois de {@code afterId}, até {@code maxId}. O histórico de rejeições de
+     * cada linha é calculado aqui, na ordem dos ids, e {@code counts} é atualizado com as rejeições lidas.
+     */
+    List<RescoringRow> page(long afterId, long maxId, int limit, LocalDateTime from, LocalDateTime to,
+                            ConcurrentLongIntMap counts) {
+        return jdbcTemplate.query(
+                "SELECT id, pix_key, pix_key_type, key_hash, recipient_name, recipient_document, amount_cents, bank_code, "
+                        + "is_valid, validation_timestamp FROM pix_validations "
+                        + "WHERE id > ? AND id <= ? AND key_hash IS NOT NULL ORDER BY id LIMIT ?",
+                (rs, i) -> toRow(rs, from, to, counts),
+                afterId, maxId, limit);
+    }
+
+    long create(LocalDateTime from, LocalDateTime to, RuleWeights baseline, RuleWeights candidate, long rowsTotal) {
+        String rules = toJson(new Rules(baseline, candidate));
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(
+                    "INSERT INTO rescoring_runs (status, range_from, range_to, rules, rows_total, rows_scanned, started_at) "
+                            + "VALUES ('RUNNING', ?, ?, ?, ?, 0, ?)", new String[]{"id"});
+            ps.setTimestamp(1, Timestamp.valueOf(from));
+            ps.setTimestamp(2, Timestamp.valueOf(to));
+            ps.setString(3, rules);
+            ps.setLong(4, rowsTotal);
+            ps.setTimestamp(5, Timestamp.valueOf(LocalDateTime.now()));
+            return ps;
+        }, keyHolder);
+        return keyHolder.getKey().longValue();
+    }
+
+    void progress(long runId, RescoringRunResponse.Summary summary) {
+        jdbcTemplate.update("UPDATE rescoring_runs SET rows_scanned = ?, summary = ? WHERE id = ?",
+                summary.scanned(), toJson(summary), runId);
+    }
+
+    void finish(long runId, String status, RescoringRunResponse.Summary summary, String error,
+                List<RescoringRunResponse.Flip> flips) {
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO rescoring_flips (run_id, validation_id, pix_key_type, bank_code, stored_valid, "
+                        + "baseline_score, candidate_score, candidate_valid) VALUES (?, ?, ?, ?, ?, ?, ?, ?)",
+                flips, 500, (ps, flip) -> {
+                    ps.setLong(1, runId);
+                    ps.setLong(2, flip.validationId());
+                    ps.setString(3, flip.keyType());
+                    ps.setString(4, flip.bankCode());
+                    ps.setBoolean(5, flip.storedValid());
+                    ps.setInt(6, flip.baselineScore());
+                    ps.setInt(7, flip.candidateScore());
+                    ps.setBoolean(8, flip.candidateValid());
+                });
+        jdbcTemplate.update(
+                "UPDATE rescoring_runs SET status = ?, rows_scanned = ?, summary = ?, error = ?, finished_at = ? WHERE id = ?",
+                status, summary.scanned(), toJson(summary), error == null ? null : truncate(error, 500),
+                Timestamp.valueOf(LocalDateTime.now()), runId);
+    }
+
+    Optional<RescoringRunResponse> find(long runId) {
+        return jdbcTemplate.query(
+                "SELECT id, status, range_from, range_to, rules, rows_total, rows_scanned, summary, error, "
+                        + "started_at, finished_at FROM rescoring_runs WHERE id = ?",
+                (rs, i) -> toResponse(rs), runId).stream().findFirst();
+    }
+
+    List<RescoringRunResponse.Flip> flips(long runId) {
+        return jdbcTemplate.query(
+                "SELECT validation_id, pix_key_type, bank_code, stored_valid, baseline_score, candidate_score, "
+                        + "candidate_valid FROM rescoring_flips WHERE run_id = ? ORDER BY validation_id",
+                (rs, i) -> new RescoringRunResponse.Flip(rs.getLong(1), rs.getString(2), rs.getString(3),
+                        rs.getBoolean(4), rs.getInt(5), rs.getInt(6), rs.getBoolean(7)),
+                runId);
+    }
+
+    // Execuções que estavam rodando quando a aplicação parou
+    int failInterrupted() {
+        return jdbcTemplate.update(
+                "UPDATE rescoring_runs SET status = 'FAILED', error = 'Interrompida pelo encerramento da aplicação', "
+                        + "finished_at = ? WHERE status = 'RUNNING'", Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    private static RescoringRow toRow(ResultSet rs, LocalDateTime from, LocalDateTime to,
+                                      ConcurrentLongIntMap counts) throws SQLException {
+        long keyHash = rs.getLong(4);
+        boolean valid = rs.getBoolean(9);
+        LocalDateTime timestamp = rs.getTimestamp(10).toLocalDateTime();
+        boolean inRange = !timestamp.isBefore(from) && timestamp.isBefore(to);
+
+        int previousFrauds = counts.get(keyHash, 0);
+        if (!valid) counts.addAndGet(keyHash, 1);
+
+        return new RescoringRow(rs.getLong(1), rs.getString(2), rs.getString(3), keyHash, rs.getString(5),
+                rs.getString(6), rs.getLong(7), rs.getString(8), valid, inRange, previousFrauds);
+    }
+
+    private RescoringRunResponse toResponse(ResultSet rs) throws SQLException {
+        Rules rules = fromJson(rs.getString(5), Rules.class);
+        long total = rs.getLong(6);
+        long scanned = rs.getLong(7);
+        String summaryJson = rs.getString(8);
+        LocalDateTime startedAt = rs.getTimestamp(10).toLocalDateTime();
+        Timestamp finished = rs.getTimestamp(11);
+        LocalDateTime finishedAt = finished == null ? null : finished.toLocalDateTime();
+        double seconds = Duration.between(startedAt, finishedAt != null ? finishedAt : LocalDateTime.now())
+                .toMillis() / 1000.0;
+
+        return new RescoringRunResponse(rs.getLong(1), rs.getString(2),
+                rs.getTimestamp(3).toLocalDateTime(), rs.getTimestamp(4).toLocalDateTime(),
+                rules.baseline(), rules.candidate(), total, scanned,
+                total == 0 ? 100 : Math.min(100, scanned * 100.0 / total),
+                seconds > 0 ? scanned / seconds : 0,
+                summaryJson == null ? null : fromJson(summaryJson, RescoringRunResponse.Summary.class),
+                rs.getString(9), startedAt, finishedAt);
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Falha ao serializar dados da reavaliação", e);
+        }
+    }
+
+    private <T> T fromJson(String json, Class<T> type) {
+        try {
+            return objectMapper.readValue(json, type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Falha ao ler dados da reavaliação", e);
+        }
+    }
+
+    private static String truncate(String value, int max) {
+        return value.length() <= max ? value : value.substring(0, max);
+    }
+}
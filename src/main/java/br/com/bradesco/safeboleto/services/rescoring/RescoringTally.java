@@ -0,0 +1,85 @@
+package br.com.bradesco.safeboleto.services.rescoring;
+
+import br.com.bradesco.safeboleto.dto.RescoringRunResponse;
+import br.com.bradesco.safeboleto.services.scoring.RiskRules;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Contadores de uma parte da reavaliação. Cada tarefa do fork-join acumula a sua sem sincronização e as
+ * partes são somadas na ordem dos ids, então a amostra guarda as primeiras validações alteradas do período.
+ */
+final class RescoringTally {
+
+    private static final int HISTOGRAM_BUCKETS = 11;
+
+    private final int sampleLimit;
+    private long scanned;
+    private long baselineRejected;
+    private long candidateRejected;
+    private long approvedToRejected;
+    private long rejectedToApproved;
+    private long storedDecisionMismatch;
+    private long scoreShift;
+    private final long[] baselineHistogram = new long[HISTOGRAM_BUCKETS];
+    private final long[] candidateHistogram = new long[HISTOGRAM_BUCKETS];
+    private final List<RescoringRunResponse.Flip> flips = new ArrayList<>();
+
+    RescoringTally(int sampleLimit) {
+        this.sampleLimit = sampleLimit;
+    }
+
+    void add(RescoringRow row, RiskRules.Assessment baseline, RiskRules.Assessment candidate) {
+        scanned++;
+        if (!baseline.valid()) baselineRejected++;
+        if (!candidate.valid()) candidateRejected++;
+        if (baseline.valid() != row.storedValid()) storedDecisionMismatch++;
+        scoreShift += candidate.riskScore() - baseline.riskScore();
+        baselineHistogram[baseline.riskScore() / 10]++;
+        candidateHistogram[candidate.riskScore() / 10]++;
+
+        if (baseline.valid() != candidate.valid()) {
+            if (baseline.valid()) approvedToRejected++;
+            else rejectedToApproved++;
+            if (flips.size() < sampleLimit) {
+                flips.add(new RescoringRunResponse.Flip(row.id(), row.keyType(), row.bankCode(), row.storedValid(),
+                        baseline.riskScore(), candidate.riskScore(), candidate.valid()));
+            }
+        }
+    }
+
+    // Soma a parte seguinte (ids maiores) a esta
+    RescoringTally merge(RescoringTally next) {
+        scanned += next.scanned;
+        baselineRejected += next.baselineRejected;
+        candidateRejected += next.candidateRejected;
+        approvedToRejected += next.approvedToRejected;
+        rejectedToApproved += next.rejectedToApproved;
+        storedDecisionMismatch += next.storedDecisionMismatch;
+        scoreShift += next.scoreShift;
+        for (int i = 0; i < HISTOGRAM_BUCKETS; i++) {
+            baselineHistogram[i] += next.baselineHistogram[i];
+            candidateHistogram[i] += next.candidateHistogram[i];
+        }
+        for (RescoringRunResponse.Flip flip : next.flips) {
+            if (flips.size() >= sampleLimit) break;
+            flips.add(flip);
+        }
+        return this;
+    }
+
+    long scanned() {
+        return scanned;
+    }
+
+    List<RescoringRunResponse.Flip> flips() {
+        return flips;
+    }
+
+    RescoringRunResponse.Summary summary() {
+        return new RescoringRunResponse.Summary(scanned, baselineRejected, candidateRejected, approvedToRejected,
+                rejectedToApproved, storedDecisionMismatch, scanned == 0 ? 0 : scoreShift / (double) scanned,
+                baselineHistogram.clone(), candidateHistogram.clone());
+    }
+}
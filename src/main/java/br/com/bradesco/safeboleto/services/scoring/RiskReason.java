@@ -0,0 +1,43 @@
+package br.com.bradesco.safeboleto.services.scoring;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Códigos estáveis dos motivos de risco, devolvidos em {@code reasonCodes} junto (ou no lugar) da mensagem
+ * em português. Em {@link RiskRules.Assessment} os motivos ficam num bitmask indexado pela ordem do enum;
+ * novos códigos entram sempre no fim.
+ */
+public enum RiskReason {
+    INVALID_KEY_FORMAT,
+    KEY_BLACKLISTED,
+    DOCUMENT_BLACKLISTED,
+    UNKNOWN_BANK,
+    INACTIVE_BANK,
+    KEY_DOCUMENT_MISMATCH,
+    SUSPICIOUS_AMOUNT,
+    SUSPICIOUS_NAME,
+    FRAUD_HISTORY,
+    INVALID_CHECK_DIGITS,
+    RISKY_EMAIL_DOMAIN,
+    RISKY_PHONE_RANGE,
+    FRAUD_RING,
+    NEW_BENEFICIARY_HIGH_AMOUNT,
+    AMOUNT_ANOMALY,
+    HOLDER_NAME_MISMATCH;
+
+    private static final RiskReason[] VALUES = values();
+
+    public int bit() {
+        return 1 << ordinal();
+    }
+
+    // Nomes dos códigos presentes no bitmask, na ordem do enum
+    public static List<String> codes(int mask) {
+        List<String> codes = new ArrayList<>(Integer.bitCount(mask));
+        for (int bits = mask; bits != 0; bits &= bits - 1) {
+            codes.add(VALUES[Integer.numberOfTrailingZeros(bits)].name());
+        }
+        return codes;
+    }
+}
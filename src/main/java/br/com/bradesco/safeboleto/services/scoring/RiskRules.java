@@ -0,0 +1,390 @@
+package br.com.bradesco.safeboleto.services.scoring;
+
+import br.com.bradesco.safeboleto.model.TrustedBank;
+import br.com.bradesco.safeboleto.services.graph.FraudRingGraph;
+import br.com.bradesco.safeboleto.services.profile.AmountProfileStore;
+import br.com.bradesco.safeboleto.services.reputation.EmailDomainReputation;
+import br.com.bradesco.safeboleto.services.reputation.PhonePrefixReputation;
+import br.com.bradesco.safeboleto.util.Cents;
+import br.com.bradesco.safeboleto.util.PixKeyCodec;
+
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Regras de risco da validação PIX: levantamento dos fatos de uma validação ({@link #signals}) e cálculo
+ * do score a partir deles ({@link #assess}). Usado na validação em tempo real e na reavaliação do histórico,
+ * para que as duas apliquem exatamente as mesmas regras.
+ */
+public final class RiskRules {
+
+    // Lista negra de chaves PIX conhecidas por fraude (em produção, usar base de dados),
+    // guardada como códigos canônicos ordenados (PixKeyCodec) para busca binária
+    private static final long[] BLACKLISTED_KEYS = PixKeyCodec.sortedCodes(
+        PixKeyCodec.encode("12345678900"), // CPF suspeito
+        PixKeyCodec.encode("00000000000"), // CPF inválido
+        PixKeyCodec.encode("11111111111"), // CPF sequencial
+        PixKeyCodec.encode("fraudador@email.com"),
+        PixKeyCodec.encode("golpe@teste.com"),
+        PixKeyCodec.encode("+5511900000000")
+    );
+
+    // Documentos suspeitos
+    private static final long[] BLACKLISTED_DOCUMENTS = PixKeyCodec.sortedCodes(
+        PixKeyCodec.encodeDocument("00000000000"),
+        PixKeyCodec.encodeDocument("11111111111"),
+        PixKeyCodec.encodeDocument("22222222222"),
+        PixKeyCodec.encodeDocument("12345678900")
+    );
+
+    // Desvio padrão mínimo do logaritmo do valor (~10%): beneficiário que sempre recebe o mesmo valor não faz
+    // qualquer centavo a mais virar anomalia
+    private static final double MIN_AMOUNT_LOG_STDDEV = 0.1;
+
+    // Palavras suspeitas em nomes
+    private static final Set<String> SUSPICIOUS_NAME_KEYWORDS = new HashSet<>(Set.of(
+        "teste", "test", "golpe", "fraude", "fake", "falso", "laranja"
+    ));
+
+    /**
+     * Resultado da aplicação dos pesos: score (limitado a 100), decisão, motivos em texto e os mesmos motivos
+     * como bitmask de {@link RiskReason}.
+     */
+    public record Assessment(int riskScore, boolean valid, String reasons, int reasonCodes) {
+    }
+
+    private RiskRules() {
+    }
+
+    public static boolean isKeyBlacklisted(long keyHash) {
+        return PixKeyCodec.contains(BLACKLISTED_KEYS, keyHash);
+    }
+
+    public static boolean isDocumentBlacklisted(String document) {
+        return PixKeyCodec.contains(BLACKLISTED_DOCUMENTS, PixKeyCodec.encodeDocument(document));
+    }
+
+    // Cópias ordenadas das listas negras, para o snapshot de reputação
+    public static long[] blacklistedKeys() {
+        return BLACKLISTED_KEYS.clone();
+    }
+
+    public static long[] blacklistedDocuments() {
+        return BLACKLISTED_DOCUMENTS.clone();
+    }
+
+    /**
+     * Levanta os fatos de uma validação. O participante, o histórico, a reputação da chave, os beneficiários
+     * conhecidos do pagador e a similaridade com o nome do titular do documento vêm de fora porque dependem de
+     * consultas (ao banco na validação em tempo real, a dados já carregados na reavaliação) ou de estruturas em
+     * memória.
+     */
+    public static RiskSignals signals(String pixKey, String keyType, long keyHash, String recipientName,
+                                      String recipientDocument, long amountCents, Optional<TrustedBank> bank,
+                                      long previousFrauds, FraudRingGraph.ComponentStats ring,
+                                      EmailDomainReputation.Match emailDomain,
+                                      PhonePrefixReputation.Match phoneRange, boolean newBeneficiary,
+                                      AmountProfileStore.Profile amountProfile, double holderNameSimilarity) {
+        RiskSignals.BankStatus bankStatus = bank.isEmpty() ? RiskSignals.BankStatus.UNKNOWN
+                : bank.get().isActive() ? RiskSignals.BankStatus.ACTIVE : RiskSignals.BankStatus.INACTIVE;
+        String invalidDocumentType = null;
+        if ("CPF".equals(keyType) && !isValidCPF(pixKey)) invalidDocumentType = "CPF";
+        if ("CNPJ".equals(keyType) && !isValidCNPJ(pixKey)) invalidDocumentType = "CNPJ";
+
+        return new RiskSignals(
+                isKeyBlacklisted(keyHash),
+                isDocumentBlacklisted(recipientDocument),
+                bankStatus,
+                !validateKeyDocumentMatch(pixKey, keyType, recipientDocument),
+                checkSuspiciousAmount(amountCents),
+                checkSuspiciousName(recipientName),
+                previousFrauds,
+                invalidDocumentType,
+                ring,
+                emailDomain,
+                phoneRange,
+                newBeneficiary,
+                amountCents,
+                amountProfile,
+                holderNameSimilarity);
+    }
+
+    /**
+     * Aplica os pesos aos fatos. Os motivos seguem a ordem das verificações.
+     */
+    public static Assessment assess(RiskSignals signals, RuleWeights weights) {
+        int riskScore = 0;
+        int reasonCodes = 0;
+        StringBuilder fraudReasons = new StringBuilder();
+
+        // Lista negra de chaves
+        if (signals.keyBlacklisted()) {
+            riskScore += weights.keyBlacklist();
+            reasonCodes |= RiskReason.KEY_BLACKLISTED.bit();
+            fraudReasons.append("Chave PIX está na lista negra de fraudes conhecidas. ");
+        }
+
+        // Lista negra de documentos
+        if (signals.documentBlacklisted()) {
+            riskScore += weights.documentBlacklist();
+            reasonCodes |= RiskReason.DOCUMENT_BLACKLISTED.bit();
+            fraudReasons.append("Documento do beneficiário está na lista negra. ");
+        }
+
+        // Banco confiável (participante ativo do diretório PIX)
+        if (signals.bank() == RiskSignals.BankStatus.UNKNOWN) {
+            riskScore += weights.unknownBank();
+            reasonCodes |= RiskReason.UNKNOWN_BANK.bit();
+            fraudReasons.append("Banco não reconhecido ou não confiável. ");
+        } else if (signals.bank() == RiskSignals.BankStatus.INACTIVE) {
+            riskScore += weights.inactiveBank();
+            reasonCodes |= RiskReason.INACTIVE_BANK.bit();
+            fraudReasons.append("Instituição não está ativa no diretório de participantes PIX. ");
+        }
+
+        // Compatibilidade chave-documento
+        if (signals.keyDocumentMismatch()) {
+            riskScore += weights.keyDocumentMismatch();
+            reasonCodes |= RiskReason.KEY_DOCUMENT_MISMATCH.bit();
+            fraudReasons.append("Chave PIX não corresponde ao documento informado. ");
+        }
+
+        // Valor suspeito
+        if (signals.amountIssue() != null) {
+            riskScore += weights.suspiciousAmount();
+            reasonCodes |= RiskReason.SUSPICIOUS_AMOUNT.bit();
+            fraudReasons.append(signals.amountIssue()).append(" ");
+        }
+
+        // Nome suspeito
+        if (signals.nameIssue() != null) {
+            riskScore += weights.suspiciousName();
+            reasonCodes |= RiskReason.SUSPICIOUS_NAME.bit();
+            fraudReasons.append(signals.nameIssue()).append(" ");
+        }
+
+        // Histórico de fraudes (chaves com múltiplas tentativas inválidas)
+        if (signals.previousFrauds() >= weights.fraudHistoryMinAttempts()) {
+            riskScore += weights.fraudHistory();
+            reasonCodes |= RiskReason.FRAUD_HISTORY.bit();
+            fraudReasons.append("Chave PIX tem histórico de tentativas fraudulentas (")
+                       .append(signals.previousFrauds()).append(" tentativas). ");
+        }
+
+        // Dígitos verificadores de CPF/CNPJ
+        if (signals.invalidDocumentType() != null) {
+            riskScore += weights.invalidCheckDigits();
+            reasonCodes |= RiskReason.INVALID_CHECK_DIGITS.bit();
+            fraudReasons.append(signals.invalidDocumentType()).append(" com dígitos verificadores inválidos. ");
+        }
+
+        // Domínio de e-mail descartável ou de alto risco, proporcional ao risco do domínio na lista
+        EmailDomainReputation.Match emailDomain = signals.emailDomain();
+        if (emailDomain != null && emailDomain.risk() > 0) {
+            riskScore += (weights.riskyEmailDomain() * emailDomain.risk() + 50) / 100;
+            reasonCodes |= RiskReason.RISKY_EMAIL_DOMAIN.bit();
+            fraudReasons.append("Chave PIX de e-mail em domínio descartável ou de alto risco (")
+                       .append(emailDomain.domain()).append("). ");
+        }
+
+        // Telefone em faixa de numeração de risco (ex: trocas de chip recentes), proporcional ao risco da faixa
+        PhonePrefixReputation.Match phoneRange = signals.phoneRange();
+        if (phoneRange != null && phoneRange.risk() > 0) {
+            riskScore += (weights.riskyPhoneRange() * phoneRange.risk() + 50) / 100;
+            reasonCodes |= RiskReason.RISKY_PHONE_RANGE.bit();
+            fraudReasons.append("Chave PIX de telefone em faixa de numeração de risco (")
+                       .append(phoneRange.range()).append("). ");
+        }
+
+        // Anel de fraude: chave ou documento ligados a um grupo de chaves/documentos/contas com muitas rejeições
+        FraudRingGraph.ComponentStats ring = signals.ring();
+        if (ring != null && ring.validations() >= weights.fraudRingMinValidations()
+                && ring.rejectedRatio() >= weights.fraudRingRejectedRatio()) {
+            riskScore += weights.fraudRing();
+            reasonCodes |= RiskReason.FRAUD_RING.bit();
+            fraudReasons.append("Chave ou documento ligado a um grupo com alta taxa de fraude (")
+                       .append(ring.distinctKeys()).append(" chaves, ")
+                       .append(ring.distinctDocuments()).append(" documentos, ")
+                       .append(Math.round(ring.rejectedRatio() * 100)).append("% rejeitadas). ");
+        }
+
+        // Primeiro pagamento do pagador a esta chave, com valor alto
+        if (signals.newBeneficiary() && signals.amountCents() >= weights.newBeneficiaryMinAmount()) {
+            riskScore += weights.newBeneficiary();
+            reasonCodes |= RiskReason.NEW_BENEFICIARY_HIGH_AMOUNT.bit();
+            fraudReasons.append("Primeiro pagamento a este beneficiário com valor a partir de R$ ")
+                       .append(Cents.format(weights.newBeneficiaryMinAmount())).append(". ");
+        }
+
+        // Valor fora do padrão do próprio beneficiário: longe da média (em escala logarítmica) e além dos percentis
+        String amountAnomaly = amountAnomaly(signals.amountProfile(), signals.amountCents(), weights);
+        if (amountAnomaly != null) {
+            riskScore += weights.amountAnomaly();
+            reasonCodes |= RiskReason.AMOUNT_ANOMALY.bit();
+            fraudReasons.append(amountAnomaly).append(" ");
+        }
+
+        // Nome informado diferente do nome do titular do documento no cadastro (NaN: documento fora do cadastro)
+        if (signals.holderNameSimilarity() < weights.holderNameMinSimilarity()) {
+            riskScore += weights.holderNameMismatch();
+            reasonCodes |= RiskReason.HOLDER_NAME_MISMATCH.bit();
+            fraudReasons.append("Nome do beneficiário não confere com o titular do documento (similaridade de ")
+                       .append(Math.round(signals.holderNameSimilarity() * 100)).append("%). ");
+        }
+
+        // Limita o score em 100
+        riskScore = Math.min(riskScore, 100);
+        return new Assessment(riskScore, riskScore < weights.approvalThreshold(), fraudReasons.toString().trim(),
+                reasonCodes);
+    }
+
+    private static String amountAnomaly(AmountProfileStore.Profile profile, long amountCents, RuleWeights weights) {
+        if (profile == null || amountCents <= 0 || profile.samples() < weights.amountAnomalyMinSamples()) return null;
+        double z = (Math.log(amountCents) - profile.logMean()) / Math.max(profile.logStdDev(), MIN_AMOUNT_LOG_STDDEV);
+        double factor = weights.amountAnomalyQuantileFactor();
+        if (z >= weights.amountAnomalyZScore() && amountCents > profile.highCents() * factor) {
+            return "Valor muito acima do habitual para o beneficiário (até R$ " + Cents.format(profile.highCents())
+                    + " em " + profile.samples() + " transações).";
+        }
+        if (z <= -weights.amountAnomalyZScore() && amountCents * factor < profile.lowCents()) {
+            return "Valor muito abaixo do habitual para o beneficiário (a partir de R$ "
+                    + Cents.format(profile.lowCents()) + " em " + profile.samples() + " transações).";
+        }
+        return null;
+    }
+
+    public static boolean validateKeyDocumentMatch(String key, String keyType, String document) {
+        if (keyType == null || document == null) return false;
+        
+        // Se a chave é CPF ou CNPJ, deve corresponder exatamente ao documento
+        if ("CPF".equals(keyType) || "CNPJ".equals(keyType)) {
+            return key.equals(document);
+        }
+        
+        // Para email, telefone e EVP, não há validação direta com o documento
+        return true;
+    }
+
+    // Valor em centavos; 0 (ou negativo) significa valor não informado
+    public static String checkSuspiciousAmount(long amountCents) {
+        if (amountCents <= 0) return "Valor da transação não informado.";
+        
+        // Valores extremamente altos (verificado antes do limite noturno, que também os cobriria)
+        if (amountCents > 1_000_000) {
+            return "Valor extremamente alto para transação PIX (R$ " + Cents.format(amountCents) + ").";
+        }
+        
+        // Valores muito altos (acima do limite PIX noturno de R$ 1.000,00)
+        if (amountCents > 100_000) {
+            return "Valor acima do limite PIX noturno (R$ 1.000,00).";
+        }
+        
+        // Valores fracionados suspeitos (testes de fraude)
+        if (amountCents < 100) {
+            return "Valor muito baixo, típico de teste de fraude (R$ " + Cents.format(amountCents) + ").";
+        }
+        
+        // Valores "quebrados" suspeitos logo abaixo do limite (ex: R$ 999,99)
+        if (amountCents > 90_000 && amountCents < 100_000 && amountCents % 100 == 99) {
+            return "Valor suspeito próximo ao limite (R$ " + Cents.format(amountCents) + ").";
+        }
+        
+        return null;
+    }
+
+    public static String checkSuspiciousName(String name) {
+        if (name == null || name.isBlank()) {
+            return "Nome do beneficiário não informado.";
+        }
+        
+        String nameLower = name.toLowerCase().trim();
+        
+        // Nomes muito curtos
+        if (nameLower.length() < 3) {
+            return "Nome do beneficiário muito curto.";
+        }
+        
+        // Verifica palavras suspeitas
+        for (String keyword : SUSPICIOUS_NAME_KEYWORDS) {
+            if (nameLower.contains(keyword)) {
+                return "Nome contém palavra suspeita: '" + keyword + "'.";
+            }
+        }
+        
+        // Muitos números no nome (ex: "João123456")
+        long digitCount = nameLower.chars().filter(Character::isDigit).count();
+        if (digitCount > 3) {
+            return "Nome contém muitos números (" + digitCount + " dígitos).";
+        }
+        
+        // Nome com apenas números
+        if (nameLower.matches("^[0-9]+$")) {
+            return "Nome contém apenas números.";
+        }
+        
+        return null;
+    }
+
+    public static boolean isValidCPF(String cpf) {
+        if (cpf == null || !cpf.matches("\\d{11}")) return false;
+        
+        // CPFs com todos os dígitos iguais são inválidos
+        if (cpf.matches("(\\d)\\1{10}")) return false;
+        
+        try {
+            // Calcula o primeiro dígito verificador
+            int sum = 0;
+            for (int i = 0; i < 9; i++) {
+                sum += Character.getNumericValue(cpf.charAt(i)) * (10 - i);
+            }
+            int firstDigit = 11 - (sum % 11);
+            if (firstDigit >= 10) firstDigit = 0;
+            
+            // Calcula o segundo dígito verificador
+            sum = 0;
+            for (int i = 0; i < 10; i++) {
+                sum += Character.getNumericValue(cpf.charAt(i)) * (11 - i);
+            }
+            int secondDigit = 11 - (sum % 11);
+            if (secondDigit >= 10) secondDigit = 0;
+            
+            // Verifica se os dígitos calculados correspondem aos informados
+            return firstDigit == Character.getNumericValue(cpf.charAt(9)) &&
+                   secondDigit == Character.getNumericValue(cpf.charAt(10));
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    public static boolean isValidCNPJ(String cnpj) {
+        if (cnpj == null || !cnpj.matches("\\d{14}")) return false;
+        
+        // CNPJs com todos os dígitos iguais são inválidos
+        if (cnpj.matches("(\\d)\\1{13}")) return false;
+        
+        try {
+            // Calcula o primeiro dígito verificador
+            int[] weight1 = {5, 4, 3, 2, 9, 8, 7, 6, 5, 4, 3, 2};
+            int sum = 0;
+            for (int i = 0; i < 12; i++) {
+                sum += Character.getNumericValue(cnpj.charAt(i)) * weight1[i];
+            }
+            int firstDigit = sum % 11 < 2 ? 0 : 11 - (sum % 11);
+            
+            // Calcula o segundo dígito verificador
+            int[] weight2 = {6, 5, 4, 3, 2, 9, 8, 7, 6, 5, 4, 3, 2};
+            sum = 0;
+            for (int i = 0; i < 13; i++) {
+                sum += Character.getNumericValue(cnpj.charAt(i)) * weight2[i];
+            }
+            int secondDigit = sum % 11 < 2 ? 0 : 11 - (sum % 11);
+            
+            // Verifica se os dígitos calculados correspondem aos informados
+            return firstDigit == Character.getNumericValue(cnpj.charAt(12)) &&
+                   secondDigit == Character.getNumericValue(cnpj.charAt(13));
+        } catch (Exception e) {
+            return false;
+        }
+    }
+}
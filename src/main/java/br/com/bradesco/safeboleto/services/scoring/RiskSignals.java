@@ -0,0 +1,43 @@
+package br.com.bradesco.safeboleto.services.scoring;
+
+import br.com.bradesco.safeboleto.services.graph.FraudRingGraph;
+import br.com.bradesco.safeboleto.services.profile.AmountProfileStore;
+import br.com.bradesco.safeboleto.services.reputation.EmailDomainReputation;
+import br.com.bradesco.safeboleto.services.reputation.PhonePrefixReputation;
+
+/**
+ * Fatos levantados sobre uma validação, antes de aplicar os pesos. Separar os fatos da pontuação permite
+ * reavaliar a mesma validação com outra {@link RuleWeights} sem repetir as consultas.
+ *
+ * @param amountIssue    motivo do valor suspeito, ou {@code null}
+ * @param nameIssue      motivo do nome suspeito, ou {@code null}
+ * @param previousFrauds rejeições anteriores da mesma chave
+ * @param ring           estatísticas do anel de fraude da chave/documento, ou {@code null} se desconhecido
+ * @param emailDomain    domínio listado na reputação de e-mail que cobre a chave, ou {@code null}
+ * @param phoneRange     faixa de numeração listada que contém a chave de telefone, ou {@code null}
+ * @param newBeneficiary chave nunca aprovada antes para o pagador, que já tem outros beneficiários
+ * @param amountCents    valor da transação em centavos
+ * @param amountProfile  perfil dos valores já aprovados para o beneficiário (chave ou documento), ou {@code null}
+ * @param holderNameSimilarity similaridade (0 a 1) entre o nome informado e o do titular do documento no cadastro,
+ *                       ou {@code NaN} se o documento não está no cadastro
+ */
+public record RiskSignals(
+        boolean keyBlacklisted,
+        boolean documentBlacklisted,
+        BankStatus bank,
+        boolean keyDocumentMismatch,
+        String amountIssue,
+        String nameIssue,
+        long previousFrauds,
+        String invalidDocumentType,
+        FraudRingGraph.ComponentStats ring,
+        EmailDomainReputation.Match emailDomain,
+        PhonePrefixReputation.Match phoneRange,
+        boolean newBeneficiary,
+        long amountCents,
+        AmountProfileStore.Profile amountProfile,
+        double holderNameSimilarity
+) {
+
+    public enum BankStatus { ACTIVE, INACTIVE, UNKNOWN }
+}
@@ -0,0 +1,126 @@
+package br.com.bradesco.safeboleto.services.scoring;
+
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Pesos e limites das regras de risco da validação PIX.
+ *
+ * A configuração em produção vem de {@code app.rules.*} (ver {@code RuleWeightsConfig}); configurações
+ * candidatas, usadas na reavaliação do histórico, são a configuração em produção com alguns valores trocados
+ * ({@link #with(Map)}). Os nomes aceitos são os dos componentes do record, em camelCase ou kebab-case.
+ */
+public record RuleWeights(
+        int keyBlacklist,
+        int documentBlacklist,
+        int unknownBank,
+        int inactiveBank,
+        int keyDocumentMismatch,
+        int suspiciousAmount,
+        int suspiciousName,
+        int fraudHistory,
+        // Rejeições anteriores da chave a partir das quais a regra de histórico pontua
+        int fraudHistoryMinAttempts,
+        int invalidCheckDigits,
+        // Peso de um domínio de e-mail com risco 100 na lista de reputação; riscos menores pontuam proporcionalmente
+        int riskyEmailDomain,
+        // Peso de um telefone em faixa de numeração com risco 100; riscos menores pontuam proporcionalmente
+        int riskyPhoneRange,
+        int fraudRing,
+        int fraudRingMinValidations,
+        double fraudRingRejectedRatio,
+        int newBeneficiary,
+        // Valor (em centavos) a partir do qual o pagamento a um beneficiário novo para o pagador pontua
+        long newBeneficiaryMinAmount,
+        int amountAnomaly,
+        // Amostras do perfil de valores do beneficiário a partir das quais a regra de valor fora do padrão pontua
+        int amountAnomalyMinSamples,
+        // Distância mínima, em desvios padrão do logaritmo do valor, da média do beneficiário
+        double amountAnomalyZScore,
+        // Além disso, o valor deve passar do percentil 99 vezes este fator (ou ficar abaixo do percentil 1 dividido por ele)
+        double amountAnomalyQuantileFactor,
+        int holderNameMismatch,
+        // Similaridade (0 a 1) abaixo da qual o nome informado não confere com o titular do documento no cadastro
+        double holderNameMinSimilarity,
+        // A transação é aprovada com score abaixo deste valor
+        int approvalThreshold
+) {
+
+    public static final RuleWeights DEFAULTS = new RuleWeights(100, 100, 40, 40, 60, 30, 50, 40, 3, 70, 40, 40, 35, 5, 0.5, 25, 500_000,
+            30, 20, 4.0, 2.0, 30, 0.4, 35);
+
+    // Pontos das listas negras de chaves e documentos para uma validação
+    public int blacklistScore(boolean keyBlacklisted, boolean documentBlacklisted) {
+        return (keyBlacklisted ? keyBlacklist : 0) + (documentBlacklisted ? documentBlacklist : 0);
+    }
+
+    /**
+     * Cópia com os valores informados trocados. Nomes desconhecidos geram {@link IllegalArgumentException}.
+     */
+    public RuleWeights with(Map<String, ? extends Number> overrides) {
+        int keyBlacklist = this.keyBlacklist;
+        int documentBlacklist = this.documentBlacklist;
+        int unknownBank = this.unknownBank;
+        int inactiveBank = this.inactiveBank;
+        int keyDocumentMismatch = this.keyDocumentMismatch;
+        int suspiciousAmount = this.suspiciousAmount;
+        int suspiciousName = this.suspiciousName;
+        int fraudHistory = this.fraudHistory;
+        int fraudHistoryMinAttempts = this.fraudHistoryMinAttempts;
+        int invalidCheckDigits = this.invalidCheckDigits;
+        int riskyEmailDomain = this.riskyEmailDomain;
+        int riskyPhoneRange = this.riskyPhoneRange;
+        int fraudRing = this.fraudRing;
+        int fraudRingMinValidations = this.fraudRingMinValidations;
+        double fraudRingRejectedRatio = this.fraudRingRejectedRatio;
+        int newBeneficiary = this.newBeneficiary;
+        long newBeneficiaryMinAmount = this.newBeneficiaryMinAmount;
+        int amountAnomaly = this.amountAnomaly;
+        int amountAnomalyMinSamples = this.amountAnomalyMinSamples;
+        double amountAnomalyZScore = this.amountAnomalyZScore;
+        double amountAnomalyQuantileFactor = this.amountAnomalyQuantileFactor;
+        int holderNameMismatch = this.holderNameMismatch;
+        double holderNameMinSimilarity = this.holderNameMinSimilarity;
+        int approvalThreshold = this.approvalThreshold;
+
+        if (overrides != null) {
+            for (Map.Entry<String, ? extends Number> entry : overrides.entrySet()) {
+                if (entry.getValue() == null) continue;
+                Number value = entry.getValue();
+                switch (entry.getKey().replace("-", "").toLowerCase(Locale.ROOT)) {
+                    case "keyblacklist" -> keyBlacklist = value.intValue();
+                    case "documentblacklist" -> documentBlacklist = value.intValue();
+                    case "unknownbank" -> unknownBank = value.intValue();
+                    case "inactivebank" -> inactiveBank = value.intValue();
+                    case "keydocumentmismatch" -> keyDocumentMismatch = value.intValue();
+                    case "suspiciousamount" -> suspiciousAmount = value.intValue();
+                    case "suspiciousname" -> suspiciousName = value.intValue();
+                    case "fraudhistory" -> fraudHistory = value.intValue();
+                    case "fraudhistoryminattempts" -> fraudHistoryMinAttempts = value.intValue();
+                    case "invalidcheckdigits" -> invalidCheckDigits = value.intValue();
+                    case "riskyemaildomain" -> riskyEmailDomain = value.intValue();
+                    case "riskyphonerange" -> riskyPhoneRange = value.intValue();
+                    case "fraudring" -> fraudRing = value.intValue();
+                    case "fraudringminvalidations" -> fraudRingMinValidations = value.intValue();
+                    case "fraudringrejectedratio" -> fraudRingRejectedRatio = value.doubleValue();
+                    case "newbeneficiary" -> newBeneficiary = value.intValue();
+                    case "newbeneficiaryminamount" -> newBeneficiaryMinAmount = value.longValue();
+                    case "amountanomaly" -> amountAnomaly = value.intValue();
+                    case "amountanomalyminsamples" -> amountAnomalyMinSamples = value.intValue();
+                    case "amountanomalyzscore" -> amountAnomalyZScore = value.doubleValue();
+                    case "amountanomalyquantilefactor" -> amountAnomalyQuantileFactor = value.doubleValue();
+                    case "holdernamemismatch" -> holderNameMismatch = value.intValue();
+                    case "holdernameminsimilarity" -> holderNameMinSimilarity = value.doubleValue();
+                    case "approvalthreshold" -> approvalThreshold = value.intValue();
+                    default -> throw new IllegalArgumentException("Regra desconhecida: " + entry.getKey());
+                }
+            }
+        }
+
+        return new RuleWeights(keyBlacklist, documentBlacklist, unknownBank, inactiveBank, keyDocumentMismatch,
+                suspiciousAmount, suspiciousName, fraudHistory, fraudHistoryMinAttempts, invalidCheckDigits,
+                riskyEmailDomain, riskyPhoneRange, fraudRing, fraudRingMinValidations, fraudRingRejectedRatio, newBeneficiary,
+                newBeneficiaryMinAmount, amountAnomaly, amountAnomalyMinSamples, amountAnomalyZScore,
+                amountAnomalyQuantileFactor, holderNameMismatch, holderNameMinSimilarity, approvalThreshold);
+    }
+}
@@ -0,0 +1,36 @@
+package br.com.bradesco.safeboleto.services.scoring;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Pesos das regras em produção: os valores padrão de {@link RuleWeights#DEFAULTS} com o que estiver em
+ * {@code app.rules.*} (ex: {@code app.rules.unknown-bank=40}, {@code app.rules.approval-threshold=35}).
+ */
+@Configuration
+public class RuleWeightsConfig {
+
+    @Bean
+    public RuleWeights liveRuleWeights(Environment environment,
+                                       @Value("${app.fraud-graph.min-validations:5}") int fraudGraphMinValidations,
+                                       @Value("${app.fraud-graph.rejected-ratio:0.5}") double fraudGraphRejectedRatio) {
+        // As propriedades do grafo de fraude existiam antes de app.rules e continuam valendo
+        Map<String, Number> overrides = new HashMap<>();
+        overrides.put("fraudRingMinValidations", fraudGraphMinValidations);
+        overrides.put("fraudRingRejectedRatio", fraudGraphRejectedRatio);
+        overrides.putAll(Binder.get(environment)
+                .bind("app.rules", Bindable.mapOf(String.class, Double.class))
+                .orElse(Map.of()));
+
+        RuleWeights weights = RuleWeights.DEFAULTS.with(overrides);
+        System.out.println("[INIT] Pesos das regras de risco: " + weights);
+        return weights;
+    }
+}
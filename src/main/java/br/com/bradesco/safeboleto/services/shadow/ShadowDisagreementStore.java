@@ -0,0 +1,44 @@
+package br.com.bradesco.safeboleto.services.shadow;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Gravação das divergências do modo sombra em {@code shadow_disagreements}.
+ */
+@Component
+@RequiredArgsConstructor
+public class ShadowDisagreementStore {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    record Disagreement(String candidate, Long validationId, String keyType, String bankCode,
+                        boolean liveValid, int liveScore, int candidateScore, LocalDateTime createdAt) {
+    }
+
+    void saveAll(List<Disagreement> disagreements) {
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO shadow_disagreements (candidate, validation_id, pix_key_type, bank_code, live_valid, "
+                        + "live_score, candidate_score, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)",
+                disagreements, 500, (ps, d) -> {
+                    ps.setString(1, d.candidate());
+                    ps.setObject(2, d.validationId());
+                    ps.setString(3, d.keyType());
+                    ps.setString(4, d.bankCode());
+                    ps.setBoolean(5, d.liveValid());
+                    ps.setInt(6, d.liveScore());
+                    ps.setInt(7, d.candidateScore());
+                    ps.setTimestamp(8, Timestamp.valueOf(d.createdAt()));
+                });
+    }
+
+    int cleanup(long retentionDays) {
+        return jdbcTemplate.update("DELETE FROM shadow_disagreements WHERE created_at < ?",
+                Timestamp.valueOf(LocalDateTime.now().minusDays(retentionDays)));
+    }
+}
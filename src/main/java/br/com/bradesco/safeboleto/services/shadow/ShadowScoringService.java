@@ -0,0 +1,199 @@
+package br.com.bradesco.safeboleto.services.shadow;
+
+import br.com.bradesco.safeboleto.dto.ShadowScoringResponse;
+import br.com.bradesco.safeboleto.services.scoring.RiskRules;
+import br.com.bradesco.safeboleto.services.scoring.RiskSignals;
+import br.com.bradesco.safeboleto.services.scoring.RuleWeights;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.env.Environment;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Modo sombra: avalia pesos candidatos sobre o tráfego real sem afetar a resposta.
+ *
+ * Ao fim da validação, os fatos já levantados ({@link RiskSignals}) e a decisão em produção entram em uma fila
+ * limitada com {@code offer}: se a fila está cheia a avaliação sombra é descartada (métrica
+ * {@code pix.shadow.dropped}) e a requisição nunca espera. Threads próprias retiram lotes da fila, pontuam com
+ * cada candidato de {@code app.shadow.candidates.<nome>.<regra>} e gravam só as divergências, em lote, em
+ * {@code shadow_disagreements}. Nenhuma consulta ao banco é repetida: o candidato vê os mesmos fatos que a produção.
+ */
+@Service
+public class ShadowScoringService {
+
+    private static final int BATCH_SIZE = 256;
+
+    private final ShadowDisagreementStore store;
+    private final List<Candidate> candidates = new ArrayList<>();
+    private final BlockingQueue<Task> queue;
+    private final LongAdder dropped = new LongAdder();
+    private final List<Thread> workers = new ArrayList<>();
+    private final long retentionDays;
+    private final int workerCount;
+
+    private record Task(Long validationId, String keyType, String bankCode, RiskSignals signals,
+                        RiskRules.Assessment live) {
+    }
+
+    private static final class Candidate {
+        final String name;
+        final RuleWeights weights;
+        final LongAdder evaluated = new LongAdder();
+        final LongAdder approvedToRejected = new LongAdder();
+        final LongAdder rejectedToApproved = new LongAdder();
+
+        Candidate(String name, RuleWeights weights) {
+            this.name = name;
+            this.weights = weights;
+        }
+    }
+
+    public ShadowScoringService(ShadowDisagreementStore store, RuleWeights ruleWeights, Environment environment,
+                                MeterRegistry registry,
+                                @Value("${app.shadow.enabled:true}") boolean enabled,
+                                @Value("${app.shadow.queue-capacity:10000}") int queueCapacity,
+                                @Value("${app.shadow.workers:1}") int workerCount,
+                                @Value("${app.shadow.retention-days:7}") long retentionDays) {
+        this.store = store;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        this.retentionDays = retentionDays;
+
+        if (enabled) {
+            Map<String, Map<String, Double>> configured = Binder.get(environment)
+                    .bind("app.shadow.candidates", Bindable.<Map<String, Map<String, Double>>>of(
+                            ResolvableType.forClassWithGenerics(Map.class, ResolvableType.forClass(String.class),
+                                    ResolvableType.forClassWithGenerics(Map.class, String.class, Double.class))))
+                    .orElse(Map.of());
+            new TreeMap<>(configured).forEach((name, rules) -> candidates.add(new Candidate(name, ruleWeights.with(rules))));
+        }
+
+        for (Candidate candidate : candidates) {
+            FunctionCounter.builder("pix.shadow.evaluated", candidate.evaluated, LongAdder::sum)
+                    .tag("candidate", candidate.name).register(registry);
+            FunctionCounter.builder("pix.shadow.disagreements", candidate.approvedToRejected, LongAdder::sum)
+                    .tag("candidate", candidate.name).tag("direction", "approved_to_rejected").register(registry);
+            FunctionCounter.builder("pix.shadow.disagreements", candidate.rejectedToApproved, LongAdder::sum)
+                    .tag("candidate", candidate.name).tag("direction", "rejected_to_approved").register(registry);
+        }
+        FunctionCounter.builder("pix.shadow.dropped", dropped, LongAdder::sum)
+                .description("Avaliações sombra descartadas por fila cheia").register(registry);
+        Gauge.builder("pix.shadow.queue", queue, BlockingQueue::size).register(registry);
+        this.workerCount = Math.max(1, workerCount);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!candidates.isEmpty()) {
+            for (int i = 0; i < workerCount; i++) {
+                Thread worker = new Thread(this::work, "shadow-scoring-" + i);
+                worker.setDaemon(true);
+                worker.start();
+                workers.add(worker);
+            }
+            System.out.println("[INIT] Modo sombra ativo para " + candidates.size() + " conjunto(s) de pesos candidato(s).");
+        }
+    }
+
+    /**
+     * Enfileira a validação para os candidatos. Nunca bloqueia: com a fila cheia, a avaliação é descartada.
+     */
+    public void submit(Long validationId, String keyType, String bankCode, RiskSignals signals,
+                       RiskRules.Assessment live) {
+        if (candidates.isEmpty()) return;
+        if (!queue.offer(new Task(validationId, keyType, bankCode, signals, live))) {
+            dropped.increment();
+        }
+    }
+
+    /**
+     * Menor pontuação das listas negras entre os candidatos ({@link Integer#MAX_VALUE} sem candidatos). Um candidato
+     * pode dar peso menor à lista negra: para ele o histórico da chave ainda muda a decisão.
+     */
+    public int minBlacklistScore(boolean keyBlacklisted, boolean documentBlacklisted) {
+        int min = Integer.MAX_VALUE;
+        for (Candidate candidate : candidates) {
+            min = Math.min(min, candidate.weights.blacklistScore(keyBlacklisted, documentBlacklisted));
+        }
+        return min;
+    }
+
+    public ShadowScoringResponse snapshot() {
+        List<ShadowScoringResponse.CandidateStats> stats = new ArrayList<>();
+        for (Candidate candidate : candidates) {
+            stats.add(new ShadowScoringResponse.CandidateStats(candidate.name, candidate.weights,
+                    candidate.evaluated.sum(), candidate.approvedToRejected.sum(), candidate.rejectedToApproved.sum()));
+        }
+        return new ShadowScoringResponse(queue.size(), queue.size() + queue.remainingCapacity(), dropped.sum(), stats);
+    }
+
+    @Scheduled(fixedDelayString = "${app.shadow.cleanup-interval-ms:3600000}")
+    public void cleanup() {
+        if (candidates.isEmpty()) return;
+        int removed = store.cleanup(retentionDays);
+        if (removed > 0) {
+            System.out.println("[DEBUG PIX] Modo sombra: " + removed + " divergência(s) antiga(s) removida(s)");
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.forEach(Thread::interrupt);
+    }
+
+    private void work() {
+        List<Task> batch = new ArrayList<>(BATCH_SIZE);
+        List<ShadowDisagreementStore.Disagreement> disagreements = new ArrayList<>();
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            queue.drainTo(batch, BATCH_SIZE - 1);
+
+            LocalDateTime now = LocalDateTime.now();
+            for (Task task : batch) {
+                for (Candidate candidate : candidates) {
+                    RiskRules.Assessment shadow = RiskRules.assess(task.signals(), candidate.weights);
+                    candidate.evaluated.increment();
+                    if (shadow.valid() == task.live().valid()) continue;
+
+                    (task.live().valid() ? candidate.approvedToRejected : candidate.rejectedToApproved).increment();
+                    disagreements.add(new ShadowDisagreementStore.Disagreement(candidate.name, task.validationId(),
+                            task.keyType(), task.bankCode(), task.live().valid(), task.live().riskScore(),
+                            shadow.riskScore(), now));
+                }
+            }
+
+            if (!disagreements.isEmpty()) {
+                try {
+                    store.saveAll(disagreements);
+                } catch (DataAccessException e) {
+                    // Falha do banco não pode acumular trabalho sombra: as divergências ficam só nas métricas
+                    System.out.println("[DEBUG PIX] Modo sombra: falha ao gravar " + disagreements.size()
+                            + " divergência(s): " + e.getMessage());
+                }
+            }
+            batch.clear();
+            disagreements.clear();
+        }
+    }
+}
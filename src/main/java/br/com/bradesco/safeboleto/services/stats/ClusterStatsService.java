@@ -0,0 +1,54 @@
+package br.com.bradesco.safeboleto.services.stats;
+
+import br.com.bradesco.safeboleto.dto.ValidationStatsResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import java.util.List;
+
+/**
+ * Estatísticas somadas de todas as instâncias: o snapshot local mais o de cada endereço em
+ * {@code app.stats.peers}, obtidos de {@code GET /api/pix/stats} com o mesmo token do chamador.
+ * Instâncias que não respondem dentro de {@code app.stats.peer-timeout-ms} ficam de fora da soma
+ * (o campo {@code nodes} indica quantas entraram).
+ */
+@Service
+public class ClusterStatsService {
+
+    private final ValidationStatsRollup rollup;
+    private final List<String> peers;
+    private final RestClient restClient;
+
+    public ClusterStatsService(ValidationStatsRollup rollup,
+                               RestClient.Builder restClientBuilder,
+                               @Value("${app.stats.peers:}") List<String> peers,
+                               @Value("${app.stats.peer-timeout-ms:2000}") int peerTimeoutMs) {
+        this.rollup = rollup;
+        this.peers = peers.stream().map(String::trim).filter(p -> !p.isEmpty()).toList();
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(peerTimeoutMs);
+        requestFactory.setReadTimeout(peerTimeoutMs);
+        this.restClient = restClientBuilder.requestFactory(requestFactory).build();
+    }
+
+    public ValidationStatsResponse clusterSnapshot(int minutes, String authorization) {
+        ValidationStatsResponse merged = rollup.snapshot(minutes);
+        for (String peer : peers) {
+            try {
+                ValidationStatsResponse remote = restClient.get()
+                        .uri(peer + "/api/pix/stats?minutes={minutes}", minutes)
+                        .header(HttpHeaders.AUTHORIZATION, authorization)
+                        .retrieve()
+                        .body(ValidationStatsResponse.class);
+                if (remote != null) merged = merged.merge(remote);
+            } catch (RestClientException e) {
+                System.out.println("[DEBUG PIX] Estatísticas da instância " + peer + " indisponíveis: " + e.getMessage());
+            }
+        }
+        return merged;
+    }
+}
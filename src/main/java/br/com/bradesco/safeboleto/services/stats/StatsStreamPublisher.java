@@ -0,0 +1,54 @@
+package br.com.bradesco.safeboleto.services.stats;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Envia o snapshot das estatísticas locais para os clientes conectados via server-sent events, a cada
+ * {@code app.stats.stream-interval-ms}. Cada cliente escolhe a janela (em minutos) ao se conectar.
+ */
+@Component
+@RequiredArgsConstructor
+public class StatsStreamPublisher {
+
+    private final ValidationStatsRollup rollup;
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    private record Subscriber(SseEmitter emitter, int minutes) {
+    }
+
+    public SseEmitter subscribe(int minutes) {
+        // Sem timeout: a conexão dura até o cliente fechar
+        SseEmitter emitter = new SseEmitter(0L);
+        Subscriber subscriber = new Subscriber(emitter, minutes);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        send(subscriber);
+        return emitter;
+    }
+
+    @Scheduled(fixedDelayString = "${app.stats.stream-interval-ms:5000}")
+    public void publish() {
+        for (Subscriber subscriber : subscribers) {
+            send(subscriber);
+        }
+    }
+
+    private void send(Subscriber subscriber) {
+        try {
+            subscriber.emitter().send(SseEmitter.event().name("stats").data(rollup.snapshot(subscriber.minutes())));
+        } catch (IOException | IllegalStateException e) {
+            // Cliente desconectado
+            subscribers.remove(subscriber);
+            subscriber.emitter().completeWithError(e);
+        }
+    }
+}
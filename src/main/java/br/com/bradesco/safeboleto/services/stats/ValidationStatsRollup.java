@@ -0,0 +1,145 @@
+package br.com.bradesco.safeboleto.services.stats;
+
+import br.com.bradesco.safeboleto.dto.ValidationStatsResponse;
+import br.com.bradesco.safeboleto.dto.ValidationStatsResponse.DecisionCounts;
+import br.com.bradesco.safeboleto.dto.ValidationStatsResponse.MinuteCounts;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Agregados em memória das validações PIX, por minuto, das últimas 24 horas.
+ *
+ * Cada posição do anel guarda os contadores de um minuto; quando o minuto muda, a posição é trocada por
+ * um balde novo com CAS. Os contadores são {@link LongAdder}, então o caminho de validação não usa lock
+ * nem disputa a mesma linha de cache entre threads. A leitura soma os baldes da janela pedida, sem
+ * consultar {@code pix_validations}.
+ */
+@Component
+public class ValidationStatsRollup {
+
+    public static final int MAX_MINUTES = 24 * 60;
+
+    static final String[] KEY_TYPES = {"CPF", "CNPJ", "EMAIL", "PHONE", "EVP", "UNKNOWN"};
+    private static final int UNKNOWN_TYPE = KEY_TYPES.length - 1;
+    private static final int SCORE_BUCKETS = 11;
+    // Códigos de banco vêm do cliente; acima deste número por minuto, os novos são somados em OUTROS
+    private static final int MAX_BANKS_PER_MINUTE = 512;
+    private static final String OTHER_BANKS = "OUTROS";
+
+    private final AtomicReferenceArray<MinuteBucket> ring = new AtomicReferenceArray<>(MAX_MINUTES);
+
+    private static final class MinuteBucket {
+        final long minute;
+        // Índice: tipo da chave * 2 + (0 = aprovada, 1 = rejeitada)
+        final LongAdder[] byKeyType = adders(KEY_TYPES.length * 2);
+        final Map<String, LongAdder[]> byBank = new ConcurrentHashMap<>();
+        final LongAdder[] scores = adders(SCORE_BUCKETS);
+
+        MinuteBucket(long minute) {
+            this.minute = minute;
+        }
+    }
+
+    public void record(String keyType, String bankCode, boolean valid, int riskScore) {
+        MinuteBucket bucket = bucket(System.currentTimeMillis() / 60_000);
+        int decision = valid ? 0 : 1;
+        bucket.byKeyType[keyTypeIndex(keyType) * 2 + decision].increment();
+
+        String bank = bankCode == null || bankCode.isBlank() ? "N/A" : bankCode.trim();
+        LongAdder[] bankCounters = bucket.byBank.get(bank);
+        if (bankCounters == null) {
+            if (bucket.byBank.size() >= MAX_BANKS_PER_MINUTE) bank = OTHER_BANKS;
+            bankCounters = bucket.byBank.computeIfAbsent(bank, b -> adders(2));
+        }
+        bankCounters[decision].increment();
+
+        bucket.scores[Math.min(SCORE_BUCKETS - 1, Math.max(0, riskScore) / 10)].increment();
+    }
+
+    /**
+     * Soma dos últimos {@code minutes} minutos, incluindo o minuto corrente.
+     */
+    public ValidationStatsResponse snapshot(int minutes) {
+        minutes = Math.max(1, Math.min(MAX_MINUTES, minutes));
+        long current = System.currentTimeMillis() / 60_000;
+        long first = current - minutes + 1;
+
+        long[] keyTypeTotals = new long[KEY_TYPES.length * 2];
+        Map<String, DecisionCounts> byBank = new TreeMap<>();
+        long[] histogram = new long[SCORE_BUCKETS];
+        List<MinuteCounts> perMinute = new ArrayList<>(minutes);
+
+        for (long minute = first; minute <= current; minute++) {
+            MinuteBucket bucket = ring.get(slot(minute));
+            if (bucket == null || bucket.minute != minute) continue;
+
+            long valid = 0, rejected = 0;
+            for (int i = 0; i < keyTypeTotals.length; i++) {
+                long count = bucket.byKeyType[i].sum();
+                keyTypeTotals[i] += count;
+                if (i % 2 == 0) valid += count; else rejected += count;
+            }
+            if (valid + rejected == 0) continue;
+            perMinute.add(new MinuteCounts(Instant.ofEpochSecond(minute * 60), valid, rejected));
+
+            bucket.byBank.forEach((bank, counters) ->
+                    byBank.merge(bank, new DecisionCounts(counters[0].sum(), counters[1].sum()), DecisionCounts::plus));
+            for (int i = 0; i < SCORE_BUCKETS; i++) {
+                histogram[i] += bucket.scores[i].sum();
+            }
+        }
+
+        Map<String, DecisionCounts> byKeyType = new TreeMap<>();
+        long totalValid = 0, totalRejected = 0;
+        for (int t = 0; t < KEY_TYPES.length; t++) {
+            long valid = keyTypeTotals[t * 2], rejected = keyTypeTotals[t * 2 + 1];
+            if (valid + rejected > 0) byKeyType.put(KEY_TYPES[t], new DecisionCounts(valid, rejected));
+            totalValid += valid;
+            totalRejected += rejected;
+        }
+
+        return new ValidationStatsResponse(Instant.ofEpochSecond(first * 60), Instant.ofEpochSecond((current + 1) * 60),
+                1, new DecisionCounts(totalValid, totalRejected), byKeyType, byBank, histogram, perMinute);
+    }
+
+    private MinuteBucket bucket(long minute) {
+        int slot = slot(minute);
+        while (true) {
+            MinuteBucket current = ring.get(slot);
+            if (current != null && current.minute == minute) return current;
+            // Balde mais novo na posição (relógio voltou): a contagem vai para um balde descartado
+            if (current != null && current.minute > minute) return new MinuteBucket(minute);
+            MinuteBucket fresh = new MinuteBucket(minute);
+            if (ring.compareAndSet(slot, current, fresh)) return fresh;
+        }
+    }
+
+    private static int slot(long minute) {
+        return (int) (minute % MAX_MINUTES);
+    }
+
+    private static int keyTypeIndex(String keyType) {
+        if (keyType != null) {
+            for (int i = 0; i < UNKNOWN_TYPE; i++) {
+                if (KEY_TYPES[i].equals(keyType)) return i;
+            }
+        }
+        return UNKNOWN_TYPE;
+    }
+
+    private static LongAdder[] adders(int size) {
+        LongAdder[] adders = new LongAdder[size];
+        for (int i = 0; i < size; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+}
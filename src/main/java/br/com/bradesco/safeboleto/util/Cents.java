@@ -0,0 +1,86 @@
+package br.com.bradesco.safeboleto.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Valores monetários como {@code long} em centavos, sem ponto flutuante: comparações exatas, sem boxing e
+ * somáveis em arrays primitivos. Na API e nos eventos o valor continua em reais com duas casas decimais
+ * ({@code "amount": 150.50}); {@link Deserializer} e {@link Serializer} fazem a conversão exata.
+ */
+public final class Cents {
+
+    private Cents() {
+    }
+
+    /**
+     * Centavos de um valor em reais. Mais de duas casas decimais (diferentes de zero) ou valores fora do
+     * alcance de um {@code long} geram {@link ArithmeticException}.
+     */
+    public static long fromReais(BigDecimal reais) {
+        return reais.setScale(2, RoundingMode.UNNECESSARY).movePointRight(2).longValueExact();
+    }
+
+    public static BigDecimal toReais(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    // Formato brasileiro, sem o símbolo: 1500000 -> "15.000,00"
+    public static String format(long cents) {
+        StringBuilder out = new StringBuilder(16);
+        if (cents < 0) {
+            out.append('-');
+        }
+        // Sem sinal: o módulo de Long.MIN_VALUE não cabe em um long
+        long abs = Math.abs(cents);
+        String reais = Long.toUnsignedString(Long.divideUnsigned(abs, 100));
+        for (int i = 0; i < reais.length(); i++) {
+            if (i > 0 && (reais.length() - i) % 3 == 0) out.append('.');
+            out.append(reais.charAt(i));
+        }
+        long fraction = Long.remainderUnsigned(abs, 100);
+        return out.append(',').append(fraction < 10 ? "0" : "").append(fraction).toString();
+    }
+
+    /**
+     * Lê um valor em reais (número JSON ou texto, ex: {@code 150.5} ou {@code "150.50"}) como centavos. O número é
+     * lido do texto original, sem passar por {@code double}.
+     */
+    public static final class Deserializer extends JsonDeserializer<Long> {
+
+        @Override
+        public Long deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            String text = parser.getText();
+            try {
+                BigDecimal reais = switch (parser.currentToken()) {
+                    case VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT -> parser.getDecimalValue();
+                    case VALUE_STRING -> new BigDecimal(text.trim());
+                    default -> null;
+                };
+                if (reais == null) return (Long) context.handleUnexpectedToken(Long.class, parser);
+                return fromReais(reais);
+            } catch (ArithmeticException | NumberFormatException e) {
+                throw InvalidFormatException.from(parser,
+                        "Valor em reais inválido (no máximo duas casas decimais): " + text, text, Long.class);
+            }
+        }
+    }
+
+    // Escreve centavos como número em reais com duas casas (15050 -> 150.50)
+    public static final class Serializer extends JsonSerializer<Long> {
+
+        @Override
+        public void serialize(Long cents, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            generator.writeNumber(toReais(cents));
+        }
+    }
+}
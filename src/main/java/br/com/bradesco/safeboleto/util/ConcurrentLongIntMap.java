@@ -0,0 +1,241 @@
+package br.com.bradesco.safeboleto.util;
+
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.LongToIntFunction;
+
+/**
+ * Mapa concorrente de {@code long} para {@code int} com endereçamento aberto em arrays primitivos.
+ *
+ * Dividido em segmentos, cada um com seu próprio {@link StampedLock}: leituras usam leitura otimista
+ * (sem bloqueio na ausência de escrita concorrente) e escritas bloqueiam apenas o segmento da chave.
+ * Ocupa cerca de 12 bytes por entrada, contra ~80 de um {@code ConcurrentHashMap<Long, Integer>}.
+ */
+public final class ConcurrentLongIntMap {
+
+    private static final int SEGMENT_BITS = 6;
+    private static final long EMPTY = 0L;
+    // A chave 0 marca posição vazia; é trocada por esta constante (colisão desprezível para hashes de 64 bits)
+    private static final long ZERO_KEY = 0x9E3779B97F4A7C15L;
+
+    private final Segment[] segments = new Segment[1 << SEGMENT_BITS];
+
+    public ConcurrentLongIntMap() {
+        this(1024);
+    }
+
+    public ConcurrentLongIntMap(int expectedSize) {
+        int perSegment = Math.max(16, Integer.highestOneBit(Math.max(1, expectedSize >> SEGMENT_BITS)) << 2);
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = new Segment(perSegment);
+        }
+    }
+
+    public int get(long key, int missingValue) {
+        key = key == EMPTY ? ZERO_KEY : key;
+        long h = Hashing.mix64(key);
+        return segmentFor(h).get(key, h, missingValue);
+    }
+
+    /**
+     * Retorna o valor da chave ou, se ausente, grava e retorna o valor calculado por {@code factory}.
+     * A função é chamada com o lock do segmento, no máximo uma vez por chave.
+     */
+    public int computeIfAbsent(long key, LongToIntFunction factory) {
+        long original = key;
+        key = key == EMPTY ? ZERO_KEY : key;
+        long h = Hashing.mix64(key);
+        return segmentFor(h).computeIfAbsent(key, h, original, factory);
+    }
+
+    // Soma {@code delta} ao valor da chave (criando-a com zero) e retorna o novo valor
+    public int addAndGet(long key, int delta) {
+        key = key == EMPTY ? ZERO_KEY : key;
+        long h = Hashing.mix64(key);
+        return segmentFor(h).addAndGet(key, h, delta);
+    }
+
+    public void put(long key, int value) {
+        key = key == EMPTY ? ZERO_KEY : key;
+        long h = Hashing.mix64(key);
+        segmentFor(h).put(key, h, value);
+    }
+
+    public int size() {
+        int total = 0;
+        for (Segment segment : segments) {
+            long stamp = segment.lock.readLock();
+            try {
+                total += segment.size;
+            } finally {
+                segment.lock.unlockRead(stamp);
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Percorre todas as entradas. Cada segmento é lido sob lock de leitura, então a visão é consistente por
+     * segmento, mas não entre segmentos.
+     */
+    public void forEach(LongIntConsumer consumer) {
+        for (Segment segment : segments) {
+            long stamp = segment.lock.readLock();
+            try {
+                long[] keys = segment.keys;
+                int[] values = segment.values;
+                for (int i = 0; i < keys.length; i++) {
+                    if (keys[i] != EMPTY) {
+                        consumer.accept(keys[i] == ZERO_KEY ? 0L : keys[i], values[i]);
+                    }
+                }
+            } finally {
+                segment.lock.unlockRead(stamp);
+            }
+        }
+    }
+
+    public void clear() {
+        for (Segment segment : segments) {
+            long stamp = segment.lock.writeLock();
+            try {
+                segment.keys = new long[segment.keys.length];
+                segment.values = new int[segment.values.length];
+                segment.size = 0;
+            } finally {
+                segment.lock.unlockWrite(stamp);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface LongIntConsumer {
+        void accept(long key, int value);
+    }
+
+    private Segment segmentFor(long h) {
+        return segments[(int) (h >>> (64 - SEGMENT_BITS))];
+    }
+
+    private static final class Segment {
+        final StampedLock lock = new StampedLock();
+        long[] keys;
+        int[] values;
+        int size;
+
+        Segment(int capacity) {
+            keys = new long[capacity];
+            values = new int[capacity];
+        }
+
+        int get(long key, long h, int missingValue) {
+            long stamp = lock.tryOptimisticRead();
+            long[] k = keys;
+            int[] v = values;
+            if (k.length == v.length) {
+                int result = probe(k, v, key, h, missingValue);
+                if (lock.validate(stamp)) return result;
+            }
+            stamp = lock.readLock();
+            try {
+                return probe(keys, values, key, h, missingValue);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        int computeIfAbsent(long key, long h, long originalKey, LongToIntFunction factory) {
+            int existing = get(key, h, Integer.MIN_VALUE);
+            if (existing != Integer.MIN_VALUE) return existing;
+
+            long stamp = lock.writeLock();
+            try {
+                int slot = slot(key, h);
+                if (keys[slot] == key) return values[slot];
+                int value = factory.applyAsInt(originalKey);
+                insert(slot, key, value);
+                return value;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        int addAndGet(long key, long h, int delta) {
+            long stamp = lock.writeLock();
+            try {
+                int slot = slot(key, h);
+                if (keys[slot] == key) {
+                    return values[slot] += delta;
+                }
+                insert(slot, key, delta);
+                return delta;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        void put(long key, long h, int value) {
+            long stamp = lock.writeLock();
+            try {
+                int slot = slot(key, h);
+                if (keys[slot] == key) {
+                    values[slot] = value;
+                } else {
+                    insert(slot, key, value);
+                }
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        // Posição da chave, ou a posição vazia onde ela seria inserida
+        private int slot(long key, long h) {
+            int mask = keys.length - 1;
+            int i = (int) h & mask;
+            while (keys[i] != EMPTY && keys[i] != key) {
+                i = (i + 1) & mask;
+            }
+            return i;
+        }
+
+        private void insert(int slot, long key, int value) {
+            keys[slot] = key;
+            values[slot] = value;
+            // Fator de carga máximo de 0,5 mantém as sondagens curtas e garante posições vazias para a busca
+            if (++size * 2 > keys.length) {
+                rehash();
+            }
+        }
+
+        private void rehash() {
+            long[] oldKeys = keys;
+            int[] oldValues = values;
+            long[] newKeys = new long[oldKeys.length * 2];
+            int[] newValues = new int[oldValues.length * 2];
+            int mask = newKeys.length - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                long k = oldKeys[i];
+                if (k == EMPTY) continue;
+                int j = (int) Hashing.mix64(k) & mask;
+                while (newKeys[j] != EMPTY) {
+                    j = (j + 1) & mask;
+                }
+                newKeys[j] = k;
+                newValues[j] = oldValues[i];
+            }
+            keys = newKeys;
+            values = newValues;
+        }
+
+        private static int probe(long[] k, int[] v, long key, long h, int missingValue) {
+            int mask = k.length - 1;
+            int i = (int) h & mask;
+            for (int n = 0; n < k.length; n++) {
+                long current = k[i];
+                if (current == key) return v[i];
+                if (current == EMPTY) return missingValue;
+                i = (i + 1) & mask;
+            }
+            return missingValue;
+        }
+    }
+}
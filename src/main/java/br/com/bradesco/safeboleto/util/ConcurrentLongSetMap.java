@@ -0,0 +1,245 @@
+package br.com.bradesco.safeboleto.util;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Mapa concorrente de {@code long} para conjuntos de {@code long}, cada conjunto um array ordenado (busca binária).
+ *
+ * Mesma organização de {@link ConcurrentLongIntMap}: segmentos com {@link StampedLock}, endereçamento aberto
+ * e leitura otimista. Os arrays dos conjuntos nunca são alterados depois de publicados: uma inserção grava
+ * uma cópia com o novo valor, então a busca pode rodar sem lock. Ocupa cerca de 40 bytes por dono mais 8 por
+ * valor; conjuntos pequenos e muito lidos (ex: beneficiários de um pagador) ficam bem mais compactos que
+ * {@code Map<Long, Set<Long>>}, a custo de inserções O(n) no tamanho do conjunto.
+ */
+public final class ConcurrentLongSetMap {
+
+    private static final int SEGMENT_BITS = 6;
+    private static final long EMPTY = 0L;
+    // A chave 0 marca posição vazia; é trocada por esta constante (colisão desprezível para hashes de 64 bits)
+    private static final long ZERO_KEY = 0x9E3779B97F4A7C15L;
+    private static final long[] NO_VALUES = new long[0];
+
+    private final Segment[] segments = new Segment[1 << SEGMENT_BITS];
+
+    public ConcurrentLongSetMap() {
+        this(1024);
+    }
+
+    public ConcurrentLongSetMap(int expectedOwners) {
+        int perSegment = Math.max(16, Integer.highestOneBit(Math.max(1, expectedOwners >> SEGMENT_BITS)) << 2);
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = new Segment(perSegment);
+        }
+    }
+
+    public boolean contains(long owner, long value) {
+        return Arrays.binarySearch(values(owner), value) >= 0;
+    }
+
+    // Tamanho do conjunto do dono (0 se ele não existe)
+    public int size(long owner) {
+        return values(owner).length;
+    }
+
+    /**
+     * Acrescenta o valor ao conjunto do dono. Retorna false se ele já estava lá ou se o conjunto já tem
+     * {@code maxValues} valores (o valor não entra).
+     */
+    public boolean add(long owner, long value, int maxValues) {
+        owner = owner == EMPTY ? ZERO_KEY : owner;
+        long h = Hashing.mix64(owner);
+        return segmentFor(h).add(owner, h, value, maxValues);
+    }
+
+    // Quantidade de donos
+    public int owners() {
+        int total = 0;
+        for (Segment segment : segments) {
+            long stamp = segment.lock.readLock();
+            try {
+                total += segment.size;
+            } finally {
+                segment.lock.unlockRead(stamp);
+            }
+        }
+        return total;
+    }
+
+    // Soma dos tamanhos dos conjuntos
+    public long values() {
+        long total = 0;
+        for (Segment segment : segments) {
+            long stamp = segment.lock.readLock();
+            try {
+                total += segment.values;
+            } finally {
+                segment.lock.unlockRead(stamp);
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Percorre os conjuntos. O array recebido é o próprio conjunto (ordenado) e não deve ser alterado. A visão é
+     * consistente por segmento, mas não entre segmentos.
+     */
+    public void forEach(LongSetConsumer consumer) {
+        for (Segment segment : segments) {
+            long stamp = segment.lock.readLock();
+            try {
+                long[] keys = segment.keys;
+                long[][] sets = segment.sets;
+                for (int i = 0; i < keys.length; i++) {
+                    if (keys[i] != EMPTY) {
+                        consumer.accept(keys[i] == ZERO_KEY ? 0L : keys[i], sets[i]);
+                    }
+                }
+            } finally {
+                segment.lock.unlockRead(stamp);
+            }
+        }
+    }
+
+    public void clear() {
+        for (Segment segment : segments) {
+            long stamp = segment.lock.writeLock();
+            try {
+                segment.keys = new long[segment.keys.length];
+                segment.sets = new long[segment.sets.length][];
+                segment.size = 0;
+                segment.values = 0;
+            } finally {
+                segment.lock.unlockWrite(stamp);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface LongSetConsumer {
+        void accept(long owner, long[] sortedValues);
+    }
+
+    private long[] values(long owner) {
+        owner = owner == EMPTY ? ZERO_KEY : owner;
+        long h = Hashing.mix64(owner);
+        return segmentFor(h).get(owner, h);
+    }
+
+    private Segment segmentFor(long h) {
+        return segments[(int) (h >>> (64 - SEGMENT_BITS))];
+    }
+
+    private static final class Segment {
+        final StampedLock lock = new StampedLock();
+        long[] keys;
+        long[][] sets;
+        int size;
+        long values;
+
+        Segment(int capacity) {
+            keys = new long[capacity];
+            sets = new long[capacity][];
+        }
+
+        long[] get(long key, long h) {
+            long stamp = lock.tryOptimisticRead();
+            long[] k = keys;
+            long[][] s = sets;
+            if (k.length == s.length) {
+                long[] result = probe(k, s, key, h);
+                if (lock.validate(stamp)) return result;
+            }
+            stamp = lock.readLock();
+            try {
+                return probe(keys, sets, key, h);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        boolean add(long key, long h, long value, int maxValues) {
+            // Caminho comum (valor já conhecido) sem lock de escrita
+            long[] current = get(key, h);
+            if (Arrays.binarySearch(current, value) >= 0) return false;
+
+            long stamp = lock.writeLock();
+            try {
+                int slot = slot(key, h);
+                long[] set = keys[slot] == key ? sets[slot] : NO_VALUES;
+                int index = Arrays.binarySearch(set, value);
+                if (index >= 0 || set.length >= maxValues) return false;
+
+                int insertAt = -index - 1;
+                long[] grown = new long[set.length + 1];
+                System.arraycopy(set, 0, grown, 0, insertAt);
+                grown[insertAt] = value;
+                System.arraycopy(set, insertAt, grown, insertAt + 1, set.length - insertAt);
+                values++;
+                if (keys[slot] == key) {
+                    sets[slot] = grown;
+                } else {
+                    insert(slot, key, grown);
+                }
+                return true;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        // Posição da chave, ou a posição vazia onde ela seria inserida
+        private int slot(long key, long h) {
+            int mask = keys.length - 1;
+            int i = (int) h & mask;
+            while (keys[i] != EMPTY && keys[i] != key) {
+                i = (i + 1) & mask;
+            }
+            return i;
+        }
+
+        private void insert(int slot, long key, long[] set) {
+            sets[slot] = set;
+            keys[slot] = key;
+            // Fator de carga máximo de 0,5 mantém as sondagens curtas e garante posições vazias para a busca
+            if (++size * 2 > keys.length) {
+                rehash();
+            }
+        }
+
+        private void rehash() {
+            long[] oldKeys = keys;
+            long[][] oldSets = sets;
+            long[] newKeys = new long[oldKeys.length * 2];
+            long[][] newSets = new long[oldSets.length * 2][];
+            int mask = newKeys.length - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                long k = oldKeys[i];
+                if (k == EMPTY) continue;
+                int j = (int) Hashing.mix64(k) & mask;
+                while (newKeys[j] != EMPTY) {
+                    j = (j + 1) & mask;
+                }
+                newKeys[j] = k;
+                newSets[j] = oldSets[i];
+            }
+            keys = newKeys;
+            sets = newSets;
+        }
+
+        // Na leitura otimista o conjunto pode ainda não ter sido publicado (null); validate descarta o resultado
+        private static long[] probe(long[] k, long[][] s, long key, long h) {
+            int mask = k.length - 1;
+            int i = (int) h & mask;
+            for (int n = 0; n < k.length; n++) {
+                long current = k[i];
+                if (current == key) {
+                    long[] set = s[i];
+                    return set != null ? set : NO_VALUES;
+                }
+                if (current == EMPTY) return NO_VALUES;
+                i = (i + 1) & mask;
+            }
+            return NO_VALUES;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package br.com.bradesco.safeboleto.util;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Anel de hash consistente imutável: cada membro ocupa {@code virtualNodes} pontos do espaço de 64 bits e uma
+ * chave pertence ao primeiro ponto igual ou seguinte ao seu hash (dando a volta no fim). Com pontos virtuais a
+ * carga fica equilibrada entre os membros e, quando um membro entra ou sai, só as chaves dos pontos dele mudam
+ * de dono.
+ *
+ * O dono depende apenas da lista de membros (não da ordem em que foram informados), então instâncias com a
+ * mesma configuração chegam ao mesmo dono sem se comunicar.
+ */
+public final class ConsistentHashRing {
+
+    private final long[] points;
+    private final int[] owners;
+    private final List<String> members;
+
+    private ConsistentHashRing(long[] points, int[] owners, List<String> members) {
+        this.points = points;
+        this.owners = owners;
+        this.members = members;
+    }
+
+    public static ConsistentHashRing of(List<String> members, int virtualNodes) {
+        if (virtualNodes < 1) {
+            throw new IllegalArgumentException("Número de pontos virtuais deve ser positivo: " + virtualNodes);
+        }
+        List<String> distinct = members.stream().distinct().sorted().toList();
+        int size = distinct.size() * virtualNodes;
+        long[] packedPoints = new long[size];
+        long[] rawPoints = new long[size];
+        for (int m = 0; m < distinct.size(); m++) {
+            long memberHash = Hashing.hash64(distinct.get(m));
+            for (int v = 0; v < virtualNodes; v++) {
+                rawPoints[m * virtualNodes + v] = Hashing.mix64(memberHash + v);
+            }
+        }
+
+        // Ordena os pontos levando junto o índice do membro (colisões de 64 bits são desprezíveis)
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) order[i] = i;
+        Arrays.sort(order, (a, b) -> Long.compare(rawPoints[a], rawPoints[b]));
+        int[] owners = new int[size];
+        for (int i = 0; i < size; i++) {
+            packedPoints[i] = rawPoints[order[i]];
+            owners[i] = order[i] / virtualNodes;
+        }
+        return new ConsistentHashRing(packedPoints, owners, distinct);
+    }
+
+    /**
+     * Membro dono da chave, ou {@code null} se o anel está vazio. A chave é espalhada antes da busca, então
+     * códigos sequenciais (ex: CPFs próximos) não caem todos no mesmo membro.
+     */
+    public String owner(long key) {
+        if (points.length == 0) return null;
+        long h = Hashing.mix64(key);
+        int index = Arrays.binarySearch(points, h);
+        if (index < 0) index = -index - 1;
+        return members.get(owners[index == points.length ? 0 : index]);
+    }
+
+    public List<String> members() {
+        return members;
+    }
+}
@@ -0,0 +1,125 @@
+package br.com.bradesco.safeboleto.util;
+
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Tabela imutável de domínios com um nível de risco (0 a 100) cada, consultada por sufixo: um domínio listado
+ * casa com ele mesmo e com todos os seus subdomínios ({@code mailinator.com} casa com {@code x.mailinator.com}).
+ *
+ * Cada domínio é guardado como o hash de 64 bits dos seus caracteres lidos de trás para frente. Assim a consulta
+ * percorre o host uma única vez, da direita para a esquerda, e em cada início de rótulo o hash acumulado é
+ * exatamente o do sufixo até ali: uma busca por rótulo, sem substring nem alocação (equivale a descer uma trie
+ * de rótulos invertidos). Os hashes ficam em uma tabela de endereçamento aberto com fator de carga de no máximo
+ * 0,5 e o risco nos bits baixos da própria entrada, então cada rótulo custa em geral um único acesso à memória;
+ * com 100 mil domínios ocupa 2 MB.
+ */
+public final class DomainSuffixTable {
+
+    public static final DomainSuffixTable EMPTY = new DomainSuffixTable(new long[1], 0);
+
+    private static final long RISK_MASK = 0x7FL;
+    // Bit sempre ligado nas entradas, para que nenhuma seja 0 (posição vazia)
+    private static final long PRESENT = 0x80L;
+
+    private final long[] slots;
+    private final int shift;
+    private final int size;
+
+    private DomainSuffixTable(long[] slots, int size) {
+        this.slots = slots;
+        this.shift = 64 - Integer.numberOfTrailingZeros(slots.length);
+        this.size = size;
+    }
+
+    /**
+     * Monta a tabela a partir de domínios já normalizados ({@link #normalize}) e seus níveis de risco.
+     */
+    public static DomainSuffixTable of(Map<String, Integer> domains) {
+        int capacity = Integer.highestOneBit(Math.max(1, domains.size()) * 2 - 1) << 1;
+        long[] slots = new long[capacity];
+        int shift = 64 - Integer.numberOfTrailingZeros(capacity);
+        int mask = capacity - 1;
+        int size = 0;
+        for (Map.Entry<String, Integer> entry : domains.entrySet()) {
+            int risk = entry.getValue();
+            if (risk < 0 || risk > 100) {
+                throw new IllegalArgumentException("Risco fora de 0-100 para " + entry.getKey() + ": " + risk);
+            }
+            long key = key(hash(entry.getKey()));
+            int i = shift == 64 ? 0 : (int) (key >>> shift);
+            while (slots[i] != 0 && (slots[i] & ~RISK_MASK) != key) {
+                i = (i + 1) & mask;
+            }
+            if (slots[i] == 0) {
+                slots[i] = key | risk;
+                size++;
+            } else {
+                // Colisão de hash entre domínios diferentes: fica o maior risco
+                slots[i] = key | Math.max(risk, slots[i] & RISK_MASK);
+            }
+        }
+        return new DomainSuffixTable(slots, size);
+    }
+
+    // Minúsculo, sem espaços, sem ponto final e sem curinga inicial ("*.dominio.com" ou ".dominio.com")
+    public static String normalize(String domain) {
+        String d = domain.trim().toLowerCase(Locale.ROOT);
+        if (d.startsWith("*.")) d = d.substring(2);
+        if (d.startsWith(".")) d = d.substring(1);
+        if (d.endsWith(".")) d = d.substring(0, d.length() - 1);
+        return d;
+    }
+
+    /**
+     * Procura o sufixo listado mais específico de {@code host[from, to)} (sem diferenciar maiúsculas).
+     *
+     * @return {@code -1} se nenhum sufixo está na tabela; senão a posição em que o sufixo começa nos 32 bits
+     *         altos e o risco nos 32 bits baixos
+     */
+    public long find(CharSequence host, int from, int to) {
+        if (size == 0) return -1;
+        long result = -1;
+        long h = Hashing.FNV_OFFSET;
+        for (int i = to - 1; i >= from; i--) {
+            h = (h ^ lower(host.charAt(i))) * Hashing.FNV_PRIME;
+            if (i == from || host.charAt(i - 1) == '.') {
+                long risk = lookup(key(Hashing.mix64(h)));
+                // Continua para a esquerda: um subdomínio listado vale mais que o domínio pai
+                if (risk >= 0) result = ((long) i << 32) | risk;
+            }
+        }
+        return result;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private long lookup(long key) {
+        int mask = slots.length - 1;
+        int i = shift == 64 ? 0 : (int) (key >>> shift);
+        long slot;
+        while ((slot = slots[i]) != 0) {
+            if ((slot & ~RISK_MASK) == key) return slot & RISK_MASK;
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    private static long key(long hash) {
+        return (hash & ~RISK_MASK) | PRESENT;
+    }
+
+    private static long hash(String domain) {
+        long h = Hashing.FNV_OFFSET;
+        for (int i = domain.length() - 1; i >= 0; i--) {
+            h = (h ^ lower(domain.charAt(i))) * Hashing.FNV_PRIME;
+        }
+        return Hashing.mix64(h);
+    }
+
+    private static char lower(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + 32) : c;
+    }
+}
@@ -0,0 +1,46 @@
+package br.com.bradesco.safeboleto.util;
+
+/**
+ * Funções de hash de 64 bits usadas pelas estruturas em memória (grafo de fraude, reputação de chaves etc.).
+ * Não são criptográficas: servem para identificar valores de forma compacta, sem guardar as strings.
+ */
+public final class Hashing {
+
+    static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    static final long FNV_PRIME = 0x100000001b3L;
+
+    private Hashing() {
+    }
+
+    // FNV-1a sobre os caracteres, seguido do finalizador do MurmurHash3 para espalhar os bits
+    public static long hash64(CharSequence value) {
+        long h = FNV_OFFSET;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= FNV_PRIME;
+        }
+        return mix64(h);
+    }
+
+    // Hash de um valor prefixado por um "namespace" (ex: tipo do nó), sem concatenar strings
+    public static long hash64(char namespace, CharSequence value) {
+        long h = (FNV_OFFSET ^ namespace) * FNV_PRIME;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= FNV_PRIME;
+        }
+        return mix64(h);
+    }
+
+    public static long mix64(long z) {
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return z ^ (z >>> 33);
+    }
+
+    public static int mix32(int x) {
+        x = (x ^ (x >>> 16)) * 0x85ebca6b;
+        x = (x ^ (x >>> 13)) * 0xc2b2ae35;
+        return x ^ (x >>> 16);
+    }
+}
@@ -0,0 +1,172 @@
+package br.com.bradesco.safeboleto.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Tabela imutável de faixas de numeração telefônica (código do país, DDD, faixas de números) com um nível de
+ * risco (0 a 100) e um rótulo cada.
+ *
+ * Números e faixas são comparados no espaço de 15 dígitos do E.164: um número ou prefixo com {@code d} dígitos
+ * é completado com zeros à direita (início da faixa) ou noves (fim), então o prefixo {@code 5511} cobre todos os
+ * números de São Paulo, de qualquer tamanho. Faixas aninhadas ou sobrepostas são achatadas na montagem em
+ * segmentos disjuntos, cada um com o risco da faixa mais estreita que o cobre (a mais específica vale), e a
+ * consulta é uma busca binária no array ordenado dos inícios dos segmentos.
+ */
+public final class PhonePrefixTable {
+
+    public static final PhonePrefixTable EMPTY = new PhonePrefixTable(new long[0], new long[0], new byte[0], new String[0], 0);
+
+    private static final int E164_DIGITS = 15;
+    private static final long[] POWERS_OF_TEN = new long[E164_DIGITS + 1];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    /**
+     * Faixa informada: do número (ou prefixo) {@code from} até {@code to}, ambos só com dígitos.
+     */
+    public record Range(String from, String to, int risk, String label) {
+    }
+
+    private final long[] starts;
+    private final long[] ends;
+    private final byte[] risks;
+    private final String[] labels;
+    private final int ranges;
+
+    private PhonePrefixTable(long[] starts, long[] ends, byte[] risks, String[] labels, int ranges) {
+        this.starts = starts;
+        this.ends = ends;
+        this.risks = risks;
+        this.labels = labels;
+        this.ranges = ranges;
+    }
+
+    public static PhonePrefixTable of(List<Range> ranges) {
+        int n = ranges.size();
+        long[] lo = new long[n];
+        long[] hi = new long[n];
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            Range range = ranges.get(i);
+            if (range.risk() < 0 || range.risk() > 100) {
+                throw new IllegalArgumentException("Risco fora de 0-100 para a faixa " + range.label() + ": " + range.risk());
+            }
+            lo[i] = padStart(range.from());
+            hi[i] = padEnd(range.to());
+            if (hi[i] < lo[i]) {
+                throw new IllegalArgumentException("Faixa com fim antes do início: " + range.label());
+            }
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingLong(i -> lo[i]));
+
+        // Fronteiras de todos os segmentos elementares
+        long[] bounds = new long[2 * n];
+        for (int i = 0; i < n; i++) {
+            bounds[2 * i] = lo[i];
+            bounds[2 * i + 1] = hi[i] + 1;
+        }
+        Arrays.sort(bounds);
+
+        // Varredura: faixas abertas em uma fila pela largura, removidas só quando chegam ao topo já encerradas
+        PriorityQueue<Integer> open = new PriorityQueue<>(Comparator.comparingLong(i -> hi[i] - lo[i]));
+        List<long[]> segments = new ArrayList<>();
+        List<Integer> owners = new ArrayList<>();
+        int next = 0;
+        for (int b = 0; b < bounds.length - 1; b++) {
+            long start = bounds[b];
+            long end = bounds[b + 1] - 1;
+            if (end < start) continue;
+            while (next < n && lo[order[next]] <= start) {
+                open.add(order[next++]);
+            }
+            while (!open.isEmpty() && hi[open.peek()] < start) {
+                open.poll();
+            }
+            if (open.isEmpty()) continue;
+
+            int owner = open.peek();
+            int last = segments.size() - 1;
+            // Segmentos vizinhos da mesma faixa são unidos
+            if (last >= 0 && owners.get(last) == owner && segments.get(last)[1] + 1 == start) {
+                segments.get(last)[1] = end;
+            } else {
+                segments.add(new long[]{start, end});
+                owners.add(owner);
+            }
+        }
+
+        int size = segments.size();
+        long[] starts = new long[size];
+        long[] ends = new long[size];
+        byte[] risks = new byte[size];
+        String[] labels = new String[size];
+        for (int i = 0; i < size; i++) {
+            starts[i] = segments.get(i)[0];
+            ends[i] = segments.get(i)[1];
+            Range owner = ranges.get(owners.get(i));
+            risks[i] = (byte) owner.risk();
+            labels[i] = owner.label();
+        }
+        return new PhonePrefixTable(starts, ends, risks, labels, n);
+    }
+
+    /**
+     * Índice do segmento que contém o número E.164 (só os dígitos, sem o "+"), ou -1.
+     */
+    public int find(long number) {
+        if (starts.length == 0 || number <= 0) return -1;
+        int digits = digits(number);
+        if (digits > E164_DIGITS) return -1;
+        long padded = number * POWERS_OF_TEN[E164_DIGITS - digits];
+        int index = Arrays.binarySearch(starts, padded);
+        if (index < 0) index = -index - 2;
+        return index >= 0 && padded <= ends[index] ? index : -1;
+    }
+
+    public int risk(int index) {
+        return risks[index];
+    }
+
+    public String label(int index) {
+        return labels[index];
+    }
+
+    // Faixas informadas na montagem (antes do achatamento)
+    public int size() {
+        return ranges;
+    }
+
+    private static long padStart(String digits) {
+        check(digits);
+        return Long.parseLong(digits) * POWERS_OF_TEN[E164_DIGITS - digits.length()];
+    }
+
+    private static long padEnd(String digits) {
+        check(digits);
+        return (Long.parseLong(digits) + 1) * POWERS_OF_TEN[E164_DIGITS - digits.length()] - 1;
+    }
+
+    private static void check(String digits) {
+        if (digits.isEmpty() || digits.length() > E164_DIGITS || !digits.chars().allMatch(Character::isDigit)) {
+            throw new IllegalArgumentException("Prefixo telefônico inválido: " + digits);
+        }
+    }
+
+    private static int digits(long number) {
+        int digits = 1;
+        while (digits < POWERS_OF_TEN.length && number >= POWERS_OF_TEN[digits]) {
+            digits++;
+        }
+        return digits;
+    }
+}
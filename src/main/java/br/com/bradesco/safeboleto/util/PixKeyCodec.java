@@ -0,0 +1,181 @@
+package br.com.bradesco.safeboleto.util;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Codificação canônica de chaves PIX em um {@code long} ({@code key_hash} em {@code pix_validations}).
+ *
+ * Os 4 bits mais altos guardam o tipo da chave e os 60 restantes o valor:
+ * CPF, CNPJ e telefone (E.164, sem o "+") são os próprios números, sem perda; e-mail (aparado e em
+ * minúsculas) e EVP (os 128 bits do UUID) são reduzidos por hash. Assim a mesma chave escrita com outra
+ * caixa ou em outra grafia de telefone ({@link #normalizePhone}) tem sempre o mesmo código, e chaves de tipos
+ * diferentes nunca colidem.
+ *
+ * O código 0 significa "chave inválida" e nunca é gerado para uma chave válida.
+ */
+public final class PixKeyCodec {
+
+    public static final String CPF = "CPF";
+    public static final String CNPJ = "CNPJ";
+    public static final String EMAIL = "EMAIL";
+    public static final String PHONE = "PHONE";
+    public static final String EVP = "EVP";
+
+    // Padrões de validação de chaves PIX
+    private static final Pattern CPF_PATTERN = Pattern.compile("^\\d{11}$");
+    private static final Pattern CNPJ_PATTERN = Pattern.compile("^\\d{14}$");
+    private static final Pattern EMAIL_PATTERN = Pattern.compile("^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+\\.[A-Za-z]{2,}$");
+    private static final Pattern EVP_PATTERN = Pattern.compile("^[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}$", Pattern.CASE_INSENSITIVE);
+
+    private static final int TYPE_SHIFT = 60;
+    private static final long VALUE_MASK = (1L << TYPE_SHIFT) - 1;
+    private static final long TAG_CPF = 1L << TYPE_SHIFT;
+    private static final long TAG_CNPJ = 2L << TYPE_SHIFT;
+    private static final long TAG_PHONE = 3L << TYPE_SHIFT;
+    private static final long TAG_EMAIL = 4L << TYPE_SHIFT;
+    private static final long TAG_EVP = 5L << TYPE_SHIFT;
+
+    // DDDs atribuídos pela ANATEL (Plano Geral de Códigos Nacionais)
+    private static final boolean[] VALID_DDD = new boolean[100];
+
+    static {
+        int[] ddds = {
+                11, 12, 13, 14, 15, 16, 17, 18, 19,
+                21, 22, 24, 27, 28,
+                31, 32, 33, 34, 35, 37, 38,
+                41, 42, 43, 44, 45, 46, 47, 48, 49,
+                51, 53, 54, 55,
+                61, 62, 63, 64, 65, 66, 67, 68, 69,
+                71, 73, 74, 75, 77, 79,
+                81, 82, 83, 84, 85, 86, 87, 88, 89,
+                91, 92, 93, 94, 95, 96, 97, 98, 99};
+        for (int ddd : ddds) {
+            VALID_DDD[ddd] = true;
+        }
+    }
+
+    private PixKeyCodec() {
+    }
+
+    // Tipo da chave (CPF, CNPJ, EMAIL, PHONE ou EVP), ou null se o formato não é reconhecido
+    public static String detectType(String key) {
+        if (key == null || key.isBlank()) return null;
+
+        String cleanKey = key.trim();
+
+        if (CPF_PATTERN.matcher(cleanKey).matches()) return CPF;
+        if (CNPJ_PATTERN.matcher(cleanKey).matches()) return CNPJ;
+        if (EMAIL_PATTERN.matcher(cleanKey).matches()) return EMAIL;
+        if (normalizePhone(cleanKey) != null) return PHONE;
+        if (EVP_PATTERN.matcher(cleanKey).matches()) return EVP;
+
+        return null;
+    }
+
+    public static long encode(String key) {
+        return encode(key, detectType(key));
+    }
+
+    /**
+     * Código da chave já classificada como {@code type}; 0 se o tipo é desconhecido.
+     */
+    public static long encode(String key, String type) {
+        if (key == null || type == null) return 0;
+        String clean = key.trim();
+        return switch (type) {
+            case CPF -> TAG_CPF | Long.parseLong(clean);
+            case CNPJ -> TAG_CNPJ | Long.parseLong(clean);
+            case PHONE -> {
+                String e164 = normalizePhone(clean);
+                yield e164 == null ? 0 : TAG_PHONE | Long.parseLong(e164, 1, e164.length(), 10);
+            }
+            case EMAIL -> TAG_EMAIL | (Hashing.hash64(clean.toLowerCase(Locale.ROOT)) & VALUE_MASK);
+            case EVP -> {
+                UUID uuid = UUID.fromString(clean);
+                yield TAG_EVP | (Hashing.mix64(uuid.getMostSignificantBits() ^ Hashing.mix64(uuid.getLeastSignificantBits())) & VALUE_MASK);
+            }
+            default -> 0;
+        };
+    }
+
+    /**
+     * Telefone no formato E.164 ({@code +5511987654321}), ou {@code null} se não é um telefone válido.
+     *
+     * Aceita, além do E.164 com ou sem "+", espaços, hífens e parênteses ({@code +55 (11) 98765-4321}), o prefixo
+     * internacional {@code 00} e a discagem nacional brasileira com {@code 0} (com ou sem código de operadora).
+     * Um número com DDD e sem código do país ({@code (11) 98765-4321}) só é aceito com formatação: 11 dígitos
+     * seguidos são CPF. Números brasileiros precisam de DDD atribuído pela ANATEL e de 8 dígitos (fixo) ou 9
+     * começando por 9 (celular).
+     */
+    public static String normalizePhone(String key) {
+        if (key == null) return null;
+        String s = key.trim();
+        boolean international = s.startsWith("+");
+        boolean formatted = false;
+        StringBuilder digits = new StringBuilder(16);
+        for (int i = international ? 1 : 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits.append(c);
+            } else if (c == ' ' || c == '-' || c == '(' || c == ')') {
+                formatted = true;
+            } else {
+                return null;
+            }
+        }
+        if (digits.length() > 17) return null;
+
+        String number = digits.toString();
+        if (!international && number.startsWith("00")) {
+            number = number.substring(2);
+        } else if (!international && number.startsWith("0")) {
+            // 0 + DDD + número, ou 0 + operadora (2 dígitos) + DDD + número
+            number = number.substring(1);
+            if (number.length() == 12 || number.length() == 13) number = number.substring(2);
+            if (number.length() != 10 && number.length() != 11) return null;
+            number = "55" + number;
+        } else if (!international && formatted && (number.length() == 10 || number.length() == 11)) {
+            number = "55" + number;
+        }
+
+        if (number.length() < 11 || number.length() > 15 || number.charAt(0) == '0') return null;
+        if (number.startsWith("55")) {
+            int subscriber = number.length() - 4;
+            if (!VALID_DDD[(number.charAt(2) - '0') * 10 + (number.charAt(3) - '0')]) return null;
+            if (subscriber != 8 && subscriber != 9) return null;
+            if (subscriber == 9 && number.charAt(4) != '9') return null;
+        }
+        return "+" + number;
+    }
+
+    /**
+     * Código de um documento de beneficiário (CPF com 11 dígitos ou CNPJ com 14), no mesmo espaço das
+     * chaves do tipo correspondente; 0 se não é um documento.
+     */
+    public static long encodeDocument(String document) {
+        if (document == null) return 0;
+        String clean = document.trim();
+        if (CPF_PATTERN.matcher(clean).matches()) return TAG_CPF | Long.parseLong(clean);
+        if (CNPJ_PATTERN.matcher(clean).matches()) return TAG_CNPJ | Long.parseLong(clean);
+        return 0;
+    }
+
+    // Mesmo código a partir dos dígitos já lidos (ex: importação em massa, sem montar a String do documento)
+    public static long encodeDocument(long digits, int length) {
+        if (length == 11) return TAG_CPF | digits;
+        if (length == 14) return TAG_CNPJ | digits;
+        return 0;
+    }
+
+    // Array ordenado e sem repetições, para busca binária (códigos 0 são descartados)
+    public static long[] sortedCodes(long... codes) {
+        return Arrays.stream(codes).filter(c -> c != 0).sorted().distinct().toArray();
+    }
+
+    public static boolean contains(long[] sortedCodes, long code) {
+        return code != 0 && Arrays.binarySearch(sortedCodes, code) >= 0;
+    }
+}
@@ -0,0 +1,70 @@
+package br.com.bradesco.safeboleto.util;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Coalescência de leituras concorrentes ("single flight"): chamadas simultâneas com a mesma chave
+ * compartilham uma única execução em andamento, e o resultado continua sendo reaproveitado por
+ * {@code ttlMillis} depois de pronto. Falhas não são reaproveitadas.
+ *
+ * As entradas se removem sozinhas ao expirar, então o mapa só guarda as chaves em uso no momento.
+ */
+public final class SingleFlight<K, V> {
+
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final Executor executor;
+    private final long ttlMillis;
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder sharedCalls = new LongAdder();
+
+    public SingleFlight(Executor executor, long ttlMillis) {
+        this.executor = executor;
+        this.ttlMillis = ttlMillis;
+    }
+
+    public CompletableFuture<V> get(K key, Supplier<V> loader) {
+        CompletableFuture<V> created = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, created);
+        if (existing != null) {
+            sharedCalls.increment();
+            return existing;
+        }
+        executions.increment();
+
+        CompletableFuture.supplyAsync(loader, executor).whenComplete((value, error) -> {
+            if (error != null) {
+                inFlight.remove(key, created);
+                created.completeExceptionally(error);
+                return;
+            }
+            created.complete(value);
+            if (ttlMillis <= 0) {
+                inFlight.remove(key, created);
+            } else {
+                CompletableFuture.delayedExecutor(ttlMillis, TimeUnit.MILLISECONDS)
+                        .execute(() -> inFlight.remove(key, created));
+            }
+        });
+        return created;
+    }
+
+    public int size() {
+        return inFlight.size();
+    }
+
+    // Chamadas que executaram o loader
+    public long executions() {
+        return executions.sum();
+    }
+
+    // Chamadas que aproveitaram uma execução em andamento ou recente
+    public long sharedCalls() {
+        return sharedCalls.sum();
+    }
+}
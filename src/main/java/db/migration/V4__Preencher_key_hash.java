@@ -0,0 +1,98 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Preenche {@code pix_validations.key_hash} das validações gravadas antes da V3, percorrendo a tabela
+ * em lotes pela chave primária. Chaves com formato inválido (tipo UNKNOWN) ficam com o código nulo.
+ *
+ * A codificação é uma cópia congelada da do {@code PixKeyCodec} desta versão: uma migração já aplicada não
+ * pode mudar de resultado quando a classe da aplicação evoluir (ex: telefones normalizados pela V8).
+ */
+public class V4__Preencher_key_hash extends BaseJavaMigration {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private static final Pattern CPF_PATTERN = Pattern.compile("^\\d{11}$");
+    private static final Pattern CNPJ_PATTERN = Pattern.compile("^\\d{14}$");
+    private static final Pattern EMAIL_PATTERN = Pattern.compile("^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+\\.[A-Za-z]{2,}$");
+    private static final Pattern PHONE_PATTERN = Pattern.compile("^\\+?[1-9]\\d{10,14}$");
+    private static final Pattern EVP_PATTERN = Pattern.compile("^[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}$", Pattern.CASE_INSENSITIVE);
+
+    private static final int TYPE_SHIFT = 60;
+    private static final long VALUE_MASK = (1L << TYPE_SHIFT) - 1;
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        long lastId = 0;
+        int updated = 0;
+        try (PreparedStatement select = connection.prepareStatement(
+                "SELECT id, pix_key, pix_key_type FROM pix_validations WHERE id > ? ORDER BY id LIMIT " + BATCH_SIZE);
+             PreparedStatement update = connection.prepareStatement(
+                     "UPDATE pix_validations SET key_hash = ? WHERE id = ?")) {
+            while (true) {
+                select.setLong(1, lastId);
+                int rows = 0;
+                try (ResultSet rs = select.executeQuery()) {
+                    while (rs.next()) {
+                        rows++;
+                        lastId = rs.getLong(1);
+                        long keyHash = encode(rs.getString(2));
+                        if (keyHash == 0) continue;
+                        update.setLong(1, keyHash);
+                        update.setLong(2, lastId);
+                        update.addBatch();
+                        updated++;
+                    }
+                }
+                if (rows == 0) break;
+                update.executeBatch();
+            }
+        }
+        System.out.println("[INIT] key_hash preenchido em " + updated + " validações.");
+    }
+
+    // Tipo detectado pelo formato, nos 4 bits mais altos; 0 se o formato não é reconhecido
+    private static long encode(String key) {
+        if (key == null || key.isBlank()) return 0;
+        String clean = key.trim();
+        if (CPF_PATTERN.matcher(clean).matches()) return (1L << TYPE_SHIFT) | Long.parseLong(clean);
+        if (CNPJ_PATTERN.matcher(clean).matches()) return (2L << TYPE_SHIFT) | Long.parseLong(clean);
+        if (EMAIL_PATTERN.matcher(clean).matches()) {
+            return (4L << TYPE_SHIFT) | (hash64(clean.toLowerCase(Locale.ROOT)) & VALUE_MASK);
+        }
+        if (PHONE_PATTERN.matcher(clean).matches()) {
+            return (3L << TYPE_SHIFT) | Long.parseLong(clean.charAt(0) == '+' ? clean.substring(1) : clean);
+        }
+        if (EVP_PATTERN.matcher(clean).matches()) {
+            UUID uuid = UUID.fromString(clean);
+            return (5L << TYPE_SHIFT) | (mix64(uuid.getMostSignificantBits() ^ mix64(uuid.getLeastSignificantBits())) & VALUE_MASK);
+        }
+        return 0;
+    }
+
+    // FNV-1a seguido do finalizador do MurmurHash3
+    private static long hash64(CharSequence value) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return mix64(h);
+    }
+
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return z ^ (z >>> 33);
+    }
+}
@@ -0,0 +1,116 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+/**
+ * Reescreve em E.164 ({@code +5511987654321}) as chaves de telefone gravadas em outras grafias (sem "+"),
+ * para que o mesmo número tenha uma única forma em {@code pix_validations}. O {@code key_hash} é recalculado
+ * junto. Validações recusadas por formato (tipo UNKNOWN) não são reclassificadas.
+ *
+ * A normalização é uma cópia congelada da do {@code PixKeyCodec} desta versão: uma migração já aplicada não
+ * pode mudar de resultado quando a classe da aplicação evoluir.
+ */
+public class V8__Normalizar_chaves_telefone extends BaseJavaMigration {
+
+    private static final int BATCH_SIZE = 1000;
+    private static final long TAG_PHONE = 3L << 60;
+
+    // DDDs atribuídos pela ANATEL
+    private static final boolean[] VALID_DDD = new boolean[100];
+
+    static {
+        int[] ddds = {
+                11, 12, 13, 14, 15, 16, 17, 18, 19,
+                21, 22, 24, 27, 28,
+                31, 32, 33, 34, 35, 37, 38,
+                41, 42, 43, 44, 45, 46, 47, 48, 49,
+                51, 53, 54, 55,
+                61, 62, 63, 64, 65, 66, 67, 68, 69,
+                71, 73, 74, 75, 77, 79,
+                81, 82, 83, 84, 85, 86, 87, 88, 89,
+                91, 92, 93, 94, 95, 96, 97, 98, 99};
+        for (int ddd : ddds) {
+            VALID_DDD[ddd] = true;
+        }
+    }
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        long lastId = 0;
+        int updated = 0;
+        try (PreparedStatement select = connection.prepareStatement(
+                "SELECT id, pix_key FROM pix_validations WHERE pix_key_type = 'PHONE' AND id > ? ORDER BY id LIMIT " + BATCH_SIZE);
+             PreparedStatement update = connection.prepareStatement(
+                     "UPDATE pix_validations SET pix_key = ?, key_hash = ? WHERE id = ?")) {
+            while (true) {
+                select.setLong(1, lastId);
+                int rows = 0;
+                try (ResultSet rs = select.executeQuery()) {
+                    while (rs.next()) {
+                        rows++;
+                        lastId = rs.getLong(1);
+                        String pixKey = rs.getString(2);
+                        String e164 = normalizePhone(pixKey);
+                        if (e164 == null || e164.equals(pixKey)) continue;
+                        update.setString(1, e164);
+                        update.setLong(2, TAG_PHONE | Long.parseLong(e164, 1, e164.length(), 10));
+                        update.setLong(3, lastId);
+                        update.addBatch();
+                        updated++;
+                    }
+                }
+                if (rows == 0) break;
+                update.executeBatch();
+            }
+        }
+        System.out.println("[INIT] Chaves de telefone normalizadas para E.164 em " + updated + " validações.");
+    }
+
+    // E.164 com "+", ou null se não é um telefone válido
+    private static String normalizePhone(String key) {
+        if (key == null) return null;
+        String s = key.trim();
+        boolean international = s.startsWith("+");
+        boolean formatted = false;
+        StringBuilder digits = new StringBuilder(16);
+        for (int i = international ? 1 : 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits.append(c);
+            } else if (c == ' ' || c == '-' || c == '(' || c == ')') {
+                formatted = true;
+            } else {
+                return null;
+            }
+        }
+        if (digits.length() > 17) return null;
+
+        String number = digits.toString();
+        if (!international && number.startsWith("00")) {
+            number = number.substring(2);
+        } else if (!international && number.startsWith("0")) {
+            // 0 + DDD + número, ou 0 + operadora (2 dígitos) + DDD + número
+            number = number.substring(1);
+            if (number.length() == 12 || number.length() == 13) number = number.substring(2);
+            if (number.length() != 10 && number.length() != 11) return null;
+            number = "55" + number;
+        } else if (!international && formatted && (number.length() == 10 || number.length() == 11)) {
+            number = "55" + number;
+        }
+
+        if (number.length() < 11 || number.length() > 15 || number.charAt(0) == '0') return null;
+        if (number.startsWith("55")) {
+            int subscriber = number.length() - 4;
+            if (!VALID_DDD[(number.charAt(2) - '0') * 10 + (number.charAt(3) - '0')]) return null;
+            if (subscriber != 8 && subscriber != 9) return null;
+            if (subscriber == 9 && number.charAt(4) != '9') return null;
+        }
+        return "+" + number;
+    }
+}
@@ -0,0 +1,23 @@
+-- Posição de publicação do outbox, atribuída em ordem de commit (OutboxStore.assignSequences).
+-- O id vem de uma sequence e é pego no INSERT: uma transação longa (ex: reenvio do arquivo de contingência)
+-- pode confirmar ids menores depois de outras já lidas pelos consumidores, que pulariam esses eventos.
+-- A posição só é dada a linhas já confirmadas, uma rodada por vez (lock em outbox_sequencer), então ela
+-- nunca aparece fora de ordem para quem lê.
+
+ALTER TABLE validation_outbox ADD COLUMN publish_sequence BIGINT;
+
+-- Linhas existentes mantêm o id como posição: os cursores já gravados continuam válidos
+UPDATE validation_outbox SET publish_sequence = id;
+
+CREATE UNIQUE INDEX idx_validation_outbox_publish_sequence ON validation_outbox (publish_sequence);
+
+-- Última posição atribuída (linha única, também usada como lock da numeração). Começa depois de tudo o que
+-- algum consumidor já confirmou, mesmo que essas linhas já tenham sido removidas pela limpeza.
+CREATE TABLE outbox_sequencer (
+    id            INT    NOT NULL PRIMARY KEY,
+    last_sequence BIGINT NOT NULL
+);
+
+INSERT INTO outbox_sequencer (id, last_sequence)
+VALUES (1, GREATEST(COALESCE((SELECT MAX(id) FROM validation_outbox), 0),
+                    COALESCE((SELECT MAX(last_sequence) FROM outbox_cursors), 0)));
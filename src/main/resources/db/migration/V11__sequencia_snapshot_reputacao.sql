@@ -0,0 +1,22 @@
+-- Posição das rejeições no snapshot de reputação (DegradedModeSnapshot), atribuída em ordem de commit pelo
+-- ReputationSequencer, como a posição de publicação do outbox (V10). O watermark do snapshot era o maior id
+-- gravado há alguns segundos, mas uma transação longa (ex: reenvio do arquivo de contingência) pode confirmar
+-- ids menores bem depois, e essas rejeições nunca entravam no arquivo.
+-- Só validações rejeitadas recebem posição.
+
+ALTER TABLE pix_validations ADD COLUMN snapshot_sequence BIGINT;
+
+-- Rejeições existentes mantêm o id como posição
+UPDATE pix_validations SET snapshot_sequence = id WHERE is_valid = FALSE;
+
+-- Rejeições ainda sem posição e faixas de posição (leitura do delta do snapshot)
+CREATE INDEX idx_pix_validations_snapshot_sequence ON pix_validations (is_valid, snapshot_sequence);
+
+-- Última posição atribuída (linha única, também usada como lock da numeração)
+CREATE TABLE reputation_sequencer (
+    id            INT    NOT NULL PRIMARY KEY,
+    last_sequence BIGINT NOT NULL
+);
+
+INSERT INTO reputation_sequencer (id, last_sequence)
+VALUES (1, COALESCE((SELECT MAX(id) FROM pix_validations WHERE is_valid = FALSE), 0));
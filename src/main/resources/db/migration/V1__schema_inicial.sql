@@ -0,0 +1,31 @@
+-- Esquema inicial, equivalente ao que o Hibernate gerava com ddl-auto=update.
+-- Bancos já existentes (criados pelo Hibernate) são marcados nesta versão pelo baseline do Flyway.
+
+CREATE TABLE users (
+    id       BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    username VARCHAR(255) NOT NULL UNIQUE,
+    password VARCHAR(255) NOT NULL,
+    role     VARCHAR(255) NOT NULL
+);
+
+CREATE TABLE trusted_banks (
+    code VARCHAR(255) NOT NULL PRIMARY KEY,
+    name VARCHAR(255) NOT NULL
+);
+
+CREATE TABLE pix_validations (
+    id                   BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    pix_key              VARCHAR(100) NOT NULL,
+    pix_key_type         VARCHAR(50)  NOT NULL,
+    recipient_name       VARCHAR(255),
+    recipient_document   VARCHAR(255),
+    amount               DOUBLE PRECISION,
+    is_valid             BOOLEAN      NOT NULL,
+    fraud_reason         VARCHAR(500) NOT NULL,
+    bank_code            VARCHAR(10),
+    bank_name            VARCHAR(255),
+    validation_timestamp TIMESTAMP(6) NOT NULL
+);
+
+-- Consulta de histórico por chave (countByPixKeyAndIsValidFalse)
+CREATE INDEX idx_pix_validations_pix_key ON pix_validations (pix_key);
@@ -0,0 +1,34 @@
+-- Diretório de participantes PIX: a tabela trusted_banks passa a ser identificada pelo ISPB
+-- (todo participante tem ISPB, mas nem todo participante tem código COMPE).
+-- A tabela é recriada porque a chave primária muda; os bancos do seed original são preservados
+-- com seus ISPBs. Demais linhas são recarregadas pela importação do arquivo de participantes.
+
+CREATE TABLE pix_participants (
+    ispb             VARCHAR(8)   NOT NULL PRIMARY KEY,
+    compe_code       VARCHAR(3)   UNIQUE,
+    name             VARCHAR(255) NOT NULL,
+    participant_type VARCHAR(50),
+    status           VARCHAR(20)  NOT NULL,
+    updated_at       TIMESTAMP(6) NOT NULL
+);
+
+INSERT INTO pix_participants (ispb, compe_code, name, participant_type, status, updated_at)
+SELECT CASE code
+           WHEN '001' THEN '00000000'
+           WHEN '104' THEN '00360305'
+           WHEN '237' THEN '60746948'
+           WHEN '341' THEN '60701190'
+           WHEN '033' THEN '90400888'
+           WHEN '260' THEN '18236120'
+           WHEN '077' THEN '00416968'
+           WHEN '290' THEN '08561701'
+           WHEN '323' THEN '10573521'
+           WHEN '380' THEN '22896431'
+       END,
+       code, name, NULL, 'ATIVO', CURRENT_TIMESTAMP
+FROM trusted_banks
+WHERE code IN ('001', '104', '237', '341', '033', '260', '077', '290', '323', '380');
+
+DROP TABLE trusted_banks;
+
+ALTER TABLE pix_participants RENAME TO trusted_banks;
@@ -0,0 +1,9 @@
+-- Código canônico da chave PIX (PixKeyCodec): CPF, CNPJ e telefone guardados como número, e-mail e EVP
+-- por hash, com o tipo nos bits mais altos. O histórico de fraudes passa a ser consultado por ele, o que
+-- também torna a consulta independente de caixa e do "+" do telefone.
+-- As linhas existentes são preenchidas pela migração Java V4 (a codificação não é expressável em SQL).
+
+ALTER TABLE pix_validations ADD COLUMN key_hash BIGINT;
+
+-- Consulta de histórico por chave (countByKeyHashAndIsValidFalse)
+CREATE INDEX idx_pix_validations_key_hash ON pix_validations (key_hash, is_valid);
@@ -0,0 +1,21 @@
+-- Outbox das decisões de validação: cada linha é gravada na mesma transação da validação e publicada
+-- em ordem de id pelo OutboxRelay. event_id é o identificador idempotente entregue aos consumidores.
+
+CREATE TABLE validation_outbox (
+    id            BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    event_id      VARCHAR(36)   NOT NULL UNIQUE,
+    event_type    VARCHAR(50)   NOT NULL,
+    validation_id BIGINT        NOT NULL,
+    payload       VARCHAR(4000) NOT NULL,
+    created_at    TIMESTAMP(6)  NOT NULL
+);
+
+-- Última posição (id do outbox) entregue a cada consumidor
+CREATE TABLE outbox_cursors (
+    consumer      VARCHAR(100) NOT NULL PRIMARY KEY,
+    last_sequence BIGINT       NOT NULL,
+    updated_at    TIMESTAMP(6) NOT NULL
+);
+
+-- Limpeza por retenção (OutboxStore.cleanup)
+CREATE INDEX idx_validation_outbox_created_at ON validation_outbox (created_at);
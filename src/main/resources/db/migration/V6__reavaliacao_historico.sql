@@ -0,0 +1,32 @@
+-- Reavaliação do histórico com pesos candidatos (RescoringService). Só o resultado agregado e uma amostra
+-- das validações cuja decisão mudaria são gravados; pix_validations é apenas lida.
+
+CREATE TABLE rescoring_runs (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    status          VARCHAR(20)   NOT NULL,
+    range_from      TIMESTAMP(6)  NOT NULL,
+    range_to        TIMESTAMP(6)  NOT NULL,
+    rules           VARCHAR(2000) NOT NULL,
+    rows_total      BIGINT        NOT NULL,
+    rows_scanned    BIGINT        NOT NULL,
+    summary         VARCHAR(4000),
+    error           VARCHAR(500),
+    started_at      TIMESTAMP(6)  NOT NULL,
+    finished_at     TIMESTAMP(6)
+);
+
+-- Amostra das validações cuja decisão muda entre os pesos em produção e os candidatos
+CREATE TABLE rescoring_flips (
+    run_id          BIGINT       NOT NULL REFERENCES rescoring_runs (id),
+    validation_id   BIGINT       NOT NULL,
+    pix_key_type    VARCHAR(50)  NOT NULL,
+    bank_code       VARCHAR(10),
+    stored_valid    BOOLEAN      NOT NULL,
+    baseline_score  INT          NOT NULL,
+    candidate_score INT          NOT NULL,
+    candidate_valid BOOLEAN      NOT NULL,
+    PRIMARY KEY (run_id, validation_id)
+);
+
+-- Localiza a faixa de ids de um período sem varrer pix_validations
+CREATE INDEX idx_pix_validations_timestamp ON pix_validations (validation_timestamp);
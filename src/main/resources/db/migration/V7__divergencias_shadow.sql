@@ -0,0 +1,17 @@
+-- Divergências entre a decisão em produção e a de pesos candidatos avaliados em modo sombra
+-- (ShadowScoringService). Só os scores e a decisão; os dados da validação ficam em pix_validations.
+
+CREATE TABLE shadow_disagreements (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    candidate       VARCHAR(50)  NOT NULL,
+    validation_id   BIGINT,
+    pix_key_type    VARCHAR(50)  NOT NULL,
+    bank_code       VARCHAR(10),
+    live_valid      BOOLEAN      NOT NULL,
+    live_score      SMALLINT     NOT NULL,
+    candidate_score SMALLINT     NOT NULL,
+    created_at      TIMESTAMP(6) NOT NULL
+);
+
+-- Limpeza por retenção (ShadowDisagreementStore.cleanup)
+CREATE INDEX idx_shadow_disagreements_created_at ON shadow_disagreements (created_at);
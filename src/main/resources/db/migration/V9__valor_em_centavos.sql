@@ -0,0 +1,7 @@
+-- Valor da transação em centavos (inteiro), no lugar do DOUBLE PRECISION: comparações e somas exatas.
+-- Validações antigas sem valor ficam com 0 (valor não informado).
+ALTER TABLE pix_validations ADD COLUMN amount_cents BIGINT DEFAULT 0 NOT NULL;
+
+UPDATE pix_validations SET amount_cents = CAST(ROUND(amount * 100) AS BIGINT) WHERE amount IS NOT NULL;
+
+ALTER TABLE pix_validations DROP COLUMN amount;
@@ -0,0 +1,136 @@
+package br.com.bradesco.safeboleto.controllers;
+
+import br.com.bradesco.safeboleto.dto.PixValidationRequest;
+import br.com.bradesco.safeboleto.dto.PixValidationResponse;
+import br.com.bradesco.safeboleto.services.scoring.RiskReason;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Micro-benchmark do formato na rede de {@code /api/pix/valida}: bytes e CPU por requisição (leitura do corpo da
+ * requisição mais escrita da resposta) em JSON e CBOR, com a resposta completa e só com os códigos
+ * ({@code X-Response-Detail: codes}). Os mappers são montados como os conversores do Spring MVC.
+ *
+ * Fora do build padrão; execute com: {@code mvn -B test -Pbenchmark}
+ *
+ * Parâmetros (via -D):
+ * <ul>
+ *   <li>{@code benchmark.iterations}: requisições em cada rodada (padrão 500.000)</li>
+ *   <li>{@code benchmark.max-ns-per-op}: CPU máxima aceita por requisição em qualquer formato (padrão 20000 ns)</li>
+ * </ul>
+ */
+@Tag("benchmark")
+class WireFormatBenchmarkTest {
+
+    private static final int CORPUS = 1_000;
+
+    private final int iterations = Integer.getInteger("benchmark.iterations", 500_000);
+    private final long maxNanosPerOp = Long.getLong("benchmark.max-ns-per-op", 20_000);
+
+    private final ObjectMapper json = Jackson2ObjectMapperBuilder.json().build();
+    private final ObjectMapper cbor = Jackson2ObjectMapperBuilder.json().factory(new CBORFactory()).build();
+
+    @Test
+    void bytesECpuPorRequisicao() throws Exception {
+        PixValidationRequest[] requests = new PixValidationRequest[CORPUS];
+        PixValidationResponse[] responses = new PixValidationResponse[CORPUS];
+        PixValidationResponse[] codesOnly = new PixValidationResponse[CORPUS];
+        for (int i = 0; i < CORPUS; i++) {
+            requests[i] = request(i);
+            responses[i] = response(requests[i], i);
+            codesOnly[i] = response(requests[i], i);
+            codesOnly[i].setMessage(null);
+        }
+
+        Result jsonFull = measure("JSON", json, requests, responses);
+        Result jsonCodes = measure("JSON codes", json, requests, codesOnly);
+        Result cborFull = measure("CBOR", cbor, requests, responses);
+        Result cborCodes = measure("CBOR codes", cbor, requests, codesOnly);
+
+        System.out.println("========== BENCHMARK FORMATO NA REDE ==========");
+        System.out.printf("Requisições por rodada: %d%n", iterations);
+        System.out.println("Formato       | req (bytes) | resp (bytes) | CPU (ns/req)");
+        for (Result result : List.of(jsonFull, jsonCodes, cborFull, cborCodes)) {
+            System.out.printf("%-13s | %11.1f | %12.1f | %12.0f%n",
+                    result.name(), result.requestBytes(), result.responseBytes(), result.cpuNanos());
+        }
+        System.out.printf("CBOR codes vs JSON: %.0f%% dos bytes, %.0f%% da CPU%n",
+                100 * (cborCodes.requestBytes() + cborCodes.responseBytes()) / (jsonFull.requestBytes() + jsonFull.responseBytes()),
+                100 * cborCodes.cpuNanos() / jsonFull.cpuNanos());
+        System.out.println("===============================================");
+
+        assertTrue(cborCodes.responseBytes() < jsonFull.responseBytes(), "Resposta CBOR só com códigos não ficou menor que a JSON");
+        for (Result result : List.of(jsonFull, jsonCodes, cborFull, cborCodes)) {
+            assertTrue(result.cpuNanos() <= maxNanosPerOp, result.name() + " acima do limite: " + result.cpuNanos() + " ns");
+        }
+    }
+
+    private record Result(String name, double requestBytes, double responseBytes, double cpuNanos) {
+    }
+
+    private Result measure(String name, ObjectMapper mapper, PixValidationRequest[] requests,
+                           PixValidationResponse[] responses) throws Exception {
+        byte[][] bodies = new byte[CORPUS][];
+        long requestBytes = 0, responseBytes = 0;
+        for (int i = 0; i < CORPUS; i++) {
+            bodies[i] = mapper.writeValueAsBytes(requests[i]);
+            requestBytes += bodies[i].length;
+            responseBytes += mapper.writeValueAsBytes(responses[i]).length;
+        }
+
+        // Aquecimento: deixa o JIT compilar o caminho antes de medir
+        run(mapper, bodies, responses, iterations / 5);
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        long cpuStart = threads.getCurrentThreadCpuTime();
+        run(mapper, bodies, responses, iterations);
+        long cpu = threads.getCurrentThreadCpuTime() - cpuStart;
+        return new Result(name, requestBytes / (double) CORPUS, responseBytes / (double) CORPUS, cpu / (double) iterations);
+    }
+
+    private static void run(ObjectMapper mapper, byte[][] bodies, PixValidationResponse[] responses, int count)
+            throws Exception {
+        long sink = 0;
+        for (int i = 0; i < count; i++) {
+            int n = i % CORPUS;
+            PixValidationRequest request = mapper.readValue(bodies[n], PixValidationRequest.class);
+            sink += request.getAmount() + mapper.writeValueAsBytes(responses[n]).length;
+        }
+        assertTrue(sink > 0);
+    }
+
+    private static PixValidationRequest request(int i) {
+        PixValidationRequest request = new PixValidationRequest();
+        request.setPixKey(switch (i % 4) {
+            case 0 -> String.format("%011d", 10_000_000_000L + i * 7919L);
+            case 1 -> "cliente" + i + "@empresa.com.br";
+            case 2 -> "+55119" + String.format("%08d", i * 31L);
+            default -> "123e4567-e89b-12d3-a456-" + String.format("%012d", i);
+        });
+        request.setRecipientName("Beneficiário Número " + i + " da Silva");
+        request.setRecipientDocument(String.format("%011d", 20_000_000_000L + i * 104_729L));
+        request.setAmount(1_000 + (i * 7_919L) % 2_000_000);
+        request.setBankCode(i % 3 == 0 ? "237" : "001");
+        return request;
+    }
+
+    private static PixValidationResponse response(PixValidationRequest request, int i) {
+        boolean valid = i % 5 != 0;
+        List<String> codes = valid ? List.of() : RiskReason.codes(
+                RiskReason.SUSPICIOUS_AMOUNT.bit() | RiskReason.FRAUD_HISTORY.bit());
+        String message = valid
+                ? "Transação PIX válida e segura. Score de risco: 0/100"
+                : "⚠️ TRANSAÇÃO SUSPEITA DE FRAUDE! Motivos: Valor acima do limite noturno (R$ 1.000,00). "
+                + "Chave PIX tem histórico de tentativas fraudulentas (4 tentativas).";
+        return new PixValidationResponse(valid, request.getPixKey(), "EMAIL", request.getRecipientName(),
+                request.getBankCode(), "Banco Bradesco S.A.", message, codes, valid ? 0 : 70, false);
+    }
+}
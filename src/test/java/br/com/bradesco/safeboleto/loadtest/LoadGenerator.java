@@ -0,0 +1,171 @@
+package br.com.bradesco.safeboleto.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+
+/**
+ * Gerador de carga para o endpoint de validação PIX.
+ *
+ * No modo de taxa fixa (open-loop) cada requisição tem um instante de envio planejado e a latência é
+ * medida a partir desse instante, e não do envio real. Assim, atrasos do próprio servidor (ou do gerador)
+ * entram no histograma em vez de serem escondidos (correção de coordinated omission).
+ * No modo de vazão máxima (closed-loop) não há agenda: a correção usa o intervalo esperado entre requisições de
+ * cada cliente derivado de uma taxa alvo informada ({@code concurrency / taxa}); sem taxa alvo, não há correção.
+ */
+class LoadGenerator {
+
+    // Latências registradas em microssegundos, até 60s, com 3 dígitos significativos
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.SECONDS.toMicros(60);
+
+    private final HttpClient httpClient;
+    private final URI targetUri;
+    private final String bearerToken;
+    private final List<String> corpus;
+
+    private final Histogram histogram = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+    private final LongAdder successes = new LongAdder();
+    private final Map<String, LongAdder> failures = new ConcurrentHashMap<>();
+    private final AtomicLong corpusCursor = new AtomicLong();
+
+    LoadGenerator(URI targetUri, String bearerToken, List<String> corpus) {
+        if (corpus.isEmpty()) {
+            throw new IllegalArgumentException("O corpus de requisições está vazio.");
+        }
+        this.targetUri = targetUri;
+        this.bearerToken = bearerToken;
+        this.corpus = corpus;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+    }
+
+    /**
+     * Dispara requisições em taxa fixa (requisições/segundo), independentemente do tempo de resposta.
+     * {@code maxInFlight} limita apenas as conexões simultâneas; o tempo de espera por uma vaga conta como latência.
+     */
+    LoadTestReport.Measurement runOpenLoop(double ratePerSecond, Duration warmup, Duration duration, int maxInFlight)
+            throws InterruptedException {
+        long periodNanos = (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond);
+        long start = System.nanoTime();
+        long measureFrom = start + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+        Semaphore inFlight = new Semaphore(maxInFlight);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long i = 0; ; i++) {
+                long intendedStart = start + i * periodNanos;
+                if (intendedStart >= end) break;
+                long wait = intendedStart - System.nanoTime();
+                if (wait > 0) LockSupport.parkNanos(wait);
+
+                boolean measured = intendedStart >= measureFrom;
+                executor.submit(() -> {
+                    inFlight.acquireUninterruptibly();
+                    try {
+                        send(intendedStart, measured);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+        } // close() aguarda as requisições pendentes
+
+        return snapshot("open-loop", ratePerSecond, duration, maxInFlight, null);
+    }
+
+    /**
+     * Dispara requisições o mais rápido possível com {@code concurrency} clientes em loop fechado.
+     * Com {@code expectedRatePerSecond > 0}, cada amostra é registrada também no histograma corrigido com o
+     * intervalo esperado de cada cliente nessa taxa; com 0 o histograma corrigido é o próprio registrado.
+     */
+    LoadTestReport.Measurement runClosedLoop(Duration warmup, Duration duration, int concurrency,
+                                             double expectedRatePerSecond) throws InterruptedException {
+        Histogram corrected = expectedRatePerSecond > 0 ? new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3) : null;
+        long expectedIntervalMicros = expectedRatePerSecond > 0
+                ? Math.max(1, (long) (TimeUnit.SECONDS.toMicros(1) * concurrency / expectedRatePerSecond))
+                : 0;
+        long start = System.nanoTime();
+        long measureFrom = start + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < concurrency; c++) {
+                executor.submit(() -> {
+                    long now;
+                    while ((now = System.nanoTime()) < end) {
+                        long latencyMicros = send(now, now >= measureFrom);
+                        // Intervalo fixo da taxa alvo, e não a média observada: a média já inclui as esperas a corrigir
+                        if (corrected != null && latencyMicros > 0) {
+                            corrected.recordValueWithExpectedInterval(latencyMicros, expectedIntervalMicros);
+                        }
+                    }
+                });
+            }
+        }
+
+        return snapshot("closed-loop", expectedRatePerSecond, duration, concurrency, corrected);
+    }
+
+    // Latência registrada em microssegundos, ou 0 se a amostra não entra na medição
+    private long send(long intendedStartNanos, boolean measured) {
+        String body = corpus.get((int) (corpusCursor.getAndIncrement() % corpus.size()));
+        HttpRequest request = HttpRequest.newBuilder(targetUri)
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .header("Authorization", "Bearer " + bearerToken)
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+
+        String outcome;
+        try {
+            HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+            outcome = response.statusCode() / 100 == 2 ? null : "HTTP " + response.statusCode();
+        } catch (Exception e) {
+            outcome = e.getClass().getSimpleName();
+        }
+
+        if (!measured) return 0;
+
+        long latencyMicros = Math.min(Math.max(
+                TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intendedStartNanos), 1), HIGHEST_TRACKABLE_MICROS);
+        histogram.recordValue(latencyMicros);
+        if (outcome == null) {
+            successes.increment();
+        } else {
+            failures.computeIfAbsent(outcome, k -> new LongAdder()).increment();
+        }
+        return latencyMicros;
+    }
+
+    private LoadTestReport.Measurement snapshot(String mode, double targetRate, Duration duration, int concurrency,
+                                                Histogram corrected) {
+        Histogram recorded = histogram.copy();
+        return new LoadTestReport.Measurement(
+                mode, targetRate, duration, concurrency,
+                successes.sum(),
+                failures.entrySet().stream()
+                        .collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().sum())),
+                recorded,
+                corrected != null ? corrected : recorded
+        );
+    }
+}
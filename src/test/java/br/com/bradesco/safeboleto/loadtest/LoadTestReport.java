@@ -0,0 +1,132 @@
+package br.com.bradesco.safeboleto.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Relatório de uma execução do teste de carga, gravado em JSON para comparação entre versões.
+ * O histograma corrigido é incluído de forma compacta (HdrHistogram comprimido em Base64), permitindo
+ * recalcular qualquer percentil ou somar execuções posteriormente.
+ */
+record LoadTestReport(
+        Instant timestamp,
+        String mode,
+        double targetRatePerSecond,
+        long durationSeconds,
+        int concurrency,
+        long requests,
+        long successes,
+        Map<String, Long> failures,
+        double throughputPerSecond,
+        Map<String, Double> latencyMillis,
+        Map<String, Double> uncorrectedLatencyMillis,
+        String correctedHistogram,
+        Map<String, Double> comparison
+) {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .enable(SerializationFeature.INDENT_OUTPUT);
+
+    /**
+     * Resultado bruto de uma execução do {@link LoadGenerator}.
+     */
+    record Measurement(String mode, double targetRate, Duration duration, int concurrency,
+                       long successes, Map<String, Long> failures,
+                       Histogram recorded, Histogram corrected) {
+    }
+
+    static LoadTestReport from(Measurement m) {
+        long failed = m.failures().values().stream().mapToLong(Long::longValue).sum();
+        long total = m.successes() + failed;
+        return new LoadTestReport(
+                Instant.now(), m.mode(), m.targetRate(), m.duration().toSeconds(), m.concurrency(),
+                total, m.successes(), m.failures(),
+                total / (double) Math.max(1, m.duration().toSeconds()),
+                percentiles(m.corrected()),
+                percentiles(m.recorded()),
+                encode(m.corrected()),
+                null
+        );
+    }
+
+    /**
+     * Retorna uma cópia do relatório com a variação percentual de vazão e latências em relação a {@code baseline}.
+     * Valores positivos em latência indicam regressão; em vazão, melhoria.
+     */
+    LoadTestReport comparedTo(LoadTestReport baseline) {
+        Map<String, Double> delta = new LinkedHashMap<>();
+        delta.put("throughputPerSecond", percentChange(baseline.throughputPerSecond(), throughputPerSecond));
+        latencyMillis.forEach((percentile, value) -> {
+            Double before = baseline.latencyMillis().get(percentile);
+            if (before != null) delta.put(percentile, percentChange(before, value));
+        });
+        return new LoadTestReport(timestamp, mode, targetRatePerSecond, durationSeconds, concurrency, requests,
+                successes, failures, throughputPerSecond, latencyMillis, uncorrectedLatencyMillis,
+                correctedHistogram, delta);
+    }
+
+    double errorRatio() {
+        return requests == 0 ? 0 : (requests - successes) / (double) requests;
+    }
+
+    Path writeTo(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        Path file = directory.resolve("loadtest-report-" + timestamp.toEpochMilli() + ".json");
+        MAPPER.writeValue(file.toFile(), this);
+        return file;
+    }
+
+    static LoadTestReport read(Path file) throws IOException {
+        return MAPPER.readValue(file.toFile(), LoadTestReport.class);
+    }
+
+    String summary() {
+        StringBuilder sb = new StringBuilder()
+                .append("[LOADTEST] modo=").append(mode)
+                .append(" requisições=").append(requests)
+                .append(" sucesso=").append(successes)
+                .append(" falhas=").append(failures)
+                .append(String.format(" vazão=%.1f req/s", throughputPerSecond))
+                .append(" latência(ms)=").append(latencyMillis);
+        if (comparison != null) {
+            sb.append(" variação(%)=").append(comparison);
+        }
+        return sb.toString();
+    }
+
+    private static Map<String, Double> percentiles(Histogram h) {
+        Map<String, Double> values = new LinkedHashMap<>();
+        values.put("p50", h.getValueAtPercentile(50.0) / 1000.0);
+        values.put("p90", h.getValueAtPercentile(90.0) / 1000.0);
+        values.put("p99", h.getValueAtPercentile(99.0) / 1000.0);
+        values.put("p999", h.getValueAtPercentile(99.9) / 1000.0);
+        values.put("max", h.getMaxValue() / 1000.0);
+        return values;
+    }
+
+    private static String encode(Histogram h) {
+        ByteBuffer buffer = ByteBuffer.allocate(h.getNeededByteBufferCapacity());
+        int length = h.encodeIntoCompressedByteBuffer(buffer);
+        byte[] bytes = new byte[length];
+        buffer.flip();
+        buffer.get(bytes);
+        return Base64.getEncoder().encodeToString(bytes);
+    }
+
+    private static double percentChange(double before, double after) {
+        return before == 0 ? 0 : Math.round((after - before) / before * 1000.0) / 10.0;
+    }
+}
@@ -0,0 +1,115 @@
+package br.com.bradesco.safeboleto.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.Resource;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Teste de carga do endpoint {@code POST /api/pix/valida}, executado sobre a aplicação completa com o perfil H2.
+ * Fica fora do build padrão; execute com {@code mvn -B test -Ploadtest}.
+ *
+ * Parâmetros (propriedades de sistema):
+ * <ul>
+ *   <li>{@code loadtest.corpus}: corpus JSONL (padrão {@code classpath:loadtest/corpus.jsonl})</li>
+ *   <li>{@code loadtest.rate}: requisições/segundo em open-loop; {@code 0} para vazão máxima (padrão 200)</li>
+ *   <li>{@code loadtest.expected-rate}: em vazão máxima, taxa alvo (requisições/segundo) usada na correção de
+ *       coordinated omission; {@code 0} para não corrigir (padrão 0)</li>
+ *   <li>{@code loadtest.duration} / {@code loadtest.warmup}: segundos de medição e de aquecimento (padrão 30 / 10)</li>
+ *   <li>{@code loadtest.concurrency}: máximo de requisições simultâneas (padrão 64)</li>
+ *   <li>{@code loadtest.baseline}: relatório anterior para comparação</li>
+ *   <li>{@code loadtest.max-error-ratio}: proporção máxima de falhas aceita (padrão 0.01)</li>
+ * </ul>
+ */
+// Todas as requisições saem do mesmo usuário: o limite por cliente mediria o limitador, não o serviço
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "app.rate-limit.enabled=false")
+@ActiveProfiles("h2")
+@Tag("loadtest")
+class PixLoadTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void replayCorpus() throws Exception {
+        String corpusLocation = System.getProperty("loadtest.corpus", "classpath:loadtest/corpus.jsonl");
+        double rate = Double.parseDouble(System.getProperty("loadtest.rate", "200"));
+        double expectedRate = Double.parseDouble(System.getProperty("loadtest.expected-rate", "0"));
+        Duration duration = Duration.ofSeconds(Long.getLong("loadtest.duration", 30));
+        Duration warmup = Duration.ofSeconds(Long.getLong("loadtest.warmup", 10));
+        int concurrency = Integer.getInteger("loadtest.concurrency", 64);
+        double maxErrorRatio = Double.parseDouble(System.getProperty("loadtest.max-error-ratio", "0.01"));
+
+        List<String> corpus = loadCorpus(corpusLocation);
+        LoadGenerator generator = new LoadGenerator(
+                URI.create("http://localhost:" + port + "/api/pix/valida"), login(), corpus);
+
+        LoadTestReport.Measurement measurement = rate > 0
+                ? generator.runOpenLoop(rate, warmup, duration, concurrency)
+                : generator.runClosedLoop(warmup, duration, concurrency, expectedRate);
+
+        LoadTestReport report = LoadTestReport.from(measurement);
+        String baseline = System.getProperty("loadtest.baseline");
+        if (baseline != null && !baseline.isBlank()) {
+            report = report.comparedTo(LoadTestReport.read(Path.of(baseline)));
+        }
+
+        Path file = report.writeTo(Path.of("target", "loadtest"));
+        System.out.println(report.summary());
+        System.out.println("[LOADTEST] Relatório gravado em " + file.toAbsolutePath());
+
+        assertThat(report.requests()).isPositive();
+        assertThat(report.errorRatio()).isLessThanOrEqualTo(maxErrorRatio);
+    }
+
+    private String login() throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"username\":\"admin\",\"password\":\"password\"}"))
+                .build();
+        HttpResponse<String> response = HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofString());
+        assertThat(response.statusCode()).isEqualTo(200);
+        return objectMapper.readTree(response.body()).get("token").asText();
+    }
+
+    // Cada linha é um PixValidationRequest em JSON. Linhas no formato de backlog ({"body": {...}}) também são aceitas.
+    private List<String> loadCorpus(String location) throws IOException {
+        Resource resource = new DefaultResourceLoader().getResource(location);
+        List<String> bodies = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) continue;
+                JsonNode node = objectMapper.readTree(line);
+                JsonNode body = node.has("body") ? node.get("body") : node;
+                bodies.add(body.isTextual() ? body.asText() : objectMapper.writeValueAsString(body));
+            }
+        }
+        return bodies;
+    }
+}
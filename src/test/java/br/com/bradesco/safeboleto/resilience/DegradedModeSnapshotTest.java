@@ -0,0 +1,95 @@
+package br.com.bradesco.safeboleto.resilience;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Snapshot de reputação sobre o esquema real (Flyway, H2), com o arquivo ligado em um diretório temporário.
+ * Cada teste é desfeito ao final.
+ */
+@SpringBootTest
+@ActiveProfiles("h2")
+@Transactional
+class DegradedModeSnapshotTest {
+
+    private static final long KEY = 7_000_000_001L;
+
+    @TempDir
+    static Path dir;
+
+    @DynamicPropertySource
+    static void snapshotFile(DynamicPropertyRegistry registry) {
+        registry.add("app.reputation.snapshot-enabled", () -> "true");
+        registry.add("app.reputation.snapshot-file", () -> dir.resolve("reputation.snap").toString());
+        registry.add("app.reputation.snapshot-interval-ms", () -> "3600000");
+    }
+
+    @Autowired
+    private DegradedModeSnapshot snapshot;
+
+    @Autowired
+    private ReputationSequencer sequencer;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void lateCommittedRejectionEntersNextSnapshot() throws IOException {
+        insertRejection(9_000_002L, KEY);
+        snapshot.refreshSnapshot();
+        assertThat(file().rejectedCount(KEY)).isEqualTo(1);
+
+        // Id menor que o da rejeição já incluída, confirmado depois (ex: reenvio do arquivo de contingência)
+        insertRejection(9_000_001L, KEY);
+        snapshot.refreshSnapshot();
+
+        assertThat(file().rejectedCount(KEY)).isEqualTo(2);
+        assertThat(snapshot.rejectedCount(KEY)).isEqualTo(2);
+    }
+
+    @Test
+    void readerAdoptsNewerBaseOverOlderCounts() throws IOException {
+        insertRejection(9_000_003L, KEY);
+        snapshot.refreshSnapshot();
+        ReflectionTestUtils.setField(snapshot, "snapshotWriter", false);
+        try {
+            snapshot.rememberRejectedCount(KEY, 1);
+
+            // Outra instância grava o arquivo com mais rejeições da chave
+            long head = sequencer.head() + 4;
+            jdbcTemplate.update("UPDATE reputation_sequencer SET last_sequence = ? WHERE id = 1", head);
+            ReputationSnapshot.write(dir.resolve("reputation.snap"), head, new long[]{KEY}, new int[]{5}, 1,
+                    new long[0], new long[0]);
+            snapshot.refreshSnapshot();
+
+            assertThat(snapshot.rejectedCount(KEY)).isEqualTo(5);
+        } finally {
+            ReflectionTestUtils.setField(snapshot, "snapshotWriter", true);
+        }
+    }
+
+    private ReputationSnapshot file() throws IOException {
+        return ReputationSnapshot.open(dir.resolve("reputation.snap"));
+    }
+
+    private void insertRejection(long id, long keyHash) {
+        jdbcTemplate.update("INSERT INTO pix_validations (id, pix_key, pix_key_type, is_valid, fraud_reason, "
+                        + "validation_timestamp, key_hash) VALUES (?, 'chave', 'EMAIL', FALSE, 'teste', ?, ?)",
+                id, Timestamp.valueOf(LocalDateTime.now()), keyHash);
+    }
+}
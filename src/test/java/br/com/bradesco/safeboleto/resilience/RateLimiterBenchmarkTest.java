@@ -0,0 +1,97 @@
+package br.com.bradesco.safeboleto.resilience;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Micro-benchmark do custo do limitador por requisição ({@link RateLimiterRegistry#tryAcquire}).
+ *
+ * Fora do build padrão; execute com: {@code mvn -B test -Pbenchmark}
+ *
+ * Mede dois cenários após aquecimento: um único cliente disputado por todas as threads (pior caso de CAS
+ * no mesmo balde) e muitos clientes distintos (caso comum, custo dominado pela busca no mapa). O limite
+ * configurado é alto para que o resultado meça a decisão, não a recusa.
+ *
+ * Parâmetros (via -D):
+ * <ul>
+ *   <li>{@code benchmark.threads}: threads concorrentes (padrão 4)</li>
+ *   <li>{@code benchmark.iterations}: chamadas por thread em cada rodada (padrão 2.000.000)</li>
+ *   <li>{@code benchmark.max-ns-per-op}: custo médio máximo aceito por chamada (padrão 2000 ns)</li>
+ * </ul>
+ */
+@Tag("benchmark")
+class RateLimiterBenchmarkTest {
+
+    private static final int CLIENTS = 10_000;
+
+    private final int threads = Integer.getInteger("benchmark.threads", 4);
+    private final int iterations = Integer.getInteger("benchmark.iterations", 2_000_000);
+    private final long maxNanosPerOp = Long.getLong("benchmark.max-ns-per-op", 2_000);
+
+    @Test
+    void custoPorRequisicao() throws Exception {
+        RateLimiterRegistry registry = new RateLimiterRegistry(1e9, 1_000_000_000, 1e9, 1_000_000_000, 1e9,
+                1_000_000_000, 100_000, 60_000);
+        String[] clients = new String[CLIENTS];
+        for (int i = 0; i < CLIENTS; i++) {
+            clients[i] = "usuario-" + i;
+        }
+
+        // Aquecimento: deixa o JIT compilar o caminho antes de medir
+        run(registry, new String[]{"aquecimento"});
+        run(registry, clients);
+
+        double hotKey = run(registry, new String[]{"cliente-unico"});
+        double manyKeys = run(registry, clients);
+
+        System.out.println("========== BENCHMARK RATE LIMIT ==========");
+        System.out.printf("Threads: %d | chamadas por thread: %d%n", threads, iterations);
+        System.out.printf("Cliente único:      %.1f ns/op%n", hotKey);
+        System.out.printf("%d clientes:     %.1f ns/op%n", CLIENTS, manyKeys);
+        System.out.println("==========================================");
+
+        assertTrue(hotKey <= maxNanosPerOp, "Custo por chamada (cliente único) acima do limite: " + hotKey + " ns");
+        assertTrue(manyKeys <= maxNanosPerOp, "Custo por chamada (muitos clientes) acima do limite: " + manyKeys + " ns");
+    }
+
+    // Retorna o tempo médio por chamada, em ns, medido pelo relógio de parede de todas as threads juntas
+    private double run(RateLimiterRegistry registry, String[] clients) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Integer>> tasks = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int offset = t * 7919;
+                tasks.add(executor.submit(() -> {
+                    start.await();
+                    int allowed = 0;
+                    for (int i = 0; i < iterations; i++) {
+                        String client = clients[(offset + i) % clients.length];
+                        if (registry.tryAcquire(RateLimiterRegistry.Scope.USER, client).allowed()) allowed++;
+                    }
+                    return allowed;
+                }));
+            }
+            long begin = System.nanoTime();
+            start.countDown();
+            int allowed = 0;
+            for (Future<Integer> task : tasks) {
+                allowed += task.get();
+            }
+            long elapsed = System.nanoTime() - begin;
+            assertTrue(allowed > 0, "Nenhuma chamada permitida");
+            return elapsed / (double) ((long) threads * iterations);
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
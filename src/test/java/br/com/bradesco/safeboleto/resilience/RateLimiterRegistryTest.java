@@ -0,0 +1,42 @@
+package br.com.bradesco.safeboleto.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Registro com o mapa lotado: baldes já cheios de novo dão lugar a clientes novos antes do balde comum de
+ * excedentes.
+ */
+class RateLimiterRegistryTest {
+
+    @Test
+    void refilledBucketIsEvictedForNewClient() throws InterruptedException {
+        // Login: 50 fichas por segundo (uma a cada 20 ms), rajada 1
+        RateLimiterRegistry registry = registry(50);
+        assertThat(registry.tryAcquire(RateLimiterRegistry.Scope.LOGIN, "10.0.0.1").allowed()).isTrue();
+        Thread.sleep(40);
+
+        assertThat(registry.tryAcquire(RateLimiterRegistry.Scope.LOGIN, "10.0.0.2").allowed()).isTrue();
+        assertThat(registry.size()).isEqualTo(1);
+        // O cliente novo tem o próprio balde (não o de excedentes): a rajada de 1 já foi usada
+        assertThat(registry.tryAcquire(RateLimiterRegistry.Scope.LOGIN, "10.0.0.2").allowed()).isFalse();
+    }
+
+    @Test
+    void activeBucketsSendNewClientsToOverflow() {
+        // Login: uma ficha a cada 10 s, rajada 1
+        RateLimiterRegistry registry = registry(0.1);
+        assertThat(registry.tryAcquire(RateLimiterRegistry.Scope.LOGIN, "10.0.0.1").allowed()).isTrue();
+
+        // 10.0.0.1 ainda não recarregou: o novo cliente vai para o balde de excedentes, criado além do limite
+        assertThat(registry.tryAcquire(RateLimiterRegistry.Scope.LOGIN, "10.0.0.2").allowed()).isTrue();
+        assertThat(registry.size()).isEqualTo(2);
+        assertThat(registry.tryAcquire(RateLimiterRegistry.Scope.LOGIN, "10.0.0.3").allowed()).isFalse();
+    }
+
+    // No máximo 1 cliente no mapa
+    private static RateLimiterRegistry registry(double loginRate) {
+        return new RateLimiterRegistry(20, 40, 100, 200, loginRate, 1, 1, 60_000);
+    }
+}
@@ -0,0 +1,69 @@
+package br.com.bradesco.safeboleto.resilience;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Formato do arquivo de reputação: leitura do que foi gravado e checksum cobrindo cabeçalho e corpo.
+ */
+class ReputationSnapshotTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void readsWhatWasWritten() throws IOException {
+        Path file = write();
+
+        ReputationSnapshot snapshot = ReputationSnapshot.open(file);
+
+        assertThat(snapshot.watermark()).isEqualTo(42);
+        assertThat(snapshot.rejectedCount(20)).isEqualTo(3);
+        assertThat(snapshot.rejectedCount(15)).isZero();
+        assertThat(snapshot.isKeyBlacklisted(7)).isTrue();
+        assertThat(snapshot.isDocumentBlacklisted(8)).isTrue();
+    }
+
+    @Test
+    void rejectsCorruptedWatermark() throws IOException {
+        Path file = write();
+        corrupt(file, 15);
+
+        assertThatThrownBy(() -> ReputationSnapshot.open(file))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("Checksum");
+    }
+
+    @Test
+    void rejectsCorruptedBody() throws IOException {
+        Path file = write();
+        corrupt(file, 40);
+
+        assertThatThrownBy(() -> ReputationSnapshot.open(file))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("Checksum");
+    }
+
+    private Path write() throws IOException {
+        Path file = dir.resolve("reputation.snap");
+        ReputationSnapshot.write(file, 42, new long[]{10, 20, 30}, new int[]{1, 3, 2}, 3,
+                new long[]{7}, new long[]{8});
+        return file;
+    }
+
+    private static void corrupt(Path file, long position) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.seek(position);
+            int value = raf.read();
+            raf.seek(position);
+            raf.write(value ^ 0x01);
+        }
+    }
+}
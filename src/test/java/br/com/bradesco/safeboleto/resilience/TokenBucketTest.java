@@ -0,0 +1,89 @@
+package br.com.bradesco.safeboleto.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Token bucket na forma GCRA, com o relógio controlado pelo teste: 10 fichas por segundo (uma a cada 100 ms)
+ * e rajada de 3.
+ */
+class TokenBucketTest {
+
+    private static final long MS = 1_000_000L;
+    private static final long START = 1_000_000 * MS;
+
+    private final TokenBucket bucket = new TokenBucket(10, 3, START);
+
+    @Test
+    void allowsBurstThenRejects() {
+        assertThat(bucket.tryConsume(START).remaining()).isEqualTo(2);
+        assertThat(bucket.tryConsume(START).remaining()).isEqualTo(1);
+        assertThat(bucket.tryConsume(START).remaining()).isZero();
+
+        TokenBucket.Decision rejected = bucket.tryConsume(START);
+        assertThat(rejected.allowed()).isFalse();
+        assertThat(rejected.limit()).isEqualTo(3);
+        assertThat(rejected.retryAfterNanos()).isEqualTo(100 * MS);
+        assertThat(rejected.resetNanos()).isEqualTo(300 * MS);
+    }
+
+    @Test
+    void refillsOneTokenPerEmissionInterval() {
+        for (int i = 0; i < 3; i++) {
+            bucket.tryConsume(START);
+        }
+
+        assertThat(bucket.tryConsume(START + 99 * MS).allowed()).isFalse();
+        TokenBucket.Decision refilled = bucket.tryConsume(START + 100 * MS);
+        assertThat(refilled.allowed()).isTrue();
+        assertThat(refilled.remaining()).isZero();
+        assertThat(bucket.tryConsume(START + 100 * MS).allowed()).isFalse();
+    }
+
+    @Test
+    void idleTimeDoesNotAccumulateBeyondCapacity() {
+        long later = START + 60_000 * MS;
+        for (int i = 0; i < 3; i++) {
+            assertThat(bucket.tryConsume(later).allowed()).isTrue();
+        }
+        assertThat(bucket.tryConsume(later).allowed()).isFalse();
+    }
+
+    @Test
+    void rejectionDoesNotConsumeTokens() {
+        for (int i = 0; i < 3; i++) {
+            bucket.tryConsume(START);
+        }
+        for (int i = 0; i < 10; i++) {
+            bucket.tryConsume(START + 50 * MS);
+        }
+
+        assertThat(bucket.tryConsume(START + 100 * MS).allowed()).isTrue();
+    }
+
+    @Test
+    void chargeBeyondCapacityIsPaidBeforeNextRequest() {
+        assertThat(bucket.tryConsume(START).allowed()).isTrue();
+        // Restante de um lote de 10: dívida de 7 fichas além da capacidade
+        bucket.charge(START, 9);
+
+        TokenBucket.Decision rejected = bucket.tryConsume(START);
+        assertThat(rejected.allowed()).isFalse();
+        assertThat(rejected.retryAfterNanos()).isEqualTo(800 * MS);
+        assertThat(bucket.tryConsume(START + 799 * MS).allowed()).isFalse();
+        assertThat(bucket.tryConsume(START + 800 * MS).allowed()).isTrue();
+        assertThat(bucket.idleSince(START + 1_000 * MS, 0)).isFalse();
+    }
+
+    @Test
+    void idleOnlyAfterRefilledForTheWholeWindow() {
+        bucket.tryConsume(START);
+
+        // Cheio de novo em START + 100 ms
+        assertThat(bucket.idleSince(START + 100 * MS, 0)).isTrue();
+        assertThat(bucket.idleSince(START + 99 * MS, 0)).isFalse();
+        assertThat(bucket.idleSince(START + 1_100 * MS, 1_000 * MS)).isTrue();
+        assertThat(bucket.idleSince(START + 1_099 * MS, 1_000 * MS)).isFalse();
+    }
+}
@@ -0,0 +1,103 @@
+package br.com.bradesco.safeboleto.services;
+
+import br.com.bradesco.safeboleto.dto.ParticipantImportResponse;
+import br.com.bradesco.safeboleto.exception.InvalidInputException;
+import br.com.bradesco.safeboleto.model.TrustedBank;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Importação do diretório de participantes sobre o esquema real (Flyway, H2): {@code compe_code} é UNIQUE, então
+ * códigos que mudam de dono precisam ser liberados antes de gravados. Cada teste é desfeito ao final.
+ */
+@SpringBootTest
+@ActiveProfiles("h2")
+@Transactional
+class ParticipantDirectoryImporterTest {
+
+    private static final String HEADER = "ISPB;COMPE;Nome;Status\n";
+
+    @Autowired
+    private ParticipantDirectoryImporter importer;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void newParticipantReusesCompeOfRemovedParticipant() throws IOException {
+        importFrom(HEADER + "99000001;901;Banco Antigo;Ativo\n");
+
+        ParticipantImportResponse response = importFrom(HEADER + "99000002;901;Banco Novo;Ativo\n");
+
+        assertThat(response.inserted()).isEqualTo(1);
+        assertThat(response.deactivated()).isEqualTo(1);
+        assertThat(row("99000001")).containsEntry("compe_code", null)
+                .containsEntry("status", TrustedBank.STATUS_INACTIVE);
+        assertThat(row("99000002")).containsEntry("compe_code", "901");
+    }
+
+    @Test
+    void participantsSwapCompeCodes() throws IOException {
+        importFrom(HEADER + "99000001;901;Banco A;Ativo\n99000002;902;Banco B;Ativo\n");
+
+        ParticipantImportResponse response =
+                importFrom(HEADER + "99000001;902;Banco A;Ativo\n99000002;901;Banco B;Ativo\n");
+
+        assertThat(response.updated()).isEqualTo(2);
+        assertThat(row("99000001")).containsEntry("compe_code", "902");
+        assertThat(row("99000002")).containsEntry("compe_code", "901");
+    }
+
+    @Test
+    void unchangedParticipantKeepsCompe() throws IOException {
+        importFrom(HEADER + "99000001;901;Banco A;Ativo\n");
+
+        ParticipantImportResponse response =
+                importFrom(HEADER + "99000001;901;Banco A;Ativo\n99000003;903;Banco C;Ativo\n");
+
+        assertThat(response.unchanged()).isEqualTo(1);
+        assertThat(response.inserted()).isEqualTo(1);
+        assertThat(row("99000001")).containsEntry("compe_code", "901")
+                .containsEntry("status", TrustedBank.STATUS_ACTIVE);
+    }
+
+    @Test
+    void repeatedIspbRejectsFileWithoutChanges() throws IOException {
+        importFrom(HEADER + "99000001;901;Banco A;Ativo\n");
+
+        assertThatThrownBy(() -> importFrom(HEADER + "99000002;902;Banco B;Ativo\n99000002;903;Banco B2;Ativo\n"))
+                .isInstanceOf(InvalidInputException.class)
+                .hasMessageContaining("linha 3 repete o ISPB 99000002 da linha 2");
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM trusted_banks WHERE ispb = '99000002'",
+                Integer.class)).isZero();
+        assertThat(row("99000001")).containsEntry("status", TrustedBank.STATUS_ACTIVE);
+    }
+
+    @Test
+    void repeatedCompeRejectsFile() {
+        assertThatThrownBy(() -> importFrom(HEADER + "99000001;901;Banco A;Ativo\n\n99000002;901;Banco B;Ativo\n"))
+                .isInstanceOf(InvalidInputException.class)
+                .hasMessageContaining("linha 4 repete o código COMPE 901 da linha 2");
+    }
+
+    private ParticipantImportResponse importFrom(String csv) throws IOException {
+        return importer.importFrom(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private Map<String, Object> row(String ispb) {
+        return jdbcTemplate.queryForMap("SELECT compe_code, status FROM trusted_banks WHERE ispb = ?", ispb);
+    }
+}
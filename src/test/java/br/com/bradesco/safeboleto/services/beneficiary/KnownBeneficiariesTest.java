@@ -0,0 +1,62 @@
+package br.com.bradesco.safeboleto.services.beneficiary;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Beneficiários conhecidos com no máximo 3 chaves por pagador: a regra não vale para pagador com o conjunto cheio,
+ * e o diário é relido (sem o registro incompleto do fim) na subida.
+ */
+class KnownBeneficiariesTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void payerAtCapacityHasNoNewBeneficiaries() {
+        KnownBeneficiaries known = known(dir.resolve("journal"));
+        known.recordAccepted("ana", 1);
+        assertThat(known.isNew("ana", 2)).isTrue();
+
+        known.recordAccepted("ana", 2);
+        known.recordAccepted("ana", 3);
+        // Chave aprovada com o conjunto cheio não é guardada: contaria como nova para sempre
+        known.recordAccepted("ana", 4);
+        assertThat(known.isNew("ana", 4)).isFalse();
+        assertThat(known.isNew("ana", 5)).isFalse();
+    }
+
+    @Test
+    void journalIsRestoredWithoutTrailingPartialRecord() throws IOException {
+        Path file = dir.resolve("journal");
+        KnownBeneficiaries first = known(file);
+        first.recordAccepted("ana", 1);
+        first.recordAccepted("ana", 2);
+        first.close();
+        Files.write(file, new byte[]{1, 2, 3}, StandardOpenOption.APPEND);
+
+        KnownBeneficiaries second = known(file);
+        second.restore();
+        assertThat(Files.size(file)).isEqualTo(8 + 2 * 16);
+        assertThat(second.isNew("ana", 2)).isFalse();
+        assertThat(second.isNew("ana", 3)).isTrue();
+
+        second.recordAccepted("ana", 3);
+        second.close();
+        KnownBeneficiaries third = known(file);
+        third.restore();
+        assertThat(third.isNew("ana", 3)).isFalse();
+    }
+
+    private static KnownBeneficiaries known(Path file) {
+        return new KnownBeneficiaries(new SimpleMeterRegistry(), true, file, 3, 1);
+    }
+}
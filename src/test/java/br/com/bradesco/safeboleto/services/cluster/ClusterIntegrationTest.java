@@ -0,0 +1,225 @@
+package br.com.bradesco.safeboleto.services.cluster;
+
+import br.com.bradesco.safeboleto.SafePixApiApplication;
+import br.com.bradesco.safeboleto.resilience.ValidationDataGateway.Lookup;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Modo cluster com duas instâncias reais (dois contextos Spring em portas diferentes, mesmo banco H2) e um
+ * terceiro membro que aceita conexões e nunca responde, para simular um dono que estoura o timeout.
+ */
+class ClusterIntegrationTest {
+
+    private static final String SECRET = "segredo-de-teste";
+
+    private static ServerSocket silentMember;
+    private static ConfigurableApplicationContext a;
+    private static ConfigurableApplicationContext b;
+    private static String urlA;
+    private static String urlB;
+    private static String urlSilent;
+
+    @BeforeAll
+    static void startCluster() throws IOException {
+        int portA = freePort();
+        int portB = freePort();
+        silentMember = new ServerSocket(0);
+        urlA = "http://localhost:" + portA;
+        urlB = "http://localhost:" + portB;
+        urlSilent = "http://localhost:" + silentMember.getLocalPort();
+        String members = urlA + "," + urlB + "," + urlSilent;
+        a = start(portA, urlA, members);
+        b = start(portB, urlB, members);
+    }
+
+    // Primeira requisição de cada instância fora dos testes (inicialização do cliente HTTP e do Tomcat)
+    @BeforeEach
+    void warmUp() throws Exception {
+        for (String member : List.of(urlA, urlB)) {
+            HttpClient.newHttpClient().send(request(member, emptyBatch(), SECRET), HttpResponse.BodyHandlers.discarding());
+        }
+    }
+
+    @AfterAll
+    static void stopCluster() throws IOException {
+        if (a != null) a.close();
+        if (b != null) b.close();
+        if (silentMember != null) silentMember.close();
+    }
+
+    @Test
+    void lookupIsForwardedToOwnerAndRejectionsReachIt() throws InterruptedException {
+        long key = keyOwnedBy(urlB, 1);
+        insertRejections(key, 3);
+
+        Lookup<Long> first = router(a).rejectedCount(key);
+
+        assertThat(first.value()).isEqualTo(3);
+        assertThat(first.degraded()).isFalse();
+        assertThat(ownedKeys(b)).isGreaterThanOrEqualTo(1);
+
+        // Rejeição validada por A: gravada no banco e avisada ao dono, que soma à contagem em memória
+        insertRejections(key, 1);
+        router(a).recordRejected(key);
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (router(a).rejectedCount(key).value() != 4 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertThat(router(a).rejectedCount(key).value()).isEqualTo(4);
+        assertThat(router(b).rejectedCount(key).value()).isEqualTo(4);
+    }
+
+    @Test
+    void concurrentLookupsShareBatches() throws Exception {
+        int lookups = 100;
+        List<Long> keys = new ArrayList<>();
+        long next = 1_000;
+        while (keys.size() < lookups) {
+            long key = keyOwnedBy(urlB, next);
+            keys.add(key);
+            next = (key & 0xFFFFFFFFL) + 1;
+        }
+        double batchesBefore = counter(a, "pix.cluster.batches");
+        double forwardedBefore = operations(a, "lookup", "forwarded");
+
+        CountDownLatch start = new CountDownLatch(1);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<Lookup<Long>>> results = new ArrayList<>();
+            for (long key : keys) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return router(a).rejectedCount(key);
+                }));
+            }
+            start.countDown();
+            for (Future<Lookup<Long>> result : results) {
+                assertThat(result.get().value()).isZero();
+            }
+        }
+
+        double forwarded = operations(a, "lookup", "forwarded") - forwardedBefore;
+        double batches = counter(a, "pix.cluster.batches") - batchesBefore;
+        assertThat(forwarded).isEqualTo(lookups);
+        assertThat(batches).isLessThan(lookups);
+    }
+
+    @Test
+    void ownerTimeoutFallsBackToDatabase() {
+        long key = keyOwnedBy(urlSilent, 50_000);
+        insertRejections(key, 2);
+        double fallbacksBefore = counter(a, "pix.cluster.database-fallbacks");
+
+        Lookup<Long> result = router(a).rejectedCount(key);
+
+        assertThat(result.value()).isEqualTo(2);
+        assertThat(counter(a, "pix.cluster.database-fallbacks") - fallbacksBefore).isEqualTo(1);
+    }
+
+    @Test
+    void rejectsWrongSecret() throws Exception {
+        HttpClient client = HttpClient.newHttpClient();
+        HttpResponse<Void> wrong = client.send(request(urlB, emptyBatch(), "outro-segredo"),
+                HttpResponse.BodyHandlers.discarding());
+        HttpResponse<Void> missing = client.send(request(urlB, emptyBatch(), null), HttpResponse.BodyHandlers.discarding());
+        HttpResponse<Void> right = client.send(request(urlB, emptyBatch(), SECRET), HttpResponse.BodyHandlers.discarding());
+
+        assertThat(wrong.statusCode()).isEqualTo(401);
+        assertThat(missing.statusCode()).isEqualTo(401);
+        assertThat(right.statusCode()).isEqualTo(200);
+    }
+
+    private static ConfigurableApplicationContext start(int port, String self, String members) {
+        // Argumentos de linha de comando: têm precedência sobre o application.properties
+        return new SpringApplicationBuilder(SafePixApiApplication.class)
+                .profiles("h2")
+                .run("--server.port=" + port,
+                        // Banco próprio do teste, compartilhado pelas duas instâncias
+                        "--spring.datasource.url=jdbc:h2:mem:cluster_it;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;"
+                                + "DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1",
+                        "--spring.jmx.enabled=false",
+                        "--app.warmup.enabled=false",
+                        "--app.cluster.enabled=true",
+                        "--app.cluster.self=" + self,
+                        "--app.cluster.members=" + members,
+                        "--app.cluster.secret=" + SECRET,
+                        "--app.cluster.timeout-ms=2000");
+    }
+
+    private static HttpRequest request(String member, byte[] body, String secret) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(member + ClusterProtocol.PATH))
+                .header("Content-Type", "application/octet-stream")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body));
+        if (secret != null) request.header(ClusterProtocol.SECRET_HEADER, secret);
+        return request.build();
+    }
+
+    private static byte[] emptyBatch() {
+        return ClusterProtocol.encodeBatch(new long[0], 0, new long[0], 0);
+    }
+
+    // Primeiro código de CPF a partir de start cujo dono é o membro informado
+    private static long keyOwnedBy(String member, long start) {
+        ClusterMembership membership = a.getBean(ClusterMembership.class);
+        for (long cpf = start; cpf < start + 1_000_000; cpf++) {
+            long key = (1L << 60) | cpf;
+            if (member.equals(membership.owner(key))) return key;
+        }
+        throw new IllegalStateException(member + " não é dono de nenhuma chave em " + membership.members());
+    }
+
+    private static void insertRejections(long keyHash, int count) {
+        JdbcTemplate jdbcTemplate = a.getBean(JdbcTemplate.class);
+        for (int i = 0; i < count; i++) {
+            jdbcTemplate.update("INSERT INTO pix_validations (pix_key, pix_key_type, is_valid, fraud_reason, "
+                            + "validation_timestamp, key_hash) VALUES ('chave', 'CPF', FALSE, 'teste', ?, ?)",
+                    Timestamp.valueOf(LocalDateTime.now()), keyHash);
+        }
+    }
+
+    private static KeyAffinityRouter router(ConfigurableApplicationContext context) {
+        return context.getBean(KeyAffinityRouter.class);
+    }
+
+    private static double ownedKeys(ConfigurableApplicationContext context) {
+        return context.getBean(MeterRegistry.class).get("pix.cluster.owned-keys").gauge().value();
+    }
+
+    private static double counter(ConfigurableApplicationContext context, String name) {
+        return context.getBean(MeterRegistry.class).get(name).functionCounter().count();
+    }
+
+    private static double operations(ConfigurableApplicationContext context, String operation, String result) {
+        return context.getBean(MeterRegistry.class).get("pix.cluster.operations")
+                .tag("operation", operation).tag("result", result).functionCounter().count();
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
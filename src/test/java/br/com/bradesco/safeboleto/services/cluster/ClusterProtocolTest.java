@@ -0,0 +1,91 @@
+package br.com.bradesco.safeboleto.services.cluster;
+
+import br.com.bradesco.safeboleto.resilience.ValidationDataGateway.Lookup;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Formato binário dos lotes entre instâncias: ida e volta, e corpos malformados.
+ */
+class ClusterProtocolTest {
+
+    @Test
+    void batchRoundTripUsesOnlyTheCountedKeys() {
+        long[] lookups = {1L << 60 | 12345678901L, -1L, 0, 99};
+        long[] updates = {Long.MIN_VALUE, Long.MAX_VALUE, 7};
+
+        ClusterProtocol.Batch batch = ClusterProtocol.decodeBatch(ClusterProtocol.encodeBatch(lookups, 3, updates, 2));
+
+        assertThat(batch.lookups()).containsExactly(1L << 60 | 12345678901L, -1L, 0);
+        assertThat(batch.updates()).containsExactly(Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    @Test
+    void emptyBatchRoundTrip() {
+        ClusterProtocol.Batch batch = ClusterProtocol.decodeBatch(ClusterProtocol.encodeBatch(new long[0], 0, new long[0], 0));
+
+        assertThat(batch.lookups()).isEmpty();
+        assertThat(batch.updates()).isEmpty();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void resultsRoundTripInOrder() {
+        Lookup<Long>[] results = new Lookup[]{new Lookup<>(0L, false), new Lookup<>(42L, true), new Lookup<>(Long.MAX_VALUE, false)};
+
+        Lookup<Long>[] decoded = ClusterProtocol.decodeResults(ClusterProtocol.encodeResults(results), 3);
+
+        assertThat(decoded).containsExactly(results);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void rejectsUnexpectedResultCount() {
+        byte[] body = ClusterProtocol.encodeResults(new Lookup[]{new Lookup<>(1L, false)});
+
+        assertThatThrownBy(() -> ClusterProtocol.decodeResults(body, 2))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("esperados 2");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void rejectsTruncatedResults() {
+        byte[] body = ClusterProtocol.encodeResults(new Lookup[]{new Lookup<>(1L, false), new Lookup<>(2L, false)});
+
+        assertThatThrownBy(() -> ClusterProtocol.decodeResults(Arrays.copyOf(body, body.length - 3), 2))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void rejectsMalformedBatches() {
+        byte[] body = ClusterProtocol.encodeBatch(new long[]{1, 2}, 2, new long[]{3}, 1);
+
+        // Corpo cortado no meio de uma chave, sem a lista de atualizações, vazio
+        assertThatThrownBy(() -> ClusterProtocol.decodeBatch(Arrays.copyOf(body, 10)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ClusterProtocol.decodeBatch(Arrays.copyOf(body, 20)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ClusterProtocol.decodeBatch(new byte[0]))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rejectsKeyCountsOutsideTheLimit() {
+        // Quantidades negativas ou acima do limite não chegam a alocar o array
+        byte[] negative = ByteBuffer.allocate(8).putInt(-1).putInt(0).array();
+        byte[] huge = ByteBuffer.allocate(8).putInt(ClusterProtocol.MAX_KEYS + 1).putInt(0).array();
+
+        assertThatThrownBy(() -> ClusterProtocol.decodeBatch(negative))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("quantidade de chaves inválida");
+        assertThatThrownBy(() -> ClusterProtocol.decodeBatch(huge))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("quantidade de chaves inválida");
+    }
+}
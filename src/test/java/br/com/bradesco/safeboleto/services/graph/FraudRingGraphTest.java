@@ -0,0 +1,132 @@
+package br.com.bradesco.safeboleto.services.graph;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Union-find do grafo de anéis de fraude: estatísticas da componente, uniões concorrentes, limite de nós e
+ * validações recebidas durante a reconstrução sem contagem dupla. O limite mínimo é um bloco (65536 nós).
+ */
+class FraudRingGraphTest {
+
+    private final FraudRingGraph graph = new FraudRingGraph(new SimpleMeterRegistry(), 0);
+
+    @Test
+    void keyDocumentAndAccountShareComponentStats() {
+        graph.record(null, 101, "12345678909", "001", false);
+        graph.record(null, 102, "12345678909", "001", true);
+        graph.record(null, 103, "12345678909", "237", true);
+        graph.record(null, 104, "98765432100", "001", false);
+
+        FraudRingGraph.ComponentStats ring = graph.lookup(101, null);
+        assertThat(ring).isEqualTo(new FraudRingGraph.ComponentStats(3, 2, 3, 1, 2));
+        assertThat(ring.rejectedRatio()).isEqualTo(2 / 3.0);
+        assertThat(graph.lookup(0, "12345678909")).isEqualTo(ring);
+
+        assertThat(graph.lookup(104, null)).isEqualTo(new FraudRingGraph.ComponentStats(1, 0, 1, 1, 1));
+        assertThat(graph.lookup(104, null).rejectedRatio()).isZero();
+        assertThat(graph.lookup(999, "00000000191")).isNull();
+        assertThat(graph.nodeCount()).isEqualTo(4 + 2 + 3);
+    }
+
+    @Test
+    void lookupPrefersLargerComponentWhenKeyAndDocumentDiffer() {
+        graph.record(null, 201, "11111111111", null, false);
+        graph.record(null, 202, "22222222222", null, true);
+        graph.record(null, 203, "22222222222", null, true);
+
+        FraudRingGraph.ComponentStats stats = graph.lookup(201, "22222222222");
+        assertThat(stats.validations()).isEqualTo(2);
+        assertThat(stats.rejectedRatio()).isEqualTo(1.0);
+    }
+
+    @Test
+    void concurrentUnionsKeepEveryCount() throws Exception {
+        int threads = 8, perThread = 5_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            Future<?>[] tasks = new Future<?>[threads];
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                tasks[t] = executor.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        // Chaves distintas ligadas em cadeia por documentos compartilhados entre threads
+                        long key = 1 + thread * (long) perThread + i;
+                        graph.record(null, key, "doc" + (i % 500), null, i % 4 == 0);
+                        graph.record(null, key, "doc" + ((i + 1) % 500), null, false);
+                    }
+                });
+            }
+            for (Future<?> task : tasks) {
+                task.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        FraudRingGraph.ComponentStats stats = graph.lookup(1, null);
+        assertThat(stats.validations()).isEqualTo(threads * perThread * 2);
+        assertThat(stats.rejected()).isEqualTo(threads * perThread / 4);
+        assertThat(stats.distinctKeys()).isEqualTo(threads * perThread);
+        assertThat(stats.distinctDocuments()).isEqualTo(500);
+    }
+
+    @Test
+    void fullGraphDropsNewNodesButKeepsCountingKnownOnes() {
+        int max = graph.maxNodes();
+        for (int i = 1; i <= max; i++) {
+            graph.record(null, i, null, null, false);
+        }
+        assertThat(graph.nodeCount()).isEqualTo(max);
+        assertThat(graph.isNearlyFull()).isTrue();
+
+        graph.record(null, max + 1L, null, null, true);
+        assertThat(graph.lookup(max + 1L, null)).isNull();
+        assertThat(graph.droppedNodes()).isEqualTo(1);
+
+        // Nó já conhecido continua contando; o documento novo fica de fora
+        graph.record(null, 1, "12345678909", null, true);
+        assertThat(graph.lookup(1, null)).isEqualTo(new FraudRingGraph.ComponentStats(2, 1, 1, 0, 0));
+        assertThat(graph.droppedNodes()).isEqualTo(2);
+        assertThat(graph.nodeCount()).isEqualTo(max);
+    }
+
+    @Test
+    void rebuildDoesNotCountLoadedValidationTwice() {
+        graph.record(1L, 301, "12345678909", null, false);
+
+        FraudRingGraph.Rebuild rebuild = graph.beginRebuild();
+        // Gravadas durante a carga: a 2 também é lida da tabela, a 3 não, a sem id não foi gravada
+        graph.record(2L, 301, "12345678909", null, true);
+        graph.record(3L, 301, "12345678909", null, true);
+        graph.record(null, 301, "12345678909", null, false);
+        assertThat(graph.lookup(301, null).validations()).isEqualTo(1);
+
+        rebuild.load(1L, 301, "12345678909", null, false);
+        rebuild.load(2L, 301, "12345678909", null, true);
+        assertThat(graph.finishRebuild(rebuild)).isEqualTo(2);
+
+        assertThat(graph.lookup(301, null)).isEqualTo(new FraudRingGraph.ComponentStats(4, 2, 1, 1, 0));
+        graph.record(4L, 301, "12345678909", null, false);
+        assertThat(graph.lookup(301, null).validations()).isEqualTo(5);
+    }
+
+    @Test
+    void abortedRebuildAppliesDeferredToCurrentGraph() {
+        graph.record(1L, 401, null, null, false);
+        FraudRingGraph.Rebuild rebuild = graph.beginRebuild();
+        graph.record(2L, 401, null, null, true);
+        rebuild.load(2L, 401, null, null, true);
+
+        graph.abortRebuild(rebuild);
+
+        assertThat(graph.lookup(401, null)).isEqualTo(new FraudRingGraph.ComponentStats(2, 1, 1, 0, 0));
+    }
+}
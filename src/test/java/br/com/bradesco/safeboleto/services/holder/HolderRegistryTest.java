@@ -0,0 +1,75 @@
+package br.com.bradesco.safeboleto.services.holder;
+
+import br.com.bradesco.safeboleto.exception.InvalidInputException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.FileSystemResource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Importação do cadastro de titulares: gravada no arquivo configurado, com até 2 linhas inválidas ignoradas.
+ */
+class HolderRegistryTest {
+
+    private static final String VALID = "documento;nome\n52998224725;Maria da Silva\n11222333000181;Padaria Central Ltda\n";
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void importIsPersistedAndSkipsInvalidLines() throws IOException {
+        Path file = dir.resolve("cadastro/titulares.csv");
+        HolderRegistry holders = registry(file);
+
+        holders.replaceFile(csv(VALID + "123;\n;Sem Documento\n"));
+
+        assertThat(holders.size()).isEqualTo(2);
+        assertThat(holders.skippedLines()).isEqualTo(2);
+        assertThat(Files.readString(file)).startsWith(VALID);
+        assertThat(holders.similarity("52998224725", "Maria da Silva")).isEqualTo(1.0);
+        try (var files = Files.list(file.getParent())) {
+            assertThat(files).containsExactly(file);
+        }
+
+        // Depois de reiniciar, o cadastro importado é o do arquivo
+        HolderRegistry restarted = registry(file);
+        restarted.load();
+        assertThat(restarted.size()).isEqualTo(2);
+    }
+
+    @Test
+    void tooManyInvalidLinesKeepCurrentRegistryAndFile() throws IOException {
+        Path file = dir.resolve("titulares.csv");
+        HolderRegistry holders = registry(file);
+        holders.replaceFile(csv(VALID));
+
+        assertThatThrownBy(() -> holders.replaceFile(csv("52998224725;Outra Pessoa\n1;\n2;\n3;\n")))
+                .isInstanceOf(InvalidInputException.class)
+                .hasMessageContaining("Mais de 2 linhas inválidas");
+
+        assertThat(holders.size()).isEqualTo(2);
+        assertThat(holders.similarity("52998224725", "Maria da Silva")).isEqualTo(1.0);
+        assertThat(Files.readString(file)).isEqualTo(VALID);
+        try (var files = Files.list(dir)) {
+            assertThat(files).containsExactly(file);
+        }
+    }
+
+    private static HolderRegistry registry(Path file) {
+        return new HolderRegistry(new SimpleMeterRegistry(), new FileSystemResource(file), true, 2);
+    }
+
+    private static InputStream csv(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,215 @@
+package br.com.bradesco.safeboleto.services.profile;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Tabela de perfis de valor: Welford contra o cálculo direto, janela de {@value AmountProfileStore#MAX_SAMPLES}
+ * amostras, merge de Chan equivalente a acrescentar as mesmas amostras, divisão do histograma quando uma faixa
+ * satura, limites das faixas dos percentis e substituição do perfil de uso mais antigo do conjunto.
+ */
+class AmountProfileStoreTest {
+
+    @Test
+    void welfordMatchesDirectMeanAndStdDev() {
+        AmountProfileStore store = new AmountProfileStore(64);
+        long[] amounts = {1_500, 2_000, 2_500, 80_000, 1_999, 3_100, 12_345};
+        for (long amount : amounts) {
+            store.add(42, amount, 1);
+        }
+
+        double mean = 0;
+        for (long amount : amounts) mean += Math.log(amount);
+        mean /= amounts.length;
+        double squares = 0;
+        for (long amount : amounts) squares += (Math.log(amount) - mean) * (Math.log(amount) - mean);
+
+        AmountProfileStore.Profile profile = store.profile(42);
+        assertThat(profile.samples()).isEqualTo(amounts.length);
+        assertThat(profile.logMean()).isCloseTo(mean, within(1e-12));
+        assertThat(profile.logStdDev()).isCloseTo(Math.sqrt(squares / (amounts.length - 1)), within(1e-12));
+        assertThat(store.profile(43)).isNull();
+    }
+
+    @Test
+    void ignoresNonPositiveAmountsAndKeepsKeyZero() {
+        AmountProfileStore store = new AmountProfileStore(64);
+        store.add(7, 0, 1);
+        store.add(7, -100, 1);
+        assertThat(store.profile(7)).isNull();
+        assertThat(store.size()).isZero();
+
+        store.add(0, 100, 1);
+        assertThat(store.profile(0).samples()).isEqualTo(1);
+        assertThat(store.profile(0).logStdDev()).isZero();
+        long[] seenKey = {-1};
+        store.forEach((key, lastSeen, samples, mean, m2, histogram) -> seenKey[0] = key);
+        assertThat(seenKey[0]).isZero();
+    }
+
+    @Test
+    void meanForgetsOldSamplesAfterWindowIsFull() {
+        AmountProfileStore store = new AmountProfileStore(64);
+        int window = AmountProfileStore.MAX_SAMPLES;
+        for (int i = 0; i < window; i++) store.add(1, 100, 1);
+        for (int i = 0; i < window; i++) store.add(1, 10_000, 2);
+
+        // Sem janela a média ficaria no meio (1/2); com esquecimento exponencial vai a ~1 - 1/e do caminho
+        AmountProfileStore.Profile profile = store.profile(1);
+        double travelled = (profile.logMean() - Math.log(100)) / (Math.log(10_000) - Math.log(100));
+        assertThat(profile.samples()).isEqualTo(window);
+        assertThat(travelled).isCloseTo(1 - Math.exp(-1), within(1e-3));
+        assertThat(profile.logStdDev()).isPositive().isLessThan(Math.log(10_000) - Math.log(100));
+    }
+
+    @Test
+    void mergeMatchesStatsOfUnion() {
+        AmountProfileStore a = new AmountProfileStore(64);
+        AmountProfileStore b = new AmountProfileStore(64);
+        AmountProfileStore union = new AmountProfileStore(64);
+        Random random = new Random(7);
+        for (int i = 0; i < 500; i++) {
+            long amount = 1_000 + random.nextInt(5_000);
+            a.add(9, amount, 3);
+            union.add(9, amount, 3);
+        }
+        for (int i = 0; i < 300; i++) {
+            long amount = 50_000 + random.nextInt(200_000);
+            b.add(9, amount, 5);
+            union.add(9, amount, 5);
+        }
+
+        b.forEach(a::merge);
+
+        AmountProfileStore.Profile merged = a.profile(9);
+        AmountProfileStore.Profile expected = union.profile(9);
+        assertThat(merged.samples()).isEqualTo(expected.samples()).isEqualTo(800);
+        assertThat(merged.logMean()).isCloseTo(expected.logMean(), within(1e-9));
+        assertThat(merged.logStdDev()).isCloseTo(expected.logStdDev(), within(1e-9));
+        assertThat(merged.lowCents()).isEqualTo(expected.lowCents());
+        assertThat(merged.highCents()).isEqualTo(expected.highCents());
+        assertThat(histogram(a, 9)).isEqualTo(histogram(union, 9));
+        assertThat(lastSeen(a, 9)).isEqualTo(5);
+    }
+
+    @Test
+    void saturatedBucketHalvesWholeHistogram() {
+        AmountProfileStore store = new AmountProfileStore(64);
+        int low = AmountProfileStore.bucket(100);
+        int high = AmountProfileStore.bucket(10_000);
+        for (int i = 0; i < AmountProfileStore.MAX_SAMPLES; i++) store.add(1, 100, 1);
+        store.add(1, 10_000, 1);
+        store.add(1, 10_000, 1);
+        assertThat((int) histogram(store, 1)[low]).isEqualTo(AmountProfileStore.MAX_SAMPLES);
+
+        store.add(1, 100, 1);
+
+        char[] histogram = histogram(store, 1);
+        assertThat((int) histogram[low]).isEqualTo(AmountProfileStore.MAX_SAMPLES / 2 + 1);
+        assertThat((int) histogram[high]).isEqualTo(1);
+    }
+
+    @Test
+    void mergeShiftsHistogramAndCapsSamplesOnOverflow() {
+        AmountProfileStore store = new AmountProfileStore(64);
+        int low = AmountProfileStore.bucket(100);
+        int high = AmountProfileStore.bucket(10_000);
+        for (int i = 0; i < AmountProfileStore.MAX_SAMPLES; i++) store.add(1, 100, 1);
+
+        char[] other = new char[AmountProfileStore.BUCKETS];
+        other[low] = (char) AmountProfileStore.MAX_SAMPLES;
+        other[high] = 4;
+        int na = AmountProfileStore.MAX_SAMPLES, nb = AmountProfileStore.MAX_SAMPLES + 4;
+        double delta = Math.log(200) - Math.log(100);
+        store.merge(1, 2, nb, Math.log(200), 5.0, other);
+
+        char[] histogram = histogram(store, 1);
+        assertThat((int) histogram[low]).isEqualTo(AmountProfileStore.MAX_SAMPLES);
+        assertThat((int) histogram[high]).isEqualTo(2);
+        assertThat(store.profile(1).samples()).isEqualTo(AmountProfileStore.MAX_SAMPLES);
+        // M2 encolhe na proporção das amostras descartadas, mantendo a variância da união
+        double unionM2 = 5.0 + delta * delta * na * nb / (na + nb);
+        assertThat(m2(store, 1)).isCloseTo(unionM2 * AmountProfileStore.MAX_SAMPLES / (na + nb), within(1e-6));
+    }
+
+    @Test
+    void bucketBoundsContainEveryAmount() {
+        for (long amount = 1; amount <= 200_000; amount++) {
+            int bucket = AmountProfileStore.bucket(amount);
+            assertThat(AmountProfileStore.lowerBound(bucket)).isLessThanOrEqualTo(amount);
+            assertThat(AmountProfileStore.upperBound(bucket)).isGreaterThanOrEqualTo(amount);
+        }
+        assertThat(AmountProfileStore.bucket(Long.MAX_VALUE)).isEqualTo(AmountProfileStore.BUCKETS - 1);
+    }
+
+    @Test
+    void percentileBoundsSkipOutliers() {
+        AmountProfileStore store = new AmountProfileStore(64);
+        store.add(1, 50, 1);
+        for (int i = 0; i < 98; i++) store.add(1, 1_000, 1);
+        store.add(1, 100_000, 1);
+
+        AmountProfileStore.Profile profile = store.profile(1);
+        assertThat(profile.lowCents()).isEqualTo(AmountProfileStore.lowerBound(AmountProfileStore.bucket(50)));
+        assertThat(profile.highCents()).isEqualTo(AmountProfileStore.upperBound(AmountProfileStore.bucket(1_000)));
+        assertThat(profile.highCents()).isGreaterThanOrEqualTo(1_000).isLessThan(100_000);
+    }
+
+    @Test
+    void fullSetReplacesLeastRecentlySeenProfile() {
+        // Capacidade 8 é um único conjunto de 8 posições
+        AmountProfileStore store = new AmountProfileStore(8);
+        for (int key = 1; key <= 8; key++) store.add(key, 1_000, key);
+        store.add(1, 1_000, 9);
+
+        store.add(9, 1_000, 10);
+
+        assertThat(store.size()).isEqualTo(8);
+        assertThat(store.evictions()).isEqualTo(1);
+        assertThat(store.profile(2)).isNull();
+        assertThat(store.profile(1).samples()).isEqualTo(2);
+        assertThat(store.profile(9).samples()).isEqualTo(1);
+    }
+
+    @Test
+    void tieOnLastSeenReplacesProfileWithFewerSamples() {
+        AmountProfileStore store = new AmountProfileStore(8);
+        for (int key = 1; key <= 8; key++) store.add(key, 1_000, 1);
+        for (int key = 1; key <= 8; key++) {
+            if (key != 5) store.add(key, 2_000, 1);
+        }
+
+        store.add(9, 1_000, 1);
+
+        assertThat(store.profile(5)).isNull();
+        assertThat(store.profile(1).samples()).isEqualTo(2);
+    }
+
+    private static char[] histogram(AmountProfileStore store, long wanted) {
+        char[] copy = new char[AmountProfileStore.BUCKETS];
+        store.forEach((key, lastSeen, samples, mean, m2, histogram) -> {
+            if (key == wanted) System.arraycopy(histogram, 0, copy, 0, histogram.length);
+        });
+        return copy;
+    }
+
+    private static double m2(AmountProfileStore store, long wanted) {
+        double[] result = {Double.NaN};
+        store.forEach((key, lastSeen, samples, mean, m2, histogram) -> {
+            if (key == wanted) result[0] = m2;
+        });
+        return result[0];
+    }
+
+    private static int lastSeen(AmountProfileStore store, long wanted) {
+        int[] result = {-1};
+        store.forEach((key, seen, samples, mean, m2, histogram) -> {
+            if (key == wanted) result[0] = seen;
+        });
+        return result[0];
+    }
+}
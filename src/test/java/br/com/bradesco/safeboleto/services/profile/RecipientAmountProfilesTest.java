@@ -0,0 +1,114 @@
+package br.com.bradesco.safeboleto.services.profile;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Snapshot dos perfis de valor: exportação relida sem perda (também pelo arquivo, na subida), exportações de duas
+ * instâncias juntadas iguais a uma instância que viu todas as validações, e arquivo truncado ou corrompido
+ * recusado pelo CRC sem alterar os perfis.
+ */
+class RecipientAmountProfilesTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void exportRoundTrips() throws IOException {
+        RecipientAmountProfiles original = profiles(dir.resolve("a.snap"));
+        original.recordAccepted(11, "12345678909", 1_500);
+        original.recordAccepted(11, "12345678909", 2_500);
+        original.recordAccepted(12, null, 99_000);
+        original.recordAccepted(0, "98765432100", 700);
+
+        RecipientAmountProfiles copy = profiles(dir.resolve("b.snap"));
+        assertThat(copy.merge(export(original))).isEqualTo(4);
+
+        assertThat(copy.size()).isEqualTo(original.size());
+        assertThat(copy.lookup(11, null)).isEqualTo(original.lookup(11, null));
+        assertThat(copy.lookup(12, null)).isEqualTo(original.lookup(12, null));
+        assertThat(copy.lookup(0, "12345678909")).isEqualTo(original.lookup(0, "12345678909"));
+        assertThat(copy.lookup(0, "98765432100")).isEqualTo(original.lookup(0, "98765432100"));
+    }
+
+    @Test
+    void snapshotFileIsRestoredOnStartup() {
+        Path file = dir.resolve("profiles/amount-profiles.snap");
+        RecipientAmountProfiles before = profiles(file);
+        for (int i = 1; i <= 20; i++) before.recordAccepted(21, "12345678909", i * 1_000L);
+        before.close();
+
+        RecipientAmountProfiles after = profiles(file);
+        after.restore();
+
+        assertThat(after.size()).isEqualTo(2);
+        assertThat(after.lookup(21, null)).isEqualTo(before.lookup(21, null));
+        assertThat(after.lookup(0, "12345678909").samples()).isEqualTo(20);
+    }
+
+    @Test
+    void mergedExportsMatchInstanceThatSawEverything() throws IOException {
+        RecipientAmountProfiles a = profiles(dir.resolve("a.snap"));
+        RecipientAmountProfiles b = profiles(dir.resolve("b.snap"));
+        RecipientAmountProfiles union = profiles(dir.resolve("u.snap"));
+        for (int i = 1; i <= 40; i++) {
+            a.recordAccepted(31, null, 1_000L + i * 37);
+            union.recordAccepted(31, null, 1_000L + i * 37);
+        }
+        for (int i = 1; i <= 25; i++) {
+            b.recordAccepted(31, null, 80_000L + i * 1_013);
+            union.recordAccepted(31, null, 80_000L + i * 1_013);
+        }
+
+        RecipientAmountProfiles merged = profiles(dir.resolve("m.snap"));
+        merged.merge(export(a));
+        merged.merge(export(b));
+
+        AmountProfileStore.Profile actual = merged.lookup(31, null);
+        AmountProfileStore.Profile expected = union.lookup(31, null);
+        assertThat(actual.samples()).isEqualTo(65);
+        assertThat(actual.logMean()).isCloseTo(expected.logMean(), within(1e-9));
+        assertThat(actual.logStdDev()).isCloseTo(expected.logStdDev(), within(1e-9));
+        assertThat(actual.lowCents()).isEqualTo(expected.lowCents());
+        assertThat(actual.highCents()).isEqualTo(expected.highCents());
+    }
+
+    @Test
+    void corruptedOrTruncatedDataIsRejectedWithoutChanges() throws IOException {
+        RecipientAmountProfiles source = profiles(dir.resolve("a.snap"));
+        source.recordAccepted(41, "12345678909", 5_000);
+        byte[] data = export(source);
+
+        RecipientAmountProfiles target = profiles(dir.resolve("b.snap"));
+        byte[] corrupted = data.clone();
+        corrupted[12] ^= 1;
+        assertThatThrownBy(() -> target.merge(corrupted))
+                .isInstanceOf(IOException.class).hasMessageContaining("Checksum");
+        assertThatThrownBy(() -> target.merge(Arrays.copyOf(data, data.length - 1)))
+                .isInstanceOf(IOException.class);
+        assertThatThrownBy(() -> target.merge(new byte[5]))
+                .isInstanceOf(IOException.class).hasMessageContaining("truncado");
+        assertThat(target.size()).isZero();
+        assertThat(target.lookup(41, null)).isNull();
+    }
+
+    private static RecipientAmountProfiles profiles(Path file) {
+        return new RecipientAmountProfiles(new SimpleMeterRegistry(), true, 1024, file);
+    }
+
+    private static byte[] export(RecipientAmountProfiles profiles) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        profiles.export(output);
+        return output.toByteArray();
+    }
+}
@@ -0,0 +1,55 @@
+package br.com.bradesco.safeboleto.services.scoring;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Limites da regra de valor suspeito ({@link RiskRules#checkSuspiciousAmount}), com o valor já em centavos.
+ */
+class RiskRulesTest {
+
+    @ParameterizedTest
+    @ValueSource(longs = {0, -1, -100_000, Long.MIN_VALUE})
+    void zeroOrNegativeIsNotInformed(long cents) {
+        assertThat(RiskRules.checkSuspiciousAmount(cents)).isEqualTo("Valor da transação não informado.");
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = {100, 15_000, 89_999, 90_000, 90_100, 99_998, 100_000})
+    void ordinaryAmountsPass(long cents) {
+        assertThat(RiskRules.checkSuspiciousAmount(cents)).isNull();
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            // Abaixo de R$ 1,00
+            "1,                   Valor muito baixo",
+            "99,                  Valor muito baixo",
+            // Centavos 99 entre R$ 900,00 e R$ 1.000,00 (exclusivo)
+            "90099,               Valor suspeito próximo ao limite",
+            "99999,               Valor suspeito próximo ao limite",
+            // Limite noturno: acima de R$ 1.000,00
+            "100001,              Valor acima do limite PIX noturno",
+            "1000000,             Valor acima do limite PIX noturno",
+            // Acima de R$ 10.000,00
+            "1000001,             Valor extremamente alto",
+            "9223372036854775807, Valor extremamente alto"
+    })
+    void flagsAmountsAtTheBoundaries(long cents, String reason) {
+        assertThat(RiskRules.checkSuspiciousAmount(cents)).startsWith(reason);
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "99,                  'R$ 0,99'",
+            "99999,               'R$ 999,99'",
+            "1000001,             'R$ 10.000,01'",
+            "9223372036854775807, 'R$ 92.233.720.368.547.758,07'"
+    })
+    void reasonShowsExactAmount(long cents, String formatted) {
+        assertThat(RiskRules.checkSuspiciousAmount(cents)).contains(formatted);
+    }
+}
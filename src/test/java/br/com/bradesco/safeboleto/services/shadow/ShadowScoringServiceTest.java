@@ -0,0 +1,95 @@
+package br.com.bradesco.safeboleto.services.shadow;
+
+import br.com.bradesco.safeboleto.dto.PixValidationResponse;
+import br.com.bradesco.safeboleto.dto.ShadowScoringResponse;
+import br.com.bradesco.safeboleto.services.PixService;
+import br.com.bradesco.safeboleto.util.PixKeyCodec;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Modo sombra com um candidato que dá peso 50 à lista negra de chaves (aprovação abaixo de 80): em produção a
+ * lista negra já leva o score ao máximo, mas o histórico da chave ainda precisa ser consultado para o candidato.
+ * O histórico é gravado fora de transação (a consulta roda em outra conexão) e removido ao final.
+ */
+@SpringBootTest(properties = {
+        "app.shadow.candidates.lista-negra-50.key-blacklist=50",
+        "app.shadow.candidates.lista-negra-50.unknown-bank=0",
+        "app.shadow.candidates.lista-negra-50.key-document-mismatch=0",
+        "app.shadow.candidates.lista-negra-50.approval-threshold=80"
+})
+@ActiveProfiles("h2")
+class ShadowScoringServiceTest {
+
+    private static final String KEY = "golpe@teste.com";
+
+    @Autowired
+    private PixService pixService;
+
+    @Autowired
+    private ShadowScoringService shadowScoring;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long lastValidationId;
+    private long lastOutboxId;
+
+    @BeforeEach
+    void rememberIds() {
+        lastValidationId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM pix_validations", Long.class);
+        lastOutboxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM validation_outbox", Long.class);
+    }
+
+    @AfterEach
+    void removeRows() {
+        jdbcTemplate.update("DELETE FROM pix_validations WHERE id > ?", lastValidationId);
+        jdbcTemplate.update("DELETE FROM validation_outbox WHERE id > ?", lastOutboxId);
+    }
+
+    @Test
+    void candidateWithLowerBlacklistWeightSeesKeyHistory() throws InterruptedException {
+        long keyHash = PixKeyCodec.encode(KEY);
+        for (int i = 0; i < 3; i++) {
+            jdbcTemplate.update("INSERT INTO pix_validations (pix_key, pix_key_type, is_valid, fraud_reason, "
+                            + "validation_timestamp, key_hash) VALUES (?, 'EMAIL', FALSE, 'teste', ?, ?)",
+                    KEY, Timestamp.valueOf(LocalDateTime.now()), keyHash);
+        }
+        ShadowScoringResponse.CandidateStats before = candidate();
+
+        PixValidationResponse response = pixService.validatePix(KEY, "Maria Souza", null, 10_000, "001", null);
+        assertThat(response.isValid()).isFalse();
+
+        ShadowScoringResponse.CandidateStats after = awaitEvaluated(before.evaluated() + 1);
+        // Lista negra (50) + histórico de 3 rejeições (40): o candidato também rejeita
+        assertThat(after.rejectedToApproved()).isEqualTo(before.rejectedToApproved());
+        assertThat(after.approvedToRejected()).isEqualTo(before.approvedToRejected());
+    }
+
+    private ShadowScoringResponse.CandidateStats awaitEvaluated(long evaluated) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        ShadowScoringResponse.CandidateStats stats = candidate();
+        while (stats.evaluated() < evaluated && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            stats = candidate();
+        }
+        assertThat(stats.evaluated()).isEqualTo(evaluated);
+        return stats;
+    }
+
+    private ShadowScoringResponse.CandidateStats candidate() {
+        return shadowScoring.snapshot().candidates().stream()
+                .filter(c -> c.name().equals("lista-negra-50"))
+                .findFirst().orElseThrow();
+    }
+}
@@ -0,0 +1,96 @@
+package br.com.bradesco.safeboleto.util;
+
+import br.com.bradesco.safeboleto.dto.PixValidationRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Conversão exata entre reais (JSON) e centavos: sem {@code double} e sem arredondamento
+ * ({@link java.math.RoundingMode#UNNECESSARY}).
+ */
+class CentsTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @ParameterizedTest
+    @CsvSource({
+            "150.5,      15050",
+            "150.50,     15050",
+            "150.500,    15050",
+            "150,        15000",
+            "0.01,       1",
+            "0.1,        10",
+            "1e2,        10000",
+            "'\"150.50\"', 15050",
+            "'\" 0.07 \"', 7",
+            "-0.05,      -5",
+            "92233720368547758.07, 9223372036854775807"
+    })
+    void readsReaisAsExactCents(String amount, long cents) throws Exception {
+        assertThat(read(amount).getAmount()).isEqualTo(cents);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            // Mais de duas casas: recusado, nunca arredondado
+            "150.505", "0.001", "999.999", "'\"10.015\"'",
+            // Fora do alcance de um long
+            "92233720368547758.08", "1e30",
+            // Texto que não é número
+            "'\"abc\"'", "'\"\"'"
+    })
+    void rejectsAmountsThatAreNotExactCents(String amount) {
+        assertThatThrownBy(() -> read(amount.replace("'", "")))
+                .isInstanceOf(InvalidFormatException.class)
+                .hasMessageContaining("Valor em reais inválido");
+    }
+
+    @Test
+    void rejectsNonNumericTokens() {
+        assertThatThrownBy(() -> read("true")).isInstanceOf(MismatchedInputException.class);
+        assertThatThrownBy(() -> read("[1]")).isInstanceOf(MismatchedInputException.class);
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "15050,               150.50",
+            "0,                   0.00",
+            "7,                   0.07",
+            "-5,                  -0.05",
+            "9223372036854775807, 92233720368547758.07"
+    })
+    void writesCentsAsReaisWithTwoDecimals(long cents, String json) throws Exception {
+        PixValidationRequest request = new PixValidationRequest();
+        request.setAmount(cents);
+
+        String written = mapper.writeValueAsString(request);
+
+        assertThat(written).contains("\"amount\":" + json);
+        assertThat(mapper.readValue(written, PixValidationRequest.class).getAmount()).isEqualTo(cents);
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "1500000,              '15.000,00'",
+            "99,                   '0,99'",
+            "100005,               '1.000,05'",
+            "-5,                   '-0,05'",
+            "9223372036854775807,  '92.233.720.368.547.758,07'",
+            "-9223372036854775808, '-92.233.720.368.547.758,08'"
+    })
+    void formatsInBrazilianNotation(long cents, String formatted) {
+        assertThat(Cents.format(cents)).isEqualTo(formatted);
+    }
+
+    private PixValidationRequest read(String amount) throws Exception {
+        return mapper.readValue("{\"amount\": " + amount + "}", PixValidationRequest.class);
+    }
+}
@@ -0,0 +1,85 @@
+package br.com.bradesco.safeboleto.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Mapa long -> int com endereçamento aberto: chave 0, crescimento além do tamanho esperado e
+ * {@code computeIfAbsent} chamado uma vez por chave mesmo com várias threads.
+ */
+class ConcurrentLongIntMapTest {
+
+    @Test
+    void keepsValuesIncludingZeroKey() {
+        ConcurrentLongIntMap map = new ConcurrentLongIntMap(16);
+        assertThat(map.get(0L, -1)).isEqualTo(-1);
+
+        map.put(0L, 7);
+        map.put(42L, 1);
+        assertThat(map.addAndGet(42L, 2)).isEqualTo(3);
+        assertThat(map.addAndGet(-5L, 4)).isEqualTo(4);
+
+        assertThat(map.get(0L, -1)).isEqualTo(7);
+        assertThat(map.get(42L, -1)).isEqualTo(3);
+        assertThat(map.size()).isEqualTo(3);
+
+        Map<Long, Integer> seen = new HashMap<>();
+        map.forEach(seen::put);
+        assertThat(seen).containsOnly(Map.entry(0L, 7), Map.entry(42L, 3), Map.entry(-5L, 4));
+
+        map.clear();
+        assertThat(map.size()).isZero();
+        assertThat(map.get(42L, -1)).isEqualTo(-1);
+    }
+
+    @Test
+    void growsBeyondExpectedSize() {
+        ConcurrentLongIntMap map = new ConcurrentLongIntMap(16);
+        for (int i = 1; i <= 100_000; i++) {
+            map.put(i * 0x9E3779B97F4A7C15L, i);
+        }
+
+        assertThat(map.size()).isEqualTo(100_000);
+        for (int i = 1; i <= 100_000; i++) {
+            assertThat(map.get(i * 0x9E3779B97F4A7C15L, -1)).isEqualTo(i);
+        }
+    }
+
+    @Test
+    void computeIfAbsentRunsOncePerKeyUnderContention() throws Exception {
+        ConcurrentLongIntMap map = new ConcurrentLongIntMap();
+        AtomicInteger calls = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            Future<?>[] tasks = new Future<?>[8];
+            for (int t = 0; t < tasks.length; t++) {
+                tasks[t] = executor.submit(() -> {
+                    for (long key = 0; key < 10_000; key++) {
+                        map.computeIfAbsent(key, k -> calls.getAndIncrement());
+                    }
+                });
+            }
+            for (Future<?> task : tasks) {
+                task.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        // Ids sequenciais sem buracos: cada chave ganhou exatamente um
+        assertThat(calls.get()).isEqualTo(10_000);
+        assertThat(map.size()).isEqualTo(10_000);
+        boolean[] ids = new boolean[10_000];
+        map.forEach((key, id) -> ids[id] = true);
+        assertThat(ids).containsOnly(true);
+    }
+}
@@ -0,0 +1,83 @@
+package br.com.bradesco.safeboleto.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Dono das chaves no anel: independente da ordem dos membros, equilibrado e estável quando um membro entra.
+ */
+class ConsistentHashRingTest {
+
+    private static final List<String> MEMBERS =
+            List.of("http://a:8080", "http://b:8080", "http://c:8080", "http://d:8080");
+    private static final int KEYS = 100_000;
+
+    @Test
+    void ownerDoesNotDependOnMemberOrder() {
+        ConsistentHashRing ring = ConsistentHashRing.of(MEMBERS, 128);
+        ConsistentHashRing reordered = ConsistentHashRing.of(
+                List.of("http://d:8080", "http://b:8080", "http://a:8080", "http://c:8080", "http://b:8080"), 128);
+
+        assertThat(reordered.members()).isEqualTo(ring.members());
+        for (long key = 0; key < KEYS; key++) {
+            assertThat(reordered.owner(key)).isEqualTo(ring.owner(key));
+        }
+    }
+
+    @Test
+    void sequentialKeysAreSpreadEvenly() {
+        ConsistentHashRing ring = ConsistentHashRing.of(MEMBERS, 128);
+        Map<String, Integer> owned = new HashMap<>();
+        // Códigos de CPF consecutivos (mesmo tipo nos bits altos)
+        for (long key = 0; key < KEYS; key++) {
+            owned.merge(ring.owner((1L << 60) | key), 1, Integer::sum);
+        }
+
+        assertThat(owned).containsOnlyKeys(MEMBERS);
+        // Com 128 pontos por membro, cada um fica perto de 1/4 das chaves
+        assertThat(owned.values()).allSatisfy(count -> assertThat(count).isBetween(KEYS / 4 * 7 / 10, KEYS / 4 * 13 / 10));
+    }
+
+    @Test
+    void newMemberOnlyTakesKeys() {
+        ConsistentHashRing before = ConsistentHashRing.of(MEMBERS, 128);
+        ConsistentHashRing after = ConsistentHashRing.of(
+                List.of("http://a:8080", "http://b:8080", "http://c:8080", "http://d:8080", "http://e:8080"), 128);
+
+        int moved = 0;
+        for (long key = 0; key < KEYS; key++) {
+            String owner = after.owner(key);
+            if (!owner.equals(before.owner(key))) {
+                // Chave que mudou de dono vai sempre para o membro novo
+                assertThat(owner).isEqualTo("http://e:8080");
+                moved++;
+            }
+        }
+        assertThat(moved).isBetween(KEYS / 5 / 2, KEYS / 5 * 2);
+    }
+
+    @Test
+    void singleMemberOwnsEverything() {
+        ConsistentHashRing ring = ConsistentHashRing.of(List.of("http://a:8080"), 1);
+
+        assertThat(ring.owner(Long.MIN_VALUE)).isEqualTo("http://a:8080");
+        assertThat(ring.owner(0)).isEqualTo("http://a:8080");
+        assertThat(ring.owner(Long.MAX_VALUE)).isEqualTo("http://a:8080");
+    }
+
+    @Test
+    void emptyRingHasNoOwner() {
+        assertThat(ConsistentHashRing.of(List.of(), 128).owner(42)).isNull();
+    }
+
+    @Test
+    void rejectsNonPositiveVirtualNodes() {
+        assertThatThrownBy(() -> ConsistentHashRing.of(MEMBERS, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
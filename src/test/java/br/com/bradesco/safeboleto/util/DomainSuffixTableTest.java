@@ -0,0 +1,106 @@
+package br.com.bradesco.safeboleto.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Busca por sufixo de rótulo (o sufixo listado mais específico vale), sem diferenciar maiúsculas, e as entradas
+ * com o bit de presença e o risco na mesma palavra.
+ */
+class DomainSuffixTableTest {
+
+    private final DomainSuffixTable table = DomainSuffixTable.of(Map.of(
+            "mailinator.com", 90,
+            "safe.mailinator.com", 0,
+            "temp-mail.org", 100));
+
+    @Test
+    void mostSpecificListedSuffixWins() {
+        assertThat(riskOf("mailinator.com")).isEqualTo(90);
+        assertThat(riskOf("x.y.mailinator.com")).isEqualTo(90);
+        // Exceção com risco 0: a entrada existe (bit de presença) e vale mais que o domínio pai
+        assertThat(riskOf("safe.mailinator.com")).isZero();
+        assertThat(riskOf("a.safe.mailinator.com")).isZero();
+        assertThat(riskOf("temp-mail.org")).isEqualTo(100);
+
+        String host = "a.safe.mailinator.com";
+        assertThat(table.find(host, 0, host.length()) >>> 32).isEqualTo(host.indexOf("safe"));
+    }
+
+    @Test
+    void matchesOnlyAtLabelBoundaries() {
+        assertThat(riskOf("notmailinator.com")).isEqualTo(-1);
+        assertThat(riskOf("mailinator.com.br")).isEqualTo(-1);
+        assertThat(riskOf("com")).isEqualTo(-1);
+        assertThat(riskOf("gmail.com")).isEqualTo(-1);
+    }
+
+    @Test
+    void ignoresCaseAndSearchesInsideRange() {
+        assertThat(riskOf("X.MailInator.COM")).isEqualTo(90);
+
+        String email = "fulano@Temp-Mail.org";
+        long found = table.find(email, email.indexOf('@') + 1, email.length());
+        assertThat(found & 0xFFFFFFFFL).isEqualTo(100);
+        assertThat(found >>> 32).isEqualTo(email.indexOf('@') + 1);
+    }
+
+    @Test
+    void sameDomainWithDifferentCaseKeepsHighestRisk() {
+        // Mesmo hash (a tabela não diferencia maiúsculas): uma entrada só, com o maior risco
+        Map<String, Integer> domains = new LinkedHashMap<>();
+        domains.put("golpe.com", 30);
+        domains.put("GOLPE.com", 80);
+        domains.put("Golpe.COM", 10);
+        DomainSuffixTable collided = DomainSuffixTable.of(domains);
+
+        assertThat(collided.size()).isEqualTo(1);
+        assertThat(collided.find("golpe.com", 0, 9) & 0xFFFFFFFFL).isEqualTo(80);
+    }
+
+    @Test
+    void emptyTablesFindNothing() {
+        assertThat(DomainSuffixTable.EMPTY.find("mailinator.com", 0, 14)).isEqualTo(-1);
+        assertThat(DomainSuffixTable.EMPTY.size()).isZero();
+        DomainSuffixTable empty = DomainSuffixTable.of(Map.of());
+        assertThat(empty.find("mailinator.com", 0, 14)).isEqualTo(-1);
+    }
+
+    @Test
+    void largeTableFindsEveryDomain() {
+        Map<String, Integer> domains = new HashMap<>();
+        for (int i = 0; i < 50_000; i++) {
+            domains.put("d" + i + ".example", i % 101);
+        }
+        DomainSuffixTable large = DomainSuffixTable.of(domains);
+
+        assertThat(large.size()).isEqualTo(50_000);
+        domains.forEach((domain, risk) -> {
+            String host = "mx." + domain;
+            assertThat(large.find(host, 0, host.length()) & 0xFFFFFFFFL).isEqualTo((long) risk);
+        });
+        assertThat(large.find("example", 0, 7)).isEqualTo(-1);
+    }
+
+    @Test
+    void rejectsRiskOutOfRangeAndNormalizesWildcards() {
+        assertThatThrownBy(() -> DomainSuffixTable.of(Map.of("a.com", 101)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> DomainSuffixTable.of(Map.of("a.com", -1)))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(DomainSuffixTable.normalize(" *.Mailinator.COM. ")).isEqualTo("mailinator.com");
+        assertThat(DomainSuffixTable.normalize(".temp-mail.org")).isEqualTo("temp-mail.org");
+    }
+
+    private int riskOf(String host) {
+        long found = table.find(host, 0, host.length());
+        return found < 0 ? -1 : (int) found;
+    }
+}
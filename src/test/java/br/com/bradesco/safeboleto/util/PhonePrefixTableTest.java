@@ -0,0 +1,87 @@
+package br.com.bradesco.safeboleto.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Achatamento das faixas em segmentos disjuntos (a faixa mais estreita vale) e busca pelo número E.164.
+ */
+class PhonePrefixTableTest {
+
+    @Test
+    void narrowestRangeWinsInsideNestedRanges() {
+        PhonePrefixTable table = PhonePrefixTable.of(List.of(
+                new PhonePrefixTable.Range("55", "55", 10, "Brasil"),
+                new PhonePrefixTable.Range("5511", "5511", 40, "São Paulo"),
+                new PhonePrefixTable.Range("551199", "551199", 0, "Exceção")));
+
+        assertThat(riskOf(table, 5521987654321L)).isEqualTo(10);
+        assertThat(riskOf(table, 5511987654321L)).isEqualTo(40);
+        assertThat(riskOf(table, 5511998765432L)).isEqualTo(0);
+        assertThat(labelOf(table, 5511998765432L)).isEqualTo("Exceção");
+        // Depois da faixa mais estreita volta a valer a que a contém
+        assertThat(riskOf(table, 551134567890L)).isEqualTo(40);
+        assertThat(table.find(14155552671L)).isEqualTo(-1);
+        assertThat(table.size()).isEqualTo(3);
+    }
+
+    @Test
+    void overlappingRangesSplitAtTheirBounds() {
+        PhonePrefixTable table = PhonePrefixTable.of(List.of(
+                new PhonePrefixTable.Range("5511900", "5511949", 30, "A"),
+                new PhonePrefixTable.Range("5511930", "5511999", 60, "B")));
+
+        assertThat(labelOf(table, 5511900000000L)).isEqualTo("A");
+        // Sobreposição: A (50 prefixos) é mais estreita que B (70)
+        assertThat(labelOf(table, 5511935000000L)).isEqualTo("A");
+        assertThat(labelOf(table, 5511949999999L)).isEqualTo("A");
+        assertThat(labelOf(table, 5511950000000L)).isEqualTo("B");
+        assertThat(labelOf(table, 5511999999999L)).isEqualTo("B");
+        assertThat(table.find(5511899999999L)).isEqualTo(-1);
+        assertThat(table.find(5512000000000L)).isEqualTo(-1);
+    }
+
+    @Test
+    void prefixCoversNumbersOfAnyLength() {
+        PhonePrefixTable table = PhonePrefixTable.of(List.of(
+                new PhonePrefixTable.Range("1415", "1415", 50, "San Francisco")));
+
+        assertThat(riskOf(table, 14155552671L)).isEqualTo(50);
+        assertThat(riskOf(table, 141555526710000L)).isEqualTo(50);
+        assertThat(table.find(14165552671L)).isEqualTo(-1);
+        assertThat(table.find(0)).isEqualTo(-1);
+        assertThat(table.find(1_000_000_000_000_000L)).isEqualTo(-1);
+    }
+
+    @Test
+    void emptyTableFindsNothing() {
+        assertThat(PhonePrefixTable.of(List.of()).find(5511987654321L)).isEqualTo(-1);
+        assertThat(PhonePrefixTable.EMPTY.find(5511987654321L)).isEqualTo(-1);
+    }
+
+    @Test
+    void rejectsInvalidRanges() {
+        assertThatThrownBy(() -> PhonePrefixTable.of(List.of(new PhonePrefixTable.Range("55", "55", 101, "X"))))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> PhonePrefixTable.of(List.of(new PhonePrefixTable.Range("5512", "5511", 10, "X"))))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> PhonePrefixTable.of(List.of(new PhonePrefixTable.Range("55a", "55a", 10, "X"))))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static int riskOf(PhonePrefixTable table, long number) {
+        int index = table.find(number);
+        assertThat(index).isNotNegative();
+        return table.risk(index);
+    }
+
+    private static String labelOf(PhonePrefixTable table, long number) {
+        int index = table.find(number);
+        assertThat(index).isNotNegative();
+        return table.label(index);
+    }
+}
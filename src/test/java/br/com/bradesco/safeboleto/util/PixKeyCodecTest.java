@@ -0,0 +1,62 @@
+package br.com.bradesco.safeboleto.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Normalização de telefones para E.164 ({@link PixKeyCodec#normalizePhone}).
+ */
+class PixKeyCodecTest {
+
+    @ParameterizedTest
+    @CsvSource({
+            "+5511987654321,     +5511987654321",
+            "5511987654321,      +5511987654321",
+            "'+55 (11) 98765-4321', +5511987654321",
+            "'(11) 98765-4321',  +5511987654321",
+            "'(11) 3456-7890',   +551134567890",
+            "005511987654321,    +5511987654321",
+            "011987654321,       +5511987654321",
+            "01511987654321,     +5511987654321",
+            "'0 11 3456-7890',   +551134567890",
+            "+14155552671,       +14155552671",
+            "'  +5561987654321 ', +5561987654321",
+            "+5599987654321,     +5599987654321"
+    })
+    void normalizesToE164(String input, String expected) {
+        assertThat(PixKeyCodec.normalizePhone(input)).isEqualTo(expected);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            // DDDs não atribuídos pela ANATEL
+            "+5510987654321", "+5520987654321", "+5523987654321", "+5525987654321", "+5526987654321",
+            "+5529987654321", "+5536987654321", "+5539987654321", "+5552987654321", "+5556987654321",
+            "+5559987654321", "+5572987654321", "+5576987654321", "+5578987654321", "+5590987654321",
+            // Celular sem o 9, tamanho errado
+            "+5511887654321", "+55119876543", "+551198765432100",
+            // Caracteres fora do formato, código do país começando por 0
+            "+55.11.98765-4321", "+0511987654321", "chave@exemplo.com", ""
+    })
+    void rejectsInvalidPhones(String input) {
+        assertThat(PixKeyCodec.normalizePhone(input)).isNull();
+    }
+
+    @Test
+    void elevenPlainDigitsAreCpf() {
+        // DDD + celular sem formatação e sem código do país tem o formato de um CPF
+        assertThat(PixKeyCodec.detectType("11987654321")).isEqualTo(PixKeyCodec.CPF);
+        assertThat(PixKeyCodec.detectType("(11) 98765-4321")).isEqualTo(PixKeyCodec.PHONE);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"+5511987654321", "5511987654321", "+55 (11) 98765-4321", "011987654321"})
+    void sameNumberHasSameCode(String input) {
+        assertThat(PixKeyCodec.detectType(input)).isEqualTo(PixKeyCodec.PHONE);
+        assertThat(PixKeyCodec.encode(input)).isEqualTo(PixKeyCodec.encode("+5511987654321"));
+    }
+}